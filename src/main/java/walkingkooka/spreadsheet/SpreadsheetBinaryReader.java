@@ -0,0 +1,368 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.spreadsheet;
+
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.spreadsheet.parser.SpreadsheetParserToken;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+import walkingkooka.spreadsheet.reference.SpreadsheetReferenceKind;
+import walkingkooka.spreadsheet.reference.SpreadsheetSelection;
+import walkingkooka.tree.expression.Expression;
+import walkingkooka.tree.expression.ExpressionNumberKind;
+import walkingkooka.tree.json.JsonNode;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
+import walkingkooka.tree.text.TextNode;
+import walkingkooka.tree.text.TextStyle;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Reads {@link SpreadsheetCell cells} and their parts written by a {@link SpreadsheetBinaryWriter}. Each read must
+ * match the write that produced the bytes, and the table of shared values is rebuilt as the bytes are read.
+ */
+public final class SpreadsheetBinaryReader {
+
+    /**
+     * Creates a new {@link SpreadsheetBinaryReader} that reads the given bytes from the start.
+     */
+    public static SpreadsheetBinaryReader with(final byte[] bytes,
+                                               final JsonNodeUnmarshallContext context) {
+        Objects.requireNonNull(bytes, "bytes");
+        Objects.requireNonNull(context, "context");
+
+        return new SpreadsheetBinaryReader(bytes, context);
+    }
+
+    private SpreadsheetBinaryReader(final byte[] bytes,
+                                    final JsonNodeUnmarshallContext context) {
+        super();
+        this.bytes = bytes;
+        this.context = context;
+    }
+
+    // cell.............................................................................................................
+
+    public SpreadsheetCell readCell() {
+        final int flags = this.readVarint();
+        final SpreadsheetCellReference reference = this.readCellReference();
+
+        SpreadsheetFormula formula = SpreadsheetFormula.with(this.readString());
+        if (isSet(flags, SpreadsheetBinaryWriter.TOKEN)) {
+            formula = formula.setToken(Optional.of(this.<SpreadsheetParserToken>readJson()));
+        }
+        if (isSet(flags, SpreadsheetBinaryWriter.EXPRESSION)) {
+            formula = formula.setExpression(Optional.of(this.<Expression>readJson()));
+        }
+        if (isSet(flags, SpreadsheetBinaryWriter.VALUE)) {
+            formula = formula.setValue(Optional.of(this.readValue()));
+        }
+        if (isSet(flags, SpreadsheetBinaryWriter.ERROR)) {
+            formula = formula.setError(Optional.of(SpreadsheetError.with(this.readString())));
+        }
+
+        SpreadsheetCell cell = SpreadsheetCell.with(reference, formula);
+        if (isSet(flags, SpreadsheetBinaryWriter.STYLE)) {
+            cell = cell.setStyle(this.<TextStyle>readShared());
+        }
+        if (isSet(flags, SpreadsheetBinaryWriter.FORMAT)) {
+            cell = cell.setFormat(Optional.of(this.<SpreadsheetCellFormat>readShared()));
+        }
+        if (isSet(flags, SpreadsheetBinaryWriter.FORMATTED)) {
+            cell = cell.setFormatted(Optional.of(this.readTextNode()));
+        }
+        return cell;
+    }
+
+    private static boolean isSet(final int flags,
+                                 final int flag) {
+        return 0 != (flags & flag);
+    }
+
+    // references.......................................................................................................
+
+    public SpreadsheetCellReference readCellReference() {
+        final int flags = this.readVarint();
+        return kind(flags, SpreadsheetBinaryWriter.COLUMN_ABSOLUTE).column(this.readVarint())
+                .setRow(kind(flags, SpreadsheetBinaryWriter.ROW_ABSOLUTE).row(this.readVarint()));
+    }
+
+    private static SpreadsheetReferenceKind kind(final int flags,
+                                                 final int flag) {
+        return isSet(flags, flag) ?
+                SpreadsheetReferenceKind.ABSOLUTE :
+                SpreadsheetReferenceKind.RELATIVE;
+    }
+
+    public SpreadsheetRange readRange() {
+        final SpreadsheetCellReference begin = this.readCellReference();
+        return begin.spreadsheetRange(this.readCellReference());
+    }
+
+    public SpreadsheetLabelName readLabelName() {
+        return SpreadsheetSelection.labelName(this.readSharedString());
+    }
+
+    // values...........................................................................................................
+
+    public Object readValue() {
+        final byte tag = this.readByte();
+        final Object value;
+
+        switch (tag) {
+            case SpreadsheetBinaryWriter.BIG_DECIMAL:
+                value = this.readBigDecimal();
+                break;
+            case SpreadsheetBinaryWriter.BIG_INTEGER:
+                value = new BigInteger(this.readBytes());
+                break;
+            case SpreadsheetBinaryWriter.BOOLEAN_FALSE:
+                value = Boolean.FALSE;
+                break;
+            case SpreadsheetBinaryWriter.BOOLEAN_TRUE:
+                value = Boolean.TRUE;
+                break;
+            case SpreadsheetBinaryWriter.BYTE:
+                value = this.readByte();
+                break;
+            case SpreadsheetBinaryWriter.DOUBLE:
+                value = this.readDouble();
+                break;
+            case SpreadsheetBinaryWriter.FLOAT:
+                value = this.readFloat();
+                break;
+            case SpreadsheetBinaryWriter.INTEGER:
+                value = this.readSignedVarint();
+                break;
+            case SpreadsheetBinaryWriter.LOCAL_DATE:
+                value = LocalDate.ofEpochDay(this.readSignedVarlong());
+                break;
+            case SpreadsheetBinaryWriter.LOCAL_DATE_TIME:
+                final LocalDate date = LocalDate.ofEpochDay(this.readSignedVarlong());
+                value = LocalDateTime.of(date, LocalTime.ofNanoOfDay(this.readSignedVarlong()));
+                break;
+            case SpreadsheetBinaryWriter.LOCAL_TIME:
+                value = LocalTime.ofNanoOfDay(this.readSignedVarlong());
+                break;
+            case SpreadsheetBinaryWriter.LONG:
+                value = this.readSignedVarlong();
+                break;
+            case SpreadsheetBinaryWriter.SHORT:
+                value = (short) this.readSignedVarint();
+                break;
+            case SpreadsheetBinaryWriter.STRING:
+                value = this.readString();
+                break;
+            case SpreadsheetBinaryWriter.JSON:
+                value = this.readJson();
+                break;
+            case SpreadsheetBinaryWriter.EXPRESSION_NUMBER_BIG_DECIMAL:
+                value = ExpressionNumberKind.BIG_DECIMAL.create(this.readBigDecimal());
+                break;
+            case SpreadsheetBinaryWriter.EXPRESSION_NUMBER_DOUBLE:
+                value = ExpressionNumberKind.DOUBLE.create(this.readDouble());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown value tag " + tag + " at " + (this.position - 1));
+        }
+
+        return value;
+    }
+
+    private BigDecimal readBigDecimal() {
+        final int scale = this.readSignedVarint();
+        return new BigDecimal(new BigInteger(this.readBytes()), scale);
+    }
+
+    /**
+     * Reads a {@link TextNode} written by {@link SpreadsheetBinaryWriter#writeTextNode(TextNode)}.
+     */
+    public TextNode readTextNode() {
+        final byte tag = this.readByte();
+        final TextNode node;
+
+        switch (tag) {
+            case SpreadsheetBinaryWriter.STRING:
+                node = TextNode.text(this.readString());
+                break;
+            case SpreadsheetBinaryWriter.JSON:
+                node = this.readJson();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown text tag " + tag + " at " + (this.position - 1));
+        }
+
+        return node;
+    }
+
+    /**
+     * Reads typed JSON text and unmarshalls it.
+     */
+    public <T> T readJson() {
+        return this.context.unmarshallWithType(JsonNode.parse(this.readString()));
+    }
+
+    /**
+     * Reads a table index, reading the typed JSON value the first time the index appears.
+     */
+    public <T> T readShared() {
+        final List<Object> table = this.table;
+        final int index = this.readIndex();
+
+        if (index == table.size()) {
+            table.add(this.readJson());
+        }
+        return Cast.to(table.get(index));
+    }
+
+    /**
+     * Reads a table index, reading the text the first time the index appears.
+     */
+    public String readSharedString() {
+        final List<Object> table = this.table;
+        final int index = this.readIndex();
+
+        if (index == table.size()) {
+            table.add(this.readString());
+        }
+        return (String) table.get(index);
+    }
+
+    private int readIndex() {
+        final int index = this.readVarint();
+        if (index > this.table.size()) {
+            throw new IllegalArgumentException("Invalid table index " + index + " > " + this.table.size());
+        }
+        return index;
+    }
+
+    /**
+     * Values read by their index.
+     */
+    private final List<Object> table = Lists.array();
+
+    // primitives.......................................................................................................
+
+    public byte readByte() {
+        this.require(1);
+        return this.bytes[this.position++];
+    }
+
+    public byte[] readBytes() {
+        final int length = this.readVarint();
+        this.require(length);
+
+        final int position = this.position;
+        final byte[] bytes = new byte[length];
+        System.arraycopy(this.bytes, position, bytes, 0, length);
+        this.position = position + length;
+        return bytes;
+    }
+
+    public double readDouble() {
+        return Double.longBitsToDouble(this.readFixed(Long.BYTES));
+    }
+
+    public float readFloat() {
+        return Float.intBitsToFloat((int) this.readFixed(Integer.BYTES));
+    }
+
+    private long readFixed(final int count) {
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            value = (value << 8) | (this.readByte() & 0xFF);
+        }
+        return value;
+    }
+
+    public String readString() {
+        final int length = this.readVarint();
+        this.require(length);
+
+        final int position = this.position;
+        this.position = position + length;
+        return new String(this.bytes, position, length, StandardCharsets.UTF_8);
+    }
+
+    public int readVarint() {
+        final long value = this.readVarlong();
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid varint " + value + " at " + this.position);
+        }
+        return (int) value;
+    }
+
+    public int readSignedVarint() {
+        final long value = this.readVarlong();
+        return (int) (value >>> 1) ^ -(int) (value & 1);
+    }
+
+    public long readSignedVarlong() {
+        final long value = this.readVarlong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readVarlong() {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (shift > 63) {
+                throw new IllegalArgumentException("Invalid varint at " + this.position);
+            }
+            final byte b = this.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        return value;
+    }
+
+    private void require(final int count) {
+        if (count > this.bytes.length - this.position) {
+            throw new IllegalArgumentException("Truncated, required " + count + " bytes at " + this.position + " of " + this.bytes.length);
+        }
+    }
+
+    /**
+     * Returns true if all bytes have been read.
+     */
+    public boolean isEmpty() {
+        return this.bytes.length == this.position;
+    }
+
+    private final byte[] bytes;
+    private int position;
+
+    private final JsonNodeUnmarshallContext context;
+
+    @Override
+    public String toString() {
+        return this.position + "/" + this.bytes.length + " bytes " + this.table.size() + " shared";
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.spreadsheet;
+
+import walkingkooka.collect.map.Maps;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetColumnOrRowReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+import walkingkooka.spreadsheet.reference.SpreadsheetReferenceKind;
+import walkingkooka.tree.expression.ExpressionNumber;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
+import walkingkooka.tree.text.Text;
+import walkingkooka.tree.text.TextNode;
+import walkingkooka.tree.text.TextStyle;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Writes {@link SpreadsheetCell cells} and their parts in a compact binary form, which may be read back by a
+ * {@link SpreadsheetBinaryReader}. Cell coordinates and lengths are written as varints, repeated styles, formats and
+ * labels are written once and then referenced by their index in a table, and values, including
+ * {@link ExpressionNumber}, and plain formatted text are tagged with their type. Parser tokens, expressions, styled
+ * formatted text, styles, formats and values of other types have no binary form and are marshalled to typed JSON text,
+ * which builds a {@link walkingkooka.tree.json.JsonNode} for each when written and read.
+ * <br>
+ * A writer is not thread safe and the table means bytes may only be read by a reader starting at the same position.
+ */
+public final class SpreadsheetBinaryWriter {
+
+    // reference flags..................................................................................................
+
+    final static int COLUMN_ABSOLUTE = 1;
+    final static int ROW_ABSOLUTE = 1 << 1;
+
+    // cell flags.......................................................................................................
+
+    final static int TOKEN = 1;
+    final static int EXPRESSION = 1 << 1;
+    final static int VALUE = 1 << 2;
+    final static int ERROR = 1 << 3;
+    final static int STYLE = 1 << 4;
+    final static int FORMAT = 1 << 5;
+    final static int FORMATTED = 1 << 6;
+
+    // value tags.......................................................................................................
+
+    final static byte BIG_DECIMAL = 1;
+    final static byte BIG_INTEGER = 2;
+    final static byte BOOLEAN_FALSE = 3;
+    final static byte BOOLEAN_TRUE = 4;
+    final static byte BYTE = 5;
+    final static byte DOUBLE = 6;
+    final static byte FLOAT = 7;
+    final static byte INTEGER = 8;
+    final static byte LOCAL_DATE = 9;
+    final static byte LOCAL_DATE_TIME = 10;
+    final static byte LOCAL_TIME = 11;
+    final static byte LONG = 12;
+    final static byte SHORT = 13;
+    final static byte STRING = 14;
+    final static byte JSON = 15;
+    final static byte EXPRESSION_NUMBER_BIG_DECIMAL = 16;
+    final static byte EXPRESSION_NUMBER_DOUBLE = 17;
+
+    /**
+     * Creates a new {@link SpreadsheetBinaryWriter} with an empty table.
+     */
+    public static SpreadsheetBinaryWriter with(final JsonNodeMarshallContext context) {
+        Objects.requireNonNull(context, "context");
+
+        return new SpreadsheetBinaryWriter(context);
+    }
+
+    private SpreadsheetBinaryWriter(final JsonNodeMarshallContext context) {
+        super();
+        this.context = context;
+    }
+
+    // cell.............................................................................................................
+
+    /**
+     * Writes the cell, its reference is written with its {@link SpreadsheetReferenceKind} like
+     * {@link #writeCellReference(SpreadsheetCellReference)}.
+     */
+    public void writeCell(final SpreadsheetCell cell) {
+        Objects.requireNonNull(cell, "cell");
+
+        final SpreadsheetCellReference reference = cell.reference();
+        final SpreadsheetFormula formula = cell.formula();
+        final TextStyle style = cell.style();
+
+        int flags = flag(formula.token(), TOKEN);
+        flags |= flag(formula.expression(), EXPRESSION);
+        flags |= flag(formula.value(), VALUE);
+        flags |= flag(formula.error(), ERROR);
+        flags |= style.isEmpty() ? 0 : STYLE;
+        flags |= flag(cell.format(), FORMAT);
+        flags |= flag(cell.formatted(), FORMATTED);
+
+        this.writeVarint(flags);
+        this.writeCellReference(reference);
+        this.writeString(formula.text());
+
+        formula.token().ifPresent(this::writeJson);
+        formula.expression().ifPresent(this::writeJson);
+        formula.value().ifPresent(this::writeValue);
+        formula.error().ifPresent(e -> this.writeString(e.value()));
+        if (!style.isEmpty()) {
+            this.writeShared(style);
+        }
+        cell.format().ifPresent(this::writeShared);
+        cell.formatted().ifPresent(this::writeTextNode);
+    }
+
+    private static int flag(final Optional<?> value,
+                            final int flag) {
+        return value.isPresent() ? flag : 0;
+    }
+
+    // references.......................................................................................................
+
+    /**
+     * Writes the column and row of the reference with its {@link SpreadsheetReferenceKind}.
+     */
+    public void writeCellReference(final SpreadsheetCellReference reference) {
+        Objects.requireNonNull(reference, "reference");
+
+        this.writeVarint(flags(reference));
+        this.writeVarint(reference.column().value());
+        this.writeVarint(reference.row().value());
+    }
+
+    private static int flags(final SpreadsheetCellReference reference) {
+        return absolute(reference.column(), COLUMN_ABSOLUTE) |
+                absolute(reference.row(), ROW_ABSOLUTE);
+    }
+
+    private static int absolute(final SpreadsheetColumnOrRowReference reference,
+                                final int flag) {
+        return SpreadsheetReferenceKind.ABSOLUTE == reference.referenceKind() ?
+                flag :
+                0;
+    }
+
+    public void writeRange(final SpreadsheetRange range) {
+        Objects.requireNonNull(range, "range");
+
+        this.writeCellReference(range.begin());
+        this.writeCellReference(range.end());
+    }
+
+    /**
+     * Label names are written to the table, as the same labels usually appear many times.
+     */
+    public void writeLabelName(final SpreadsheetLabelName label) {
+        Objects.requireNonNull(label, "label");
+
+        this.writeSharedString(label.value());
+    }
+
+    // values...........................................................................................................
+
+    /**
+     * Writes a type tag followed by the value, values without a binary form are written as typed JSON.
+     */
+    public void writeValue(final Object value) {
+        Objects.requireNonNull(value, "value");
+
+        SpreadsheetBinaryWriterSpreadsheetValueVisitor.with(this)
+                .accept(value);
+    }
+
+    /**
+     * Writes a {@link Text} without any style as a tagged {@link String}, and any other {@link TextNode} as tagged
+     * typed JSON.
+     */
+    public void writeTextNode(final TextNode node) {
+        Objects.requireNonNull(node, "node");
+
+        if (node instanceof Text) {
+            this.writeByte(STRING);
+            this.writeString(((Text) node).value());
+        } else {
+            this.writeByte(JSON);
+            this.writeJson(node);
+        }
+    }
+
+    /**
+     * Writes the value marshalled as typed JSON text.
+     */
+    public void writeJson(final Object value) {
+        Objects.requireNonNull(value, "value");
+
+        this.writeString(this.context.marshallWithType(value).toString());
+    }
+
+    /**
+     * Writes the index of the value in the table, writing the value as typed JSON the first time it is seen.
+     */
+    public void writeShared(final Object value) {
+        Objects.requireNonNull(value, "value");
+
+        if (this.writeIndex(value)) {
+            this.writeJson(value);
+        }
+    }
+
+    /**
+     * Writes the index of the {@link String} in the table, writing the text the first time it is seen.
+     */
+    public void writeSharedString(final String value) {
+        Objects.requireNonNull(value, "value");
+
+        if (this.writeIndex(value)) {
+            this.writeString(value);
+        }
+    }
+
+    /**
+     * Writes the table index of the value returning true if it was added and should follow.
+     */
+    private boolean writeIndex(final Object value) {
+        final Map<Object, Integer> table = this.table;
+        final Integer index = table.get(value);
+        final boolean added = null == index;
+
+        if (added) {
+            final int size = table.size();
+            table.put(value, size);
+            this.writeVarint(size);
+        } else {
+            this.writeVarint(index);
+        }
+        return added;
+    }
+
+    /**
+     * Values already written with their index.
+     */
+    private final Map<Object, Integer> table = Maps.hash();
+
+    // primitives.......................................................................................................
+
+    public void writeByte(final int value) {
+        this.ensure(1);
+        this.bytes[this.size++] = (byte) value;
+    }
+
+    public void writeBytes(final byte[] bytes) {
+        Objects.requireNonNull(bytes, "bytes");
+
+        final int length = bytes.length;
+        this.writeVarint(length);
+        this.ensure(length);
+        System.arraycopy(bytes, 0, this.bytes, this.size, length);
+        this.size += length;
+    }
+
+    public void writeDouble(final double value) {
+        this.writeFixed(Double.doubleToLongBits(value), Long.BYTES);
+    }
+
+    public void writeFloat(final float value) {
+        this.writeFixed(Float.floatToIntBits(value), Integer.BYTES);
+    }
+
+    /**
+     * Writes the given number of low bytes of the value, most significant first.
+     */
+    private void writeFixed(final long value,
+                            final int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            this.writeByte((int) (value >>> (i * 8)));
+        }
+    }
+
+    /**
+     * Writes the {@link String} as its UTF-8 bytes.
+     */
+    public void writeString(final String value) {
+        Objects.requireNonNull(value, "value");
+
+        this.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes an unsigned int using 7 bits per byte, with the high bit set when more bytes follow.
+     */
+    public void writeVarint(final int value) {
+        this.writeVarlong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Writes a signed int zig zag encoded so small negative values are also short.
+     */
+    public void writeSignedVarint(final int value) {
+        this.writeVarint((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Writes a signed long zig zag encoded so small negative values are also short.
+     */
+    public void writeSignedVarlong(final long value) {
+        this.writeVarlong((value << 1) ^ (value >> 63));
+    }
+
+    private void writeVarlong(final long value) {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            this.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        this.writeByte((int) v);
+    }
+
+    private void ensure(final int count) {
+        final byte[] bytes = this.bytes;
+        final int required = this.size + count;
+        if (required > bytes.length) {
+            this.bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length << 1));
+        }
+    }
+
+    /**
+     * Returns a copy of all bytes written.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(this.bytes, this.size);
+    }
+
+    /**
+     * The number of bytes written.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    private byte[] bytes = new byte[256];
+    private int size;
+
+    private final JsonNodeMarshallContext context;
+
+    @Override
+    public String toString() {
+        return this.size + " bytes " + this.table.size() + " shared";
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.spreadsheet;
+
+import walkingkooka.tree.expression.ExpressionNumber;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Writes a type tag followed by the value to a {@link SpreadsheetBinaryWriter}.
+ */
+final class SpreadsheetBinaryWriterSpreadsheetValueVisitor extends SpreadsheetValueVisitor {
+
+    static SpreadsheetBinaryWriterSpreadsheetValueVisitor with(final SpreadsheetBinaryWriter writer) {
+        return new SpreadsheetBinaryWriterSpreadsheetValueVisitor(writer);
+    }
+
+    // @VisibleForTesting
+    SpreadsheetBinaryWriterSpreadsheetValueVisitor(final SpreadsheetBinaryWriter writer) {
+        super();
+        this.writer = writer;
+    }
+
+    @Override
+    protected void visit(final BigDecimal value) {
+        this.writer.writeByte(SpreadsheetBinaryWriter.BIG_DECIMAL);
+        this.writeBigDecimal(value);
+    }
+
+    private void writeBigDecimal(final BigDecimal value) {
+        final SpreadsheetBinaryWriter writer = this.writer;
+        writer.writeSignedVarint(value.scale());
+        writer.writeBytes(value.unscaledValue().toByteArray());
+    }
+
+    @Override
+    protected void visit(final BigInteger value) {
+        final SpreadsheetBinaryWriter writer = this.writer;
+        writer.writeByte(SpreadsheetBinaryWriter.BIG_INTEGER);
+        writer.writeBytes(value.toByteArray());
+    }
+
+    @Override
+    protected void visit(final Boolean value) {
+        this.writer.writeByte(value ?
+                SpreadsheetBinaryWriter.BOOLEAN_TRUE :
+                SpreadsheetBinaryWriter.BOOLEAN_FALSE);
+    }
+
+    @Override
+    protected void visit(final Byte value) {
+        final SpreadsheetBinaryWriter writer = this.writer;
+        writer.writeByte(SpreadsheetBinaryWriter.BYTE);
+        writer.writeByte(value);
+    }
+
+    /**
+     * {@link ExpressionNumber} carries its kind in the tag, followed by its value.
+     */
+    @Override
+    protected void visit(final ExpressionNumber value) {
+        final SpreadsheetBinaryWriter writer = this.writer;
+        if (value.isBigDecimal()) {
+            writer.writeByte(SpreadsheetBinaryWriter.EXPRESSION_NUMBER_BIG_DECIMAL);
+            this.writeBigDecimal(value.bigDecimal());
+        } else {
+            writer.writeByte(SpreadsheetBinaryWriter.EXPRESSION_NUMBER_DOUBLE);
+            writer.writeDouble(value.doubleValue());
+        }
+    }
+
+    @Override
+    protected void visit(final Float value) {
+        final SpreadsheetBinaryWriter writer = this.writer;
+        writer.writeByte(SpreadsheetBinaryWriter.FLOAT);
+        writer.writeFloat(value);
+    }
+
+    @Override
+    protected void visit(final Double value) {
+        final SpreadsheetBinaryWriter writer = this.writer;
+        writer.writeByte(SpreadsheetBinaryWriter.DOUBLE);
+        writer.writeDouble(value);
+    }
+
+    @Override
+    protected void visit(final Integer value) {
+        final SpreadsheetBinaryWriter writer = this.writer;
+        writer.writeByte(SpreadsheetBinaryWriter.INTEGER);
+        writer.writeSignedVarint(value);
+    }
+
+    @Override
+    protected void visit(final LocalDate value) {
+        final SpreadsheetBinaryWriter writer = this.writer;
+        writer.writeByte(SpreadsheetBinaryWriter.LOCAL_DATE);
+        writer.writeSignedVarlong(value.toEpochDay());
+    }
+
+    @Override
+    protected void visit(final LocalDateTime value) {
+        final SpreadsheetBinaryWriter writer = this.writer;
+        writer.writeByte(SpreadsheetBinaryWriter.LOCAL_DATE_TIME);
+        writer.writeSignedVarlong(value.toLocalDate().toEpochDay());
+        writer.writeSignedVarlong(value.toLocalTime().toNanoOfDay());
+    }
+
+    @Override
+    protected void visit(final LocalTime value) {
+        final SpreadsheetBinaryWriter writer = this.writer;
+        writer.writeByte(SpreadsheetBinaryWriter.LOCAL_TIME);
+        writer.writeSignedVarlong(value.toNanoOfDay());
+    }
+
+    @Override
+    protected void visit(final Long value) {
+        final SpreadsheetBinaryWriter writer = this.writer;
+        writer.writeByte(SpreadsheetBinaryWriter.LONG);
+        writer.writeSignedVarlong(value);
+    }
+
+    @Override
+    protected void visit(final Short value) {
+        final SpreadsheetBinaryWriter writer = this.writer;
+        writer.writeByte(SpreadsheetBinaryWriter.SHORT);
+        writer.writeSignedVarint(value);
+    }
+
+    @Override
+    protected void visit(final String value) {
+        final SpreadsheetBinaryWriter writer = this.writer;
+        writer.writeByte(SpreadsheetBinaryWriter.STRING);
+        writer.writeString(value);
+    }
+
+    @Override
+    protected void visit(final Object value) {
+        final SpreadsheetBinaryWriter writer = this.writer;
+        writer.writeByte(SpreadsheetBinaryWriter.JSON);
+        writer.writeJson(value);
+    }
+
+    private final SpreadsheetBinaryWriter writer;
+
+    @Override
+    public String toString() {
+        return this.writer.toString();
+    }
+}
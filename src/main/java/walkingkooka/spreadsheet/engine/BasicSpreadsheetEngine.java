@@ -34,6 +34,7 @@ import walkingkooka.spreadsheet.reference.SpreadsheetColumnReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetLabelMapping;
 import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
 import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+import walkingkooka.spreadsheet.reference.SpreadsheetRangeCursor;
 import walkingkooka.spreadsheet.reference.SpreadsheetRowReference;
 import walkingkooka.spreadsheet.reference.store.SpreadsheetLabelStore;
 import walkingkooka.spreadsheet.store.SpreadsheetCellStore;
@@ -51,6 +52,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -66,15 +68,33 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
         Objects.requireNonNull(metadata, "metadata");
 
         return new BasicSpreadsheetEngine(
-                metadata
+                metadata,
+                SpreadsheetEngineExecutors.serial()
+        );
+    }
+
+    /**
+     * Factory that creates a new {@link BasicSpreadsheetEngine} that recalculates independent cells using the given
+     * {@link SpreadsheetEngineExecutor}.
+     */
+    static BasicSpreadsheetEngine with(final SpreadsheetMetadata metadata,
+                                       final SpreadsheetEngineExecutor executor) {
+        Objects.requireNonNull(metadata, "metadata");
+        Objects.requireNonNull(executor, "executor");
+
+        return new BasicSpreadsheetEngine(
+                metadata,
+                executor
         );
     }
 
     /**
      * Private ctor.
      */
-    private BasicSpreadsheetEngine(final SpreadsheetMetadata metadata) {
+    private BasicSpreadsheetEngine(final SpreadsheetMetadata metadata,
+                                   final SpreadsheetEngineExecutor executor) {
         this.metadata = metadata;
+        this.executor = executor;
     }
 
     // LOAD CELL........................................................................................................
@@ -108,6 +128,25 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
         }
     }
 
+    // RESOLVE CELL.....................................................................................................
+
+    /**
+     * Loads and evaluates a single cell honouring the {@link SpreadsheetEngineEvaluation}. Unlike
+     * {@link #loadCell(SpreadsheetCellReference, SpreadsheetEngineEvaluation, SpreadsheetEngineContext)} no watchers
+     * are added and no {@link SpreadsheetDelta} is prepared, making this suitable for resolving references within a formula.
+     * Any precedents without a value are evaluated first without recursion.
+     */
+    Optional<SpreadsheetCell> resolveCell(final SpreadsheetCellReference reference,
+                                          final SpreadsheetEngineEvaluation evaluation,
+                                          final SpreadsheetEngineContext context) {
+        return BasicSpreadsheetEngineEvaluatePrecedents.evaluate(
+                reference,
+                evaluation,
+                this,
+                context
+        );
+    }
+
     // SAVE CELL........................................................................................................
 
     /**
@@ -132,6 +171,26 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
         }
     }
 
+    // SAVE CELLS.......................................................................................................
+
+    /**
+     * Saves all the cells in a single batch, with each affected cell recalculated once.
+     */
+    @Override
+    public SpreadsheetDelta saveCells(final Collection<SpreadsheetCell> cells,
+                                      final SpreadsheetEngineContext context) {
+        Objects.requireNonNull(cells, "cells");
+        checkContext(context);
+
+        try (final BasicSpreadsheetEngineUpdatedCells updated = BasicSpreadsheetEngineUpdatedCellsMode.BATCH.createUpdatedCells(this, context)) {
+            cells.forEach(c -> this.maybeParseAndEvaluateAndFormat(c,
+                    SpreadsheetEngineEvaluation.CLEAR_VALUE_ERROR_SKIP_EVALUATE,
+                    context));
+            updated.refreshUpdated();
+            return this.prepareDelta(updated.cells(), context);
+        }
+    }
+
     // DELETE CELL....................................................................................................
 
     /**
@@ -152,6 +211,27 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
         }
     }
 
+    // DELETE CELLS.....................................................................................................
+
+    /**
+     * Deletes all the given cells in a single batch, removing the references held by their formulas, with each cell
+     * that referenced a deleted cell recalculated once.
+     */
+    @Override
+    public SpreadsheetDelta deleteCells(final Collection<SpreadsheetCellReference> references,
+                                        final SpreadsheetEngineContext context) {
+        Objects.requireNonNull(references, "references");
+        checkContext(context);
+
+        try (final BasicSpreadsheetEngineUpdatedCells updated = BasicSpreadsheetEngineUpdatedCellsMode.BATCH.createUpdatedCells(this, context)) {
+            final SpreadsheetCellStore store = context.storeRepository()
+                    .cells();
+            references.forEach(store::delete);
+            updated.refreshUpdated();
+            return this.prepareDelta(updated.cells(), context);
+        }
+    }
+
     // DELETE / INSERT / COLUMN / ROW ..................................................................................
 
     @Override
@@ -204,6 +284,25 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
         }
     }
 
+    @Override
+    public void insertColumns(final SpreadsheetColumnReference column,
+                              final int count,
+                              final Consumer<SpreadsheetCell> updated,
+                              final SpreadsheetEngineContext context) {
+        checkColumn(column);
+        checkCount(count);
+        checkUpdated(updated);
+        checkContext(context);
+
+        try (final BasicSpreadsheetEngineUpdatedCells updatedCells = BasicSpreadsheetEngineUpdatedCellsMode.BATCH.createUpdatedCells(this, context)) {
+            BasicSpreadsheetEngineDeleteOrInsertColumnOrRowColumn.with(column.value(), count,
+                    this,
+                    context)
+                    .insert();
+            updatedCells.refreshUpdated(updated);
+        }
+    }
+
     @Override
     public SpreadsheetDelta insertRows(final SpreadsheetRowReference row,
                                        final int count,
@@ -220,6 +319,23 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
         }
     }
 
+    @Override
+    public void insertRows(final SpreadsheetRowReference row,
+                           final int count,
+                           final Consumer<SpreadsheetCell> updated,
+                           final SpreadsheetEngineContext context) {
+        checkRow(row);
+        checkCount(count);
+        checkUpdated(updated);
+        checkContext(context);
+
+        try (final BasicSpreadsheetEngineUpdatedCells updatedCells = BasicSpreadsheetEngineUpdatedCellsMode.BATCH.createUpdatedCells(this, context)) {
+            BasicSpreadsheetEngineDeleteOrInsertColumnOrRowRow.with(row.value(), count, this, context)
+                    .insert();
+            updatedCells.refreshUpdated(updated);
+        }
+    }
+
     private static void checkCount(final int count) {
         if (count < 0) {
             throw new IllegalArgumentException("Count " + count + " < 0");
@@ -235,21 +351,7 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
         checkContext(context);
 
         try (final BasicSpreadsheetEngineUpdatedCells updated = BasicSpreadsheetEngineUpdatedCellsMode.IMMEDIATE.createUpdatedCells(this, context)) {
-            final SpreadsheetCellStore store = context.storeRepository()
-                    .cells();
-
-            range.cellStream()
-                    .forEach(reference -> {
-                                if (!updated.isLoaded(reference)) {
-                                    final Optional<SpreadsheetCell> loaded = store.load(reference);
-                                    if (loaded.isPresent()) {
-                                        final SpreadsheetCell evaluated = this.maybeParseAndEvaluateAndFormat(loaded.get(), evaluation, context);
-                                        updated.onLoad(evaluated); // might have just loaded a cell without any updates but want to record cell.
-                                    }
-                                }
-                            }
-                    );
-
+            this.loadCells0(range, evaluation, updated, context);
             updated.refreshUpdated();
             return this.prepareDelta(
                     updated.cells(),
@@ -259,6 +361,46 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
         }
     }
 
+    @Override
+    public void loadCells(final SpreadsheetRange range,
+                          final SpreadsheetEngineEvaluation evaluation,
+                          final Consumer<SpreadsheetCell> loaded,
+                          final SpreadsheetEngineContext context) {
+        Objects.requireNonNull(range, "range");
+        checkEvaluation(evaluation);
+        Objects.requireNonNull(loaded, "loaded");
+        checkContext(context);
+
+        try (final BasicSpreadsheetEngineUpdatedCells updated = BasicSpreadsheetEngineUpdatedCellsMode.IMMEDIATE.createUpdatedCells(this, context)) {
+            this.loadCells0(range, evaluation, updated, context);
+
+            // the window of the delta form would filter out referrers outside the range
+            updated.refreshUpdated(c -> {
+                if (range.test(c.reference())) {
+                    loaded.accept(c);
+                }
+            });
+        }
+    }
+
+    private void loadCells0(final SpreadsheetRange range,
+                            final SpreadsheetEngineEvaluation evaluation,
+                            final BasicSpreadsheetEngineUpdatedCells updated,
+                            final SpreadsheetEngineContext context) {
+        final SpreadsheetCellStore store = context.storeRepository()
+                .cells();
+
+        // only visit cells that exist rather than every reference in the range
+        store.loadRange(range)
+                .forEach(cell -> {
+                            if (!updated.isLoaded(cell.reference())) {
+                                final SpreadsheetCell evaluated = this.maybeParseAndEvaluateAndFormat(cell, evaluation, context);
+                                updated.onLoad(evaluated); // might have just loaded a cell without any updates but want to record cell.
+                            }
+                        }
+                );
+    }
+
     @Override
     public SpreadsheetDelta fillCells(final Collection<SpreadsheetCell> cells,
                                       final SpreadsheetRange from,
@@ -276,6 +418,24 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
         }
     }
 
+    @Override
+    public void fillCells(final Collection<SpreadsheetCell> cells,
+                          final SpreadsheetRange from,
+                          final SpreadsheetRange to,
+                          final Consumer<SpreadsheetCell> updated,
+                          final SpreadsheetEngineContext context) {
+        Objects.requireNonNull(cells, "cells");
+        Objects.requireNonNull(from, "from");
+        Objects.requireNonNull(to, "to");
+        checkUpdated(updated);
+        checkContext(context);
+
+        try (final BasicSpreadsheetEngineUpdatedCells updatedCells = BasicSpreadsheetEngineUpdatedCellsMode.BATCH.createUpdatedCells(this, context)) {
+            BasicSpreadsheetEngineFillCells.execute(cells, from, to, this, context);
+            updatedCells.refreshUpdated(updated);
+        }
+    }
+
     private SpreadsheetDelta prepareDelta(final Set<SpreadsheetCell> cells,
                                           final SpreadsheetEngineContext context) {
         return this.prepareDelta(
@@ -300,11 +460,13 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
         });
 
         if (null != range) {
-            range.cellStream().forEach(c -> {
+            final SpreadsheetRangeCursor cursor = range.cursor();
+            while (cursor.next()) {
+                final SpreadsheetCellReference c = cursor.cell();
                 if(!cellsToLabels.containsKey(c)) {
                     addCellToLabels(c, store, cellsToLabels);
                 }
-            });
+            }
         }
 
         return SpreadsheetDelta.with(cells)
@@ -370,9 +532,13 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
                                                    final SpreadsheetEngineEvaluation evaluation,
                                                    final SpreadsheetEngineContext context) {
         final SpreadsheetCell result = evaluation.formulaEvaluateAndStyle(cell, this, context);
-        context.storeRepository()
-                .cells()
-                .save(result); // update cells enabling caching of parsing and value and errors.
+
+        // a computed cell that was trusted is unchanged, saving would only replace its references and refresh its referrers.
+        if (result != cell || SpreadsheetEngineEvaluation.COMPUTE_IF_NECESSARY != evaluation) {
+            context.storeRepository()
+                    .cells()
+                    .save(result); // update cells enabling caching of parsing and value and errors.
+        }
         return result;
     }
 
@@ -491,6 +657,25 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
 
     // ERROR HANDLING..............................................................................................
 
+    /**
+     * Sets the error upon the parsed formula of the cell without evaluating, applies styling and saves the cell.
+     */
+    SpreadsheetCell saveError(final SpreadsheetCell cell,
+                              final SpreadsheetError error,
+                              final SpreadsheetEngineContext context) {
+        final SpreadsheetCell result = this.formatAndApplyStyle(
+                cell.setFormula(
+                        this.parseFormulaIfNecessary(cell.formula(), Function.identity(), context)
+                                .setError(Optional.of(error))
+                ),
+                context
+        );
+        context.storeRepository()
+                .cells()
+                .save(result);
+        return result;
+    }
+
     /**
      * Sets the error upon the formula using the {@link Throwable#getMessage()} of {@link Throwable#getClass()} if no
      * message is present.
@@ -653,6 +838,12 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
 
     private final SpreadsheetMetadata metadata;
 
+    /**
+     * Dirty cells that are independent of each other are recalculated using this executor. The default
+     * {@link SpreadsheetEngineExecutors#serial()} evaluates them in turn on the calling thread.
+     */
+    final SpreadsheetEngineExecutor executor;
+
     // RANGE............................................................................................................
 
     @Override
@@ -662,8 +853,11 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
         checkContext(context);
 
         final SpreadsheetCellReference reference = context.resolveCellReference(viewport.cellOrLabel());
+        final SpreadsheetCellStore store = context.storeRepository()
+                .cells();
 
         // columns
+        final double defaultWidth = columnWidthOrRowHeight(TextStylePropertyName.WIDTH);
         final double xOffset = viewport.xOffset();
         double x = xOffset;
         SpreadsheetColumnReference leftColumn = reference.column();
@@ -685,57 +879,50 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
 
                 x = x + 0;
             } else {
-                for (; ; ) {
-                    final double columnWidth = this.columnWidth(leftColumn, context);
-                    if (x - columnWidth < 0) {
-                        break;
-                    }
-                    x = x - columnWidth;
-                    leftColumn = leftColumn.addSaturated(+1);
+                final double left = store.columnsWidth(leftColumn, defaultWidth) + xOffset;
+                leftColumn = leftColumn.setValue(store.columnAt(left, defaultWidth).value());
+                x = left - store.columnsWidth(leftColumn, defaultWidth);
+                if (leftColumn.isLast()) {
+                    x = x % this.columnWidth(leftColumn, context);
                 }
             }
         }
 
         final double width = viewport.width();
         x = x + width;
-        SpreadsheetColumnReference rightColumn = leftColumn;
 
-        for (; ; ) {
-            if (rightColumn.isLast()) {
-                x = width + (xOffset < 0 ? +xOffset : 0);
-                leftColumn = rightColumn;
+        // find the first column that ends at or after x, unless thats the last column
+        final double right = store.columnsWidth(leftColumn, defaultWidth) + x;
+        SpreadsheetColumnReference rightColumn = leftColumn.setValue(store.columnEndingAt(right, defaultWidth).value());
 
-                for (; ; ) {
-                    x = x - this.columnWidth(leftColumn, context);
-                    if (x <= 0) {
-                        break;
-                    }
-                    leftColumn = leftColumn.addSaturated(-1);
+        if (rightColumn.isLast()) {
+            x = width + (xOffset < 0 ? +xOffset : 0);
+            leftColumn = rightColumn;
+
+            for (; ; ) {
+                x = x - this.columnWidth(leftColumn, context);
+                if (x <= 0) {
+                    break;
                 }
+                leftColumn = leftColumn.addSaturated(-1);
+            }
 
-                if (xOffset < 0) {
-                    if (!leftColumn.isFirst()) {
-                        x = xOffset;
-                        for (; ; ) {
-                            leftColumn = leftColumn.addSaturated(-1);
-                            x = x + this.columnWidth(leftColumn, context);
-                            if (x >= 0) {
-                                break;
-                            }
+            if (xOffset < 0) {
+                if (!leftColumn.isFirst()) {
+                    x = xOffset;
+                    for (; ; ) {
+                        leftColumn = leftColumn.addSaturated(-1);
+                        x = x + this.columnWidth(leftColumn, context);
+                        if (x >= 0) {
+                            break;
                         }
                     }
                 }
-                break;
-            }
-            x = x - this.columnWidth(rightColumn, context);
-            if (x <= 0) {
-                break;
             }
-            rightColumn = rightColumn.addSaturated(+1);
         }
 
-
         // rows
+        final double defaultHeight = columnWidthOrRowHeight(TextStylePropertyName.HEIGHT);
         final double yOffset = viewport.yOffset();
         double y = yOffset;
         SpreadsheetRowReference topRow = reference.row();
@@ -757,55 +944,48 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
 
                 y = y + 0;
             } else {
-                for (; ; ) {
-                    final double rowHeight = this.rowHeight(topRow, context);
-                    if (y - rowHeight < 0) {
-                        break;
-                    }
-                    y = y - rowHeight;
-                    topRow = topRow.addSaturated(+1);
+                final double top = store.rowsHeight(topRow, defaultHeight) + yOffset;
+                topRow = topRow.setValue(store.rowAt(top, defaultHeight).value());
+                y = top - store.rowsHeight(topRow, defaultHeight);
+                if (topRow.isLast()) {
+                    y = y % this.rowHeight(topRow, context);
                 }
             }
         }
 
         final double height = viewport.height();
         y = y + height;
-        SpreadsheetRowReference bottomRow = topRow;
 
-        for (; ; ) {
-            if (bottomRow.isLast()) {
-                y = height + (yOffset < 0 ? +yOffset : 0);
-                topRow = bottomRow;
+        // find the first row that ends at or after y, unless thats the last row
+        final double bottom = store.rowsHeight(topRow, defaultHeight) + y;
+        SpreadsheetRowReference bottomRow = topRow.setValue(store.rowEndingAt(bottom, defaultHeight).value());
 
-                for (; ; ) {
-                    y = y - this.rowHeight(topRow, context);
-                    if (y <= 0) {
-                        break;
-                    }
-                    topRow = topRow.addSaturated(-1);
+        if (bottomRow.isLast()) {
+            y = height + (yOffset < 0 ? +yOffset : 0);
+            topRow = bottomRow;
+
+            for (; ; ) {
+                y = y - this.rowHeight(topRow, context);
+                if (y <= 0) {
+                    break;
                 }
+                topRow = topRow.addSaturated(-1);
+            }
 
-                if (yOffset < 0) {
-                    if (!topRow.isFirst()) {
-                        y = yOffset;
-                        for (; ; ) {
-                            topRow = topRow.addSaturated(-1);
-                            y = y + this.rowHeight(topRow, context);
-                            if (y >= 0) {
-                                break;
-                            }
+            if (yOffset < 0) {
+                if (!topRow.isFirst()) {
+                    y = yOffset;
+                    for (; ; ) {
+                        topRow = topRow.addSaturated(-1);
+                        y = y + this.rowHeight(topRow, context);
+                        if (y >= 0) {
+                            break;
                         }
                     }
                 }
-                break;
             }
-            y = y - this.rowHeight(bottomRow, context);
-            if (y <= 0) {
-                break;
-            }
-            bottomRow = bottomRow.addSaturated(+1);
         }
-        
+
         return leftColumn.setRow(topRow)
                 .spreadsheetRange(
                         rightColumn.setRow(bottomRow)
@@ -838,6 +1018,10 @@ final class BasicSpreadsheetEngine implements SpreadsheetEngine {
         Objects.requireNonNull(evaluation, "evaluation");
     }
 
+    private static void checkUpdated(final Consumer<SpreadsheetCell> updated) {
+        Objects.requireNonNull(updated, "updated");
+    }
+
     private static void checkContext(final SpreadsheetEngineContext context) {
         Objects.requireNonNull(context, "context");
     }
@@ -77,7 +77,8 @@ final class BasicSpreadsheetEngineContext implements SpreadsheetEngineContext {
                 functions,
                 engine,
                 fractioner,
-                storeRepository
+                storeRepository,
+                false
         );
     }
 
@@ -88,7 +89,8 @@ final class BasicSpreadsheetEngineContext implements SpreadsheetEngineContext {
                                           final Function<FunctionExpressionName, ExpressionFunction<?, ExpressionFunctionContext>> functions,
                                           final SpreadsheetEngine engine,
                                           final Function<BigDecimal, Fraction> fractioner,
-                                          final SpreadsheetStoreRepository storeRepository) {
+                                          final SpreadsheetStoreRepository storeRepository,
+                                          final boolean readOnly) {
         super();
 
         this.metadata = metadata;
@@ -103,11 +105,18 @@ final class BasicSpreadsheetEngineContext implements SpreadsheetEngineContext {
         );
 
         this.functions = functions;
-        this.function = SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction.with(
-                engine,
-                storeRepository.labels(),
-                this
-        );
+        this.engine = engine;
+        this.function = readOnly ?
+                SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction.readOnly(
+                        engine,
+                        storeRepository.labels(),
+                        this
+                ) :
+                SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction.with(
+                        engine,
+                        storeRepository.labels(),
+                        this
+                );
 
         this.spreadsheetFormatContext = SpreadsheetFormatterContexts.basic(
                 metadata.numberToColor(),
@@ -169,6 +178,8 @@ final class BasicSpreadsheetEngineContext implements SpreadsheetEngineContext {
      */
     private final Function<FunctionExpressionName, ExpressionFunction<?, ExpressionFunctionContext>> functions;
 
+    private final SpreadsheetEngine engine;
+
     private final SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction function;
 
     // parsing and formatting text......................................................................................
@@ -204,6 +215,24 @@ final class BasicSpreadsheetEngineContext implements SpreadsheetEngineContext {
 
     private final SpreadsheetStoreRepository storeRepository;
 
+    // readOnlyCopy.....................................................................................................
+
+    /**
+     * Returns a new {@link BasicSpreadsheetEngineContext} sharing the same metadata, functions, engine and stores but
+     * with its own parser and formatter contexts, so it may be used by another thread while this one is in use. References
+     * are resolved without evaluating or saving any cell, failing if a referenced cell has not been evaluated.
+     */
+    BasicSpreadsheetEngineContext readOnlyCopy() {
+        return new BasicSpreadsheetEngineContext(
+                this.metadata,
+                this.functions,
+                this.engine,
+                this.fractioner,
+                this.storeRepository,
+                true
+        );
+    }
+
     // Object...........................................................................................................
 
     @Override
@@ -39,21 +39,15 @@ final class BasicSpreadsheetEngineDeleteColumnOrRow extends BasicSpreadsheetEngi
      * Delete the selected columns or rows.
      */
     private void delete0(final SpreadsheetEngineContext context) {
-        this.columnOrRow.delete(this.columnOrRow.value, this.columnOrRow.count);
-        this.move();
+        final int value = this.columnOrRow.value;
+        final int count = this.columnOrRow.count;
+
+        this.columnOrRow.delete(value, count);
+        this.columnOrRow.shift(value + count, -count);
         this.columnOrRow.fixAllExpressionReferences(context);
         this.columnOrRow.fixAllLabelMappings();
     }
 
-    private void move() {
-        final int offset = this.columnOrRow.value + this.columnOrRow.count;
-        final int moveCount = this.columnOrRow.max() - offset;
-
-        for (int i = 0; i <= moveCount; i++) {
-            this.columnOrRow.move(offset + i);
-        }
-    }
-
     @Override
     boolean isDeletedReference(final SpreadsheetColumnReferenceParserToken column) {
         return this.isDeletedReference(column.value().value());
@@ -69,6 +63,11 @@ final class BasicSpreadsheetEngineDeleteColumnOrRow extends BasicSpreadsheetEngi
         return deleted <= value && value <= deleted + this.columnOrRow.count;
     }
 
+    @Override
+    boolean isDeletedCell(final int offset) {
+        return offset < this.columnOrRow.count;
+    }
+
     @Override
     int fixReferenceOffset(final int count) {
         return -count;
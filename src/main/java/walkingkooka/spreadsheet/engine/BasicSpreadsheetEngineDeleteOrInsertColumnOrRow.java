@@ -37,6 +37,11 @@ abstract class BasicSpreadsheetEngineDeleteOrInsertColumnOrRow {
 
     abstract boolean isDeletedReference(final SpreadsheetRowReferenceParserToken row);
 
+    /**
+     * Tests if a cell at the given offset from the first deleted or inserted column/row was deleted.
+     */
+    abstract boolean isDeletedCell(final int offset);
+
     abstract int fixReferenceOffset(final int count);
 
     abstract void fixLabelMapping(final SpreadsheetLabelMapping mapping);
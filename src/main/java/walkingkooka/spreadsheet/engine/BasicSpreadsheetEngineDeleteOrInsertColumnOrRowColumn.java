@@ -51,8 +51,8 @@ final class BasicSpreadsheetEngineDeleteOrInsertColumnOrRowColumn extends BasicS
     }
 
     @Override
-    int max() {
-        return this.cellStore().columns();
+    void shift(final int from, final int delta) {
+        this.cellStore().shiftColumns(SpreadsheetReferenceKind.RELATIVE.column(from), delta);
     }
 
     @Override
@@ -17,6 +17,7 @@
 
 package walkingkooka.spreadsheet.engine;
 
+import walkingkooka.collect.set.Sets;
 import walkingkooka.spreadsheet.SpreadsheetCell;
 import walkingkooka.spreadsheet.parser.SpreadsheetColumnReferenceParserToken;
 import walkingkooka.spreadsheet.parser.SpreadsheetParserToken;
@@ -27,13 +28,16 @@ import walkingkooka.spreadsheet.reference.SpreadsheetLabelMapping;
 import walkingkooka.spreadsheet.reference.SpreadsheetLabelMappingExpressionReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
 import walkingkooka.spreadsheet.reference.SpreadsheetRange;
-import walkingkooka.spreadsheet.reference.SpreadsheetReferenceKind;
 import walkingkooka.spreadsheet.reference.SpreadsheetRowReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetSelection;
 import walkingkooka.spreadsheet.reference.store.SpreadsheetLabelStore;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetRangeStore;
 import walkingkooka.spreadsheet.store.SpreadsheetCellStore;
+import walkingkooka.spreadsheet.store.repo.SpreadsheetStoreRepository;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Base class that acts as a bridge to either columns or rows.
@@ -85,44 +89,63 @@ abstract class BasicSpreadsheetEngineDeleteOrInsertColumnOrRowColumnOrRow {
                 .forEach(c -> this.cellStore().delete(c.reference()));
     }
 
-    // move .............................................................................................................
+    // shift ............................................................................................................
 
     /**
-     * Moves all the cells in the selected row/column.
+     * Shifts all cells at or after the given column/row by delta in a single store operation, expressions will be
+     * updated later.
      */
-    final void move(final int source) {
-        this.cells(source)
-                .forEach(this::moveCell);
-    }
+    abstract void shift(final int from, final int delta);
+
+    // fix references in all cells .............................................................................
 
     /**
-     * Moves the cell to its new location, expressions will be updated later.
+     * Uses the cell and range reference stores to find only the cells with a formula that references a cell or range
+     * at or after the deleted or inserted column/row and fixes those. Formulas referencing labels are not fixed,
+     * the label mappings are fixed instead.
      */
-    private void moveCell(final SpreadsheetCell cell) {
-        final SpreadsheetCellReference reference = cell.reference();
-        this.deleteCell(reference);
+    final void fixAllExpressionReferences(final SpreadsheetEngineContext context) {
+        final SpreadsheetStoreRepository repository = context.storeRepository();
+        final SpreadsheetRange shifted = this.shiftedRange();
+        final Set<SpreadsheetCellReference> formulas = Sets.sorted();
 
-        final SpreadsheetCell fixed = cell.setReference(this.fixCellReference(cell.reference()));
-        if (!fixed.equals(cell)) {
-            this.saveCell(fixed);
-        }
-    }
+        repository.cellReferences()
+                .loadReferredWithin(shifted)
+                .forEach(f -> this.movedCellReference(f).ifPresent(formulas::add));
 
-    // fix references in all cells .............................................................................
+        final SpreadsheetRangeStore<SpreadsheetCellReference> rangeToCells = repository.rangeToCells();
+        rangeToCells.loadIntersectingRanges(shifted)
+                .forEach(r -> rangeToCells.load(r)
+                        .ifPresent(c -> c.forEach(f -> this.movedCellReference(f).ifPresent(formulas::add))));
+
+        final SpreadsheetCellStore cellStore = this.cellStore();
+        formulas.forEach(f -> cellStore.load(f).ifPresent(c -> this.fixExpressionReferences(c, context)));
+    }
 
     /**
-     * Scans all cell expressions for references and fixes those needing fixing.
+     * Returns the range of all cells at or after the deleted or inserted column/row, only references within this
+     * range will need to be fixed.
      */
-    final void fixAllExpressionReferences(final SpreadsheetEngineContext context) {
-        final int rows = this.maxRow();
-        for (int i = 0; i <= rows; i++) {
-            this.fixRowReferences(SpreadsheetReferenceKind.ABSOLUTE.row(i), context);
-        }
+    private SpreadsheetRange shiftedRange() {
+        return this.setColumnOrRowValue(FIRST, this.value)
+                .spreadsheetRange(LAST);
     }
 
-    private void fixRowReferences(final SpreadsheetRowReference row, final SpreadsheetEngineContext context) {
-        this.rowCells(row)
-                .forEach(r -> this.fixExpressionReferences(r, context));
+    private final static SpreadsheetCellReference FIRST = SpreadsheetSelection.parseCellReference("A1");
+
+    private final static SpreadsheetCellReference LAST = SpreadsheetSelection.parseCellReference("XFD1048576");
+
+    /**
+     * Cells have already been moved, the reference stores however still hold the original reference to each formula.
+     * This returns where the cell now lives, or nothing if the cell was deleted.
+     */
+    private Optional<SpreadsheetCellReference> movedCellReference(final SpreadsheetCellReference reference) {
+        final int value = this.columnOrRowValue(reference);
+        return value < this.value ?
+                Optional.of(reference) :
+                this.deleteOrInsert.isDeletedCell(value - this.value) ?
+                        Optional.empty() :
+                        Optional.of(this.fixCellReference(reference));
     }
 
     /**
@@ -335,18 +358,6 @@ abstract class BasicSpreadsheetEngineDeleteOrInsertColumnOrRowColumnOrRow {
 
     // cells....................................................................................................
 
-    /**
-     * Returns the max column or row.
-     */
-    abstract int max();
-
-    /**
-     * Returns the max or last row
-     */
-    final int maxRow() {
-        return this.cellStore().rows();
-    }
-
     /**
      * Find all the cells int the given column/row.
      */
@@ -359,13 +370,6 @@ abstract class BasicSpreadsheetEngineDeleteOrInsertColumnOrRowColumnOrRow {
         return this.cellStore().row(row);
     }
 
-    /**
-     * Deletes the cell.
-     */
-    final void deleteCell(final SpreadsheetCellReference cell) {
-        this.cellStore().delete(cell);
-    }
-
     /**
      * Saves the cell.
      */
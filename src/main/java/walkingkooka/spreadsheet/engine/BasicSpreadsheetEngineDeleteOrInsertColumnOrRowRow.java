@@ -51,8 +51,8 @@ final class BasicSpreadsheetEngineDeleteOrInsertColumnOrRowRow extends BasicSpre
     }
 
     @Override
-    final int max() {
-        return this.maxRow();
+    void shift(final int from, final int delta) {
+        this.cellStore().shiftRows(SpreadsheetReferenceKind.RELATIVE.row(from), delta);
     }
 
     @Override
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.engine;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.SpreadsheetError;
+import walkingkooka.spreadsheet.SpreadsheetFormula;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.store.SpreadsheetCellStore;
+import walkingkooka.tree.expression.ExpressionEvaluationException;
+import walkingkooka.tree.expression.ExpressionReference;
+import walkingkooka.tree.expression.ExpressionVisitor;
+import walkingkooka.tree.expression.ReferenceExpression;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Evaluates a cell after first evaluating any of its precedents that have neither a value or error. Precedents are
+ * walked using an explicit stack rather than recursion, so by the time a cell is evaluated all the cells it references
+ * already have a value or error and resolving its references does not evaluate any further cells. Cells that form a
+ * circular reference are not evaluated but have a {@link SpreadsheetError} set instead.
+ */
+final class BasicSpreadsheetEngineEvaluatePrecedents {
+
+    /**
+     * The error set upon all cells that are part of a circular reference.
+     */
+    // VisibleForTesting
+    final static SpreadsheetError CIRCULAR_REFERENCE = SpreadsheetError.with("Circular reference");
+
+    /**
+     * Loads and evaluates the cell honouring the {@link SpreadsheetEngineEvaluation}, dirty precedents are always
+     * evaluated using {@link SpreadsheetEngineEvaluation#COMPUTE_IF_NECESSARY}.
+     */
+    static Optional<SpreadsheetCell> evaluate(final SpreadsheetCellReference reference,
+                                              final SpreadsheetEngineEvaluation evaluation,
+                                              final BasicSpreadsheetEngine engine,
+                                              final SpreadsheetEngineContext context) {
+        return new BasicSpreadsheetEngineEvaluatePrecedents(engine, context)
+                .evaluate(reference, evaluation);
+    }
+
+    // VisibleForTesting
+    BasicSpreadsheetEngineEvaluatePrecedents(final BasicSpreadsheetEngine engine,
+                                             final SpreadsheetEngineContext context) {
+        super();
+        this.engine = engine;
+        this.context = context;
+    }
+
+    private Optional<SpreadsheetCell> evaluate(final SpreadsheetCellReference reference,
+                                               final SpreadsheetEngineEvaluation evaluation) {
+        final SpreadsheetCellStore store = this.context.storeRepository()
+                .cells();
+
+        final Optional<SpreadsheetCell> loaded = store.load(reference);
+        if (false == loaded.isPresent()) {
+            return loaded;
+        }
+        this.push(loaded.get());
+
+        final List<SpreadsheetCell> cells = this.cells;
+        final List<Iterator<SpreadsheetCellReference>> precedents = this.precedents;
+
+        SpreadsheetCell evaluated = null;
+
+        while (false == cells.isEmpty()) {
+            final int top = cells.size() - 1;
+            final Iterator<SpreadsheetCellReference> topPrecedents = precedents.get(top);
+
+            if (topPrecedents.hasNext()) {
+                final SpreadsheetCellReference precedent = topPrecedents.next();
+                if (this.path.contains(precedent)) {
+                    this.circular(precedent);
+                    continue;
+                }
+                if (this.evaluated.contains(precedent)) {
+                    continue;
+                }
+                store.load(precedent)
+                        .filter(BasicSpreadsheetEngineEvaluatePrecedents::isDirty)
+                        .ifPresent(this::push);
+            } else {
+                final SpreadsheetCell cell = cells.remove(top);
+                precedents.remove(top);
+
+                final SpreadsheetCellReference cellReference = cell.reference().toRelative();
+                this.path.remove(cellReference);
+                this.evaluated.add(cellReference);
+
+                evaluated = this.circular.contains(cellReference) ?
+                        this.engine.saveError(cell, CIRCULAR_REFERENCE, this.context) :
+                        this.engine.maybeParseAndEvaluateAndFormat(
+                                cell,
+                                cells.isEmpty() ? evaluation : SpreadsheetEngineEvaluation.COMPUTE_IF_NECESSARY,
+                                this.context
+                        );
+            }
+        }
+
+        return Optional.of(evaluated);
+    }
+
+    /**
+     * A formula without a value or error has either never been evaluated or was cleared and needs to be evaluated.
+     */
+    private static boolean isDirty(final SpreadsheetCell cell) {
+        final SpreadsheetFormula formula = cell.formula();
+        return false == formula.value().isPresent() &&
+                false == formula.error().isPresent();
+    }
+
+    /**
+     * Pushes the cell along with all its precedents, parsing the formula if necessary to find references.
+     */
+    private void push(final SpreadsheetCell cell) {
+        this.cells.add(cell);
+        this.precedents.add(this.precedents(cell).iterator());
+        this.path.add(cell.reference().toRelative());
+    }
+
+    /**
+     * Returns all the cells referenced by the formula of the given cell, references to unknown labels are ignored
+     * and will be reported as an error when the cell is evaluated.
+     */
+    private Set<SpreadsheetCellReference> precedents(final SpreadsheetCell cell) {
+        final Set<SpreadsheetCellReference> precedents = Sets.ordered();
+
+        this.engine.parseFormulaIfNecessary(
+                cell.formula(),
+                Function.identity(),
+                this.context
+        ).expression()
+                .ifPresent(e -> new ExpressionVisitor() {
+                    @Override
+                    protected void visit(final ReferenceExpression node) {
+                        BasicSpreadsheetEngineEvaluatePrecedents.this.precedent(node.value(), precedents);
+                    }
+                }.accept(e));
+
+        return precedents;
+    }
+
+    private void precedent(final ExpressionReference reference,
+                           final Set<SpreadsheetCellReference> precedents) {
+        try {
+            precedents.add(
+                    SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunctionSpreadsheetExpressionReferenceVisitor.reference(
+                            reference,
+                            this.context.storeRepository().labels()
+                    ).toRelative()
+            );
+        } catch (final ExpressionEvaluationException ignore) {
+            // unknown label will be reported when the cell is evaluated.
+        }
+    }
+
+    /**
+     * Marks all cells on the stack from the given precedent to the top as part of a circular reference.
+     */
+    private void circular(final SpreadsheetCellReference precedent) {
+        final List<SpreadsheetCell> cells = this.cells;
+
+        for (int i = cells.size() - 1; i >= 0; i--) {
+            final SpreadsheetCellReference reference = cells.get(i)
+                    .reference()
+                    .toRelative();
+            this.circular.add(reference);
+            if (reference.equals(precedent)) {
+                break;
+            }
+        }
+    }
+
+    private final BasicSpreadsheetEngine engine;
+
+    private final SpreadsheetEngineContext context;
+
+    /**
+     * The stack of cells waiting for their precedents to be evaluated.
+     */
+    private final List<SpreadsheetCell> cells = Lists.array();
+
+    /**
+     * The remaining precedents for each cell in {@link #cells}.
+     */
+    private final List<Iterator<SpreadsheetCellReference>> precedents = Lists.array();
+
+    /**
+     * The references of all cells currently on the stack, used to detect circular references.
+     */
+    private final Set<SpreadsheetCellReference> path = Sets.sorted();
+
+    /**
+     * All cells that have been evaluated.
+     */
+    private final Set<SpreadsheetCellReference> evaluated = Sets.sorted();
+
+    /**
+     * All cells found to be part of a circular reference.
+     */
+    private final Set<SpreadsheetCellReference> circular = Sets.sorted();
+
+    @Override
+    public String toString() {
+        return this.cells.toString();
+    }
+}
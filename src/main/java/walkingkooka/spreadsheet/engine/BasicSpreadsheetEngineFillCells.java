@@ -22,6 +22,7 @@ import walkingkooka.spreadsheet.SpreadsheetCell;
 import walkingkooka.spreadsheet.SpreadsheetFormula;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+import walkingkooka.spreadsheet.reference.SpreadsheetRangeCursor;
 
 import java.util.Collection;
 import java.util.List;
@@ -66,7 +67,10 @@ final class BasicSpreadsheetEngineFillCells {
      * Clears aka deletes all the cells in the given {@link SpreadsheetRange}
      */
     private void clear(final SpreadsheetRange to) {
-        to.cellStream().forEach(this::deleteCell);
+        final SpreadsheetRangeCursor cursor = to.cursor();
+        while (cursor.next()) {
+            this.deleteCell(cursor.cell());
+        }
     }
 
     /**
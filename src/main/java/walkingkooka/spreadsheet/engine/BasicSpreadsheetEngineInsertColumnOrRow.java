@@ -39,20 +39,11 @@ final class BasicSpreadsheetEngineInsertColumnOrRow extends BasicSpreadsheetEngi
      * Inserts the requested number of columns or rows.
      */
     private void insert0(final SpreadsheetEngineContext context) {
-        this.move();
+        this.columnOrRow.shift(this.columnOrRow.value, this.columnOrRow.count);
         this.columnOrRow.fixAllExpressionReferences(context);
         this.columnOrRow.fixAllLabelMappings();
     }
 
-    private void move() {
-        final int offset = this.columnOrRow.value;
-        final int moveCount = this.columnOrRow.max() - offset;
-
-        for (int i = 0; i <= moveCount; i++) {
-            this.columnOrRow.move(offset + moveCount - i);
-        }
-    }
-
     @Override
     int fixReferenceOffset(final int count) {
         return +count;
@@ -68,6 +59,11 @@ final class BasicSpreadsheetEngineInsertColumnOrRow extends BasicSpreadsheetEngi
         return false; // no references are ever deleted during an insert.
     }
 
+    @Override
+    boolean isDeletedCell(final int offset) {
+        return false; // no cells are ever deleted during an insert.
+    }
+
     @Override
     void fixLabelMapping(final SpreadsheetLabelMapping mapping) {
         this.columnOrRow.insertFixLabelMapping(mapping);
@@ -17,6 +17,7 @@
 
 package walkingkooka.spreadsheet.engine;
 
+import walkingkooka.collect.list.Lists;
 import walkingkooka.collect.map.Maps;
 import walkingkooka.collect.set.Sets;
 import walkingkooka.spreadsheet.SpreadsheetCell;
@@ -24,17 +25,21 @@ import walkingkooka.spreadsheet.SpreadsheetFormula;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetLabelMapping;
 import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
-import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetExpressionReferenceStore;
 import walkingkooka.spreadsheet.reference.store.SpreadsheetLabelStore;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetRangeStore;
 import walkingkooka.spreadsheet.reference.store.TargetAndSpreadsheetCellReference;
 import walkingkooka.spreadsheet.store.SpreadsheetCellStore;
 import walkingkooka.spreadsheet.store.repo.SpreadsheetStoreRepository;
 import walkingkooka.store.Watchers;
 
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
 
 /**
  * Aggregates all the updated cells that result from an operation by {@link BasicSpreadsheetEngine}.
@@ -62,6 +67,7 @@ final class BasicSpreadsheetEngineUpdatedCells implements AutoCloseable {
         final SpreadsheetCellStore cellStore = repository.cells();
         this.onSaveCell = cellStore.addSaveWatcher(this::onCellSaved);
         this.onDeleteCell = cellStore.addDeleteWatcher(this::onCellDeleted);
+        this.onShiftCells = cellStore.addShiftWatcher(this::onCellsShifted);
 
         this.onDeleteCellReferences = repository.cellReferences()
                 .addRemoveReferenceWatcher(this::onCellReferenceDeleted);
@@ -83,6 +89,10 @@ final class BasicSpreadsheetEngineUpdatedCells implements AutoCloseable {
         this.mode.onCellDeleted(cell, this);
     }
 
+    private void onCellsShifted(final List<SpreadsheetCell> cells) {
+        this.mode.onCellsShifted(cells, this);
+    }
+
     private void onCellReferenceDeleted(final TargetAndSpreadsheetCellReference<SpreadsheetCellReference> targetAndReference) {
         this.mode.onCellReferenceDeleted(targetAndReference, this);
     }
@@ -102,10 +112,14 @@ final class BasicSpreadsheetEngineUpdatedCells implements AutoCloseable {
      */
     void onCellSavedImmediate(final SpreadsheetCell cell) {
         final SpreadsheetCellReference reference = cell.reference();
-        if (null == this.updated.put(reference, cell)) {
+        if (null == this.updated.put(reference, cell) && false == this.emitted.contains(reference)) {
             this.removePreviousExpressionReferences(reference);
             this.addNewExpressionReferences(reference, cell.formula());
             this.batchReferrers(reference);
+
+            if (false == this.refreshing) {
+                this.saved.add(reference);
+            }
         }
     }
 
@@ -141,6 +155,14 @@ final class BasicSpreadsheetEngineUpdatedCells implements AutoCloseable {
                 .forEach(r -> repository.rangeToCells().removeValue(r, cell));
     }
 
+    /**
+     * Shifted cells and any cells that reference their new location are queued, and are evaluated and saved when
+     * refreshed. Unlike a batch nothing else will fix and save the referrers, so they are queued here.
+     */
+    void onCellsShiftedImmediate(final List<SpreadsheetCell> cells) {
+        cells.forEach(c -> this.batchCell(c.reference()));
+    }
+
     void onCellReferenceDeletedImmediate(final TargetAndSpreadsheetCellReference<SpreadsheetCellReference> targetAndReference) {
         this.batchReferrers(targetAndReference.target());
     }
@@ -159,13 +181,28 @@ final class BasicSpreadsheetEngineUpdatedCells implements AutoCloseable {
         this.batchCell(cell.reference());
     }
 
+    /**
+     * Queues the referrers of the deleted cell before removing any references from its formula, so the removal
+     * of those references does not queue the deleted cell again without its referrers.
+     */
     void onCellDeletedBatch(final SpreadsheetCellReference cell) {
         this.batchCell(cell);
+        this.removePreviousExpressionReferences(cell);
     }
 
-    @SuppressWarnings("unused")
+    /**
+     * Shifted cells are queued for evaluation. Formulas that referenced the shifted cells are fixed and saved later,
+     * which will also queue them.
+     */
+    void onCellsShiftedBatch(final List<SpreadsheetCell> cells) {
+        cells.forEach(c -> this.queue.add(c.reference()));
+    }
+
+    /**
+     * References are only removed in a batch when their target cell is deleted, which has already been queued.
+     */
     void onCellReferenceDeletedBatch(final TargetAndSpreadsheetCellReference<SpreadsheetCellReference> targetAndReference) {
-        throw new UnsupportedOperationException();
+        this.batchCell(targetAndReference.target());
     }
 
     void onLabelSavedBatch(final SpreadsheetLabelMapping mapping) {
@@ -179,24 +216,128 @@ final class BasicSpreadsheetEngineUpdatedCells implements AutoCloseable {
     // REFRESH UPDATED ................................................................................................
 
     /**
-     * Completes any outstanding refreshes.
+     * Completes any outstanding refreshes like {@link #refreshUpdated()}, passing each updated cell to the
+     * {@link Consumer} as soon as it is final, rather than keeping all cells until the refresh completes. Passed cells
+     * are dropped and only their reference is kept, so they are not evaluated or passed again. Any cells that were
+     * loaded or saved but not part of the refresh are passed at the end in row major order.
+     */
+    void refreshUpdated(final Consumer<SpreadsheetCell> finalized) {
+        this.finalized = finalized;
+        this.refreshUpdated();
+
+        final Map<SpreadsheetCellReference, SpreadsheetCell> updated = this.updated;
+        this.emitted.addAll(updated.keySet());
+        updated.values()
+                .forEach(finalized);
+        updated.clear();
+    }
+
+    /**
+     * Completes any outstanding refreshes. All queued cells are gathered into a dirty set, sorted topologically so
+     * precedents are evaluated before their dependents, and each dirty cell is then evaluated once. Cells saved
+     * before the refresh are included when sorting, so cycles through them are found. Every cell that is part of a
+     * cycle has a circular reference error set instead of being evaluated.
      */
     void refreshUpdated() {
         this.mode = BasicSpreadsheetEngineUpdatedCellsMode.IMMEDIATE;
+        this.refreshing = true;
+
+        for (; ; ) {
+            final Set<SpreadsheetCellReference> dirty = this.pollDirty();
+            final Set<SpreadsheetCellReference> saved = this.saved;
+            if (dirty.isEmpty() && saved.isEmpty()) {
+                break;
+            }
+
+            final Set<SpreadsheetCellReference> cells = Sets.sorted();
+            cells.addAll(dirty);
+            cells.addAll(saved);
+            saved.clear();
+
+            final BasicSpreadsheetEngineUpdatedCellsDependencyGraph graph = BasicSpreadsheetEngineUpdatedCellsDependencyGraph.with(cells, this.repository);
+            this.circular(graph.circular());
+
+            if (dirty.size() > 1 && BasicSpreadsheetEngineUpdatedCellsParallelRefresh.isSupported(this.engine, this.context)) {
+                BasicSpreadsheetEngineUpdatedCellsParallelRefresh.refresh(
+                        graph.levels(),
+                        this,
+                        this.engine,
+                        (BasicSpreadsheetEngineContext) this.context
+                );
+            } else {
+                this.refresh(graph.topologicalOrder());
+            }
+        }
+    }
+
+    /**
+     * Sets a circular reference error on all the given cells, including cells that were already updated, whose
+     * updated cell is replaced when the error is saved.
+     */
+    private void circular(final Set<SpreadsheetCellReference> circular) {
+        final SpreadsheetCellStore store = this.repository.cells();
+
+        for (final SpreadsheetCellReference reference : circular) {
+            store.load(reference)
+                    .ifPresent(c -> this.engine.saveError(
+                            c,
+                            BasicSpreadsheetEngineEvaluatePrecedents.CIRCULAR_REFERENCE,
+                            this.context
+                    ));
+            this.emit(reference);
+        }
+    }
+
+    /**
+     * Evaluates each cell in order, skipping cells that have already been updated. Each cell is final once reached,
+     * as all its precedents come before it.
+     */
+    private void refresh(final List<SpreadsheetCellReference> ordered) {
+        final SpreadsheetCellStore store = this.repository.cells();
+
+        for (final SpreadsheetCellReference reference : ordered) {
+            if (false == this.isLoaded(reference)) {
+                store.load(reference)
+                        .ifPresent(c -> this.engine.maybeParseAndEvaluateAndFormat(c,
+                                SpreadsheetEngineEvaluation.FORCE_RECOMPUTE,
+                                this.context));
+            }
+            this.emit(reference);
+        }
+    }
+
+    /**
+     * When refreshing with a {@link Consumer}, passes the updated cell to it and drops the cell keeping only its
+     * reference.
+     */
+    void emit(final SpreadsheetCellReference reference) {
+        final Consumer<SpreadsheetCell> finalized = this.finalized;
+        if (null != finalized) {
+            final SpreadsheetCell cell = this.updated.remove(reference);
+            if (null != cell) {
+                this.emitted.add(reference);
+                finalized.accept(cell);
+            }
+        }
+    }
+
+    /**
+     * Drains the queue returning all cells that have not yet been updated.
+     */
+    private Set<SpreadsheetCellReference> pollDirty() {
+        final Set<SpreadsheetCellReference> dirty = Sets.sorted();
 
         for (; ; ) {
             final SpreadsheetCellReference potential = this.queue.poll();
             if (null == potential) {
                 break;
             }
-            if (this.updated.containsKey(potential)) {
-                continue;
+            if (false == this.isLoaded(potential)) {
+                dirty.add(potential);
             }
-
-            this.engine.loadCell(potential,
-                    SpreadsheetEngineEvaluation.FORCE_RECOMPUTE,
-                    this.context);
         }
+
+        return dirty;
     }
 
     /**
@@ -211,7 +352,8 @@ final class BasicSpreadsheetEngineUpdatedCells implements AutoCloseable {
      * Tests if the given {@link SpreadsheetCellReference} has been already been loaded in this request.
      */
     boolean isLoaded(final SpreadsheetCellReference reference) {
-        return this.updated.containsKey(reference);
+        return this.updated.containsKey(reference) ||
+                this.emitted.contains(reference);
     }
 
     /**
@@ -224,8 +366,7 @@ final class BasicSpreadsheetEngineUpdatedCells implements AutoCloseable {
     }
 
     private void batchCell(final SpreadsheetCellReference reference) {
-        if (false == this.updated.containsKey(reference)) {
-            this.queue.add(reference);
+        if (this.queue(reference)) {
             this.batchReferrers(reference);
         }
     }
@@ -236,26 +377,57 @@ final class BasicSpreadsheetEngineUpdatedCells implements AutoCloseable {
                 .ifPresent(r -> r.forEach(this::batchCell));
     }
 
-    private void batchRange(final SpreadsheetRange range) {
-        this.repository.rangeToCells()
-                .load(range)
-                .ifPresent(c -> c.forEach(this::batchCell));
+    /**
+     * Queues all the cells that directly or indirectly reference the given cell. The referrers are walked using a
+     * worklist rather than recursion, and each cell is only queued and has its referrers walked once, no matter how
+     * many paths reach it or whether it is part of a cycle.
+     */
+    private void batchReferrers(final SpreadsheetCellReference reference) {
+        final List<SpreadsheetCellReference> pending = Lists.array();
+        pending.add(reference);
+
+        while (false == pending.isEmpty()) {
+            this.referrers(
+                    pending.remove(pending.size() - 1),
+                    r -> {
+                        if (this.queue(r)) {
+                            pending.add(r);
+                        }
+                    });
+        }
     }
 
-    private void batchReferrers(final SpreadsheetCellReference reference) {
+    /**
+     * Passes all cells with a formula that references the given cell directly, or via a label or range.
+     */
+    private void referrers(final SpreadsheetCellReference reference,
+                           final Consumer<SpreadsheetCellReference> referrers) {
         final SpreadsheetStoreRepository repository = this.repository;
 
         repository.cellReferences()
                 .loadReferred(reference)
-                .forEach(this::batchCell);
+                .forEach(referrers);
 
+        final SpreadsheetExpressionReferenceStore<SpreadsheetLabelName> labelReferences = repository.labelReferences();
         repository.labels()
                 .labels(reference)
-                .forEach(this::batchLabel);
+                .forEach(l -> labelReferences.load(l).ifPresent(r -> r.forEach(referrers)));
 
-        repository.rangeToCells()
-                .loadCellReferenceRanges(reference)
-                .forEach(this::batchRange);
+        final SpreadsheetRangeStore<SpreadsheetCellReference> rangeToCells = repository.rangeToCells();
+        rangeToCells.loadCellReferenceRanges(reference)
+                .forEach(r -> rangeToCells.load(r).ifPresent(c -> c.forEach(referrers)));
+    }
+
+    /**
+     * Adds the cell to the queue unless it has already been updated or queued, returning true if it was added.
+     */
+    private boolean queue(final SpreadsheetCellReference reference) {
+        final boolean queue = false == this.isLoaded(reference) &&
+                this.queued.add(reference);
+        if (queue) {
+            this.queue.add(reference);
+        }
+        return queue;
     }
 
     /**
@@ -269,9 +441,38 @@ final class BasicSpreadsheetEngineUpdatedCells implements AutoCloseable {
     private final Queue<SpreadsheetCellReference> queue = new ConcurrentLinkedQueue<>();
 
     /**
-     * Records all updated cells. This can then be returned by the {@link BasicSpreadsheetEngine} method.
+     * Cells saved outside {@link #refreshUpdated()}, which are included when looking for cycles.
+     */
+    private final Set<SpreadsheetCellReference> saved = Sets.sorted();
+
+    /**
+     * Becomes true once {@link #refreshUpdated()} starts, after which saved cells were dirty cells being evaluated.
+     */
+    private boolean refreshing;
+
+    /**
+     * All cells that have been queued, so a cell reached by several paths is only queued once.
      */
-    private final Map<SpreadsheetCellReference, SpreadsheetCell> updated = Maps.sorted();
+    private final Set<SpreadsheetCellReference> queued = Sets.sorted(ROW_THEN_COLUMN);
+
+    /**
+     * Records all updated cells. This can then be returned by the {@link BasicSpreadsheetEngine} method. The cells are
+     * kept in row major order so any remaining when {@link #refreshUpdated(Consumer)} completes may be passed on as they are.
+     */
+    private final Map<SpreadsheetCellReference, SpreadsheetCell> updated = Maps.sorted(ROW_THEN_COLUMN);
+
+    /**
+     * Receives each cell as it becomes final, or null when all cells are kept for a {@link SpreadsheetDelta}.
+     */
+    private Consumer<SpreadsheetCell> finalized;
+
+    /**
+     * The references of cells already passed to {@link #finalized} and dropped from {@link #updated}.
+     */
+    private final Set<SpreadsheetCellReference> emitted = Sets.sorted(ROW_THEN_COLUMN);
+
+    private final static Comparator<SpreadsheetCellReference> ROW_THEN_COLUMN = Comparator.<SpreadsheetCellReference>comparingInt(r -> r.row().value())
+            .thenComparingInt(r -> r.column().value());
 
     private final BasicSpreadsheetEngine engine;
     private final SpreadsheetEngineContext context;
@@ -284,6 +485,7 @@ final class BasicSpreadsheetEngineUpdatedCells implements AutoCloseable {
     public void close() {
         Watchers.removeAllThenFail(this.onSaveCell,
                 this.onDeleteCell,
+                this.onShiftCells,
                 this.onDeleteCellReferences,
                 this.onSaveLabel,
                 this.onDeleteLabel);
@@ -291,6 +493,7 @@ final class BasicSpreadsheetEngineUpdatedCells implements AutoCloseable {
 
     private final Runnable onSaveCell;
     private final Runnable onDeleteCell;
+    private final Runnable onShiftCells;
     private final Runnable onDeleteCellReferences;
     private final Runnable onSaveLabel;
     private final Runnable onDeleteLabel;
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.engine;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetExpressionReferenceStore;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetRangeStore;
+import walkingkooka.spreadsheet.store.repo.SpreadsheetStoreRepository;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Holds the dependency graph between a set of dirty {@link SpreadsheetCellReference cells}, built using the
+ * cell, label and range reference stores. Only edges where both ends are dirty are recorded. The cells are sorted so
+ * precedents come before their dependents, and cells that form a cycle are reported separately.
+ */
+final class BasicSpreadsheetEngineUpdatedCellsDependencyGraph {
+
+    /**
+     * Factory that creates a new {@link BasicSpreadsheetEngineUpdatedCellsDependencyGraph} for the given dirty cells.
+     */
+    static BasicSpreadsheetEngineUpdatedCellsDependencyGraph with(final Collection<SpreadsheetCellReference> dirty,
+                                                                  final SpreadsheetStoreRepository repository) {
+        return new BasicSpreadsheetEngineUpdatedCellsDependencyGraph(dirty, repository);
+    }
+
+    /**
+     * Private ctor use factory.
+     */
+    private BasicSpreadsheetEngineUpdatedCellsDependencyGraph(final Collection<SpreadsheetCellReference> dirty,
+                                                              final SpreadsheetStoreRepository repository) {
+        super();
+
+        final Map<SpreadsheetCellReference, Set<SpreadsheetCellReference>> dependents = Maps.sorted();
+        for (final SpreadsheetCellReference cell : dirty) {
+            dependents.put(cell.toRelative(), Sets.sorted());
+        }
+
+        for (final Map.Entry<SpreadsheetCellReference, Set<SpreadsheetCellReference>> cellAndDependents : dependents.entrySet()) {
+            final Set<SpreadsheetCellReference> cellDependents = cellAndDependents.getValue();
+
+            for (final SpreadsheetCellReference dependent : dependents(cellAndDependents.getKey(), repository)) {
+                if (dependents.containsKey(dependent)) {
+                    cellDependents.add(dependent.toRelative());
+                }
+            }
+        }
+
+        this.dependents = dependents;
+    }
+
+    /**
+     * Gathers all the cells with a formula that references the given cell directly, or via a label or range.
+     */
+    private static Set<SpreadsheetCellReference> dependents(final SpreadsheetCellReference cell,
+                                                            final SpreadsheetStoreRepository repository) {
+        final Set<SpreadsheetCellReference> dependents = Sets.sorted();
+
+        dependents.addAll(
+                repository.cellReferences()
+                        .loadReferred(cell)
+        );
+
+        final SpreadsheetExpressionReferenceStore<SpreadsheetLabelName> labelReferences = repository.labelReferences();
+        repository.labels()
+                .labels(cell)
+                .forEach(l -> labelReferences.load(l).ifPresent(dependents::addAll));
+
+        final SpreadsheetRangeStore<SpreadsheetCellReference> rangeToCells = repository.rangeToCells();
+        rangeToCells.loadCellReferenceRanges(cell)
+                .forEach(r -> rangeToCells.load(r).ifPresent(dependents::addAll));
+
+        return dependents;
+    }
+
+    /**
+     * Returns all dirty cells ordered so that every cell appears after all its dirty precedents. Cells that are part
+     * of a cycle are not included, see {@link #circular()}.
+     */
+    List<SpreadsheetCellReference> topologicalOrder() {
+        final List<SpreadsheetCellReference> ordered = Lists.array();
+        this.levels()
+                .forEach(ordered::addAll);
+        return ordered;
+    }
+
+    /**
+     * Groups the dirty cells into levels, where the cells in a level only have dirty precedents in earlier levels or
+     * that are part of a cycle, and may therefore be evaluated independently of each other. Cells that are part of a
+     * cycle are not included, see {@link #circular()}.
+     */
+    List<List<SpreadsheetCellReference>> levels() {
+        if (null == this.levels) {
+            this.sort();
+        }
+        return this.levels;
+    }
+
+    /**
+     * Returns all cells that are part of a cycle, including cells that reference themselves. Cells that only
+     * reference a cycle are not included and are returned by {@link #levels()}.
+     */
+    Set<SpreadsheetCellReference> circular() {
+        if (null == this.circular) {
+            this.sort();
+        }
+        return this.circular;
+    }
+
+    /**
+     * Sorts the cells into levels. Any cells left over are either part of a cycle or reference one, the cycles are
+     * found and removed and the remaining cells then sorted into further levels.
+     */
+    private void sort() {
+        final Map<SpreadsheetCellReference, Set<SpreadsheetCellReference>> dependents = this.dependents;
+        final Map<SpreadsheetCellReference, Integer> precedentCounts = this.precedentCounts();
+
+        final List<List<SpreadsheetCellReference>> levels = Lists.array();
+
+        final List<SpreadsheetCellReference> first = Lists.array();
+        for (final Map.Entry<SpreadsheetCellReference, Integer> cellAndCount : precedentCounts.entrySet()) {
+            if (0 == cellAndCount.getValue()) {
+                first.add(cellAndCount.getKey());
+            }
+        }
+
+        final int count = this.levels(first, precedentCounts, levels);
+
+        Set<SpreadsheetCellReference> circular = Sets.empty();
+        if (count < dependents.size()) {
+            final Set<SpreadsheetCellReference> remaining = Sets.sorted();
+            for (final Map.Entry<SpreadsheetCellReference, Integer> cellAndCount : precedentCounts.entrySet()) {
+                if (cellAndCount.getValue() > 0) {
+                    remaining.add(cellAndCount.getKey());
+                }
+            }
+
+            circular = this.circular(remaining);
+
+            final List<SpreadsheetCellReference> afterCircular = Lists.array();
+            for (final SpreadsheetCellReference cell : circular) {
+                for (final SpreadsheetCellReference dependent : dependents.get(cell)) {
+                    if (false == circular.contains(dependent) && decrement(dependent, precedentCounts)) {
+                        afterCircular.add(dependent);
+                    }
+                }
+            }
+            this.levels(afterCircular, precedentCounts, levels);
+        }
+
+        this.levels = levels;
+        this.circular = circular;
+    }
+
+    /**
+     * Adds the given level and all following levels, returning the number of cells added.
+     */
+    private int levels(final List<SpreadsheetCellReference> first,
+                       final Map<SpreadsheetCellReference, Integer> precedentCounts,
+                       final List<List<SpreadsheetCellReference>> levels) {
+        final Map<SpreadsheetCellReference, Set<SpreadsheetCellReference>> dependents = this.dependents;
+
+        int count = 0;
+        List<SpreadsheetCellReference> level = first;
+        while (false == level.isEmpty()) {
+            levels.add(level);
+            count += level.size();
+
+            final List<SpreadsheetCellReference> next = Lists.array();
+            for (final SpreadsheetCellReference cell : level) {
+                for (final SpreadsheetCellReference dependent : dependents.get(cell)) {
+                    if (decrement(dependent, precedentCounts)) {
+                        next.add(dependent);
+                    }
+                }
+            }
+            level = next;
+        }
+
+        return count;
+    }
+
+    /**
+     * Decrements the precedent count of the cell returning true when it has no more precedents.
+     */
+    private static boolean decrement(final SpreadsheetCellReference cell,
+                                     final Map<SpreadsheetCellReference, Integer> precedentCounts) {
+        final int precedentCount = precedentCounts.get(cell) - 1;
+        precedentCounts.put(cell, precedentCount);
+        return 0 == precedentCount;
+    }
+
+    /**
+     * Finds the strongly connected components amongst the given cells using Tarjan's algorithm, walking the
+     * dependents with an explicit stack rather than recursion. Components with more than one cell, or a single cell
+     * that references itself, are cycles.
+     */
+    private Set<SpreadsheetCellReference> circular(final Set<SpreadsheetCellReference> cells) {
+        final Map<SpreadsheetCellReference, Set<SpreadsheetCellReference>> dependents = this.dependents;
+
+        final Map<SpreadsheetCellReference, Integer> indices = Maps.sorted();
+        final Map<SpreadsheetCellReference, Integer> lowLinks = Maps.sorted();
+        final List<SpreadsheetCellReference> stack = Lists.array();
+        final Set<SpreadsheetCellReference> onStack = Sets.sorted();
+
+        final List<SpreadsheetCellReference> path = Lists.array();
+        final List<Iterator<SpreadsheetCellReference>> pathDependents = Lists.array();
+
+        final Set<SpreadsheetCellReference> circular = Sets.sorted();
+
+        for (final SpreadsheetCellReference root : cells) {
+            if (indices.containsKey(root)) {
+                continue;
+            }
+
+            SpreadsheetCellReference visit = root;
+            while (null != visit || false == path.isEmpty()) {
+                if (null != visit) {
+                    final int index = indices.size();
+                    indices.put(visit, index);
+                    lowLinks.put(visit, index);
+                    stack.add(visit);
+                    onStack.add(visit);
+                    path.add(visit);
+                    pathDependents.add(dependents.get(visit).iterator());
+                    visit = null;
+                    continue;
+                }
+
+                final int top = path.size() - 1;
+                final SpreadsheetCellReference cell = path.get(top);
+                final Iterator<SpreadsheetCellReference> cellDependents = pathDependents.get(top);
+
+                if (cellDependents.hasNext()) {
+                    final SpreadsheetCellReference dependent = cellDependents.next();
+                    if (cells.contains(dependent)) {
+                        if (false == indices.containsKey(dependent)) {
+                            visit = dependent;
+                        } else if (onStack.contains(dependent)) {
+                            lowLinks.put(cell, Math.min(lowLinks.get(cell), indices.get(dependent)));
+                        }
+                    }
+                    continue;
+                }
+
+                path.remove(top);
+                pathDependents.remove(top);
+
+                final int lowLink = lowLinks.get(cell);
+                if (top > 0) {
+                    final SpreadsheetCellReference parent = path.get(top - 1);
+                    lowLinks.put(parent, Math.min(lowLinks.get(parent), lowLink));
+                }
+
+                if (lowLink == indices.get(cell)) {
+                    final List<SpreadsheetCellReference> component = Lists.array();
+                    SpreadsheetCellReference member;
+                    do {
+                        member = stack.remove(stack.size() - 1);
+                        onStack.remove(member);
+                        component.add(member);
+                    } while (false == member.equals(cell));
+
+                    if (component.size() > 1 || dependents.get(cell).contains(cell)) {
+                        circular.addAll(component);
+                    }
+                }
+            }
+        }
+
+        return circular;
+    }
+
+    /**
+     * Counts the number of dirty precedents for each dirty cell.
+     */
+    private Map<SpreadsheetCellReference, Integer> precedentCounts() {
+        final Map<SpreadsheetCellReference, Integer> precedentCounts = Maps.sorted();
+        this.dependents.keySet()
+                .forEach(c -> precedentCounts.put(c, 0));
+
+        this.dependents.values()
+                .forEach(d -> d.forEach(c -> precedentCounts.put(c, precedentCounts.get(c) + 1)));
+        return precedentCounts;
+    }
+
+    /**
+     * All dirty cells and the dirty cells that depend upon them.
+     */
+    private final Map<SpreadsheetCellReference, Set<SpreadsheetCellReference>> dependents;
+
+    /**
+     * The levels of cells that are not part of a cycle, computed on demand.
+     */
+    private List<List<SpreadsheetCellReference>> levels;
+
+    /**
+     * All cells that are part of a cycle, computed on demand.
+     */
+    private Set<SpreadsheetCellReference> circular;
+
+    @Override
+    public String toString() {
+        return this.dependents.toString();
+    }
+}
@@ -23,6 +23,8 @@ import walkingkooka.spreadsheet.reference.SpreadsheetLabelMapping;
 import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
 import walkingkooka.spreadsheet.reference.store.TargetAndSpreadsheetCellReference;
 
+import java.util.List;
+
 /**
  * Controls what happens whenever a save to cell store happens.
  */
@@ -44,6 +46,12 @@ enum BasicSpreadsheetEngineUpdatedCellsMode {
             cells.onCellDeletedImmediate(cell);
         }
 
+        @Override
+        void onCellsShifted(final List<SpreadsheetCell> shifted,
+                            final BasicSpreadsheetEngineUpdatedCells cells) {
+            cells.onCellsShiftedImmediate(shifted);
+        }
+
         @Override
         void onCellReferenceDeleted(final TargetAndSpreadsheetCellReference<SpreadsheetCellReference> targetAndReference,
                                     final BasicSpreadsheetEngineUpdatedCells cells) {
@@ -79,6 +87,12 @@ enum BasicSpreadsheetEngineUpdatedCellsMode {
             cells.onCellDeletedBatch(cell);
         }
 
+        @Override
+        void onCellsShifted(final List<SpreadsheetCell> shifted,
+                            final BasicSpreadsheetEngineUpdatedCells cells) {
+            cells.onCellsShiftedBatch(shifted);
+        }
+
         @Override
         void onCellReferenceDeleted(final TargetAndSpreadsheetCellReference<SpreadsheetCellReference> targetAndReference,
                                     final BasicSpreadsheetEngineUpdatedCells cells) {
@@ -112,6 +126,9 @@ enum BasicSpreadsheetEngineUpdatedCellsMode {
     abstract void onCellDeleted(final SpreadsheetCellReference cell,
                                 final BasicSpreadsheetEngineUpdatedCells cells);
 
+    abstract void onCellsShifted(final List<SpreadsheetCell> shifted,
+                                 final BasicSpreadsheetEngineUpdatedCells cells);
+
     abstract void onCellReferenceDeleted(final TargetAndSpreadsheetCellReference<SpreadsheetCellReference> targetAndReference,
                                          final BasicSpreadsheetEngineUpdatedCells cells);
 
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.engine;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.store.SpreadsheetCellStore;
+import walkingkooka.tree.expression.Expression;
+import walkingkooka.tree.expression.ExpressionEvaluationException;
+import walkingkooka.tree.expression.ExpressionReference;
+import walkingkooka.tree.expression.ExpressionVisitor;
+import walkingkooka.tree.expression.ReferenceExpression;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Recalculates the levels of a {@link BasicSpreadsheetEngineUpdatedCellsDependencyGraph} using the
+ * {@link SpreadsheetEngineExecutor} of the {@link BasicSpreadsheetEngine}. The cells within a level are independent
+ * of each other and are evaluated by tasks that may run in parallel. Before that any referenced cells without a value
+ * are evaluated on the calling thread, so the tasks only read from the stores. Each task evaluates with its own
+ * {@link BasicSpreadsheetEngineContext#readOnlyCopy()}, as its parser and formatter contexts are not thread safe, and
+ * its references are resolved without ever evaluating or saving a cell, failing if a precedent was not evaluated. The
+ * evaluated cells are then saved on the calling thread, firing the watchers that record the updated cells.
+ */
+final class BasicSpreadsheetEngineUpdatedCellsParallelRefresh {
+
+    /**
+     * Only a {@link BasicSpreadsheetEngine} with an executor other than {@link SpreadsheetEngineExecutors#serial()}
+     * and a {@link BasicSpreadsheetEngineContext}, which can be copied for each task, are refreshed by levels.
+     */
+    static boolean isSupported(final BasicSpreadsheetEngine engine,
+                               final SpreadsheetEngineContext context) {
+        return SpreadsheetEngineExecutors.serial() != engine.executor &&
+                context instanceof BasicSpreadsheetEngineContext;
+    }
+
+    static void refresh(final List<List<SpreadsheetCellReference>> levels,
+                        final BasicSpreadsheetEngineUpdatedCells updated,
+                        final BasicSpreadsheetEngine engine,
+                        final BasicSpreadsheetEngineContext context) {
+        new BasicSpreadsheetEngineUpdatedCellsParallelRefresh(updated, engine, context)
+                .refresh(levels);
+    }
+
+    // VisibleForTesting
+    BasicSpreadsheetEngineUpdatedCellsParallelRefresh(final BasicSpreadsheetEngineUpdatedCells updated,
+                                                      final BasicSpreadsheetEngine engine,
+                                                      final BasicSpreadsheetEngineContext context) {
+        super();
+        this.updated = updated;
+        this.engine = engine;
+        this.context = context;
+        this.function = SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction.with(
+                engine,
+                context.storeRepository().labels(),
+                context
+        );
+    }
+
+    private void refresh(final List<List<SpreadsheetCellReference>> levels) {
+        levels.forEach(this::refreshLevel);
+    }
+
+    private void refreshLevel(final List<SpreadsheetCellReference> level) {
+        final SpreadsheetCellStore store = this.context.storeRepository()
+                .cells();
+
+        final List<SpreadsheetCell> cells = Lists.array();
+        level.stream()
+                .filter(r -> false == this.updated.isLoaded(r))
+                .forEach(r -> store.load(r).ifPresent(cells::add));
+
+        cells.forEach(this::resolveReferences);
+        cells.removeIf(c -> this.updated.isLoaded(c.reference())); // evaluated while resolving references
+
+        final BasicSpreadsheetEngine engine = this.engine;
+        final BasicSpreadsheetEngineContext context = this.context;
+
+        final int count = cells.size();
+        if (count > 1) {
+            final SpreadsheetCell[] evaluated = new SpreadsheetCell[count];
+            final List<Runnable> tasks = Lists.array();
+
+            for (int i = 0; i < count; i++) {
+                final int index = i;
+                final SpreadsheetCell cell = cells.get(i);
+                final BasicSpreadsheetEngineContext taskContext = context.readOnlyCopy();
+
+                tasks.add(() -> evaluated[index] = SpreadsheetEngineEvaluation.FORCE_RECOMPUTE.formulaEvaluateAndStyle(
+                        cell,
+                        engine,
+                        taskContext
+                ));
+            }
+
+            engine.executor.execute(tasks);
+
+            for (final SpreadsheetCell cell : evaluated) {
+                store.save(cell);
+            }
+        } else {
+            cells.forEach(c -> engine.maybeParseAndEvaluateAndFormat(c,
+                    SpreadsheetEngineEvaluation.FORCE_RECOMPUTE,
+                    context));
+        }
+
+        // all precedents of the next level are now final
+        level.forEach(this.updated::emit);
+    }
+
+    /**
+     * Resolves all references within the cell formula and any conditional formatting rules that apply to the cell,
+     * which evaluates and saves referenced cells that have not been evaluated.
+     */
+    private void resolveReferences(final SpreadsheetCell cell) {
+        final SpreadsheetEngineContext context = this.context;
+
+        this.resolveReferences(
+                this.engine.parseFormulaIfNecessary(
+                        cell.formula(),
+                        Function.identity(),
+                        context
+                ).expression()
+        );
+
+        context.storeRepository()
+                .rangeToConditionalFormattingRules()
+                .loadCellReferenceValues(cell.reference())
+                .forEach(r -> this.resolveReferences(r.formula().expression()));
+    }
+
+    private void resolveReferences(final Optional<Expression> expression) {
+        expression.ifPresent(e -> new ExpressionVisitor() {
+            @Override
+            protected void visit(final ReferenceExpression node) {
+                BasicSpreadsheetEngineUpdatedCellsParallelRefresh.this.resolveReference(node.value());
+            }
+        }.accept(e));
+    }
+
+    private void resolveReference(final ExpressionReference reference) {
+        try {
+            this.function.apply(reference);
+        } catch (final ExpressionEvaluationException ignore) {
+            // the same failure will be reported when the cell is evaluated.
+        }
+    }
+
+    private final BasicSpreadsheetEngineUpdatedCells updated;
+
+    private final BasicSpreadsheetEngine engine;
+
+    private final BasicSpreadsheetEngineContext context;
+
+    /**
+     * Used to resolve references, evaluating and saving referenced cells that have not been evaluated.
+     */
+    private final SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction function;
+
+    @Override
+    public String toString() {
+        return this.engine.toString();
+    }
+}
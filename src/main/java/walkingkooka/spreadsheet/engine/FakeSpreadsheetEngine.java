@@ -30,6 +30,7 @@ import walkingkooka.test.Fake;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class FakeSpreadsheetEngine implements SpreadsheetEngine, Fake {
 
@@ -52,6 +53,18 @@ public class FakeSpreadsheetEngine implements SpreadsheetEngine, Fake {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public SpreadsheetDelta saveCells(final Collection<SpreadsheetCell> cells,
+                                      final SpreadsheetEngineContext context) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SpreadsheetDelta deleteCells(final Collection<SpreadsheetCellReference> cells,
+                                        final SpreadsheetEngineContext context) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public SpreadsheetDelta deleteColumns(final SpreadsheetColumnReference column,
                                           final int count,
@@ -73,6 +86,14 @@ public class FakeSpreadsheetEngine implements SpreadsheetEngine, Fake {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void insertColumns(final SpreadsheetColumnReference column,
+                              final int count,
+                              final Consumer<SpreadsheetCell> updated,
+                              final SpreadsheetEngineContext context) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public SpreadsheetDelta insertRows(final SpreadsheetRowReference row,
                                        final int count,
@@ -80,6 +101,14 @@ public class FakeSpreadsheetEngine implements SpreadsheetEngine, Fake {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void insertRows(final SpreadsheetRowReference row,
+                           final int count,
+                           final Consumer<SpreadsheetCell> updated,
+                           final SpreadsheetEngineContext context) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public SpreadsheetDelta loadCells(final SpreadsheetRange range,
                                       final SpreadsheetEngineEvaluation evaluation,
@@ -87,6 +116,14 @@ public class FakeSpreadsheetEngine implements SpreadsheetEngine, Fake {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void loadCells(final SpreadsheetRange range,
+                          final SpreadsheetEngineEvaluation evaluation,
+                          final Consumer<SpreadsheetCell> loaded,
+                          final SpreadsheetEngineContext context) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public SpreadsheetDelta fillCells(final Collection<SpreadsheetCell> cells,
                                       final SpreadsheetRange from,
@@ -95,6 +132,15 @@ public class FakeSpreadsheetEngine implements SpreadsheetEngine, Fake {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void fillCells(final Collection<SpreadsheetCell> cells,
+                          final SpreadsheetRange from,
+                          final SpreadsheetRange to,
+                          final Consumer<SpreadsheetCell> updated,
+                          final SpreadsheetEngineContext context) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public SpreadsheetDelta saveLabel(final SpreadsheetLabelMapping mapping,
                                       final SpreadsheetEngineContext context) {
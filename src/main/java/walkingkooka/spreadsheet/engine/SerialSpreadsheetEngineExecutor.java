@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.engine;
+
+import java.util.List;
+
+/**
+ * A {@link SpreadsheetEngineExecutor} that runs each task in turn on the calling thread.
+ */
+final class SerialSpreadsheetEngineExecutor implements SpreadsheetEngineExecutor {
+
+    /**
+     * Singleton
+     */
+    final static SerialSpreadsheetEngineExecutor INSTANCE = new SerialSpreadsheetEngineExecutor();
+
+    /**
+     * Private ctor use singleton.
+     */
+    private SerialSpreadsheetEngineExecutor() {
+        super();
+    }
+
+    @Override
+    public void execute(final List<Runnable> tasks) {
+        tasks.forEach(Runnable::run);
+    }
+
+    @Override
+    public String toString() {
+        return "serial";
+    }
+}
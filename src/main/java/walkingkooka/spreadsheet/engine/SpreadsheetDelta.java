@@ -24,6 +24,8 @@ import walkingkooka.collect.list.Lists;
 import walkingkooka.collect.map.Maps;
 import walkingkooka.collect.set.Sets;
 import walkingkooka.predicate.Predicates;
+import walkingkooka.spreadsheet.SpreadsheetBinaryReader;
+import walkingkooka.spreadsheet.SpreadsheetBinaryWriter;
 import walkingkooka.spreadsheet.SpreadsheetCell;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetColumnOrRowReference;
@@ -41,12 +43,14 @@ import walkingkooka.tree.json.marshall.JsonNodeContext;
 import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
 import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -355,6 +359,104 @@ public abstract class SpreadsheetDelta implements TreePrintable {
 
     abstract void printWindow(final IndentingPrinter printer);
 
+    // binary...........................................................................................................
+
+    /**
+     * Writes this delta in the compact binary form of {@link SpreadsheetBinaryWriter}, which may be read back using
+     * {@link #readBinary(SpreadsheetBinaryReader)}.
+     */
+    public final void writeBinary(final SpreadsheetBinaryWriter writer) {
+        Objects.requireNonNull(writer, "writer");
+
+        final Set<SpreadsheetCell> cells = this.cells;
+        writer.writeVarint(cells.size());
+        for (final SpreadsheetCell cell : cells) {
+            writer.writeCell(cell);
+        }
+
+        final Map<SpreadsheetCellReference, Set<SpreadsheetLabelName>> cellToLabels = this.cellToLabels;
+        writer.writeVarint(cellToLabels.size());
+        for (final Map.Entry<SpreadsheetCellReference, Set<SpreadsheetLabelName>> cellAndLabels : cellToLabels.entrySet()) {
+            writer.writeCellReference(cellAndLabels.getKey());
+
+            final Set<SpreadsheetLabelName> labels = cellAndLabels.getValue();
+            writer.writeVarint(labels.size());
+            for (final SpreadsheetLabelName label : labels) {
+                writer.writeLabelName(label);
+            }
+        }
+
+        writeBinaryMap(this.maxColumnWidths, writer);
+        writeBinaryMap(this.maxRowHeights, writer);
+
+        final List<SpreadsheetRange> window = this.window();
+        writer.writeVarint(window.size());
+        for (final SpreadsheetRange range : window) {
+            writer.writeRange(range);
+        }
+    }
+
+    /**
+     * Like the JSON form only the value of each column or row is written, they are always read back as relative.
+     */
+    private static void writeBinaryMap(final Map<? extends SpreadsheetColumnOrRowReference, Double> referenceToWidth,
+                                       final SpreadsheetBinaryWriter writer) {
+        writer.writeVarint(referenceToWidth.size());
+        for (final Map.Entry<? extends SpreadsheetColumnOrRowReference, Double> referenceAndWidth : referenceToWidth.entrySet()) {
+            writer.writeVarint(referenceAndWidth.getKey().value());
+            writer.writeDouble(referenceAndWidth.getValue());
+        }
+    }
+
+    /**
+     * Reads a delta written by {@link #writeBinary(SpreadsheetBinaryWriter)}.
+     */
+    public static SpreadsheetDelta readBinary(final SpreadsheetBinaryReader reader) {
+        Objects.requireNonNull(reader, "reader");
+
+        final Set<SpreadsheetCell> cells = Sets.ordered();
+        for (int i = reader.readVarint(); i > 0; i--) {
+            cells.add(reader.readCell());
+        }
+
+        final Map<SpreadsheetCellReference, Set<SpreadsheetLabelName>> cellToLabels = Maps.sorted();
+        for (int i = reader.readVarint(); i > 0; i--) {
+            final SpreadsheetCellReference cell = reader.readCellReference();
+
+            final Set<SpreadsheetLabelName> labels = Sets.ordered();
+            for (int j = reader.readVarint(); j > 0; j--) {
+                labels.add(reader.readLabelName());
+            }
+            cellToLabels.put(cell, labels);
+        }
+
+        final Map<SpreadsheetColumnReference, Double> maxColumnWidths = readBinaryMap(reader, SpreadsheetReferenceKind.RELATIVE::column);
+        final Map<SpreadsheetRowReference, Double> maxRowHeights = readBinaryMap(reader, SpreadsheetReferenceKind.RELATIVE::row);
+
+        final List<SpreadsheetRange> window = Lists.array();
+        for (int i = reader.readVarint(); i > 0; i--) {
+            window.add(reader.readRange());
+        }
+
+        return with(cells)
+                .setWindow(window)
+                .setCellToLabels(cellToLabels)
+                .setMaxColumnWidths(maxColumnWidths)
+                .setMaxRowHeights(maxRowHeights);
+    }
+
+    private static <R extends SpreadsheetColumnOrRowReference> Map<R, Double> readBinaryMap(final SpreadsheetBinaryReader reader,
+                                                                                           final IntFunction<R> reference) {
+        final Map<R, Double> max = Maps.ordered();
+
+        for (int i = reader.readVarint(); i > 0; i--) {
+            final R key = reference.apply(reader.readVarint());
+            max.put(key, reader.readDouble());
+        }
+
+        return max;
+    }
+
     // JsonNodeContext..................................................................................................
 
     static SpreadsheetDelta unmarshall(final JsonNode node,
@@ -562,6 +664,121 @@ public abstract class SpreadsheetDelta implements TreePrintable {
                 .setChildren(children);
     }
 
+    /**
+     * Writes the same JSON as {@link #marshall(JsonNodeMarshallContext)} to the {@link Appendable}, one cell, label,
+     * width or height at a time, without building a {@link JsonNode} holding the entire delta.
+     */
+    public final void marshall(final Appendable output,
+                               final JsonNodeMarshallContext context) throws IOException {
+        Objects.requireNonNull(output, "output");
+        Objects.requireNonNull(context, "context");
+
+        output.append('{');
+        boolean comma = false;
+
+        final Set<SpreadsheetCell> cells = this.cells;
+        if (!cells.isEmpty()) {
+            appendPropertyName(CELLS_PROPERTY_STRING, comma, output);
+            output.append('{');
+
+            boolean cellComma = false;
+            for (final SpreadsheetCell cell : cells) {
+                final JsonNode json = context.marshall(cell)
+                        .objectOrFail()
+                        .children()
+                        .get(0);
+                appendPropertyName(json.name().value(), cellComma, output);
+                output.append(json.toString());
+                cellComma = true;
+            }
+
+            output.append('}');
+            comma = true;
+        }
+
+        final Map<SpreadsheetCellReference, Set<SpreadsheetLabelName>> cellToLabels = this.cellToLabels;
+        if (!cellToLabels.isEmpty()) {
+            appendPropertyName(CELL_TO_LABELS_PROPERTY_STRING, comma, output);
+            output.append('{');
+
+            boolean cellComma = false;
+            for (final Map.Entry<SpreadsheetCellReference, Set<SpreadsheetLabelName>> cellAndLabels : cellToLabels.entrySet()) {
+                appendPropertyName(cellAndLabels.getKey().toString(), cellComma, output);
+                appendString(cellAndLabels.getValue()
+                                .stream()
+                                .map(SpreadsheetLabelName::toString)
+                                .collect(Collectors.joining(",")),
+                        output);
+                cellComma = true;
+            }
+
+            output.append('}');
+            comma = true;
+        }
+
+        final Map<SpreadsheetColumnReference, Double> maxColumnWidths = this.maxColumnWidths;
+        if (!maxColumnWidths.isEmpty()) {
+            appendPropertyName(MAX_COLUMN_WIDTHS_PROPERTY_STRING, comma, output);
+            appendMap(maxColumnWidths,
+                    (r) -> r.setReferenceKind(SpreadsheetReferenceKind.RELATIVE),
+                    output);
+            comma = true;
+        }
+
+        final Map<SpreadsheetRowReference, Double> maxRowsHeights = this.maxRowHeights;
+        if (!maxRowsHeights.isEmpty()) {
+            appendPropertyName(MAX_ROW_HEIGHTS_PROPERTY_STRING, comma, output);
+            appendMap(maxRowsHeights,
+                    (r) -> r.setReferenceKind(SpreadsheetReferenceKind.RELATIVE),
+                    output);
+            comma = true;
+        }
+
+        final List<SpreadsheetRange> window = this.window();
+        if (!window.isEmpty()) {
+            appendPropertyName(WINDOW_PROPERTY_STRING, comma, output);
+            appendString(window.stream()
+                            .map(SpreadsheetRange::toString)
+                            .collect(Collectors.joining(WINDOW_SEPARATOR)),
+                    output);
+        }
+
+        output.append('}');
+    }
+
+    private static <R extends SpreadsheetColumnOrRowReference> void appendMap(final Map<R, Double> referenceToWidth,
+                                                                              final Function<R, R> withoutAbsolute,
+                                                                              final Appendable output) throws IOException {
+        output.append('{');
+
+        boolean comma = false;
+        for (final Map.Entry<R, Double> referenceAndWidth : referenceToWidth.entrySet()) {
+            appendPropertyName(withoutAbsolute.apply(referenceAndWidth.getKey()).toString(), comma, output);
+            output.append(JsonNode.number(referenceAndWidth.getValue()).toString());
+            comma = true;
+        }
+
+        output.append('}');
+    }
+
+    private static void appendPropertyName(final String name,
+                                           final boolean comma,
+                                           final Appendable output) throws IOException {
+        if (comma) {
+            output.append(',');
+        }
+        appendString(name, output);
+        output.append(':');
+    }
+
+    /**
+     * Strings are quoted and escaped by {@link JsonNode#string(String)}.
+     */
+    private static void appendString(final String value,
+                                     final Appendable output) throws IOException {
+        output.append(JsonNode.string(value).toString());
+    }
+
     /**
      * Constant used to separate individual ranges in the window list.
      */
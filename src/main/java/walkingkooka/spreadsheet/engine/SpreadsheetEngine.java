@@ -28,6 +28,7 @@ import walkingkooka.spreadsheet.reference.SpreadsheetRowReference;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * The engine or host for the active spreadsheet.
@@ -55,6 +56,18 @@ public interface SpreadsheetEngine {
     SpreadsheetDelta deleteCell(final SpreadsheetCellReference cell,
                                 final SpreadsheetEngineContext context);
 
+    /**
+     * Saves all the cells in a single batch, and updates all affected (referenced cells) once returning all updated cells.
+     */
+    SpreadsheetDelta saveCells(final Collection<SpreadsheetCell> cells,
+                               final SpreadsheetEngineContext context);
+
+    /**
+     * Deletes all the cells in a single batch, removing references and updates and returns all affected (referenced cells).
+     */
+    SpreadsheetDelta deleteCells(final Collection<SpreadsheetCellReference> cells,
+                                 final SpreadsheetEngineContext context);
+
     /**
      * Deletes the identified columns, updates all absolute references as necessary in both formulas and label mappings.
      */
@@ -76,6 +89,15 @@ public interface SpreadsheetEngine {
                                    final int count,
                                    final SpreadsheetEngineContext context);
 
+    /**
+     * Inserts the identified columns like {@link #insertColumns(SpreadsheetColumnReference, int, SpreadsheetEngineContext)},
+     * passing each updated cell to the {@link Consumer} once it is final rather than returning a {@link SpreadsheetDelta}.
+     */
+    void insertColumns(final SpreadsheetColumnReference column,
+                       final int count,
+                       final Consumer<SpreadsheetCell> updated,
+                       final SpreadsheetEngineContext context);
+
     /**
      * Inserts the identified rows, updates all absolute references as necessary in both formulas and label mappings.
      */
@@ -83,6 +105,15 @@ public interface SpreadsheetEngine {
                                 final int count,
                                 final SpreadsheetEngineContext context);
 
+    /**
+     * Inserts the identified rows like {@link #insertRows(SpreadsheetRowReference, int, SpreadsheetEngineContext)},
+     * passing each updated cell to the {@link Consumer} once it is final rather than returning a {@link SpreadsheetDelta}.
+     */
+    void insertRows(final SpreadsheetRowReference row,
+                    final int count,
+                    final Consumer<SpreadsheetCell> updated,
+                    final SpreadsheetEngineContext context);
+
     /**
      * Loads a range of cells. Thsi is useful to fill a range that fills the viewport.
      */
@@ -90,6 +121,16 @@ public interface SpreadsheetEngine {
                                final SpreadsheetEngineEvaluation evaluation,
                                final SpreadsheetEngineContext context);
 
+    /**
+     * Loads a range of cells like {@link #loadCells(SpreadsheetRange, SpreadsheetEngineEvaluation, SpreadsheetEngineContext)},
+     * passing each cell within the range to the {@link Consumer} once it is final rather than returning a
+     * {@link SpreadsheetDelta}. Labels are not included.
+     */
+    void loadCells(final SpreadsheetRange range,
+                   final SpreadsheetEngineEvaluation evaluation,
+                   final Consumer<SpreadsheetCell> loaded,
+                   final SpreadsheetEngineContext context);
+
     /**
      * Fill may be used to perform several operations.
      * <ul>
@@ -103,6 +144,16 @@ public interface SpreadsheetEngine {
                                final SpreadsheetRange to,
                                final SpreadsheetEngineContext context);
 
+    /**
+     * Fills like {@link #fillCells(Collection, SpreadsheetRange, SpreadsheetRange, SpreadsheetEngineContext)}, passing
+     * each updated cell to the {@link Consumer} once it is final rather than returning a {@link SpreadsheetDelta}.
+     */
+    void fillCells(final Collection<SpreadsheetCell> cells,
+                   final SpreadsheetRange from,
+                   final SpreadsheetRange to,
+                   final Consumer<SpreadsheetCell> updated,
+                   final SpreadsheetEngineContext context);
+
     /**
      * Sets a new label mapping or replaces an existing one returning a {@link SpreadsheetDelta} which may or may not
      * have affected and updated cells.
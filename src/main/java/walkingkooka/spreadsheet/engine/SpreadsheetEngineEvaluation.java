@@ -20,6 +20,7 @@ package walkingkooka.spreadsheet.engine;
 import walkingkooka.Cast;
 import walkingkooka.net.header.LinkRelation;
 import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.SpreadsheetFormula;
 import walkingkooka.tree.json.JsonNode;
 import walkingkooka.tree.json.marshall.JsonNodeContext;
 import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
@@ -69,14 +70,17 @@ public enum SpreadsheetEngineEvaluation {
     },
 
     /**
-     * Evaluates the formula and value and applies styling.
+     * Evaluates the formula and value and applies styling, unless the cell already has a value or error and formatted
+     * text, which are trusted until an input changes and the cell is recomputed or cleared.
      */
     COMPUTE_IF_NECESSARY {
         @Override
         SpreadsheetCell formulaEvaluateAndStyle(final SpreadsheetCell cell,
                                                 final BasicSpreadsheetEngine engine,
                                                 final SpreadsheetEngineContext context) {
-            return engine.formulaEvaluateAndStyle(cell, context);
+            return isComputed(cell) ?
+                    cell :
+                    engine.formulaEvaluateAndStyle(cell, context);
         }
     };
 
@@ -88,6 +92,15 @@ public enum SpreadsheetEngineEvaluation {
                                                      final BasicSpreadsheetEngine engine,
                                                      final SpreadsheetEngineContext context);
 
+    /**
+     * A cell with a value or error and formatted text was computed, possibly before it was persisted and loaded again.
+     */
+    static boolean isComputed(final SpreadsheetCell cell) {
+        final SpreadsheetFormula formula = cell.formula();
+        return (formula.value().isPresent() || formula.error().isPresent()) &&
+                cell.formatted().isPresent();
+    }
+
     // LinkRelation.....................................................................................................
 
     public LinkRelation toLinkRelation() {
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.engine;
+
+import java.util.List;
+
+/**
+ * Runs tasks that evaluate cells independent of each other, allowing a {@link SpreadsheetEngine} to recalculate such
+ * cells in parallel where the platform supports threads. Each task only reads from the stores and uses its own
+ * {@link SpreadsheetEngineContext}, the engine saves the results once all tasks have completed.
+ */
+public interface SpreadsheetEngineExecutor {
+
+    /**
+     * Runs all the given tasks, returning only after all have completed and their results are visible to the caller.
+     */
+    void execute(final List<Runnable> tasks);
+}
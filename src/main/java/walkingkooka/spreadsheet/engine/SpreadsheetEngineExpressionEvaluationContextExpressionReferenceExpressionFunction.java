@@ -32,7 +32,7 @@ import java.util.function.Function;
 
 /**
  * A {@link Function} which may be passed to {@link walkingkooka.tree.expression.ExpressionEvaluationContexts#basic}
- * and acts as a bridge resolving {@link ExpressionReference} to a {@link Expression}.
+ * and acts as a bridge resolving {@link ExpressionReference} to a {@link Expression} holding the referenced cell value.
  */
 final class SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction implements Function<ExpressionReference, Optional<Expression>> {
 
@@ -42,11 +42,29 @@ final class SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpre
     static SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction with(final SpreadsheetEngine engine,
                                                                                                   final SpreadsheetLabelStore labelStore,
                                                                                                   final SpreadsheetEngineContext context) {
+        return with(engine, labelStore, context, false);
+    }
+
+    /**
+     * Factory that creates a new {@link SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction}
+     * that only reads cells from the store, failing with a {@link BasicSpreadsheetEngineException} if a referenced
+     * cell has not been evaluated. This is used by tasks that may run on other threads and must never write to the stores.
+     */
+    static SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction readOnly(final SpreadsheetEngine engine,
+                                                                                                      final SpreadsheetLabelStore labelStore,
+                                                                                                      final SpreadsheetEngineContext context) {
+        return with(engine, labelStore, context, true);
+    }
+
+    private static SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction with(final SpreadsheetEngine engine,
+                                                                                                          final SpreadsheetLabelStore labelStore,
+                                                                                                          final SpreadsheetEngineContext context,
+                                                                                                          final boolean readOnly) {
         Objects.requireNonNull(engine, "engine");
         Objects.requireNonNull(labelStore, "labelStore");
         Objects.requireNonNull(context, "context");
 
-        return new SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction(engine, labelStore, context);
+        return new SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction(engine, labelStore, context, readOnly);
     }
 
     /**
@@ -54,40 +72,94 @@ final class SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpre
      */
     private SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction(final SpreadsheetEngine engine,
                                                                                               final SpreadsheetLabelStore labelStore,
-                                                                                              final SpreadsheetEngineContext context) {
+                                                                                              final SpreadsheetEngineContext context,
+                                                                                              final boolean readOnly) {
         this.engine = engine;
         this.labelStore = labelStore;
         this.context = context;
+        this.readOnly = readOnly;
     }
 
+    /**
+     * Resolves the reference to a cell and returns its value as a value {@link Expression}. If the cell already has a
+     * value or error it is used as is, only cells without either are loaded and evaluated, unless this function is
+     * read only.
+     */
     @Override
     public Optional<Expression> apply(final ExpressionReference reference) {
         Objects.requireNonNull(reference, "reference");
 
         final SpreadsheetCellReference cellReference = SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunctionSpreadsheetExpressionReferenceVisitor.reference(reference, this.labelStore);
 
-        final SpreadsheetDelta delta = this.engine.loadCell(cellReference,
-                SpreadsheetEngineEvaluation.COMPUTE_IF_NECESSARY,
-                this.context);
+        SpreadsheetFormula formula = this.context.storeRepository()
+                .cells()
+                .load(cellReference)
+                .map(SpreadsheetCell::formula)
+                .orElse(null);
+        if (null == formula || this.isDirty(formula)) {
+            if (this.readOnly) {
+                if (null == formula) {
+                    throw new ExpressionEvaluationException("Unknown cell reference " + reference);
+                }
+                throw new BasicSpreadsheetEngineException("Unresolved precedent " + reference + " must be evaluated before it is read");
+            }
+            formula = this.loadCell(cellReference, reference);
+        }
 
-        final SpreadsheetCell cell = delta.cells()
-                .stream()
-                .filter(c -> c.reference().equalsIgnoreReferenceKind(cellReference))
-                .findFirst()
-                .orElseThrow(() -> new ExpressionEvaluationException("Unknown cell reference " + reference));
-        final SpreadsheetFormula formula = cell.formula();
         final Optional<SpreadsheetError> error = formula.error();
         if (error.isPresent()) {
             throw new ExpressionEvaluationException(error.get().value());
         }
 
-        return formula.expression();
+        final Optional<Object> value = formula.value();
+        return value.isPresent() ?
+                Optional.of(Expression.valueOrFail(value.get())) :
+                formula.expression();
+    }
+
+    /**
+     * A formula without a value or error has either never been evaluated or was cleared and needs to be evaluated.
+     */
+    private boolean isDirty(final SpreadsheetFormula formula) {
+        return false == formula.value().isPresent() &&
+                false == formula.error().isPresent();
+    }
+
+    /**
+     * Loads and evaluates the cell if necessary. A {@link BasicSpreadsheetEngine} resolves the single cell directly,
+     * other {@link SpreadsheetEngine engines} load a {@link SpreadsheetDelta} and the cell is picked from it.
+     */
+    private SpreadsheetFormula loadCell(final SpreadsheetCellReference cellReference,
+                                        final ExpressionReference reference) {
+        final SpreadsheetEngine engine = this.engine;
+        final Optional<SpreadsheetCell> cell = engine instanceof BasicSpreadsheetEngine ?
+                ((BasicSpreadsheetEngine) engine).resolveCell(
+                        cellReference,
+                        SpreadsheetEngineEvaluation.COMPUTE_IF_NECESSARY,
+                        this.context
+                ) :
+                engine.loadCell(
+                        cellReference,
+                        SpreadsheetEngineEvaluation.COMPUTE_IF_NECESSARY,
+                        this.context
+                ).cells()
+                        .stream()
+                        .filter(c -> c.reference().equalsIgnoreReferenceKind(cellReference))
+                        .findFirst();
+
+        return cell.orElseThrow(() -> new ExpressionEvaluationException("Unknown cell reference " + reference))
+                .formula();
     }
 
     private final SpreadsheetEngine engine;
     private final SpreadsheetLabelStore labelStore;
     private final SpreadsheetEngineContext context;
 
+    /**
+     * When true referenced cells are never evaluated or saved.
+     */
+    private final boolean readOnly;
+
     @Override
     public String toString() {
         return this.engine.toString();
@@ -113,6 +113,30 @@ public interface SpreadsheetEngineTesting<E extends SpreadsheetEngine> extends C
                 null));
     }
 
+    @Test
+    default void testSaveCellsNullCellsFails() {
+        assertThrows(NullPointerException.class, () -> this.createSpreadsheetEngine().saveCells(null,
+                this.createContext()));
+    }
+
+    @Test
+    default void testSaveCellsNullContextFails() {
+        assertThrows(NullPointerException.class, () -> this.createSpreadsheetEngine().saveCells(Lists.of(SpreadsheetCell.with(REFERENCE, SpreadsheetFormula.with("1"))),
+                null));
+    }
+
+    @Test
+    default void testDeleteCellsNullCellsFails() {
+        assertThrows(NullPointerException.class, () -> this.createSpreadsheetEngine().deleteCells(null,
+                this.createContext()));
+    }
+
+    @Test
+    default void testDeleteCellsNullContextFails() {
+        assertThrows(NullPointerException.class, () -> this.createSpreadsheetEngine().deleteCells(Lists.of(REFERENCE),
+                null));
+    }
+
     @Test
     default void testDeleteColumnsNullColumnFails() {
         assertThrows(NullPointerException.class, () -> this.createSpreadsheetEngine().deleteColumns(null, 1, this.createContext()));
@@ -603,6 +627,44 @@ public interface SpreadsheetEngineTesting<E extends SpreadsheetEngine> extends C
                 () -> "deleteCell " + delete);
     }
 
+    default void saveCellsAndCheck(final SpreadsheetEngine engine,
+                                   final Collection<SpreadsheetCell> save,
+                                   final SpreadsheetEngineContext context,
+                                   final SpreadsheetCell... updated) {
+        this.saveCellsAndCheck(engine,
+                save,
+                context,
+                SpreadsheetDelta.with(Sets.of(updated)));
+    }
+
+    default void saveCellsAndCheck(final SpreadsheetEngine engine,
+                                   final Collection<SpreadsheetCell> save,
+                                   final SpreadsheetEngineContext context,
+                                   final SpreadsheetDelta delta) {
+        assertEquals(delta,
+                engine.saveCells(save, context),
+                () -> "saveCells " + save);
+    }
+
+    default void deleteCellsAndCheck(final SpreadsheetEngine engine,
+                                     final Collection<SpreadsheetCellReference> delete,
+                                     final SpreadsheetEngineContext context,
+                                     final SpreadsheetCell... updated) {
+        this.deleteCellsAndCheck(engine,
+                delete,
+                context,
+                SpreadsheetDelta.with(Sets.of(updated)));
+    }
+
+    default void deleteCellsAndCheck(final SpreadsheetEngine engine,
+                                     final Collection<SpreadsheetCellReference> delete,
+                                     final SpreadsheetEngineContext context,
+                                     final SpreadsheetDelta delta) {
+        assertEquals(delta,
+                engine.deleteCells(delete, context),
+                () -> "deleteCells " + delete);
+    }
+
     default void countAndCheck(final Store<?, ?> store, final int count) {
         assertEquals(count,
                 store.count(),
@@ -35,6 +35,14 @@ public final class SpreadsheetEngines implements PublicStaticHelper {
         return BasicSpreadsheetEngine.with(metadata);
     }
 
+    /**
+     * {@see BasicSpreadsheetEngine}
+     */
+    public static SpreadsheetEngine basic(final SpreadsheetMetadata metadata,
+                                          final SpreadsheetEngineExecutor executor) {
+        return BasicSpreadsheetEngine.with(metadata, executor);
+    }
+
     /**
      * {@see FakeSpreadsheetEngine}
      */
@@ -34,6 +34,7 @@ import walkingkooka.spreadsheet.store.repo.SpreadsheetStoreRepository;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -78,6 +79,17 @@ final class SpreadsheetMetadataStampingSpreadsheetEngine implements SpreadsheetE
         );
     }
 
+    @Override
+    public void loadCells(final SpreadsheetRange range,
+                          final SpreadsheetEngineEvaluation evaluation,
+                          final Consumer<SpreadsheetCell> loaded,
+                          final SpreadsheetEngineContext context) {
+        this.stamp(
+                () -> this.engine.loadCells(range, evaluation, loaded, context),
+                context
+        );
+    }
+
 
     @Override
     public SpreadsheetDelta saveCell(final SpreadsheetCell cell,
@@ -97,6 +109,24 @@ final class SpreadsheetMetadataStampingSpreadsheetEngine implements SpreadsheetE
         );
     }
 
+    @Override
+    public SpreadsheetDelta saveCells(final Collection<SpreadsheetCell> cells,
+                                      final SpreadsheetEngineContext context) {
+        return this.stamp(
+                () -> this.engine.saveCells(cells, context),
+                context
+        );
+    }
+
+    @Override
+    public SpreadsheetDelta deleteCells(final Collection<SpreadsheetCellReference> cells,
+                                        final SpreadsheetEngineContext context) {
+        return this.stamp(
+                () -> this.engine.deleteCells(cells, context),
+                context
+        );
+    }
+
     @Override
     public SpreadsheetDelta deleteColumns(final SpreadsheetColumnReference column,
                                           final int count,
@@ -127,6 +157,17 @@ final class SpreadsheetMetadataStampingSpreadsheetEngine implements SpreadsheetE
         );
     }
 
+    @Override
+    public void insertColumns(final SpreadsheetColumnReference column,
+                              final int count,
+                              final Consumer<SpreadsheetCell> updated,
+                              final SpreadsheetEngineContext context) {
+        this.stamp(
+                () -> this.engine.insertColumns(column, count, updated, context),
+                context
+        );
+    }
+
     @Override
     public SpreadsheetDelta insertRows(final SpreadsheetRowReference row,
                                        final int count,
@@ -137,6 +178,17 @@ final class SpreadsheetMetadataStampingSpreadsheetEngine implements SpreadsheetE
         );
     }
 
+    @Override
+    public void insertRows(final SpreadsheetRowReference row,
+                           final int count,
+                           final Consumer<SpreadsheetCell> updated,
+                           final SpreadsheetEngineContext context) {
+        this.stamp(
+                () -> this.engine.insertRows(row, count, updated, context),
+                context
+        );
+    }
+
     @Override
     public SpreadsheetDelta fillCells(final Collection<SpreadsheetCell> cells,
                                       final SpreadsheetRange from,
@@ -148,6 +200,18 @@ final class SpreadsheetMetadataStampingSpreadsheetEngine implements SpreadsheetE
         );
     }
 
+    @Override
+    public void fillCells(final Collection<SpreadsheetCell> cells,
+                          final SpreadsheetRange from,
+                          final SpreadsheetRange to,
+                          final Consumer<SpreadsheetCell> updated,
+                          final SpreadsheetEngineContext context) {
+        this.stamp(
+                () -> this.engine.fillCells(cells, from, to, updated, context),
+                context
+        );
+    }
+
     @Override
     public Optional<SpreadsheetLabelMapping> loadLabel(final SpreadsheetLabelName name,
                                                        final SpreadsheetEngineContext context) {
@@ -190,6 +254,17 @@ final class SpreadsheetMetadataStampingSpreadsheetEngine implements SpreadsheetE
         return this.engine.range(viewport, context);
     }
 
+    private void stamp(final Runnable runnable,
+                       final SpreadsheetEngineContext context) {
+        this.stamp(
+                () -> {
+                    runnable.run();
+                    return null;
+                },
+                context
+        );
+    }
+
     private <T> T stamp(final Supplier<T> supplier,
                         final SpreadsheetEngineContext context) {
         final SpreadsheetStoreRepository repository = context.storeRepository();
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.engine.jvm;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.spreadsheet.engine.SpreadsheetEngineExecutor;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A {@link SpreadsheetEngineExecutor} that runs all tasks using a {@link ForkJoinPool}, waiting for all to complete.
+ * The pool is owned by the caller, who is responsible for shutting it down.
+ */
+final class ForkJoinPoolSpreadsheetEngineExecutor implements SpreadsheetEngineExecutor {
+
+    static ForkJoinPoolSpreadsheetEngineExecutor with(final ForkJoinPool pool) {
+        Objects.requireNonNull(pool, "pool");
+
+        return new ForkJoinPoolSpreadsheetEngineExecutor(pool);
+    }
+
+    private ForkJoinPoolSpreadsheetEngineExecutor(final ForkJoinPool pool) {
+        super();
+        this.pool = pool;
+    }
+
+    @Override
+    public void execute(final List<Runnable> tasks) {
+        Objects.requireNonNull(tasks, "tasks");
+
+        final List<ForkJoinTask<?>> submitted = Lists.array();
+        for (final Runnable task : tasks) {
+            submitted.add(this.pool.submit(task));
+        }
+        submitted.forEach(ForkJoinTask::join);
+    }
+
+    private final ForkJoinPool pool;
+
+    @Override
+    public String toString() {
+        return this.pool.toString();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.engine.jvm;
+
+import walkingkooka.reflect.PublicStaticHelper;
+import walkingkooka.spreadsheet.engine.SpreadsheetDelta;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Writes {@link SpreadsheetDelta} to streams that are only available on the JVM.
+ */
+public final class JvmSpreadsheetDeltas implements PublicStaticHelper {
+
+    /**
+     * Writes the same JSON as {@link SpreadsheetDelta#marshall(Appendable, JsonNodeMarshallContext)} as UTF-8 to the
+     * {@link OutputStream}, which is flushed but not closed.
+     */
+    public static void marshall(final SpreadsheetDelta delta,
+                                final OutputStream output,
+                                final JsonNodeMarshallContext context) throws IOException {
+        Objects.requireNonNull(delta, "delta");
+        Objects.requireNonNull(output, "output");
+
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        delta.marshall(writer, context);
+        writer.flush();
+    }
+
+    /**
+     * Stop creation
+     */
+    private JvmSpreadsheetDeltas() {
+        throw new UnsupportedOperationException();
+    }
+}
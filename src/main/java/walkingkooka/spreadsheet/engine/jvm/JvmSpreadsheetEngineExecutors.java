@@ -0,0 +1,43 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.engine.jvm;
+
+import walkingkooka.reflect.PublicStaticHelper;
+import walkingkooka.spreadsheet.engine.SpreadsheetEngineExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@link SpreadsheetEngineExecutor} that require threads and are only available on the JVM.
+ */
+public final class JvmSpreadsheetEngineExecutors implements PublicStaticHelper {
+
+    /**
+     * {@see ForkJoinPoolSpreadsheetEngineExecutor}
+     */
+    public static SpreadsheetEngineExecutor forkJoinPool(final ForkJoinPool pool) {
+        return ForkJoinPoolSpreadsheetEngineExecutor.with(pool);
+    }
+
+    /**
+     * Stop creation
+     */
+    private JvmSpreadsheetEngineExecutors() {
+        throw new UnsupportedOperationException();
+    }
+}
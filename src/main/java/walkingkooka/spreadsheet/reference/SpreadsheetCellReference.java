@@ -40,6 +40,17 @@ public final class SpreadsheetCellReference extends SpreadsheetCellReferenceOrLa
         implements Comparable<SpreadsheetCellReference>,
         HateosResource<String> {
 
+    /**
+     * The number of slots in {@link #CACHE}, which must be a power of two.
+     */
+    private final static int CACHE_SIZE = 4096;
+
+    /**
+     * A direct mapped cache of recently created {@link SpreadsheetCellReference}, so repeatedly parsing or creating
+     * the same cells mostly returns a shared instance.
+     */
+    private final static SpreadsheetCellReference[] CACHE = new SpreadsheetCellReference[CACHE_SIZE];
+
     /**
      * Parsers a range of cell referencs.
      */
@@ -73,7 +84,26 @@ public final class SpreadsheetCellReference extends SpreadsheetCellReferenceOrLa
         checkColumn(column);
         checkRow(row);
 
-        return new SpreadsheetCellReference(column, row);
+        return cached(column, row);
+    }
+
+    /**
+     * Returns the cached {@link SpreadsheetCellReference} with the column and row, replacing whatever was cached in
+     * its slot if it is different. Columns and rows are themselves flyweights so identity is enough to match.
+     */
+    private static SpreadsheetCellReference cached(final SpreadsheetColumnReference column,
+                                                   final SpreadsheetRowReference row) {
+        int hash = (row.value * 31 + column.value) << 2 | column.referenceKind().ordinal() << 1 | row.referenceKind().ordinal();
+        hash ^= hash >>> 13;
+        final int slot = hash & (CACHE_SIZE - 1);
+
+        final SpreadsheetCellReference[] cache = CACHE;
+        SpreadsheetCellReference cell = cache[slot];
+        if (null == cell || column != cell.column || row != cell.row) {
+            cell = new SpreadsheetCellReference(column, row);
+            cache[slot] = cell;
+        }
+        return cell;
     }
 
     private SpreadsheetCellReference(final SpreadsheetColumnReference column, final SpreadsheetRowReference row) {
@@ -176,7 +206,7 @@ public final class SpreadsheetCellReference extends SpreadsheetCellReferenceOrLa
     }
 
     private SpreadsheetCellReference replace(final SpreadsheetColumnReference column, final SpreadsheetRowReference row) {
-        return new SpreadsheetCellReference(column, row);
+        return cached(column, row);
     }
 
 
@@ -37,7 +37,6 @@ import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
 
 import java.util.Objects;
 import java.util.function.BiFunction;
-import java.util.function.IntFunction;
 
 /**
  * Captures the common features shared by a row or column.
@@ -112,19 +111,6 @@ abstract public class SpreadsheetColumnOrRowReference extends SpreadsheetSelecti
         }
     }
 
-    final static int CACHE_SIZE = 100;
-
-    /**
-     * Fills an array with what will become a cache of {@link SpreadsheetColumnOrRowReference}.
-     */
-    static <R extends SpreadsheetColumnOrRowReference> R[] fillCache(final IntFunction<R> reference, final R[] array) {
-        for (int i = 0; i < CACHE_SIZE; i++) {
-            array[i] = reference.apply(i);
-        }
-
-        return array;
-    }
-
     static void checkReferenceKind(final SpreadsheetReferenceKind referenceKind) {
         Objects.requireNonNull(referenceKind, "referenceKind");
     }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.reference;
+
+import walkingkooka.Cast;
+
+import java.util.function.IntFunction;
+
+/**
+ * A lazily populated flyweight cache of all {@link SpreadsheetColumnOrRowReference} of one {@link SpreadsheetReferenceKind}.
+ * References are held in fixed size pages that are only created when a reference within is first requested, so
+ * the cache of rows only grows with the rows actually used.
+ */
+final class SpreadsheetColumnOrRowReferenceCache<R extends SpreadsheetColumnOrRowReference> {
+
+    private final static int PAGE_SHIFT = 10;
+    private final static int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private final static int PAGE_MASK = PAGE_SIZE - 1;
+
+    /**
+     * Creates a cache for all values between 0 and max inclusive.
+     */
+    static <R extends SpreadsheetColumnOrRowReference> SpreadsheetColumnOrRowReferenceCache<R> with(final int max,
+                                                                                                 final IntFunction<R> factory) {
+        return new SpreadsheetColumnOrRowReferenceCache<>(max, factory);
+    }
+
+    private SpreadsheetColumnOrRowReferenceCache(final int max,
+                                                 final IntFunction<R> factory) {
+        super();
+        this.pages = new SpreadsheetColumnOrRowReference[(max >> PAGE_SHIFT) + 1][];
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the cached reference creating it if necessary. The value must have already been checked. Racing threads
+     * may both create the same reference, which is harmless as references are immutable.
+     */
+    R get(final int value) {
+        final int pageIndex = value >> PAGE_SHIFT;
+
+        SpreadsheetColumnOrRowReference[] page = this.pages[pageIndex];
+        if (null == page) {
+            page = new SpreadsheetColumnOrRowReference[PAGE_SIZE];
+            this.pages[pageIndex] = page;
+        }
+
+        final int index = value & PAGE_MASK;
+        R reference = Cast.to(page[index]);
+        if (null == reference) {
+            reference = this.factory.apply(value);
+            page[index] = reference;
+        }
+        return reference;
+    }
+
+    private final SpreadsheetColumnOrRowReference[][] pages;
+
+    private final IntFunction<R> factory;
+
+    @Override
+    public String toString() {
+        int count = 0;
+        for (final SpreadsheetColumnOrRowReference[] page : this.pages) {
+            if (null != page) {
+                for (final SpreadsheetColumnOrRowReference reference : page) {
+                    if (null != reference) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count + " cached";
+    }
+}
@@ -43,15 +43,13 @@ public final class SpreadsheetColumnReference extends SpreadsheetColumnOrRowRefe
         checkValue(value);
         checkReferenceKind(referenceKind);
 
-        return value < CACHE_SIZE ?
-                referenceKind.columnFromCache(value) :
-                new SpreadsheetColumnReference(value, referenceKind);
+        return referenceKind.columnFromCache(value);
     }
 
-    static final SpreadsheetColumnReference[] ABSOLUTE = fillCache(i -> new SpreadsheetColumnReference(i, SpreadsheetReferenceKind.ABSOLUTE),
-            new SpreadsheetColumnReference[CACHE_SIZE]);
-    static final SpreadsheetColumnReference[] RELATIVE = fillCache(i -> new SpreadsheetColumnReference(i, SpreadsheetReferenceKind.RELATIVE),
-            new SpreadsheetColumnReference[CACHE_SIZE]);
+    static final SpreadsheetColumnOrRowReferenceCache<SpreadsheetColumnReference> ABSOLUTE = SpreadsheetColumnOrRowReferenceCache.with(MAX_VALUE,
+            i -> new SpreadsheetColumnReference(i, SpreadsheetReferenceKind.ABSOLUTE));
+    static final SpreadsheetColumnOrRowReferenceCache<SpreadsheetColumnReference> RELATIVE = SpreadsheetColumnOrRowReferenceCache.with(MAX_VALUE,
+            i -> new SpreadsheetColumnReference(i, SpreadsheetReferenceKind.RELATIVE));
 
     /**
      * Private ctor use factory
@@ -73,7 +71,7 @@ public final class SpreadsheetColumnReference extends SpreadsheetColumnOrRowRefe
 
     @Override
     SpreadsheetColumnReference replaceReferenceKind(final SpreadsheetReferenceKind referenceKind) {
-        return new SpreadsheetColumnReference(this.value, referenceKind);
+        return referenceKind.columnFromCache(this.value);
     }
 
     @Override
@@ -99,7 +97,7 @@ public final class SpreadsheetColumnReference extends SpreadsheetColumnOrRowRefe
         checkValue(value);
         return this.value == value ?
                 this :
-                new SpreadsheetColumnReference(value, this.referenceKind());
+                this.referenceKind().columnFromCache(value);
     }
 
     private static void checkValue(final int value) {
@@ -241,7 +241,60 @@ public final class SpreadsheetRange extends SpreadsheetExpressionReference imple
                 );
     }
 
-    private final static SpreadsheetReferenceKind CELL_SPREADSHEET_REFERENCE_KIND = SpreadsheetReferenceKind.RELATIVE;
+    final static SpreadsheetReferenceKind CELL_SPREADSHEET_REFERENCE_KIND = SpreadsheetReferenceKind.RELATIVE;
+
+    /**
+     * Returns a {@link SpreadsheetRangeCursor} that visits the cells a row at a time, left to right then top to bottom.
+     */
+    public SpreadsheetRangeCursor cursor() {
+        return SpreadsheetRangeCursor.with(this, false);
+    }
+
+    /**
+     * Returns a {@link SpreadsheetRangeCursor} that visits the cells a column at a time, top to bottom then left to right.
+     */
+    public SpreadsheetRangeCursor columnMajorCursor() {
+        return SpreadsheetRangeCursor.with(this, true);
+    }
+
+    /**
+     * Visits the column and row of every cell a row at a time, in the same order as {@link #cellStream()} without
+     * creating any {@link SpreadsheetCellReference}.
+     */
+    public void forEachCell(final SpreadsheetRangeCellConsumer cell) {
+        Objects.requireNonNull(cell, "cell");
+
+        final SpreadsheetCellReference begin = this.begin();
+        final SpreadsheetCellReference end = this.end();
+        final int beginColumn = begin.column().value();
+        final int endColumn = end.column().value();
+        final int endRow = end.row().value();
+
+        for (int row = begin.row().value(); row <= endRow; row++) {
+            for (int column = beginColumn; column <= endColumn; column++) {
+                cell.accept(column, row);
+            }
+        }
+    }
+
+    /**
+     * Visits the column and row of every cell a column at a time without creating any {@link SpreadsheetCellReference}.
+     */
+    public void forEachCellColumnMajor(final SpreadsheetRangeCellConsumer cell) {
+        Objects.requireNonNull(cell, "cell");
+
+        final SpreadsheetCellReference begin = this.begin();
+        final SpreadsheetCellReference end = this.end();
+        final int beginRow = begin.row().value();
+        final int endColumn = end.column().value();
+        final int endRow = end.row().value();
+
+        for (int column = begin.column().value(); column <= endColumn; column++) {
+            for (int row = beginRow; row <= endRow; row++) {
+                cell.accept(column, row);
+            }
+        }
+    }
 
     /**
      * Visits all the {@link SpreadsheetCellReference} within this range, and dispatches either the present or absent
@@ -251,8 +304,7 @@ public final class SpreadsheetRange extends SpreadsheetExpressionReference imple
     public void cells(final Collection<SpreadsheetCell> cells,
                       final Consumer<? super SpreadsheetCell> present,
                       final Consumer<? super SpreadsheetCellReference> absent) {
-        this.cellStream()
-                .forEach(SpreadsheetRangeCellsConsumer.with(cells, present, absent));
+        this.forEachCell(SpreadsheetRangeCellsConsumer.with(cells, present, absent));
     }
 
     // SpreadsheetSelection.............................................................................................
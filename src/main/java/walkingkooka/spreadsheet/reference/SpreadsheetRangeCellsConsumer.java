@@ -17,18 +17,21 @@
 
 package walkingkooka.spreadsheet.reference;
 
-import walkingkooka.collect.map.Maps;
 import walkingkooka.spreadsheet.SpreadsheetCell;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Map;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
 
 /**
- * A {@link Consumer} used by {@link SpreadsheetRange#cells(Collection, Consumer, Consumer)}.
+ * A {@link SpreadsheetRangeCellConsumer} used by {@link SpreadsheetRange#cells(Collection, Consumer, Consumer)}.
+ * The cells are sorted a row at a time, the same order the range is visited, so each column and row is matched by
+ * stepping through the sorted cells, and a {@link SpreadsheetCellReference} is only created for absent cells.
  */
-final class SpreadsheetRangeCellsConsumer implements Consumer<SpreadsheetCellReference> {
+final class SpreadsheetRangeCellsConsumer implements SpreadsheetRangeCellConsumer {
 
     static SpreadsheetRangeCellsConsumer with(final Collection<SpreadsheetCell> cells,
                                               final Consumer<? super SpreadsheetCell> present,
@@ -43,34 +46,72 @@ final class SpreadsheetRangeCellsConsumer implements Consumer<SpreadsheetCellRef
     private SpreadsheetRangeCellsConsumer(final Collection<SpreadsheetCell> cells,
                                           final Consumer<? super SpreadsheetCell> present,
                                           final Consumer<? super SpreadsheetCellReference> absent) {
-        Objects.requireNonNull(cells, "cells");
-        Objects.requireNonNull(present, "present");
-        Objects.requireNonNull(absent, "absent");
-
-        cells
-                .forEach(this::addCell);
+        final List<SpreadsheetCell> sorted = new ArrayList<>(cells);
+        sorted.sort(ROW_THEN_COLUMN);
+        this.cells = sorted;
 
         this.present = present;
         this.absent = absent;
     }
 
-    private void addCell(final SpreadsheetCell cell) {
-        this.referenceToCells.put(cell.reference(), cell);
-    }
+    private final static Comparator<SpreadsheetCell> ROW_THEN_COLUMN = Comparator.<SpreadsheetCell>comparingInt(c -> c.reference().row().value())
+            .thenComparingInt(c -> c.reference().column().value());
 
     @Override
-    public void accept(final SpreadsheetCellReference spreadsheetCellReference) {
-        final SpreadsheetCell cell = this.referenceToCells.get(spreadsheetCellReference);
-        if (null != cell) {
-            this.present.accept(cell);
+    public void accept(final int column,
+                       final int row) {
+        final List<SpreadsheetCell> cells = this.cells;
+        final int count = cells.size();
+
+        SpreadsheetCell found = null;
+        int next = this.next;
+
+        // skip cells before this column and row, which must be outside the range, the last of any duplicates wins
+        while (next < count) {
+            final SpreadsheetCellReference reference = cells.get(next).reference();
+            final int compare = compare(reference.row().value(), row, reference.column().value(), column);
+            if (compare > 0) {
+                break;
+            }
+            if (0 == compare) {
+                found = cells.get(next);
+            }
+            next++;
+        }
+        this.next = next;
+
+        if (null != found) {
+            this.present.accept(found);
         } else {
-            this.absent.accept(spreadsheetCellReference);
+            this.absent.accept(
+                    SpreadsheetRange.CELL_SPREADSHEET_REFERENCE_KIND.column(column)
+                            .setRow(SpreadsheetRange.CELL_SPREADSHEET_REFERENCE_KIND.row(row))
+            );
         }
     }
 
+    private static int compare(final int row,
+                               final int otherRow,
+                               final int column,
+                               final int otherColumn) {
+        final int compare = Integer.compare(row, otherRow);
+        return 0 != compare ?
+                compare :
+                Integer.compare(column, otherColumn);
+    }
+
     final Consumer<? super SpreadsheetCell> present;
     final Consumer<? super SpreadsheetCellReference> absent;
-    final Map<SpreadsheetCellReference, SpreadsheetCell> referenceToCells = Maps.sorted();
+
+    /**
+     * The cells sorted a row at a time.
+     */
+    private final List<SpreadsheetCell> cells;
+
+    /**
+     * The index of the first cell not yet matched or skipped.
+     */
+    private int next;
 
     @Override
     public String toString() {
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.reference;
+
+/**
+ * A cursor that walks the column and row values of all the cells in a {@link SpreadsheetRange}, either a row at a time
+ * or a column at a time. A single cursor is created for the entire walk, and a {@link SpreadsheetCellReference} is
+ * only created if {@link #cell()} is called.
+ * <pre>
+ * final SpreadsheetRangeCursor cursor = range.cursor();
+ * while (cursor.next()) {
+ *     final int column = cursor.column();
+ *     final int row = cursor.row();
+ * }
+ * </pre>
+ */
+public final class SpreadsheetRangeCursor {
+
+    static SpreadsheetRangeCursor with(final SpreadsheetRange range,
+                                       final boolean columnMajor) {
+        return new SpreadsheetRangeCursor(range, columnMajor);
+    }
+
+    private SpreadsheetRangeCursor(final SpreadsheetRange range,
+                                   final boolean columnMajor) {
+        super();
+
+        final SpreadsheetCellReference begin = range.begin();
+        final SpreadsheetCellReference end = range.end();
+
+        this.beginColumn = begin.column().value();
+        this.beginRow = begin.row().value();
+        this.endColumn = end.column().value();
+        this.endRow = end.row().value();
+
+        this.range = range;
+        this.columnMajor = columnMajor;
+    }
+
+    /**
+     * Advances to the next cell returning false if there are no more cells. This must be called before the first cell.
+     */
+    public boolean next() {
+        boolean next = true;
+
+        if (false == this.started) {
+            this.started = true;
+            this.column = this.beginColumn;
+            this.row = this.beginRow;
+        } else {
+            if (this.columnMajor) {
+                if (this.row < this.endRow) {
+                    this.row++;
+                } else {
+                    if (this.column < this.endColumn) {
+                        this.column++;
+                        this.row = this.beginRow;
+                    } else {
+                        next = false;
+                    }
+                }
+            } else {
+                if (this.column < this.endColumn) {
+                    this.column++;
+                } else {
+                    if (this.row < this.endRow) {
+                        this.row++;
+                        this.column = this.beginColumn;
+                    } else {
+                        next = false;
+                    }
+                }
+            }
+        }
+
+        return next;
+    }
+
+    /**
+     * The column value of the current cell.
+     */
+    public int column() {
+        return this.column;
+    }
+
+    /**
+     * The row value of the current cell.
+     */
+    public int row() {
+        return this.row;
+    }
+
+    /**
+     * Creates a {@link SpreadsheetCellReference} for the current cell.
+     */
+    public SpreadsheetCellReference cell() {
+        return SpreadsheetRange.CELL_SPREADSHEET_REFERENCE_KIND.column(this.column)
+                .setRow(SpreadsheetRange.CELL_SPREADSHEET_REFERENCE_KIND.row(this.row));
+    }
+
+    private final int beginColumn;
+    private final int beginRow;
+    private final int endColumn;
+    private final int endRow;
+
+    private final boolean columnMajor;
+
+    private boolean started;
+    private int column;
+    private int row;
+
+    private final SpreadsheetRange range;
+
+    @Override
+    public String toString() {
+        return this.started ?
+                this.range + " " + this.cell() :
+                this.range.toString();
+    }
+}
@@ -30,7 +30,7 @@ public enum SpreadsheetReferenceKind {
 
         @Override
         SpreadsheetColumnReference columnFromCache(final int column) {
-            return SpreadsheetColumnReference.ABSOLUTE[column];
+            return SpreadsheetColumnReference.ABSOLUTE.get(column);
         }
 
         @Override
@@ -40,7 +40,7 @@ public enum SpreadsheetReferenceKind {
 
         @Override
         SpreadsheetRowReference rowFromCache(final int column) {
-            return SpreadsheetRowReference.ABSOLUTE[column];
+            return SpreadsheetRowReference.ABSOLUTE.get(column);
         }
 
         @Override
@@ -56,7 +56,7 @@ public enum SpreadsheetReferenceKind {
 
         @Override
         SpreadsheetColumnReference columnFromCache(final int column) {
-            return SpreadsheetColumnReference.RELATIVE[column];
+            return SpreadsheetColumnReference.RELATIVE.get(column);
         }
 
         @Override
@@ -66,7 +66,7 @@ public enum SpreadsheetReferenceKind {
 
         @Override
         SpreadsheetRowReference rowFromCache(final int column) {
-            return SpreadsheetRowReference.RELATIVE[column];
+            return SpreadsheetRowReference.RELATIVE.get(column);
         }
 
         @Override
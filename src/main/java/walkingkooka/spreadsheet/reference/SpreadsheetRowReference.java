@@ -38,15 +38,13 @@ public final class SpreadsheetRowReference extends SpreadsheetColumnOrRowReferen
         checkValue(value);
         checkReferenceKind(referenceKind);
 
-        return value < CACHE_SIZE ?
-                referenceKind.rowFromCache(value) :
-                new SpreadsheetRowReference(value, referenceKind);
+        return referenceKind.rowFromCache(value);
     }
 
-    static final SpreadsheetRowReference[] ABSOLUTE = fillCache(i -> new SpreadsheetRowReference(i, SpreadsheetReferenceKind.ABSOLUTE),
-            new SpreadsheetRowReference[CACHE_SIZE]);
-    static final SpreadsheetRowReference[] RELATIVE = fillCache(i -> new SpreadsheetRowReference(i, SpreadsheetReferenceKind.RELATIVE),
-            new SpreadsheetRowReference[CACHE_SIZE]);
+    static final SpreadsheetColumnOrRowReferenceCache<SpreadsheetRowReference> ABSOLUTE = SpreadsheetColumnOrRowReferenceCache.with(MAX_VALUE,
+            i -> new SpreadsheetRowReference(i, SpreadsheetReferenceKind.ABSOLUTE));
+    static final SpreadsheetColumnOrRowReferenceCache<SpreadsheetRowReference> RELATIVE = SpreadsheetColumnOrRowReferenceCache.with(MAX_VALUE,
+            i -> new SpreadsheetRowReference(i, SpreadsheetReferenceKind.RELATIVE));
 
     private static String invalidRowValue(final int value) {
         return "Invalid row value " + value + " expected between 0 and " + (MAX_VALUE + 1);
@@ -69,7 +67,7 @@ public final class SpreadsheetRowReference extends SpreadsheetColumnOrRowReferen
 
     @Override
     SpreadsheetRowReference replaceReferenceKind(final SpreadsheetReferenceKind referenceKind) {
-        return new SpreadsheetRowReference(this.value, referenceKind);
+        return referenceKind.rowFromCache(this.value);
     }
 
     @Override
@@ -95,7 +93,7 @@ public final class SpreadsheetRowReference extends SpreadsheetColumnOrRowReferen
         checkValue(value);
         return this.value == value ?
                 this :
-                new SpreadsheetRowReference(value, this.referenceKind());
+                this.referenceKind().rowFromCache(value);
     }
 
     private static void checkValue(final int value) {
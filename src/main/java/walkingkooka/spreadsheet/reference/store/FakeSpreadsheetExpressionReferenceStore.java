@@ -19,6 +19,7 @@ package walkingkooka.spreadsheet.reference.store;
 
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReferenceOrLabelName;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
 import walkingkooka.store.FakeStore;
 import walkingkooka.test.Fake;
 
@@ -71,4 +72,11 @@ public class FakeSpreadsheetExpressionReferenceStore<T extends SpreadsheetCellRe
 
         throw new UnsupportedOperationException();
     }
+
+    @Override
+    public Set<T> loadReferredWithin(final SpreadsheetRange range) {
+        Objects.requireNonNull(range, "range");
+
+        throw new UnsupportedOperationException();
+    }
 }
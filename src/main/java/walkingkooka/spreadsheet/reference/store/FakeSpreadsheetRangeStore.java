@@ -35,6 +35,13 @@ public class FakeSpreadsheetRangeStore<V> extends FakeStore<SpreadsheetRange, Li
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Set<SpreadsheetRange> loadIntersectingRanges(final SpreadsheetRange range) {
+        Objects.requireNonNull(range, "range");
+
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public Set<V> loadCellReferenceValues(final SpreadsheetCellReference cell) {
         Objects.requireNonNull(cell, "cell");
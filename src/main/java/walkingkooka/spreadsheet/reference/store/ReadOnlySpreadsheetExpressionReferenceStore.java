@@ -19,6 +19,7 @@ package walkingkooka.spreadsheet.reference.store;
 
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReferenceOrLabelName;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
 
 import java.util.List;
 import java.util.Objects;
@@ -126,6 +127,11 @@ final class ReadOnlySpreadsheetExpressionReferenceStore<T extends SpreadsheetCel
         return store.loadReferred(reference);
     }
 
+    @Override
+    public Set<T> loadReferredWithin(final SpreadsheetRange range) {
+        return store.loadReferredWithin(range);
+    }
+
     private final SpreadsheetExpressionReferenceStore<T> store;
 
     @Override
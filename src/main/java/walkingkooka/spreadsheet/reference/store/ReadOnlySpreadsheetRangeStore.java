@@ -83,6 +83,11 @@ final class ReadOnlySpreadsheetRangeStore<V> implements SpreadsheetRangeStore<V>
         return store.loadCellReferenceRanges(cell);
     }
 
+    @Override
+    public Set<SpreadsheetRange> loadIntersectingRanges(final SpreadsheetRange range) {
+        return store.loadIntersectingRanges(range);
+    }
+
     @Override
     public Set<V> loadCellReferenceValues(final SpreadsheetCellReference cell) {
         return store.loadCellReferenceValues(cell);
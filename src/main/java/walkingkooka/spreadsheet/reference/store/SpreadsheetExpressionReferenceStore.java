@@ -20,6 +20,7 @@ package walkingkooka.spreadsheet.reference.store;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReferenceOrLabelName;
 import walkingkooka.spreadsheet.reference.SpreadsheetExpressionReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
 import walkingkooka.store.Store;
 
 import java.util.Objects;
@@ -71,4 +72,9 @@ public interface SpreadsheetExpressionReferenceStore<T extends SpreadsheetCellRe
      * Loads the referred id given a {@link SpreadsheetCellReference}.
      */
     Set<T> loadReferred(final SpreadsheetCellReference reference);
+
+    /**
+     * Loads all the referred ids given any {@link SpreadsheetCellReference} within the {@link SpreadsheetRange}.
+     */
+    Set<T> loadReferredWithin(final SpreadsheetRange range);
 }
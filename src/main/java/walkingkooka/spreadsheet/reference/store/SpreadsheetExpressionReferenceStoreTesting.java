@@ -24,6 +24,7 @@ import walkingkooka.reflect.TypeNameTesting;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReferenceOrLabelName;
 import walkingkooka.spreadsheet.reference.SpreadsheetExpressionReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
 import walkingkooka.store.StoreTesting;
 
 import java.util.List;
@@ -280,6 +281,13 @@ public interface SpreadsheetExpressionReferenceStoreTesting<S extends Spreadshee
         assertThrows(NullPointerException.class, () -> this.createStore().loadReferred(null));
     }
 
+    // loadReferredWithin...............................................................................................
+
+    @Test
+    default void testLoadReferredWithinNullRangeFails() {
+        assertThrows(NullPointerException.class, () -> this.createStore().loadReferredWithin(null));
+    }
+
     /**
      * The key
      */
@@ -312,6 +320,14 @@ public interface SpreadsheetExpressionReferenceStoreTesting<S extends Spreadshee
         this.loadReferredAndCheck(store, reference, Sets.of(ids));
     }
 
+    default void loadReferredWithinAndCheck(final S store,
+                                            final SpreadsheetRange range,
+                                            final T... ids) {
+        assertEquals(Sets.of(ids),
+                store.loadReferredWithin(range),
+                "loadReferredWithin " + range);
+    }
+
     default void loadReferredAndCheck(final S store, final SpreadsheetCellReference reference, final Set<T> ids) {
         assertEquals(ids,
                 store.loadReferred(reference),
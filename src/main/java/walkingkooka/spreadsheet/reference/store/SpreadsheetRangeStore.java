@@ -57,6 +57,11 @@ public interface SpreadsheetRangeStore<V> extends Store<SpreadsheetRange, List<V
      */
     Set<SpreadsheetRange> loadCellReferenceRanges(final SpreadsheetCellReference cell);
 
+    /**
+     * Loads all the {@link SpreadsheetRange} that include at least one cell of the given range.
+     */
+    Set<SpreadsheetRange> loadIntersectingRanges(final SpreadsheetRange range);
+
     /**
      * Load all the values for a single cell.
      */
@@ -64,6 +64,11 @@ public interface SpreadsheetRangeStoreTesting<S extends SpreadsheetRangeStore<V>
         this.loadCellReferenceValuesFails(RANGE.begin());
     }
 
+    @Test
+    default void testLoadIntersectingRangesNullRangeFails() {
+        assertThrows(NullPointerException.class, () -> this.createStore().loadIntersectingRanges(null));
+    }
+
     @Override
     default void testAddSaveWatcherAndRemove() {
     }
@@ -191,6 +196,16 @@ public interface SpreadsheetRangeStoreTesting<S extends SpreadsheetRangeStore<V>
                 () -> "load cell reference ranges for " + cell);
     }
 
+    // loadIntersectingRanges...........................................................................................
+
+    default void loadIntersectingRangesAndCheck(final SpreadsheetRangeStore<V> store,
+                                                final SpreadsheetRange range,
+                                                final SpreadsheetRange... ranges) {
+        assertEquals(Sets.of(ranges),
+                store.loadIntersectingRanges(range),
+                () -> "load intersecting ranges for " + range);
+    }
+
     default Set<SpreadsheetRange> loadCellReferenceRanges(final SpreadsheetRangeStore<V> store,
                                                           final SpreadsheetCellReference cell) {
         final Set<SpreadsheetRange> ranges = store.loadCellReferenceRanges(cell);
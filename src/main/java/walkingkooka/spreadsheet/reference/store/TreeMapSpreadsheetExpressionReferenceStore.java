@@ -23,14 +23,17 @@ import walkingkooka.collect.map.Maps;
 import walkingkooka.collect.set.Sets;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReferenceOrLabelName;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
 import walkingkooka.store.Store;
 import walkingkooka.store.Watchers;
 
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -253,6 +256,24 @@ final class TreeMapSpreadsheetExpressionReferenceStore<T extends SpreadsheetCell
                 Sets.empty();
     }
 
+    /**
+     * References are sorted by column then row, the sub map only includes the columns of the range, with rows outside
+     * the range then filtered.
+     */
+    @Override
+    public Set<T> loadReferredWithin(final SpreadsheetRange range) {
+        Objects.requireNonNull(range, "range");
+
+        final Set<T> targets = Sets.sorted();
+        this.referenceToTargets.subMap(range.begin(), true, range.end(), true)
+                .forEach((r, t) -> {
+                    if (range.test(r)) {
+                        targets.addAll(t);
+                    }
+                });
+        return Sets.readOnly(targets);
+    }
+
     // helpers..........................................................................................
 
     private void checkId(final T id) {
@@ -277,7 +298,7 @@ final class TreeMapSpreadsheetExpressionReferenceStore<T extends SpreadsheetCell
      * The inverse of {@link #targetToReferences}
      */
     // VisibleForTesting
-    final Map<SpreadsheetCellReference, Set<T>> referenceToTargets = Maps.sorted();
+    final NavigableMap<SpreadsheetCellReference, Set<T>> referenceToTargets = new TreeMap<>();
 
     @Override
     public String toString() {
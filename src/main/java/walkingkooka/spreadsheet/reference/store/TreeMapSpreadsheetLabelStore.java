@@ -65,7 +65,14 @@ final class TreeMapSpreadsheetLabelStore implements SpreadsheetLabelStore {
         Objects.requireNonNull(mapping, "mapping");
 
         final SpreadsheetLabelName key = mapping.label();
-        if (false == mapping.equals(this.mappings.put(key, mapping))) {
+        final SpreadsheetLabelMapping previous = this.mappings.put(key, mapping);
+        if (false == mapping.equals(previous)) {
+            if (null != previous) {
+                this.index.remove(previous);
+            } else {
+                this.similar.add(key);
+            }
+            this.index.add(mapping);
             this.saveWatchers.accept(mapping);
         }
 
@@ -83,7 +90,10 @@ final class TreeMapSpreadsheetLabelStore implements SpreadsheetLabelStore {
     public void delete(final SpreadsheetLabelName label) {
         Objects.requireNonNull(label, "label");
 
-        if (null != this.mappings.remove(label)) {
+        final SpreadsheetLabelMapping removed = this.mappings.remove(label);
+        if (null != removed) {
+            this.index.remove(removed);
+            this.similar.remove(label);
             this.deleteWatchers.accept(label);
         }
     }
@@ -167,8 +177,9 @@ final class TreeMapSpreadsheetLabelStore implements SpreadsheetLabelStore {
                 results.add(mapping);
             }
 
-            this.mappings.values()
+            this.similar.candidates(text)
                     .stream()
+                    .map(this.mappings::get)
                     .filter(l -> contains(text, l))
                     .limit(count - (null != mapping ? 1 : 0))
                     .forEach(results::add);
@@ -199,7 +210,7 @@ final class TreeMapSpreadsheetLabelStore implements SpreadsheetLabelStore {
     public Set<SpreadsheetLabelName> labels(final SpreadsheetCellReference cell) {
         Objects.requireNonNull(cell, "cell");
 
-        return Sets.readOnly(TreeMapSpreadsheetLabelStoreLabelsSpreadsheetExpressionReferenceVisitor.gather(cell, this.mappings));
+        return Sets.readOnly(this.index.labels(cell));
     }
 
     /**
@@ -207,6 +218,16 @@ final class TreeMapSpreadsheetLabelStore implements SpreadsheetLabelStore {
      */
     private final Map<SpreadsheetLabelName, SpreadsheetLabelMapping> mappings = Maps.sorted();
 
+    /**
+     * A reverse index of cells, ranges and labels to the labels that point to them, updated by save and delete.
+     */
+    private final TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor index = TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor.create();
+
+    /**
+     * An n-gram index of all labels, used by {@link #findSimilar(String, int)} to only test labels that may contain the text.
+     */
+    private final TreeMapSpreadsheetLabelStoreNGramIndex similar = TreeMapSpreadsheetLabelStoreNGramIndex.create();
+
     @Override
     public String toString() {
         return this.mappings.values().toString();
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.reference.store;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetExpressionReferenceVisitor;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelMapping;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link SpreadsheetExpressionReferenceVisitor} that maintains a reverse index of the targets of all mappings back
+ * to their {@link SpreadsheetLabelName}. Cells are held in a {@link Map}, ranges in a row then column interval tree and
+ * labels that point to other labels in a {@link Map}, which allows finding all labels for a cell, including labels that
+ * point to those labels, without visiting every mapping.
+ */
+final class TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor extends SpreadsheetExpressionReferenceVisitor {
+
+    static TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor create() {
+        return new TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor();
+    }
+
+    // VisibleForTesting
+    TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor() {
+        super();
+    }
+
+    /**
+     * Adds the target of the given mapping to the index.
+     */
+    void add(final SpreadsheetLabelMapping mapping) {
+        this.accept(mapping, true);
+    }
+
+    /**
+     * Removes the target of the given mapping from the index.
+     */
+    void remove(final SpreadsheetLabelMapping mapping) {
+        this.accept(mapping, false);
+    }
+
+    private void accept(final SpreadsheetLabelMapping mapping,
+                        final boolean add) {
+        this.label = mapping.label();
+        this.add = add;
+        this.accept(mapping.reference());
+    }
+
+    /**
+     * Returns all labels that include the given cell, followed by any labels that point to those labels.
+     */
+    Set<SpreadsheetLabelName> labels(final SpreadsheetCellReference cell) {
+        final List<SpreadsheetLabelName> labels = Lists.array();
+
+        final Set<SpreadsheetLabelName> direct = this.cellToLabels.get(cell);
+        if (null != direct) {
+            labels.addAll(direct);
+        }
+        this.rowsToColumnsToLabels.stab(
+                cell.row().value(),
+                c -> c.stab(cell.column().value(), labels::addAll)
+        );
+
+        // labels may point to other labels, the set also stops any cycles.
+        final Set<SpreadsheetLabelName> all = Sets.ordered();
+        for (int i = 0; i < labels.size(); i++) {
+            final SpreadsheetLabelName label = labels.get(i);
+            if (all.add(label)) {
+                final Set<SpreadsheetLabelName> indirect = this.labelToLabels.get(label);
+                if (null != indirect) {
+                    labels.addAll(indirect);
+                }
+            }
+        }
+
+        return all;
+    }
+
+    @Override
+    protected void visit(final SpreadsheetCellReference reference) {
+        this.update(this.cellToLabels, reference);
+    }
+
+    @Override
+    protected void visit(final SpreadsheetLabelName label) {
+        this.update(this.labelToLabels, label);
+    }
+
+    @Override
+    protected void visit(final SpreadsheetRange range) {
+        final SpreadsheetCellReference begin = range.begin();
+        final SpreadsheetCellReference end = range.end();
+        final int beginRow = begin.row().value();
+        final int endRow = end.row().value();
+        final int beginColumn = begin.column().value();
+        final int endColumn = end.column().value();
+
+        if (this.add) {
+            this.rowsToColumnsToLabels.getOrCreate(
+                    beginRow,
+                    endRow,
+                    TreeMapSpreadsheetRangeStoreIntervalTree::create
+            ).getOrCreate(
+                    beginColumn,
+                    endColumn,
+                    Sets::ordered
+            ).add(this.label);
+        } else {
+            final TreeMapSpreadsheetRangeStoreIntervalTree<Set<SpreadsheetLabelName>> columns = this.rowsToColumnsToLabels.get(beginRow, endRow);
+            if (null != columns) {
+                final Set<SpreadsheetLabelName> labels = columns.get(beginColumn, endColumn);
+                if (null != labels && labels.remove(this.label) && labels.isEmpty()) {
+                    columns.remove(beginColumn, endColumn);
+                    if (columns.isEmpty()) {
+                        this.rowsToColumnsToLabels.remove(beginRow, endRow);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds or removes the current label for the given key.
+     */
+    private <K> void update(final Map<K, Set<SpreadsheetLabelName>> keyToLabels,
+                            final K key) {
+        if (this.add) {
+            keyToLabels.computeIfAbsent(key, k -> Sets.ordered())
+                    .add(this.label);
+        } else {
+            final Set<SpreadsheetLabelName> labels = keyToLabels.get(key);
+            if (null != labels && labels.remove(this.label) && labels.isEmpty()) {
+                keyToLabels.remove(key);
+            }
+        }
+    }
+
+    /**
+     * The label of the mapping being added or removed.
+     */
+    private SpreadsheetLabelName label;
+
+    /**
+     * When true the label is being added otherwise it is being removed.
+     */
+    private boolean add;
+
+    /**
+     * Labels that point directly to a single cell, ignoring the {@link walkingkooka.spreadsheet.reference.SpreadsheetReferenceKind}.
+     */
+    private final Map<SpreadsheetCellReference, Set<SpreadsheetLabelName>> cellToLabels = Maps.sorted();
+
+    /**
+     * Labels that point to a range, indexed by rows and then columns.
+     */
+    private final TreeMapSpreadsheetRangeStoreIntervalTree<TreeMapSpreadsheetRangeStoreIntervalTree<Set<SpreadsheetLabelName>>> rowsToColumnsToLabels = TreeMapSpreadsheetRangeStoreIntervalTree.create();
+
+    /**
+     * Labels that point to another label.
+     */
+    private final Map<SpreadsheetLabelName, Set<SpreadsheetLabelName>> labelToLabels = Maps.sorted();
+
+    @Override
+    public String toString() {
+        return this.cellToLabels + " " + this.rowsToColumnsToLabels + " " + this.labelToLabels;
+    }
+}
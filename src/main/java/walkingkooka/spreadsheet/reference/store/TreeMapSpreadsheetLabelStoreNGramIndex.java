@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.reference.store;
+
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An index of all case folded n-grams, up to {@link #MAX} characters long, of every {@link SpreadsheetLabelName}.
+ * Finding labels containing some text only needs to visit the labels for the least common n-gram of that text,
+ * rather than every label. The labels for each n-gram are sorted, so candidates are returned in label order.
+ */
+final class TreeMapSpreadsheetLabelStoreNGramIndex {
+
+    /**
+     * The max length of any n-gram, shorter n-grams are also indexed so text of any length may be searched.
+     */
+    private final static int MAX = 3;
+
+    static TreeMapSpreadsheetLabelStoreNGramIndex create() {
+        return new TreeMapSpreadsheetLabelStoreNGramIndex();
+    }
+
+    private TreeMapSpreadsheetLabelStoreNGramIndex() {
+        super();
+    }
+
+    void add(final SpreadsheetLabelName label) {
+        for (final String gram : grams(label.value())) {
+            this.gramToLabels.computeIfAbsent(gram, g -> Sets.sorted())
+                    .add(label);
+        }
+    }
+
+    void remove(final SpreadsheetLabelName label) {
+        for (final String gram : grams(label.value())) {
+            final Set<SpreadsheetLabelName> labels = this.gramToLabels.get(gram);
+            if (null != labels && labels.remove(label) && labels.isEmpty()) {
+                this.gramToLabels.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Returns the labels, in order, that have every n-gram of the given text. Labels must still be tested to actually
+     * contain the text.
+     */
+    Set<SpreadsheetLabelName> candidates(final String text) {
+        Set<SpreadsheetLabelName> candidates = null;
+
+        final String folded = fold(text);
+        final int length = Math.min(MAX, folded.length());
+        final int last = folded.length() - length;
+
+        for (int i = 0; i <= last; i++) {
+            final Set<SpreadsheetLabelName> labels = this.gramToLabels.get(folded.substring(i, i + length));
+            if (null == labels) {
+                candidates = Sets.empty();
+                break;
+            }
+            if (null == candidates || labels.size() < candidates.size()) {
+                candidates = labels;
+            }
+        }
+
+        return null != candidates ?
+                candidates :
+                Sets.empty();
+    }
+
+    /**
+     * Returns all distinct n-grams from 1 to {@link #MAX} characters long of the case folded text.
+     */
+    private static Set<String> grams(final String text) {
+        final String folded = fold(text);
+        final int textLength = folded.length();
+        final Set<String> grams = Sets.hash();
+
+        for (int i = 0; i < textLength; i++) {
+            final int end = Math.min(textLength, i + MAX);
+            for (int j = i + 1; j <= end; j++) {
+                grams.add(folded.substring(i, j));
+            }
+        }
+
+        return grams;
+    }
+
+    /**
+     * Folds each character matching the {@link SpreadsheetLabelName#CASE_SENSITIVITY}.
+     */
+    private static String fold(final String text) {
+        final char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    private final Map<String, Set<SpreadsheetLabelName>> gramToLabels = Maps.hash();
+
+    @Override
+    public String toString() {
+        return new TreeMap<>(this.gramToLabels).toString();
+    }
+}
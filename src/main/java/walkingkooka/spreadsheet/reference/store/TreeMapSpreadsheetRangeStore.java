@@ -25,7 +25,6 @@ import walkingkooka.spreadsheet.reference.SpreadsheetRange;
 import walkingkooka.store.Store;
 import walkingkooka.store.Watchers;
 
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
@@ -34,7 +33,6 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
 
 /**
  * A {@link SpreadsheetRangeStore} that uses two {@link TreeMap} to navigate and store range to value mappings.
@@ -73,12 +71,29 @@ final class TreeMapSpreadsheetRangeStore<V> implements SpreadsheetRangeStore<V>
     public Set<SpreadsheetRange> loadCellReferenceRanges(final SpreadsheetCellReference cell) {
         checkCell(cell);
 
-        final Set<SpreadsheetRange> values = Sets.ordered();
+        final Set<SpreadsheetRange> ranges = Sets.ordered();
+        this.stab(cell, ranges::add);
+        return Sets.readOnly(ranges);
+    }
 
-        this.gatherTopLeft(cell, entry -> entry.loadCellReferenceRanges(cell, values));
-        this.gatherBottomRight(cell, entry -> entry.loadCellReferenceRanges(cell, values));
+    // loadIntersectingRanges..........................................................................................
 
-        return Sets.readOnly(values);
+    @Override
+    public Set<SpreadsheetRange> loadIntersectingRanges(final SpreadsheetRange range) {
+        checkRange(range);
+
+        final SpreadsheetCellReference begin = range.begin();
+        final SpreadsheetCellReference end = range.end();
+        final int beginColumn = begin.column().value();
+        final int endColumn = end.column().value();
+
+        final Set<SpreadsheetRange> ranges = Sets.ordered();
+        this.rowsToColumnsToRange.overlap(
+                begin.row().value(),
+                end.row().value(),
+                c -> c.overlap(beginColumn, endColumn, ranges::add)
+        );
+        return Sets.readOnly(ranges);
     }
 
     // loadCellReferences .....................................................................................................
@@ -88,42 +103,72 @@ final class TreeMapSpreadsheetRangeStore<V> implements SpreadsheetRangeStore<V>
         checkCell(cell);
 
         final Set<V> values = Sets.ordered();
-
-        this.gatherTopLeft(cell, entry -> entry.loadCellReferenceValues(cell, values));
-        this.gatherBottomRight(cell, entry -> entry.loadCellReferenceValues(cell, values));
-
+        this.stab(
+                cell,
+                r -> values.addAll(this.topLeft.get(r.begin()).secondaryCellReferenceToValues.get(r.end()))
+        );
         return Sets.readOnly(values);
     }
 
-    // loadCellReferenceRanges & loadCellReferences ................................................................................
+    // index............................................................................................................
 
-    private void gatherTopLeft(final SpreadsheetCellReference cell,
-                               final Consumer<TreeMapSpreadsheetRangeStoreTopLeftEntry<V>> values) {
-        this.gather(this.topLeft,
-                cell,
-                cellReference -> cellReference.compareTo(cell) > 0,
-                values);
+    /**
+     * Finds all ranges that include the cell, first finding the row intervals that include the row and then the
+     * column intervals within those that include the column.
+     */
+    private void stab(final SpreadsheetCellReference cell,
+                      final Consumer<SpreadsheetRange> ranges) {
+        final int column = cell.column().value();
+
+        this.rowsToColumnsToRange.stab(
+                cell.row().value(),
+                c -> c.stab(column, ranges)
+        );
     }
 
-    private void gatherBottomRight(final SpreadsheetCellReference cell,
-                                   final Consumer<TreeMapSpreadsheetRangeStoreBottomRightEntry<V>> values) {
-        this.gather(this.bottomRight,
-                cell,
-                cellReference -> cellReference.compareTo(cell) < 0,
-                values);
-    }
-
-    private <E extends TreeMapSpreadsheetRangeStoreEntry<V>> void gather(final NavigableMap<SpreadsheetCellReference, E> cellReferenceToEntry,
-                                                                         final SpreadsheetCellReference cell,
-                                                                         final Predicate<SpreadsheetCellReference> stop,
-                                                                         final Consumer<E> values) {
-        // loop over all entries until cell is after entry.
-        for (final Map.Entry<SpreadsheetCellReference, E> refAndValues : cellReferenceToEntry.tailMap(cell, true)
-                .entrySet()) {
-            if (stop.test(refAndValues.getKey())) {
-                break;
+    /**
+     * Adds the range to the row and column interval index if absent.
+     */
+    private void index(final SpreadsheetRange range) {
+        final SpreadsheetCellReference begin = range.begin();
+        final SpreadsheetCellReference end = range.end();
+
+        this.rowsToColumnsToRange.getOrCreate(
+                begin.row().value(),
+                end.row().value(),
+                TreeMapSpreadsheetRangeStoreIntervalTree::create
+        ).getOrCreate(
+                begin.column().value(),
+                end.column().value(),
+                () -> range
+        );
+    }
+
+    /**
+     * Removes the range from the row and column interval index if present.
+     */
+    private void unindex(final SpreadsheetRange range) {
+        final SpreadsheetCellReference begin = range.begin();
+        final SpreadsheetCellReference end = range.end();
+        final int beginRow = begin.row().value();
+        final int endRow = end.row().value();
+
+        final TreeMapSpreadsheetRangeStoreIntervalTree<SpreadsheetRange> columns = this.rowsToColumnsToRange.get(beginRow, endRow);
+        if (null != columns) {
+            columns.remove(begin.column().value(), end.column().value());
+            if (columns.isEmpty()) {
+                this.rowsToColumnsToRange.remove(beginRow, endRow);
             }
-            values.accept(refAndValues.getValue());
+        }
+    }
+
+    /**
+     * Removes the range from the index if it no longer has any values.
+     */
+    private void unindexIfEmpty(final SpreadsheetRange range) {
+        final TreeMapSpreadsheetRangeStoreTopLeftEntry<V> entry = this.topLeft.get(range.begin());
+        if (null == entry || false == entry.secondaryCellReferenceToValues.containsKey(range.end())) {
+            this.unindex(range);
         }
     }
 
@@ -138,9 +183,11 @@ final class TreeMapSpreadsheetRangeStore<V> implements SpreadsheetRangeStore<V>
     }
 
     private void addValue0(final SpreadsheetRange range, final V value) {
+        this.index(range);
         this.addTopLeft(range, value);
         this.addBottomRight(range, value);
         this.addValueToValueToRanges(range, value);
+        this.addValueToRangeToValues(range, value);
     }
 
     private void addTopLeft(final SpreadsheetRange range, final V value) {
@@ -171,17 +218,24 @@ final class TreeMapSpreadsheetRangeStore<V> implements SpreadsheetRangeStore<V>
         Objects.requireNonNull(newValue, "newValue");
         Objects.requireNonNull(oldValue, "oldValue");
 
+        final SpreadsheetRange relative = range.toRelative();
         return !oldValue.equals(newValue) &&
-                this.replace0(range, newValue, oldValue) &&
-                this.replace1(range, newValue, oldValue) &&
-                this.replace2(range, newValue, oldValue);
+                this.replace0(relative, newValue, oldValue) &&
+                this.replace1(relative, newValue, oldValue) &&
+                this.replace2(relative, newValue, oldValue);
     }
 
+    /**
+     * Replaces the old value with the new value in both the range to values and value to ranges indexes, only
+     * touching the entries for this range.
+     */
     private boolean replace0(final SpreadsheetRange range, final V newValue, final V oldValue) {
-        final Set<SpreadsheetRange> deleted = this.valueToRanges.remove(oldValue);
+        final Set<V> values = this.rangeToValues.get(range);
 
-        final boolean replaced = null != deleted;
+        final boolean replaced = null != values && values.remove(oldValue);
         if (replaced) {
+            values.add(newValue);
+            this.removeRangeFromValueToRanges(range, oldValue);
             this.addValueToValueToRanges(range, newValue);
         }
         return replaced;
@@ -211,6 +265,31 @@ final class TreeMapSpreadsheetRangeStore<V> implements SpreadsheetRangeStore<V>
         updated.add(range);
     }
 
+    private void addValueToRangeToValues(final SpreadsheetRange range, final V value) {
+        this.rangeToValues.computeIfAbsent(range, r -> Sets.ordered())
+                .add(value);
+    }
+
+    /**
+     * Removes the range from the ranges for the value, removing the value if it has no more ranges.
+     */
+    private void removeRangeFromValueToRanges(final SpreadsheetRange range, final V value) {
+        final Set<SpreadsheetRange> ranges = this.valueToRanges.get(value);
+        if (null != ranges && ranges.remove(range) && ranges.isEmpty()) {
+            this.valueToRanges.remove(value);
+        }
+    }
+
+    /**
+     * Removes the value from the values for the range, removing the range if it has no more values.
+     */
+    private void removeValueFromRangeToValues(final SpreadsheetRange range, final V value) {
+        final Set<V> values = this.rangeToValues.get(range);
+        if (null != values && values.remove(value) && values.isEmpty()) {
+            this.rangeToValues.remove(range);
+        }
+    }
+
     // removeValue .....................................................................................................
 
     /**
@@ -221,9 +300,13 @@ final class TreeMapSpreadsheetRangeStore<V> implements SpreadsheetRangeStore<V>
         checkRange(range);
         checkValue(value);
 
-        this.removeTopLeftValue(range, value);
-        this.removeBottomRightValue(range, value);
-        this.valueToRanges.remove(value);
+        final SpreadsheetRange relative = range.toRelative();
+
+        this.removeTopLeftValue(relative, value);
+        this.removeBottomRightValue(relative, value);
+        this.removeRangeFromValueToRanges(relative, value);
+        this.removeValueFromRangeToValues(relative, value);
+        this.unindexIfEmpty(relative);
     }
 
     private void removeTopLeftValue(final SpreadsheetRange range, final V value) {
@@ -255,26 +338,24 @@ final class TreeMapSpreadsheetRangeStore<V> implements SpreadsheetRangeStore<V>
     public void delete(final SpreadsheetRange range) {
         checkRange(range);
 
-        if (null != this.topLeft.remove(range.begin())) {
+        final TreeMapSpreadsheetRangeStoreTopLeftEntry<V> removed = this.topLeft.remove(range.begin());
+        if (null != removed) {
+            for (final SpreadsheetRange removedRange : removed.ranges()) {
+                this.unindex(removedRange);
+                this.deleteRangeFromValueToRanges(removedRange);
+            }
             this.bottomRight.remove(range.end());
-            this.deleteRangeFromValueToRanges(range);
             this.deleteWatchers.accept(range);
         }
     }
 
     /**
-     * Slowly visits and deletes all entries that contain a {@link SpreadsheetRange}.
+     * Uses the range to values index to remove the range from only the values it has.
      */
     private void deleteRangeFromValueToRanges(final SpreadsheetRange range) {
-        for (final Iterator<Map.Entry<V, Set<SpreadsheetRange>>> i = this.valueToRanges.entrySet().iterator(); i.hasNext(); ) {
-            Map.Entry<V, Set<SpreadsheetRange>> valueToRange = i.next();
-
-            final Set<SpreadsheetRange> ranges = valueToRange.getValue();
-            if (ranges.remove(range)) {
-                if (ranges.isEmpty()) {
-                    i.remove();
-                }
-            }
+        final Set<V> values = this.rangeToValues.remove(range);
+        if (null != values) {
+            values.forEach(v -> this.removeRangeFromValueToRanges(range, v));
         }
     }
 
@@ -378,11 +459,22 @@ final class TreeMapSpreadsheetRangeStore<V> implements SpreadsheetRangeStore<V>
 
     private final NavigableMap<SpreadsheetCellReference, TreeMapSpreadsheetRangeStoreBottomRightEntry<V>> bottomRight = new TreeMap<>();
 
+    /**
+     * A spatial index of all ranges, an interval tree of row intervals each holding an interval tree of column intervals,
+     * used to find all ranges that include a cell.
+     */
+    private final TreeMapSpreadsheetRangeStoreIntervalTree<TreeMapSpreadsheetRangeStoreIntervalTree<SpreadsheetRange>> rowsToColumnsToRange = TreeMapSpreadsheetRangeStoreIntervalTree.create();
+
     /**
      * Tracks all values to ranges.
      */
     private final Map<V, Set<SpreadsheetRange>> valueToRanges = Maps.ordered();
 
+    /**
+     * Tracks all ranges to values, the reverse of {@link #valueToRanges}.
+     */
+    private final Map<SpreadsheetRange, Set<V>> rangeToValues = Maps.ordered();
+
     // toString.........................................................................................................
 
     @Override
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.reference.store;
+
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * An interval tree holding a value for each distinct inclusive interval of column or row values. The tree is a treap
+ * ordered by interval begin then end, with each node also holding the max end of its subtree, which allows finding all
+ * intervals that include a value in O(log n + k).
+ */
+final class TreeMapSpreadsheetRangeStoreIntervalTree<E> {
+
+    static <E> TreeMapSpreadsheetRangeStoreIntervalTree<E> create() {
+        return new TreeMapSpreadsheetRangeStoreIntervalTree<>();
+    }
+
+    private TreeMapSpreadsheetRangeStoreIntervalTree() {
+        super();
+    }
+
+    /**
+     * Returns the value for the exact interval or null if absent.
+     */
+    E get(final int begin,
+          final int end) {
+        Node<E> node = this.root;
+
+        while (null != node) {
+            final int compare = node.compare(begin, end);
+            if (0 == compare) {
+                break;
+            }
+            node = compare < 0 ?
+                    node.left :
+                    node.right;
+        }
+
+        return null != node ?
+                node.value :
+                null;
+    }
+
+    /**
+     * Returns the value for the exact interval creating and adding a new value if absent.
+     */
+    E getOrCreate(final int begin,
+                  final int end,
+                  final Supplier<E> value) {
+        E got = this.get(begin, end);
+        if (null == got) {
+            got = value.get();
+            this.root = this.insert(this.root, new Node<>(begin, end, got, this.random.nextInt()));
+            this.size++;
+        }
+        return got;
+    }
+
+    private Node<E> insert(final Node<E> node,
+                           final Node<E> insert) {
+        final Node<E> result;
+
+        if (null == node) {
+            result = insert;
+        } else {
+            if (node.compare(insert.begin, insert.end) < 0) {
+                node.left = this.insert(node.left, insert);
+                result = node.left.priority > node.priority ?
+                        rotateRight(node) :
+                        node;
+            } else {
+                node.right = this.insert(node.right, insert);
+                result = node.right.priority > node.priority ?
+                        rotateLeft(node) :
+                        node;
+            }
+            node.update();
+        }
+
+        result.update();
+        return result;
+    }
+
+    /**
+     * Removes the exact interval if present.
+     */
+    void remove(final int begin,
+                final int end) {
+        if (null != this.get(begin, end)) {
+            this.root = this.remove(this.root, begin, end);
+            this.size--;
+        }
+    }
+
+    private Node<E> remove(final Node<E> node,
+                           final int begin,
+                           final int end) {
+        Node<E> result = node;
+
+        final int compare = node.compare(begin, end);
+        if (compare < 0) {
+            node.left = this.remove(node.left, begin, end);
+        } else {
+            if (compare > 0) {
+                node.right = this.remove(node.right, begin, end);
+            } else {
+                result = merge(node.left, node.right);
+            }
+        }
+
+        if (null != result) {
+            result.update();
+        }
+        return result;
+    }
+
+    /**
+     * Merges two subtrees where all of left are before all of right.
+     */
+    private static <E> Node<E> merge(final Node<E> left,
+                                     final Node<E> right) {
+        final Node<E> result;
+
+        if (null == left) {
+            result = right;
+        } else {
+            if (null == right) {
+                result = left;
+            } else {
+                if (left.priority > right.priority) {
+                    left.right = merge(left.right, right);
+                    result = left;
+                } else {
+                    right.left = merge(left, right.left);
+                    result = right;
+                }
+                result.update();
+            }
+        }
+
+        return result;
+    }
+
+    private static <E> Node<E> rotateRight(final Node<E> node) {
+        final Node<E> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        return left;
+    }
+
+    private static <E> Node<E> rotateLeft(final Node<E> node) {
+        final Node<E> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        return right;
+    }
+
+    /**
+     * Passes the values of all intervals that include the given value to the {@link Consumer}.
+     */
+    void stab(final int value,
+              final Consumer<E> values) {
+        this.overlap(value, value, values);
+    }
+
+    /**
+     * Passes the values of all intervals that include at least one value between begin and end inclusive to the
+     * {@link Consumer}.
+     */
+    void overlap(final int begin,
+                 final int end,
+                 final Consumer<E> values) {
+        overlap(this.root, begin, end, values);
+    }
+
+    private static <E> void overlap(final Node<E> node,
+                                    final int begin,
+                                    final int end,
+                                    final Consumer<E> values) {
+        // skip subtrees where all intervals end before begin
+        if (null != node && node.max >= begin) {
+            overlap(node.left, begin, end, values);
+
+            // the right subtree only has intervals that begin after node begins.
+            if (node.begin <= end) {
+                if (begin <= node.end) {
+                    values.accept(node.value);
+                }
+                overlap(node.right, begin, end, values);
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return 0 == this.size;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    private Node<E> root;
+
+    private int size;
+
+    private final Random random = new Random();
+
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder();
+        b.append('[');
+        toString(this.root, b);
+        b.append(']');
+        return b.toString();
+    }
+
+    private static <E> void toString(final Node<E> node,
+                                     final StringBuilder b) {
+        if (null != node) {
+            toString(node.left, b);
+            if (b.length() > 1) {
+                b.append(", ");
+            }
+            b.append(node);
+            toString(node.right, b);
+        }
+    }
+
+    /**
+     * A single interval and value.
+     */
+    private final static class Node<E> {
+
+        Node(final int begin,
+             final int end,
+             final E value,
+             final int priority) {
+            this.begin = begin;
+            this.end = end;
+            this.max = end;
+            this.value = value;
+            this.priority = priority;
+        }
+
+        /**
+         * Compares the given interval against this node, returning a negative value if it is before.
+         */
+        int compare(final int begin,
+                    final int end) {
+            int compare = Integer.compare(begin, this.begin);
+            if (0 == compare) {
+                compare = Integer.compare(end, this.end);
+            }
+            return compare;
+        }
+
+        /**
+         * Recomputes the max end from the children.
+         */
+        void update() {
+            int max = this.end;
+            if (null != this.left) {
+                max = Math.max(max, this.left.max);
+            }
+            if (null != this.right) {
+                max = Math.max(max, this.right.max);
+            }
+            this.max = max;
+        }
+
+        final int begin;
+        final int end;
+        final E value;
+        final int priority;
+
+        int max;
+        Node<E> left;
+        Node<E> right;
+
+        @Override
+        public String toString() {
+            return this.begin + "-" + this.end + "=" + this.value;
+        }
+    }
+}
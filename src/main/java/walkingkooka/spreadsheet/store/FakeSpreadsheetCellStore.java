@@ -20,11 +20,14 @@ package walkingkooka.spreadsheet.store;
 import walkingkooka.spreadsheet.SpreadsheetCell;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetColumnReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
 import walkingkooka.spreadsheet.reference.SpreadsheetRowReference;
 import walkingkooka.store.FakeStore;
 import walkingkooka.test.Fake;
 
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public class FakeSpreadsheetCellStore extends FakeStore<SpreadsheetCellReference, SpreadsheetCell> implements SpreadsheetCellStore, Fake {
 
@@ -54,6 +57,28 @@ public class FakeSpreadsheetCellStore extends FakeStore<SpreadsheetCellReference
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Set<SpreadsheetCell> loadRange(final SpreadsheetRange range) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void shiftColumns(final SpreadsheetColumnReference from,
+                             final int delta) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void shiftRows(final SpreadsheetRowReference from,
+                          final int delta) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Runnable addShiftWatcher(final Consumer<List<SpreadsheetCell>> shifted) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public double maxColumnWidth(final SpreadsheetColumnReference column) {
         throw new UnsupportedOperationException();
@@ -63,4 +88,40 @@ public class FakeSpreadsheetCellStore extends FakeStore<SpreadsheetCellReference
     public double maxRowHeight(final SpreadsheetRowReference row) {
         throw new UnsupportedOperationException();
     }
+
+    @Override
+    public double columnsWidth(final SpreadsheetColumnReference column,
+                               final double defaultWidth) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public double rowsHeight(final SpreadsheetRowReference row,
+                             final double defaultHeight) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SpreadsheetColumnReference columnAt(final double offset,
+                                               final double defaultWidth) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SpreadsheetRowReference rowAt(final double offset,
+                                         final double defaultHeight) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SpreadsheetColumnReference columnEndingAt(final double offset,
+                                                     final double defaultWidth) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SpreadsheetRowReference rowEndingAt(final double offset,
+                                               final double defaultHeight) {
+        throw new UnsupportedOperationException();
+    }
 }
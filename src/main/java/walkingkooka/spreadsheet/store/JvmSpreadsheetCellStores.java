@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import walkingkooka.reflect.PublicStaticHelper;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
+
+import java.nio.file.Path;
+
+/**
+ * {@link SpreadsheetCellStore} that require files and are only available on the JVM.
+ */
+public final class JvmSpreadsheetCellStores implements PublicStaticHelper {
+
+    /**
+     * {@see MappedSpreadsheetCellStore}, the returned store is also {@link AutoCloseable}.
+     */
+    public static SpreadsheetCellStore mapped(final Path directory,
+                                              final JsonNodeMarshallContext marshallContext,
+                                              final JsonNodeUnmarshallContext unmarshallContext) {
+        return MappedSpreadsheetCellStore.with(directory, marshallContext, unmarshallContext);
+    }
+
+    /**
+     * Stop creation
+     */
+    private JvmSpreadsheetCellStores() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,672 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.spreadsheet.SpreadsheetBinaryReader;
+import walkingkooka.spreadsheet.SpreadsheetBinaryWriter;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetColumnReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+import walkingkooka.spreadsheet.reference.SpreadsheetReferenceKind;
+import walkingkooka.spreadsheet.reference.SpreadsheetRowReference;
+import walkingkooka.store.Store;
+import walkingkooka.store.Watchers;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
+import walkingkooka.tree.text.TextStylePropertyName;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link SpreadsheetCellStore} that persists every save and delete as a record appended to
+ * {@link MappedSpreadsheetCellStoreSegments memory mapped segment files}, each cell written by a
+ * {@link SpreadsheetBinaryWriter}. Only an index of the location of the latest record of each cell, along with the
+ * counts and dimensions of columns and rows, is held in the heap. Cells are only read when they are loaded. Opening an
+ * existing directory replays the record headers to rebuild the index, without reading any cells.
+ * <br>
+ * After each change the oldest segments are compacted once less than half of them holds the latest saves of cells, by
+ * copying those saves to the last segment and then deleting the segments.
+ * {@link #close()} forces and releases all segments.
+ */
+final class MappedSpreadsheetCellStore implements SpreadsheetCellStore, AutoCloseable {
+
+    /**
+     * The default size of each segment file.
+     */
+    final static int SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    static {
+        // cells may be read before any SpreadsheetCell was created, this makes sure it has registered with JsonNodeContext
+        SpreadsheetCell.NO_FORMATTED_CELL.isPresent();
+    }
+
+    /**
+     * Factory that opens or creates a {@link MappedSpreadsheetCellStore} within the given directory.
+     */
+    static MappedSpreadsheetCellStore with(final Path directory,
+                                           final JsonNodeMarshallContext marshallContext,
+                                           final JsonNodeUnmarshallContext unmarshallContext) {
+        return with(directory, SEGMENT_SIZE, marshallContext, unmarshallContext);
+    }
+
+    static MappedSpreadsheetCellStore with(final Path directory,
+                                           final int segmentSize,
+                                           final JsonNodeMarshallContext marshallContext,
+                                           final JsonNodeUnmarshallContext unmarshallContext) {
+        Objects.requireNonNull(directory, "directory");
+        Objects.requireNonNull(marshallContext, "marshallContext");
+        Objects.requireNonNull(unmarshallContext, "unmarshallContext");
+
+        return new MappedSpreadsheetCellStore(
+                MappedSpreadsheetCellStoreSegments.with(directory, segmentSize),
+                marshallContext,
+                unmarshallContext
+        );
+    }
+
+    /**
+     * Private ctor.
+     */
+    private MappedSpreadsheetCellStore(final MappedSpreadsheetCellStoreSegments segments,
+                                       final JsonNodeMarshallContext marshallContext,
+                                       final JsonNodeUnmarshallContext unmarshallContext) {
+        super();
+        this.segments = segments;
+        this.marshallContext = marshallContext;
+        this.unmarshallContext = unmarshallContext;
+
+        segments.replay(this::replay);
+        this.compact();
+    }
+
+    private void replay(final long location) {
+        final MappedSpreadsheetCellStoreSegments segments = this.segments;
+        final long key = key(segments.column(location), segments.row(location));
+
+        this.unindex(key);
+        if (MappedSpreadsheetCellStoreSegments.SAVE == segments.kind(location)) {
+            this.index(key, location);
+        }
+    }
+
+    @Override
+    public Optional<SpreadsheetCell> load(final SpreadsheetCellReference id) {
+        Objects.requireNonNull(id, "id");
+
+        final Long location = this.locations.get(key(id));
+        return Optional.ofNullable(
+                null != location ?
+                        this.materialize(location) :
+                        null
+        );
+    }
+
+    @Override
+    public SpreadsheetCell save(final SpreadsheetCell cell) {
+        Objects.requireNonNull(cell, "cell");
+
+        this.put(cell);
+        this.compact();
+        this.saveWatchers.accept(cell);
+        return cell;
+    }
+
+    @Override
+    public Runnable addSaveWatcher(final Consumer<SpreadsheetCell> saved) {
+        return this.saveWatchers.addWatcher(saved);
+    }
+
+    private final Watchers<SpreadsheetCell> saveWatchers = Watchers.create();
+
+    @Override
+    public void delete(final SpreadsheetCellReference id) {
+        Objects.requireNonNull(id, "id");
+
+        if (this.remove(key(id))) {
+            this.compact();
+            this.deleteWatchers.accept(id);
+        }
+    }
+
+    @Override
+    public Runnable addDeleteWatcher(final Consumer<SpreadsheetCellReference> deleted) {
+        return this.deleteWatchers.addWatcher(deleted);
+    }
+
+    private final Watchers<SpreadsheetCellReference> deleteWatchers = Watchers.create();
+
+    @Override
+    public int count() {
+        return this.locations.size();
+    }
+
+    /**
+     * The ids are created from the index without reading any cells, so they are always relative.
+     */
+    @Override
+    public Set<SpreadsheetCellReference> ids(final int from,
+                                             final int count) {
+        Store.checkFromAndTo(from, count);
+
+        return this.locations.keySet()
+                .stream()
+                .skip(from)
+                .limit(count)
+                .map(MappedSpreadsheetCellStore::reference)
+                .collect(Collectors.toCollection(Sets::ordered));
+    }
+
+    @Override
+    public List<SpreadsheetCell> values(final SpreadsheetCellReference from,
+                                        final int count) {
+        Store.checkFromAndToIds(from, count);
+
+        final List<SpreadsheetCell> values = Lists.array();
+
+        for (final long location : this.locations.tailMap(key(from), true).values()) {
+            if (values.size() >= count) {
+                break;
+            }
+            values.add(this.materialize(location));
+        }
+
+        return values;
+    }
+
+    /**
+     * Visits the locations of the cells within the given columns and rows inclusive in {@link SpreadsheetCellReference}
+     * order, skipping to the first row of each column and past the rows of a column outside the range.
+     */
+    private void visit(final int beginColumn,
+                       final int endColumn,
+                       final int beginRow,
+                       final int endRow,
+                       final Consumer<SpreadsheetCell> cells) {
+        final NavigableMap<Long, Long> locations = this.locations;
+
+        Map.Entry<Long, Long> entry = locations.ceilingEntry(key(beginColumn, beginRow));
+        while (null != entry) {
+            final long key = entry.getKey();
+            final int column = column(key);
+            if (column > endColumn) {
+                break;
+            }
+
+            final int row = row(key);
+            if (row < beginRow) {
+                entry = locations.ceilingEntry(key(column, beginRow));
+                continue;
+            }
+            if (row > endRow) {
+                entry = locations.ceilingEntry(key(column + 1, beginRow));
+                continue;
+            }
+
+            cells.accept(this.materialize(entry.getValue()));
+            entry = locations.higherEntry(key);
+        }
+    }
+
+    // shift............................................................................................................
+
+    @Override
+    public void shiftColumns(final SpreadsheetColumnReference from,
+                             final int delta) {
+        Objects.requireNonNull(from, "from");
+
+        final int value = from.value();
+        checkShift(value, delta);
+
+        if (0 != delta) {
+            final List<SpreadsheetCell> shifted = Lists.array();
+            this.visit(value, Integer.MAX_VALUE, 0, Integer.MAX_VALUE, shifted::add);
+
+            final List<SpreadsheetCell> inTheWay = Lists.array();
+            if (delta < 0) {
+                this.visit(value + delta, value - 1, 0, Integer.MAX_VALUE, inTheWay::add);
+            }
+
+            this.shift(shifted, inTheWay, delta, SpreadsheetCellReference::addColumn);
+        }
+    }
+
+    @Override
+    public void shiftRows(final SpreadsheetRowReference from,
+                          final int delta) {
+        Objects.requireNonNull(from, "from");
+
+        final int value = from.value();
+        checkShift(value, delta);
+
+        if (0 != delta) {
+            final List<SpreadsheetCell> shifted = Lists.array();
+            this.visit(0, Integer.MAX_VALUE, value, Integer.MAX_VALUE, shifted::add);
+            shifted.sort(ROW_THEN_COLUMN);
+
+            final List<SpreadsheetCell> inTheWay = Lists.array();
+            if (delta < 0) {
+                this.visit(0, Integer.MAX_VALUE, value + delta, value - 1, inTheWay::add);
+            }
+
+            this.shift(shifted, inTheWay, delta, SpreadsheetCellReference::addRow);
+        }
+    }
+
+    /**
+     * Shifted rows are reported row by row, like the other stores.
+     */
+    private final static Comparator<SpreadsheetCell> ROW_THEN_COLUMN = Comparator.<SpreadsheetCell>comparingInt(c -> c.reference().row().value())
+            .thenComparingInt(c -> c.reference().column().value());
+
+    private static void checkShift(final int from,
+                                   final int delta) {
+        if (from + delta < 0) {
+            throw new IllegalArgumentException("Invalid delta " + delta + " shifting from " + from + " before first");
+        }
+    }
+
+    /**
+     * Removes all shifted cells, deletes any cells in the way and then saves the shifted cells with their new
+     * reference, before firing a single shift notification with all shifted cells.
+     */
+    private void shift(final List<SpreadsheetCell> shifted,
+                       final List<SpreadsheetCell> inTheWay,
+                       final int delta,
+                       final BiFunction<SpreadsheetCellReference, Integer, SpreadsheetCellReference> add) {
+        shifted.forEach(c -> this.remove(key(c.reference())));
+        inTheWay.forEach(c -> this.delete(c.reference()));
+
+        final List<SpreadsheetCell> moved = Lists.array();
+        for (final SpreadsheetCell cell : shifted) {
+            final SpreadsheetCell move = cell.setReference(add.apply(cell.reference(), delta));
+            this.put(move);
+            moved.add(move);
+        }
+        this.compact();
+
+        if (false == moved.isEmpty()) {
+            this.shiftWatchers.accept(moved);
+        }
+    }
+
+    @Override
+    public Runnable addShiftWatcher(final Consumer<List<SpreadsheetCell>> shifted) {
+        return this.shiftWatchers.addWatcher(shifted);
+    }
+
+    private final Watchers<List<SpreadsheetCell>> shiftWatchers = Watchers.create();
+
+    @Override
+    public int rows() {
+        return this.rowCounts.max();
+    }
+
+    @Override
+    public int columns() {
+        return this.columnCounts.max();
+    }
+
+    @Override
+    public Set<SpreadsheetCell> row(final SpreadsheetRowReference row) {
+        Objects.requireNonNull(row, "row");
+
+        final int value = row.value();
+        final Set<SpreadsheetCell> cells = Sets.sorted();
+        this.visit(0, Integer.MAX_VALUE, value, value, cells::add);
+        return cells;
+    }
+
+    @Override
+    public Set<SpreadsheetCell> column(final SpreadsheetColumnReference column) {
+        Objects.requireNonNull(column, "column");
+
+        final int value = column.value();
+        final Set<SpreadsheetCell> cells = Sets.sorted();
+        this.visit(value, value, 0, Integer.MAX_VALUE, cells::add);
+        return cells;
+    }
+
+    @Override
+    public Set<SpreadsheetCell> loadRange(final SpreadsheetRange range) {
+        Objects.requireNonNull(range, "range");
+
+        final SpreadsheetCellReference begin = range.begin();
+        final SpreadsheetCellReference end = range.end();
+
+        final Set<SpreadsheetCell> cells = Sets.sorted();
+        this.visit(
+                begin.column().value(),
+                end.column().value(),
+                begin.row().value(),
+                end.row().value(),
+                cells::add
+        );
+        return cells;
+    }
+
+    @Override
+    public double maxColumnWidth(final SpreadsheetColumnReference column) {
+        Objects.requireNonNull(column, "column");
+
+        return this.columnWidths.max(column.value());
+    }
+
+    @Override
+    public double maxRowHeight(final SpreadsheetRowReference row) {
+        Objects.requireNonNull(row, "row");
+
+        return this.rowHeights.max(row.value());
+    }
+
+    @Override
+    public double columnsWidth(final SpreadsheetColumnReference column,
+                               final double defaultWidth) {
+        Objects.requireNonNull(column, "column");
+        checkDefault(defaultWidth, "width");
+
+        return this.columnWidths.sum(column.value(), defaultWidth);
+    }
+
+    @Override
+    public double rowsHeight(final SpreadsheetRowReference row,
+                             final double defaultHeight) {
+        Objects.requireNonNull(row, "row");
+        checkDefault(defaultHeight, "height");
+
+        return this.rowHeights.sum(row.value(), defaultHeight);
+    }
+
+    @Override
+    public SpreadsheetColumnReference columnAt(final double offset,
+                                               final double defaultWidth) {
+        checkDefault(defaultWidth, "width");
+
+        return SpreadsheetReferenceKind.RELATIVE.column(
+                Math.min(
+                        this.columnWidths.find(offset, defaultWidth),
+                        SpreadsheetReferenceKind.RELATIVE.lastColumn().value()
+                )
+        );
+    }
+
+    @Override
+    public SpreadsheetRowReference rowAt(final double offset,
+                                         final double defaultHeight) {
+        checkDefault(defaultHeight, "height");
+
+        return SpreadsheetReferenceKind.RELATIVE.row(
+                Math.min(
+                        this.rowHeights.find(offset, defaultHeight),
+                        SpreadsheetReferenceKind.RELATIVE.lastRow().value()
+                )
+        );
+    }
+
+    @Override
+    public SpreadsheetColumnReference columnEndingAt(final double offset,
+                                                     final double defaultWidth) {
+        checkDefault(defaultWidth, "width");
+
+        return SpreadsheetReferenceKind.RELATIVE.column(
+                Math.min(
+                        this.columnWidths.findEnding(offset, defaultWidth),
+                        SpreadsheetReferenceKind.RELATIVE.lastColumn().value()
+                )
+        );
+    }
+
+    @Override
+    public SpreadsheetRowReference rowEndingAt(final double offset,
+                                               final double defaultHeight) {
+        checkDefault(defaultHeight, "height");
+
+        return SpreadsheetReferenceKind.RELATIVE.row(
+                Math.min(
+                        this.rowHeights.findEnding(offset, defaultHeight),
+                        SpreadsheetReferenceKind.RELATIVE.lastRow().value()
+                )
+        );
+    }
+
+    private static void checkDefault(final double value,
+                                     final String label) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Invalid default " + label + " " + value + " <= 0");
+        }
+    }
+
+    /**
+     * Forces all written records to the file system.
+     */
+    void force() {
+        this.segments.force();
+    }
+
+    /**
+     * Forces and releases all segments, any following read or change fails.
+     */
+    @Override
+    public void close() {
+        this.segments.close();
+    }
+
+    // compact..........................................................................................................
+
+    /**
+     * Compacts the oldest segments while they are sparse.
+     */
+    private void compact() {
+        final MappedSpreadsheetCellStoreSegments segments = this.segments;
+
+        for (; ; ) {
+            final int last = segments.sparse();
+            if (MappedSpreadsheetCellStoreSegments.NONE == last) {
+                break;
+            }
+
+            segments.replay(last, this::compact);
+            segments.delete(last);
+        }
+    }
+
+    /**
+     * Copies the record if it is the latest save of its cell, dropping deletes and older saves.
+     */
+    private void compact(final long location) {
+        final MappedSpreadsheetCellStoreSegments segments = this.segments;
+        final long key = key(segments.column(location), segments.row(location));
+        final Long latest = this.locations.get(key);
+
+        if (null != latest && location == latest) {
+            final long copy = segments.copy(location);
+            segments.release(location);
+            segments.retain(copy);
+            this.locations.put(key, copy);
+        }
+    }
+
+    // keys.............................................................................................................
+
+    private static long key(final SpreadsheetCellReference reference) {
+        return key(reference.column().value(), reference.row().value());
+    }
+
+    /**
+     * Packs the column into the high and the row into the low 32 bits, so keys sort by column then row.
+     */
+    private static long key(final int column,
+                            final int row) {
+        return ((long) column << 32) | row;
+    }
+
+    private static int column(final long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int row(final long key) {
+        return (int) key;
+    }
+
+    private static SpreadsheetCellReference reference(final long key) {
+        return SpreadsheetReferenceKind.RELATIVE.column(column(key))
+                .setRow(SpreadsheetReferenceKind.RELATIVE.row(row(key)));
+    }
+
+    // records..........................................................................................................
+
+    /**
+     * Appends a save record for the cell, replacing any previous location.
+     */
+    private void put(final SpreadsheetCell cell) {
+        final SpreadsheetCellReference reference = cell.reference();
+        final int column = reference.column().value();
+        final int row = reference.row().value();
+        final long key = key(column, row);
+
+        final long location = this.segments.append(
+                MappedSpreadsheetCellStoreSegments.SAVE,
+                column,
+                row,
+                TreeMapSpreadsheetCellStoreDimension.pixels(cell, TextStylePropertyName.WIDTH),
+                TreeMapSpreadsheetCellStoreDimension.pixels(cell, TextStylePropertyName.HEIGHT),
+                this.write(cell)
+        );
+
+        this.unindex(key);
+        this.index(key, location);
+    }
+
+    /**
+     * Appends a delete record if the cell exists, returning true if it did.
+     */
+    private boolean remove(final long key) {
+        final boolean removed = this.unindex(key);
+        if (removed) {
+            this.segments.append(
+                    MappedSpreadsheetCellStoreSegments.DELETE,
+                    column(key),
+                    row(key),
+                    0,
+                    0,
+                    NO_PAYLOAD
+            );
+        }
+        return removed;
+    }
+
+    private final static byte[] NO_PAYLOAD = new byte[0];
+
+    /**
+     * Records the location of the cell, and adds its width and height from the record.
+     */
+    private void index(final long key,
+                       final long location) {
+        final MappedSpreadsheetCellStoreSegments segments = this.segments;
+        final int column = column(key);
+        final int row = row(key);
+
+        this.locations.put(key, location);
+        segments.retain(location);
+        this.columnCounts.increment(column);
+        this.rowCounts.increment(row);
+        this.columnWidths.add(column, segments.width(location));
+        this.rowHeights.add(row, segments.height(location));
+    }
+
+    /**
+     * Removes the location of the cell and its width and height, returning true if the cell existed.
+     */
+    private boolean unindex(final long key) {
+        final MappedSpreadsheetCellStoreSegments segments = this.segments;
+        final Long location = this.locations.remove(key);
+
+        final boolean removed = null != location;
+        if (removed) {
+            final int column = column(key);
+            final int row = row(key);
+
+            segments.release(location);
+            this.columnCounts.decrement(column);
+            this.rowCounts.decrement(row);
+            this.columnWidths.remove(column, segments.width(location));
+            this.rowHeights.remove(row, segments.height(location));
+        }
+        return removed;
+    }
+
+    private byte[] write(final SpreadsheetCell cell) {
+        final SpreadsheetBinaryWriter writer = SpreadsheetBinaryWriter.with(this.marshallContext);
+        writer.writeCell(cell);
+        return writer.toByteArray();
+    }
+
+    private SpreadsheetCell materialize(final long location) {
+        return SpreadsheetBinaryReader.with(this.segments.payload(location), this.unmarshallContext)
+                .readCell();
+    }
+
+    private final MappedSpreadsheetCellStoreSegments segments;
+
+    private final JsonNodeMarshallContext marshallContext;
+
+    private final JsonNodeUnmarshallContext unmarshallContext;
+
+    /**
+     * The location of the latest save record of every cell, keyed by packed column and row.
+     */
+    private final NavigableMap<Long, Long> locations = new TreeMap<>();
+
+    /**
+     * The number of cells in each column, the max is the last column.
+     */
+    private final PackedSpreadsheetCellStoreCounts columnCounts = PackedSpreadsheetCellStoreCounts.create();
+
+    /**
+     * The number of cells in each row, the max is the last row.
+     */
+    private final PackedSpreadsheetCellStoreCounts rowCounts = PackedSpreadsheetCellStoreCounts.create();
+
+    /**
+     * The max width of each column.
+     */
+    private final TreeMapSpreadsheetCellStoreDimension columnWidths = TreeMapSpreadsheetCellStoreDimension.create();
+
+    /**
+     * The max height of each row.
+     */
+    private final TreeMapSpreadsheetCellStoreDimension rowHeights = TreeMapSpreadsheetCellStoreDimension.create();
+
+    @Override
+    public String toString() {
+        return this.values(SpreadsheetReferenceKind.RELATIVE.firstColumn().setRow(SpreadsheetReferenceKind.RELATIVE.firstRow()), Integer.MAX_VALUE).toString();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A single memory mapped segment file of {@link MappedSpreadsheetCellStoreSegments}, along with the number of bytes
+ * held by records that are the latest save of a cell. The remaining bytes are deletes, overwritten saves and the
+ * unused tail.
+ */
+final class MappedSpreadsheetCellStoreSegment {
+
+    /**
+     * Opens or creates the file and maps the given number of bytes. The channel is closed once mapped, the mapping
+     * remains valid until the buffer is garbage collected.
+     */
+    static MappedSpreadsheetCellStoreSegment map(final Path file,
+                                                 final int number,
+                                                 final long size) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new MappedSpreadsheetCellStoreSegment(file,
+                    number,
+                    channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    private MappedSpreadsheetCellStoreSegment(final Path file,
+                                              final int number,
+                                              final MappedByteBuffer buffer) {
+        super();
+        this.file = file;
+        this.number = number;
+        this.buffer = buffer;
+    }
+
+    Path file() {
+        return this.file;
+    }
+
+    private final Path file;
+
+    int number() {
+        return this.number;
+    }
+
+    private final int number;
+
+    MappedByteBuffer buffer() {
+        return this.buffer;
+    }
+
+    private final MappedByteBuffer buffer;
+
+    int capacity() {
+        return this.buffer.capacity();
+    }
+
+    /**
+     * Adds the size of a record that became the latest save of a cell.
+     */
+    void retain(final int size) {
+        this.live += size;
+    }
+
+    /**
+     * Removes the size of a record that is no longer the latest save of a cell.
+     */
+    void release(final int size) {
+        this.live -= size;
+    }
+
+    /**
+     * The number of bytes held by records that are the latest save of a cell.
+     */
+    int live() {
+        return this.live;
+    }
+
+    private int live;
+
+    void force() {
+        this.buffer.force();
+    }
+
+    @Override
+    public String toString() {
+        return this.file + " " + this.live + "/" + this.capacity();
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import walkingkooka.collect.list.Lists;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An append only sequence of records held in memory mapped segment files within a directory. Each record is addressed
+ * by a location which holds the segment number in the high and the offset within the segment in the low 32 bits.
+ * <pre>
+ * int size            total size of the record including this header, written last so a torn record is ignored
+ * byte kind           {@link #SAVE} or {@link #DELETE}
+ * int column
+ * int row
+ * double width        the width of the cell in pixels
+ * double height       the height of the cell in pixels
+ * byte[] payload      the cell, empty for a delete
+ * </pre>
+ * The unused tail of a segment is zero filled, so a zero size marks the end of the records in a segment.
+ * The bytes of each segment holding the latest save of a cell are tracked using {@link #retain(long)} and
+ * {@link #release(long)}, so the oldest segments when they are mostly garbage may be found by {@link #sparse()}, their
+ * latest saves copied and then the segments deleted. As no older segment remains their deletes are no longer needed.
+ * {@link #replay(LongConsumer)} must be called once after opening existing segments and before any append, and
+ * {@link #close()} once all reads and appends are done.
+ */
+final class MappedSpreadsheetCellStoreSegments {
+
+    final static byte SAVE = 1;
+    final static byte DELETE = 2;
+
+    private final static int SIZE = 0;
+    private final static int KIND = SIZE + Integer.BYTES;
+    private final static int COLUMN = KIND + Byte.BYTES;
+    private final static int ROW = COLUMN + Integer.BYTES;
+    private final static int WIDTH = ROW + Integer.BYTES;
+    private final static int HEIGHT = WIDTH + Double.BYTES;
+    private final static int HEADER = HEIGHT + Double.BYTES;
+
+    private final static String PREFIX = "cells-";
+    private final static String SUFFIX = ".segment";
+
+    /**
+     * Segment numbers use at least this many digits, so files sort by number.
+     */
+    private final static String NUMBER_FORMAT = "%08d";
+
+    /**
+     * Returned by {@link #sparse()} when there is no sparse segment.
+     */
+    final static int NONE = -1;
+
+    /**
+     * Opens the segments in the directory, creating the directory if necessary. New segments will be at least
+     * segmentSize bytes.
+     */
+    static MappedSpreadsheetCellStoreSegments with(final Path directory,
+                                                   final int segmentSize) {
+        Objects.requireNonNull(directory, "directory");
+        if (segmentSize <= HEADER) {
+            throw new IllegalArgumentException("Invalid segment size " + segmentSize + " <= " + HEADER);
+        }
+
+        return new MappedSpreadsheetCellStoreSegments(directory, segmentSize);
+    }
+
+    private MappedSpreadsheetCellStoreSegments(final Path directory,
+                                               final int segmentSize) {
+        super();
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+
+        try {
+            Files.createDirectories(directory);
+
+            final List<Path> files;
+            try (final Stream<Path> list = Files.list(directory)) {
+                files = list.filter(MappedSpreadsheetCellStoreSegments::isSegment)
+                        .collect(Collectors.toList());
+            }
+            for (final Path file : files) {
+                final int number = number(file);
+                this.segments.put(number, MappedSpreadsheetCellStoreSegment.map(file, number, Files.size(file)));
+            }
+        } catch (final IOException cause) {
+            throw new SpreadsheetCellStoreException("Unable to open segments in " + directory + ": " + cause.getMessage(), cause);
+        }
+    }
+
+    private static boolean isSegment(final Path file) {
+        final String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static int number(final Path file) {
+        final String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Passes the location of every complete record to the {@link LongConsumer} in the order they were appended, and
+     * positions the next append after the last record.
+     */
+    void replay(final LongConsumer locations) {
+        for (final MappedSpreadsheetCellStoreSegment segment : this.segments.values()) {
+            this.position = replay(segment, locations);
+        }
+    }
+
+    /**
+     * Passes the location of every complete record of the segments up to and including the given segment to the
+     * {@link LongConsumer}, which may append records.
+     */
+    void replay(final int last,
+                final LongConsumer locations) {
+        for (final MappedSpreadsheetCellStoreSegment segment : this.segmentsTo(last)) {
+            replay(segment, locations);
+        }
+    }
+
+    /**
+     * Returns the offset after the last record.
+     */
+    private static int replay(final MappedSpreadsheetCellStoreSegment segment,
+                              final LongConsumer locations) {
+        final MappedByteBuffer buffer = segment.buffer();
+        final int capacity = buffer.capacity();
+        final int number = segment.number();
+
+        int offset = 0;
+        while (offset + HEADER <= capacity) {
+            final int size = buffer.getInt(offset + SIZE);
+            if (size < HEADER || offset + size > capacity) {
+                break;
+            }
+            locations.accept(location(number, offset));
+            offset += size;
+        }
+        return offset;
+    }
+
+    /**
+     * Appends a new record returning its location.
+     */
+    long append(final byte kind,
+                final int column,
+                final int row,
+                final double width,
+                final double height,
+                final byte[] payload) {
+        this.checkOpen();
+
+        final int size = HEADER + payload.length;
+
+        final NavigableMap<Integer, MappedSpreadsheetCellStoreSegment> segments = this.segments;
+        if (segments.isEmpty() || this.position + size > segments.lastEntry().getValue().capacity()) {
+            this.newSegment(size);
+        }
+
+        final MappedSpreadsheetCellStoreSegment segment = segments.lastEntry().getValue();
+        final MappedByteBuffer buffer = segment.buffer();
+        final int offset = this.position;
+
+        buffer.put(offset + KIND, kind);
+        buffer.putInt(offset + COLUMN, column);
+        buffer.putInt(offset + ROW, row);
+        buffer.putDouble(offset + WIDTH, width);
+        buffer.putDouble(offset + HEIGHT, height);
+
+        final ByteBuffer payloadBuffer = buffer.duplicate();
+        payloadBuffer.position(offset + HEADER);
+        payloadBuffer.put(payload);
+
+        buffer.putInt(offset + SIZE, size);
+
+        this.position = offset + size;
+        return location(segment.number(), offset);
+    }
+
+    private void newSegment(final int size) {
+        final NavigableMap<Integer, MappedSpreadsheetCellStoreSegment> segments = this.segments;
+        final int number = segments.isEmpty() ?
+                0 :
+                segments.lastKey() + 1;
+        final Path file = this.directory.resolve(PREFIX + String.format(NUMBER_FORMAT, number) + SUFFIX);
+        try {
+            segments.put(number, MappedSpreadsheetCellStoreSegment.map(file, number, Math.max(this.segmentSize, size)));
+        } catch (final IOException cause) {
+            throw new SpreadsheetCellStoreException("Unable to create segment " + file + ": " + cause.getMessage(), cause);
+        }
+        this.position = 0;
+    }
+
+    /**
+     * Appends a copy of the record at the given location, returning the location of the copy.
+     */
+    long copy(final long location) {
+        return this.append(
+                this.kind(location),
+                this.column(location),
+                this.row(location),
+                this.width(location),
+                this.height(location),
+                this.payload(location)
+        );
+    }
+
+    // compaction.......................................................................................................
+
+    /**
+     * Adds the record to the bytes of its segment holding the latest saves of cells.
+     */
+    void retain(final long location) {
+        this.segment(location).retain(this.size(location));
+    }
+
+    /**
+     * Removes the record from the bytes of its segment holding the latest saves of cells.
+     */
+    void release(final long location) {
+        this.segment(location).release(this.size(location));
+    }
+
+    /**
+     * Returns the number of the last of the fewest oldest segments less than half of which hold the latest saves of
+     * cells, ignoring the segment being appended to, or {@link #NONE}. Compacting these segments always frees more
+     * bytes than are copied.
+     */
+    int sparse() {
+        final NavigableMap<Integer, MappedSpreadsheetCellStoreSegment> segments = this.segments;
+        if (false == segments.isEmpty()) {
+            long live = 0;
+            long capacity = 0;
+
+            for (final MappedSpreadsheetCellStoreSegment segment : segments.headMap(segments.lastKey()).values()) {
+                live += segment.live();
+                capacity += segment.capacity();
+                if (live * 2 < capacity) {
+                    return segment.number();
+                }
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Forces the remaining segments, which should hold copies of the latest saves of the segments up to and including
+     * the given segment, and then deletes those segments oldest first, so a save is never left without the deletes
+     * that follow it.
+     */
+    void delete(final int last) {
+        final List<MappedSpreadsheetCellStoreSegment> deleted = this.segmentsTo(last);
+        this.segments.headMap(last, true).clear();
+        this.force();
+
+        for (final MappedSpreadsheetCellStoreSegment segment : deleted) {
+            final Path file = segment.file();
+            try {
+                Files.delete(file);
+            } catch (final IOException cause) {
+                throw new SpreadsheetCellStoreException("Unable to delete segment " + file + ": " + cause.getMessage(), cause);
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of the segments up to and including the given segment, oldest first.
+     */
+    private List<MappedSpreadsheetCellStoreSegment> segmentsTo(final int last) {
+        final List<MappedSpreadsheetCellStoreSegment> segments = Lists.array();
+        segments.addAll(this.segments.headMap(last, true).values());
+        return segments;
+    }
+
+    /**
+     * Forces all segments to the file system.
+     */
+    void force() {
+        this.segments.values()
+                .forEach(MappedSpreadsheetCellStoreSegment::force);
+    }
+
+    /**
+     * Forces all segments and releases their buffers. Java has no way to unmap a buffer, the mappings are released when
+     * the buffers are garbage collected. Any following read or append fails.
+     */
+    void close() {
+        this.force();
+        this.segments.clear();
+        this.closed = true;
+    }
+
+    private void checkOpen() {
+        if (this.closed) {
+            throw new SpreadsheetCellStoreException("Segments in " + this.directory + " closed");
+        }
+    }
+
+    private boolean closed;
+
+    // record...........................................................................................................
+
+    private int size(final long location) {
+        return this.buffer(location).getInt(offset(location) + SIZE);
+    }
+
+    byte kind(final long location) {
+        return this.buffer(location).get(offset(location) + KIND);
+    }
+
+    int column(final long location) {
+        return this.buffer(location).getInt(offset(location) + COLUMN);
+    }
+
+    int row(final long location) {
+        return this.buffer(location).getInt(offset(location) + ROW);
+    }
+
+    double width(final long location) {
+        return this.buffer(location).getDouble(offset(location) + WIDTH);
+    }
+
+    double height(final long location) {
+        return this.buffer(location).getDouble(offset(location) + HEIGHT);
+    }
+
+    byte[] payload(final long location) {
+        final MappedByteBuffer buffer = this.buffer(location);
+        final int offset = offset(location);
+
+        final byte[] payload = new byte[buffer.getInt(offset + SIZE) - HEADER];
+
+        final ByteBuffer payloadBuffer = buffer.duplicate();
+        payloadBuffer.position(offset + HEADER);
+        payloadBuffer.get(payload);
+        return payload;
+    }
+
+    private MappedByteBuffer buffer(final long location) {
+        return this.segment(location).buffer();
+    }
+
+    private MappedSpreadsheetCellStoreSegment segment(final long location) {
+        return this.segment((int) (location >>> 32));
+    }
+
+    private MappedSpreadsheetCellStoreSegment segment(final int number) {
+        this.checkOpen();
+
+        final MappedSpreadsheetCellStoreSegment segment = this.segments.get(number);
+        if (null == segment) {
+            throw new SpreadsheetCellStoreException("Unknown segment " + number + " in " + this.directory);
+        }
+        return segment;
+    }
+
+    private static int offset(final long location) {
+        return (int) location;
+    }
+
+    private static long location(final int segment,
+                                 final int offset) {
+        return ((long) segment << 32) | offset;
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+
+    /**
+     * Segments by number, the last is being appended to.
+     */
+    private final NavigableMap<Integer, MappedSpreadsheetCellStoreSegment> segments = new TreeMap<>();
+
+    /**
+     * The offset within the last segment of the next record.
+     */
+    private int position;
+
+    @Override
+    public String toString() {
+        return this.directory + " " + this.segments.size() + " segment(s)";
+    }
+}
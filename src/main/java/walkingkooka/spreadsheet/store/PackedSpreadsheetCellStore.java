@@ -0,0 +1,512 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetColumnReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+import walkingkooka.spreadsheet.reference.SpreadsheetReferenceKind;
+import walkingkooka.spreadsheet.reference.SpreadsheetRowReference;
+import walkingkooka.store.Store;
+import walkingkooka.store.Watchers;
+import walkingkooka.tree.text.TextStylePropertyName;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * A {@link SpreadsheetCellStore} that packs the column and row of each cell into a single long, with the column in the
+ * high bits so keys sort in {@link SpreadsheetCellReference} order. Cells are held in an open addressing
+ * {@link PackedSpreadsheetCellStoreMap} and a {@link PackedSpreadsheetCellStoreIndex} keeps the keys sorted for
+ * ordered and range reads. {@link SpreadsheetCellReference references} are only converted to keys at the public methods.
+ */
+final class PackedSpreadsheetCellStore implements SpreadsheetCellStore {
+
+    /**
+     * Factory that creates a new {@link PackedSpreadsheetCellStore}
+     */
+    static PackedSpreadsheetCellStore create() {
+        return new PackedSpreadsheetCellStore();
+    }
+
+    /**
+     * Private ctor.
+     */
+    private PackedSpreadsheetCellStore() {
+        super();
+    }
+
+    @Override
+    public Optional<SpreadsheetCell> load(final SpreadsheetCellReference id) {
+        Objects.requireNonNull(id, "id");
+
+        return Optional.ofNullable(this.cells.get(key(id)));
+    }
+
+    @Override
+    public SpreadsheetCell save(final SpreadsheetCell cell) {
+        Objects.requireNonNull(cell, "cell");
+
+        final SpreadsheetCell previous = this.put(cell);
+        if (null != previous) {
+            this.unindex(previous);
+        }
+        this.index(cell);
+        this.saveWatchers.accept(cell);
+        return cell;
+    }
+
+    @Override
+    public Runnable addSaveWatcher(final Consumer<SpreadsheetCell> saved) {
+        return this.saveWatchers.addWatcher(saved);
+    }
+
+    private final Watchers<SpreadsheetCell> saveWatchers = Watchers.create();
+
+    @Override
+    public void delete(final SpreadsheetCellReference id) {
+        Objects.requireNonNull(id, "id");
+
+        if (null != this.remove(key(id))) {
+            this.deleteWatchers.accept(id);
+        }
+    }
+
+    @Override
+    public Runnable addDeleteWatcher(final Consumer<SpreadsheetCellReference> deleted) {
+        return this.deleteWatchers.addWatcher(deleted);
+    }
+
+    private final Watchers<SpreadsheetCellReference> deleteWatchers = Watchers.create();
+
+    @Override
+    public int count() {
+        return this.cells.size();
+    }
+
+    @Override
+    public Set<SpreadsheetCellReference> ids(final int from,
+                                             final int count) {
+        Store.checkFromAndTo(from, count);
+
+        final Set<SpreadsheetCellReference> ids = Sets.ordered();
+
+        final PackedSpreadsheetCellStoreIndex index = this.index;
+        final int end = (int) Math.min(index.size(), (long) from + count);
+        for (int i = from; i < end; i++) {
+            ids.add(this.cells.get(index.get(i)).reference());
+        }
+
+        return ids;
+    }
+
+    @Override
+    public List<SpreadsheetCell> values(final SpreadsheetCellReference from,
+                                        final int count) {
+        Store.checkFromAndToIds(from, count);
+
+        final List<SpreadsheetCell> values = Lists.array();
+
+        final PackedSpreadsheetCellStoreIndex index = this.index;
+        final int size = index.size();
+        for (int i = index.ceiling(key(from)); i < size && values.size() < count; i++) {
+            values.add(this.cells.get(index.get(i)));
+        }
+
+        return values;
+    }
+
+    /**
+     * Visits the cells within the given columns and rows inclusive in {@link SpreadsheetCellReference} order. Each
+     * column starts with a binary search for its first row, and any column with no cells in the rows is skipped with
+     * a second binary search.
+     */
+    private void visit(final int beginColumn,
+                       final int endColumn,
+                       final int beginRow,
+                       final int endRow,
+                       final Consumer<SpreadsheetCell> cells) {
+        final PackedSpreadsheetCellStoreIndex index = this.index;
+        final int size = index.size();
+
+        int i = index.ceiling(key(beginColumn, beginRow));
+        while (i < size) {
+            final long key = index.get(i);
+            final int column = column(key);
+            if (column > endColumn) {
+                break;
+            }
+
+            final int row = row(key);
+            if (row < beginRow) {
+                i = index.ceiling(key(column, beginRow));
+                continue;
+            }
+            if (row > endRow) {
+                i = index.ceiling(key(column + 1, beginRow));
+                continue;
+            }
+
+            cells.accept(this.cells.get(key));
+            i++;
+        }
+    }
+
+    // shift............................................................................................................
+
+    @Override
+    public void shiftColumns(final SpreadsheetColumnReference from,
+                             final int delta) {
+        Objects.requireNonNull(from, "from");
+
+        final int value = from.value();
+        checkShift(value, delta);
+
+        if (0 != delta) {
+            final List<SpreadsheetCell> shifted = Lists.array();
+            this.visit(value, Integer.MAX_VALUE, 0, Integer.MAX_VALUE, shifted::add);
+
+            final List<SpreadsheetCell> inTheWay = Lists.array();
+            if (delta < 0) {
+                this.visit(value + delta, value - 1, 0, Integer.MAX_VALUE, inTheWay::add);
+            }
+
+            this.shift(shifted, inTheWay, delta, SpreadsheetCellReference::addColumn);
+        }
+    }
+
+    @Override
+    public void shiftRows(final SpreadsheetRowReference from,
+                          final int delta) {
+        Objects.requireNonNull(from, "from");
+
+        final int value = from.value();
+        checkShift(value, delta);
+
+        if (0 != delta) {
+            final List<SpreadsheetCell> shifted = Lists.array();
+            this.visit(0, Integer.MAX_VALUE, value, Integer.MAX_VALUE, shifted::add);
+            shifted.sort(ROW_THEN_COLUMN);
+
+            final List<SpreadsheetCell> inTheWay = Lists.array();
+            if (delta < 0) {
+                this.visit(0, Integer.MAX_VALUE, value + delta, value - 1, inTheWay::add);
+            }
+
+            this.shift(shifted, inTheWay, delta, SpreadsheetCellReference::addRow);
+        }
+    }
+
+    /**
+     * Shifted rows are reported row by row, like the other stores.
+     */
+    private final static Comparator<SpreadsheetCell> ROW_THEN_COLUMN = Comparator.<SpreadsheetCell>comparingInt(c -> c.reference().row().value())
+            .thenComparingInt(c -> c.reference().column().value());
+
+    private static void checkShift(final int from,
+                                   final int delta) {
+        if (from + delta < 0) {
+            throw new IllegalArgumentException("Invalid delta " + delta + " shifting from " + from + " before first");
+        }
+    }
+
+    /**
+     * Removes all shifted cells, deletes any cells in the way and then saves the shifted cells with their new
+     * reference, before firing a single shift notification with all shifted cells.
+     */
+    private void shift(final List<SpreadsheetCell> shifted,
+                       final List<SpreadsheetCell> inTheWay,
+                       final int delta,
+                       final BiFunction<SpreadsheetCellReference, Integer, SpreadsheetCellReference> add) {
+        shifted.forEach(c -> this.remove(key(c.reference())));
+        inTheWay.forEach(c -> this.delete(c.reference()));
+
+        final List<SpreadsheetCell> moved = Lists.array();
+        for (final SpreadsheetCell cell : shifted) {
+            final SpreadsheetCell move = cell.setReference(add.apply(cell.reference(), delta));
+            this.put(move);
+            this.index(move);
+            moved.add(move);
+        }
+
+        if (false == moved.isEmpty()) {
+            this.shiftWatchers.accept(moved);
+        }
+    }
+
+    @Override
+    public Runnable addShiftWatcher(final Consumer<List<SpreadsheetCell>> shifted) {
+        return this.shiftWatchers.addWatcher(shifted);
+    }
+
+    private final Watchers<List<SpreadsheetCell>> shiftWatchers = Watchers.create();
+
+    @Override
+    public int rows() {
+        return this.rowCounts.max();
+    }
+
+    @Override
+    public int columns() {
+        return this.columnCounts.max();
+    }
+
+    @Override
+    public Set<SpreadsheetCell> row(final SpreadsheetRowReference row) {
+        Objects.requireNonNull(row, "row");
+
+        final int value = row.value();
+        final Set<SpreadsheetCell> cells = Sets.sorted();
+        this.visit(0, Integer.MAX_VALUE, value, value, cells::add);
+        return cells;
+    }
+
+    @Override
+    public Set<SpreadsheetCell> column(final SpreadsheetColumnReference column) {
+        Objects.requireNonNull(column, "column");
+
+        final int value = column.value();
+        final Set<SpreadsheetCell> cells = Sets.sorted();
+        this.visit(value, value, 0, Integer.MAX_VALUE, cells::add);
+        return cells;
+    }
+
+    @Override
+    public Set<SpreadsheetCell> loadRange(final SpreadsheetRange range) {
+        Objects.requireNonNull(range, "range");
+
+        final SpreadsheetCellReference begin = range.begin();
+        final SpreadsheetCellReference end = range.end();
+
+        final Set<SpreadsheetCell> cells = Sets.sorted();
+        this.visit(
+                begin.column().value(),
+                end.column().value(),
+                begin.row().value(),
+                end.row().value(),
+                cells::add
+        );
+        return cells;
+    }
+
+    @Override
+    public double maxColumnWidth(final SpreadsheetColumnReference column) {
+        Objects.requireNonNull(column, "column");
+
+        return this.columnWidths.max(column.value());
+    }
+
+    @Override
+    public double maxRowHeight(final SpreadsheetRowReference row) {
+        Objects.requireNonNull(row, "row");
+
+        return this.rowHeights.max(row.value());
+    }
+
+    @Override
+    public double columnsWidth(final SpreadsheetColumnReference column,
+                               final double defaultWidth) {
+        Objects.requireNonNull(column, "column");
+        checkDefault(defaultWidth, "width");
+
+        return this.columnWidths.sum(column.value(), defaultWidth);
+    }
+
+    @Override
+    public double rowsHeight(final SpreadsheetRowReference row,
+                             final double defaultHeight) {
+        Objects.requireNonNull(row, "row");
+        checkDefault(defaultHeight, "height");
+
+        return this.rowHeights.sum(row.value(), defaultHeight);
+    }
+
+    @Override
+    public SpreadsheetColumnReference columnAt(final double offset,
+                                               final double defaultWidth) {
+        checkDefault(defaultWidth, "width");
+
+        return SpreadsheetReferenceKind.RELATIVE.column(
+                Math.min(
+                        this.columnWidths.find(offset, defaultWidth),
+                        SpreadsheetReferenceKind.RELATIVE.lastColumn().value()
+                )
+        );
+    }
+
+    @Override
+    public SpreadsheetRowReference rowAt(final double offset,
+                                         final double defaultHeight) {
+        checkDefault(defaultHeight, "height");
+
+        return SpreadsheetReferenceKind.RELATIVE.row(
+                Math.min(
+                        this.rowHeights.find(offset, defaultHeight),
+                        SpreadsheetReferenceKind.RELATIVE.lastRow().value()
+                )
+        );
+    }
+
+    @Override
+    public SpreadsheetColumnReference columnEndingAt(final double offset,
+                                                     final double defaultWidth) {
+        checkDefault(defaultWidth, "width");
+
+        return SpreadsheetReferenceKind.RELATIVE.column(
+                Math.min(
+                        this.columnWidths.findEnding(offset, defaultWidth),
+                        SpreadsheetReferenceKind.RELATIVE.lastColumn().value()
+                )
+        );
+    }
+
+    @Override
+    public SpreadsheetRowReference rowEndingAt(final double offset,
+                                               final double defaultHeight) {
+        checkDefault(defaultHeight, "height");
+
+        return SpreadsheetReferenceKind.RELATIVE.row(
+                Math.min(
+                        this.rowHeights.findEnding(offset, defaultHeight),
+                        SpreadsheetReferenceKind.RELATIVE.lastRow().value()
+                )
+        );
+    }
+
+    private static void checkDefault(final double value,
+                                     final String label) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Invalid default " + label + " " + value + " <= 0");
+        }
+    }
+
+    // keys.............................................................................................................
+
+    private static long key(final SpreadsheetCellReference reference) {
+        return key(reference.column().value(), reference.row().value());
+    }
+
+    /**
+     * Packs the column into the high and the row into the low 32 bits, so keys sort by column then row.
+     */
+    private static long key(final int column,
+                            final int row) {
+        return ((long) column << 32) | row;
+    }
+
+    private static int column(final long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int row(final long key) {
+        return (int) key;
+    }
+
+    /**
+     * Puts the cell returning the replaced cell or null.
+     */
+    private SpreadsheetCell put(final SpreadsheetCell cell) {
+        final SpreadsheetCellReference reference = cell.reference();
+        final long key = key(reference);
+
+        final SpreadsheetCell previous = this.cells.put(key, cell);
+        if (null == previous) {
+            this.index.add(key);
+            this.columnCounts.increment(column(key));
+            this.rowCounts.increment(row(key));
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the cell returning it or null.
+     */
+    private SpreadsheetCell remove(final long key) {
+        final SpreadsheetCell removed = this.cells.remove(key);
+        if (null != removed) {
+            this.index.removed();
+            this.columnCounts.decrement(column(key));
+            this.rowCounts.decrement(row(key));
+            this.unindex(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the width and height of the cell.
+     */
+    private void unindex(final SpreadsheetCell cell) {
+        final SpreadsheetCellReference reference = cell.reference();
+
+        this.columnWidths.remove(reference.column().value(), TreeMapSpreadsheetCellStoreDimension.pixels(cell, TextStylePropertyName.WIDTH));
+        this.rowHeights.remove(reference.row().value(), TreeMapSpreadsheetCellStoreDimension.pixels(cell, TextStylePropertyName.HEIGHT));
+    }
+
+    /**
+     * Adds the width and height of the cell.
+     */
+    private void index(final SpreadsheetCell cell) {
+        final SpreadsheetCellReference reference = cell.reference();
+
+        this.columnWidths.add(reference.column().value(), TreeMapSpreadsheetCellStoreDimension.pixels(cell, TextStylePropertyName.WIDTH));
+        this.rowHeights.add(reference.row().value(), TreeMapSpreadsheetCellStoreDimension.pixels(cell, TextStylePropertyName.HEIGHT));
+    }
+
+    /**
+     * All cells by key.
+     */
+    private final PackedSpreadsheetCellStoreMap cells = PackedSpreadsheetCellStoreMap.create();
+
+    /**
+     * All keys sorted.
+     */
+    private final PackedSpreadsheetCellStoreIndex index = PackedSpreadsheetCellStoreIndex.with(k -> null != this.cells.get(k));
+
+    /**
+     * The number of cells in each column, the max is the last column.
+     */
+    private final PackedSpreadsheetCellStoreCounts columnCounts = PackedSpreadsheetCellStoreCounts.create();
+
+    /**
+     * The number of cells in each row, the max is the last row.
+     */
+    private final PackedSpreadsheetCellStoreCounts rowCounts = PackedSpreadsheetCellStoreCounts.create();
+
+    /**
+     * The max width of each column.
+     */
+    private final TreeMapSpreadsheetCellStoreDimension columnWidths = TreeMapSpreadsheetCellStoreDimension.create();
+
+    /**
+     * The max height of each row.
+     */
+    private final TreeMapSpreadsheetCellStoreDimension rowHeights = TreeMapSpreadsheetCellStoreDimension.create();
+
+    @Override
+    public String toString() {
+        return this.values(SpreadsheetReferenceKind.RELATIVE.firstColumn().setRow(SpreadsheetReferenceKind.RELATIVE.firstRow()), Integer.MAX_VALUE).toString();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import java.util.Arrays;
+
+/**
+ * The number of cells in each column or row held in a growable array, tracking the last column or row with a cell.
+ */
+final class PackedSpreadsheetCellStoreCounts {
+
+    static PackedSpreadsheetCellStoreCounts create() {
+        return new PackedSpreadsheetCellStoreCounts();
+    }
+
+    private PackedSpreadsheetCellStoreCounts() {
+        super();
+    }
+
+    void increment(final int index) {
+        int[] counts = this.counts;
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(counts.length << 1, index + 1));
+            this.counts = counts;
+        }
+        counts[index]++;
+        this.max = Math.max(this.max, index);
+    }
+
+    void decrement(final int index) {
+        final int[] counts = this.counts;
+        counts[index]--;
+
+        if (index == this.max) {
+            int max = index;
+            while (max > 0 && 0 == counts[max]) {
+                max--;
+            }
+            this.max = max;
+        }
+    }
+
+    /**
+     * The last column or row with a cell or 0 if none.
+     */
+    int max() {
+        return this.max;
+    }
+
+    private int[] counts = new int[64];
+    private int max;
+
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder();
+        b.append('{');
+
+        final int[] counts = this.counts;
+        for (int i = 0; i < counts.length; i++) {
+            if (0 != counts[i]) {
+                if (b.length() > 1) {
+                    b.append(", ");
+                }
+                b.append(i)
+                        .append('=')
+                        .append(counts[i]);
+            }
+        }
+
+        b.append('}');
+        return b.toString();
+    }
+}
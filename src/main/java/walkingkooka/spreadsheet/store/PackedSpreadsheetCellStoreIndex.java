@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * A sorted array of packed cell keys. Added keys are buffered and removed keys are only noted, both are merged into
+ * the sorted array by the first read that follows, so runs of saves or deletes cost a single sort and merge. The merge
+ * happens in place, from the end of the array backwards, and the array only grows when the merged keys do not fit.
+ * Reads may happen from several threads at once, so the merge is guarded and published by {@link #pending}, while
+ * writes like all stores must not happen at the same time as reads.
+ */
+final class PackedSpreadsheetCellStoreIndex {
+
+    static PackedSpreadsheetCellStoreIndex with(final LongPredicate present) {
+        return new PackedSpreadsheetCellStoreIndex(present);
+    }
+
+    private PackedSpreadsheetCellStoreIndex(final LongPredicate present) {
+        super();
+        this.present = present;
+    }
+
+    /**
+     * Adds a new key, which must not already be present.
+     */
+    void add(final long key) {
+        long[] added = this.added;
+        if (this.addedCount == added.length) {
+            added = Arrays.copyOf(added, added.length << 1);
+            this.added = added;
+        }
+        added[this.addedCount++] = key;
+        this.pending = true;
+    }
+
+    /**
+     * Notes that a key was removed, it will be dropped by the next merge.
+     */
+    void removed() {
+        this.removed = true;
+        this.pending = true;
+    }
+
+    int size() {
+        this.merge();
+        return this.size;
+    }
+
+    long get(final int index) {
+        this.merge();
+        return this.keys[index];
+    }
+
+    /**
+     * Returns the index of the first key greater than or equal to the given key, which will be {@link #size()} if
+     * none.
+     */
+    int ceiling(final long key) {
+        this.merge();
+
+        final int index = Arrays.binarySearch(this.keys, 0, this.size, key);
+        return index >= 0 ?
+                index :
+                -index - 1;
+    }
+
+    /**
+     * Merges any pending keys, only the first of several concurrent readers performs the merge.
+     */
+    private void merge() {
+        if (this.pending) {
+            synchronized (this) {
+                if (this.pending) {
+                    this.merge0();
+                    this.pending = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts the added keys and merges them with the existing keys from the largest down, so neither are overwritten
+     * before they are read. Keys that are no longer present are only tested for after a removal.
+     */
+    private void merge0() {
+        final int addedCount = this.addedCount;
+        final long[] added = this.added;
+        Arrays.sort(added, 0, addedCount);
+
+        final int size = this.size;
+        final int total = size + addedCount;
+        long[] keys = this.keys;
+        if (total > keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(total, keys.length + (keys.length >> 1)));
+            this.keys = keys;
+        }
+
+        final LongPredicate present = this.removed ?
+                this.present :
+                null;
+
+        int w = total;
+        int k = size - 1;
+        int a = addedCount - 1;
+        long last = -1;
+        while (k >= 0 || a >= 0) {
+            final long key = a < 0 || (k >= 0 && keys[k] >= added[a]) ?
+                    keys[k--] :
+                    added[a--];
+            // a key removed and then added again appears twice
+            if (key != last && (null == present || present.test(key))) {
+                keys[--w] = key;
+                last = key;
+            }
+        }
+
+        final int merged = total - w;
+        if (w > 0) {
+            System.arraycopy(keys, w, keys, 0, merged);
+        }
+
+        this.size = merged;
+        this.addedCount = 0;
+        this.removed = false;
+    }
+
+    private final LongPredicate present;
+
+    /**
+     * The sorted keys, only the first {@link #size} are used.
+     */
+    private long[] keys = new long[0];
+    private int size;
+
+    /**
+     * Keys added since the last merge, in no particular order.
+     */
+    private long[] added = new long[16];
+    private int addedCount;
+
+    /**
+     * When true one or more keys were removed since the last merge.
+     */
+    private boolean removed;
+
+    /**
+     * When true keys were added or removed since the last merge. Clearing it after a merge publishes the merged keys
+     * to other reading threads.
+     */
+    private volatile boolean pending;
+
+    @Override
+    public String toString() {
+        this.merge();
+        return Arrays.toString(Arrays.copyOf(this.keys, this.size));
+    }
+}
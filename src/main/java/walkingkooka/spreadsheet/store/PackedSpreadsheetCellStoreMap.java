@@ -0,0 +1,183 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import walkingkooka.spreadsheet.SpreadsheetCell;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map of packed cell keys to {@link SpreadsheetCell}, using linear probing and backward shift
+ * deletion, so no key or entry objects are created. Keys must not be negative.
+ */
+final class PackedSpreadsheetCellStoreMap {
+
+    /**
+     * Marks an empty slot.
+     */
+    private final static long FREE = -1;
+
+    /**
+     * The initial capacity which must be a power of two.
+     */
+    private final static int INITIAL_CAPACITY = 16;
+
+    static PackedSpreadsheetCellStoreMap create() {
+        return new PackedSpreadsheetCellStoreMap();
+    }
+
+    private PackedSpreadsheetCellStoreMap() {
+        super();
+        this.allocate(INITIAL_CAPACITY);
+    }
+
+    SpreadsheetCell get(final long key) {
+        final long[] keys = this.keys;
+        final int mask = keys.length - 1;
+
+        SpreadsheetCell value = null;
+        for (int i = slot(key, mask); FREE != keys[i]; i = (i + 1) & mask) {
+            if (key == keys[i]) {
+                value = this.values[i];
+                break;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Puts the value returning the value it replaced or null.
+     */
+    SpreadsheetCell put(final long key,
+                        final SpreadsheetCell value) {
+        if ((this.size + 1) * 4 > this.keys.length * 3) {
+            this.grow();
+        }
+
+        final long[] keys = this.keys;
+        final int mask = keys.length - 1;
+
+        int i = slot(key, mask);
+        while (FREE != keys[i] && key != keys[i]) {
+            i = (i + 1) & mask;
+        }
+
+        final SpreadsheetCell previous = this.values[i];
+        if (FREE == keys[i]) {
+            keys[i] = key;
+            this.size++;
+        }
+        this.values[i] = value;
+        return previous;
+    }
+
+    /**
+     * Removes the key returning its value or null, moving any following entries back into the gap.
+     */
+    SpreadsheetCell remove(final long key) {
+        final long[] keys = this.keys;
+        final SpreadsheetCell[] values = this.values;
+        final int mask = keys.length - 1;
+
+        int gap = slot(key, mask);
+        while (FREE != keys[gap] && key != keys[gap]) {
+            gap = (gap + 1) & mask;
+        }
+
+        final SpreadsheetCell removed = values[gap];
+        if (FREE != keys[gap]) {
+            this.size--;
+
+            int i = gap;
+            for (; ; ) {
+                i = (i + 1) & mask;
+                final long moving = keys[i];
+                if (FREE == moving) {
+                    break;
+                }
+                // the entry may only move back if the gap is between its slot and where it is now
+                final int slot = slot(moving, mask);
+                if (((i - slot) & mask) >= ((i - gap) & mask)) {
+                    keys[gap] = moving;
+                    values[gap] = values[i];
+                    gap = i;
+                }
+            }
+
+            keys[gap] = FREE;
+            values[gap] = null;
+        }
+        return removed;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    private void grow() {
+        final long[] keys = this.keys;
+        final SpreadsheetCell[] values = this.values;
+
+        this.allocate(keys.length << 1);
+        this.size = 0;
+
+        for (int i = 0; i < keys.length; i++) {
+            if (FREE != keys[i]) {
+                this.put(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        final long[] keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        this.keys = keys;
+        this.values = new SpreadsheetCell[capacity];
+    }
+
+    private static int slot(final long key,
+                            final int mask) {
+        final int hash = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private long[] keys;
+    private SpreadsheetCell[] values;
+    private int size;
+
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder();
+        b.append('{');
+
+        final long[] keys = this.keys;
+        for (int i = 0; i < keys.length; i++) {
+            if (FREE != keys[i]) {
+                if (b.length() > 1) {
+                    b.append(", ");
+                }
+                b.append(keys[i])
+                        .append('=')
+                        .append(this.values[i]);
+            }
+        }
+
+        b.append('}');
+        return b.toString();
+    }
+}
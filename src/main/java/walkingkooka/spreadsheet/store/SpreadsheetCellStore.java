@@ -20,10 +20,13 @@ package walkingkooka.spreadsheet.store;
 import walkingkooka.spreadsheet.SpreadsheetCell;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetColumnReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
 import walkingkooka.spreadsheet.reference.SpreadsheetRowReference;
 import walkingkooka.store.Store;
 
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * A {@link Store} that holds all cells for a spreadsheet. No additional actions are supported.
@@ -52,6 +55,33 @@ public interface SpreadsheetCellStore extends Store<SpreadsheetCellReference, Sp
      */
     Set<SpreadsheetCell> column(final SpreadsheetColumnReference column);
 
+    /**
+     * Returns only the cells that exist within the given range, without visiting every cell of the range.
+     */
+    Set<SpreadsheetCell> loadRange(final SpreadsheetRange range);
+
+    /**
+     * Moves all cells in columns at or after the given column by delta, which may be negative. Any cells that are in
+     * the way of a negative delta are deleted. A single shift notification with all moved cells is fired rather than
+     * a delete and save for every cell.
+     */
+    void shiftColumns(final SpreadsheetColumnReference from,
+                      final int delta);
+
+    /**
+     * Moves all cells in rows at or after the given row by delta, which may be negative. Any cells that are in
+     * the way of a negative delta are deleted. A single shift notification with all moved cells is fired rather than
+     * a delete and save for every cell.
+     */
+    void shiftRows(final SpreadsheetRowReference from,
+                   final int delta);
+
+    /**
+     * Adds a watcher that receives all the cells moved by a single {@link #shiftColumns(SpreadsheetColumnReference, int)}
+     * or {@link #shiftRows(SpreadsheetRowReference, int)}.
+     */
+    Runnable addShiftWatcher(final Consumer<List<SpreadsheetCell>> shifted);
+
     /**
      * Returns the max column width for the given {@link SpreadsheetColumnReference}
      */
@@ -61,4 +91,46 @@ public interface SpreadsheetCellStore extends Store<SpreadsheetCellReference, Sp
      * Returns the max row height for the given {@link SpreadsheetRowReference}
      */
     double maxRowHeight(final SpreadsheetRowReference row);
+
+    /**
+     * Returns the total width of all columns before the given {@link SpreadsheetColumnReference}, columns without any
+     * cell with a width use the default width.
+     */
+    double columnsWidth(final SpreadsheetColumnReference column,
+                        final double defaultWidth);
+
+    /**
+     * Returns the total height of all rows before the given {@link SpreadsheetRowReference}, rows without any cell
+     * with a height use the default height.
+     */
+    double rowsHeight(final SpreadsheetRowReference row,
+                      final double defaultHeight);
+
+    /**
+     * Returns the column that includes the given pixel offset from the left of the first column.
+     */
+    SpreadsheetColumnReference columnAt(final double offset,
+                                        final double defaultWidth);
+
+    /**
+     * Returns the row that includes the given pixel offset from the top of the first row.
+     */
+    SpreadsheetRowReference rowAt(final double offset,
+                                  final double defaultHeight);
+
+    /**
+     * Returns the column that ends at or after the given pixel offset from the left of the first column. This is the
+     * same as {@link #columnAt(double, double)} except when the offset is exactly the end of a column, when that
+     * column is returned rather than the following column.
+     */
+    SpreadsheetColumnReference columnEndingAt(final double offset,
+                                              final double defaultWidth);
+
+    /**
+     * Returns the row that ends at or after the given pixel offset from the top of the first row. This is the same
+     * as {@link #rowAt(double, double)} except when the offset is exactly the end of a row, when that row is
+     * returned rather than the following row.
+     */
+    SpreadsheetRowReference rowEndingAt(final double offset,
+                                        final double defaultHeight);
 }
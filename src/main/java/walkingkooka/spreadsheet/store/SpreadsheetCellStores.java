@@ -32,6 +32,13 @@ public final class SpreadsheetCellStores implements PublicStaticHelper {
         return new FakeSpreadsheetCellStore();
     }
 
+    /**
+     * {@see PackedSpreadsheetCellStore}
+     */
+    public static SpreadsheetCellStore packed() {
+        return PackedSpreadsheetCellStore.create();
+    }
+
     /**
      * {@see SpreadsheetFormulaSpreadsheetMetadataAwareSpreadsheetCellStore}
      */
@@ -40,6 +47,13 @@ public final class SpreadsheetCellStores implements PublicStaticHelper {
         return SpreadsheetFormulaSpreadsheetMetadataAwareSpreadsheetCellStore.with(store, metadata);
     }
 
+    /**
+     * {@see TiledSpreadsheetCellStore}
+     */
+    public static SpreadsheetCellStore tiled() {
+        return TiledSpreadsheetCellStore.create();
+    }
+
     /**
      * {@see TreeMapSpreadsheetCellStore}
      */
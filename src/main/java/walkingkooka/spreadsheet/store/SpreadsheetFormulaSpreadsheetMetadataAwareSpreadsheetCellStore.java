@@ -26,6 +26,7 @@ import walkingkooka.spreadsheet.meta.SpreadsheetMetadata;
 import walkingkooka.spreadsheet.parser.SpreadsheetParserToken;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetColumnReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
 import walkingkooka.spreadsheet.reference.SpreadsheetRowReference;
 import walkingkooka.text.cursor.TextCursors;
 import walkingkooka.text.cursor.parser.ParserReporters;
@@ -201,6 +202,28 @@ final class SpreadsheetFormulaSpreadsheetMetadataAwareSpreadsheetCellStore imple
         return this.fixFormulaTextSet(this.store.column(column));
     }
 
+    @Override
+    public Set<SpreadsheetCell> loadRange(final SpreadsheetRange range) {
+        return this.fixFormulaTextSet(this.store.loadRange(range));
+    }
+
+    @Override
+    public void shiftColumns(final SpreadsheetColumnReference from,
+                             final int delta) {
+        this.store.shiftColumns(from, delta);
+    }
+
+    @Override
+    public void shiftRows(final SpreadsheetRowReference from,
+                          final int delta) {
+        this.store.shiftRows(from, delta);
+    }
+
+    @Override
+    public Runnable addShiftWatcher(final Consumer<List<SpreadsheetCell>> shifted) {
+        return this.store.addShiftWatcher(shifted);
+    }
+
     @Override
     public double maxColumnWidth(final SpreadsheetColumnReference column) {
         return this.store.maxColumnWidth(column);
@@ -211,6 +234,42 @@ final class SpreadsheetFormulaSpreadsheetMetadataAwareSpreadsheetCellStore imple
         return this.store.maxRowHeight(row);
     }
 
+    @Override
+    public double columnsWidth(final SpreadsheetColumnReference column,
+                               final double defaultWidth) {
+        return this.store.columnsWidth(column, defaultWidth);
+    }
+
+    @Override
+    public double rowsHeight(final SpreadsheetRowReference row,
+                             final double defaultHeight) {
+        return this.store.rowsHeight(row, defaultHeight);
+    }
+
+    @Override
+    public SpreadsheetColumnReference columnAt(final double offset,
+                                               final double defaultWidth) {
+        return this.store.columnAt(offset, defaultWidth);
+    }
+
+    @Override
+    public SpreadsheetRowReference rowAt(final double offset,
+                                         final double defaultHeight) {
+        return this.store.rowAt(offset, defaultHeight);
+    }
+
+    @Override
+    public SpreadsheetColumnReference columnEndingAt(final double offset,
+                                                     final double defaultWidth) {
+        return this.store.columnEndingAt(offset, defaultWidth);
+    }
+
+    @Override
+    public SpreadsheetRowReference rowEndingAt(final double offset,
+                                               final double defaultHeight) {
+        return this.store.rowEndingAt(offset, defaultHeight);
+    }
+
     // helpers that do the formula tokenization/text thing..............................................................
 
     private List<SpreadsheetCell> fixFormulaTextList(final List<SpreadsheetCell> cells) {
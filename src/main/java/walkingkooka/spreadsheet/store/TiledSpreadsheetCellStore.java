@@ -0,0 +1,641 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetColumnReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+import walkingkooka.spreadsheet.reference.SpreadsheetReferenceKind;
+import walkingkooka.spreadsheet.reference.SpreadsheetRowReference;
+import walkingkooka.store.Store;
+import walkingkooka.store.Watchers;
+import walkingkooka.tree.text.TextStylePropertyName;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link SpreadsheetCellStore} that partitions the sheet into square {@link TiledSpreadsheetCellStoreTile tiles},
+ * each holding its cells in a dense array. Tiles are created when their first cell is saved and removed with their
+ * last cell, so only populated areas of the sheet use memory. Ranges, rows and columns read cells from the arrays of
+ * only the tiles they cross, rather than from individually keyed cells.
+ */
+final class TiledSpreadsheetCellStore implements SpreadsheetCellStore {
+
+    private final static int SHIFT = TiledSpreadsheetCellStoreTile.SHIFT;
+
+    /**
+     * Factory that creates a new {@link TiledSpreadsheetCellStore}
+     */
+    static TiledSpreadsheetCellStore create() {
+        return new TiledSpreadsheetCellStore();
+    }
+
+    /**
+     * Private ctor.
+     */
+    private TiledSpreadsheetCellStore() {
+        super();
+    }
+
+    @Override
+    public Optional<SpreadsheetCell> load(final SpreadsheetCellReference id) {
+        Objects.requireNonNull(id, "id");
+
+        final int column = id.column().value();
+        final int row = id.row().value();
+        final TiledSpreadsheetCellStoreTile tile = this.tile(column >> SHIFT, row >> SHIFT);
+
+        return Optional.ofNullable(
+                null != tile ?
+                        tile.get(column, row) :
+                        null
+        );
+    }
+
+    @Override
+    public SpreadsheetCell save(final SpreadsheetCell cell) {
+        Objects.requireNonNull(cell, "cell");
+
+        final SpreadsheetCell previous = this.put(cell);
+        if (null != previous) {
+            this.unindex(previous);
+        }
+        this.index(cell);
+        this.saveWatchers.accept(cell);
+        return cell;
+    }
+
+    @Override
+    public Runnable addSaveWatcher(final Consumer<SpreadsheetCell> saved) {
+        return this.saveWatchers.addWatcher(saved);
+    }
+
+    private final Watchers<SpreadsheetCell> saveWatchers = Watchers.create();
+
+    @Override
+    public void delete(final SpreadsheetCellReference id) {
+        Objects.requireNonNull(id, "id");
+
+        if (null != this.remove(id)) {
+            this.deleteWatchers.accept(id);
+        }
+    }
+
+    @Override
+    public Runnable addDeleteWatcher(final Consumer<SpreadsheetCellReference> deleted) {
+        return this.deleteWatchers.addWatcher(deleted);
+    }
+
+    private final Watchers<SpreadsheetCellReference> deleteWatchers = Watchers.create();
+
+    @Override
+    public int count() {
+        return this.count;
+    }
+
+    @Override
+    public Set<SpreadsheetCellReference> ids(final int from,
+                                             final int count) {
+        Store.checkFromAndTo(from, count);
+
+        return this.all()
+                .stream()
+                .skip(from)
+                .limit(count)
+                .map(SpreadsheetCell::reference)
+                .collect(Collectors.toCollection(Sets::ordered));
+    }
+
+    @Override
+    public List<SpreadsheetCell> values(final SpreadsheetCellReference from,
+                                        final int count) {
+        Store.checkFromAndToIds(from, count);
+
+        final List<SpreadsheetCell> values = Lists.array();
+        if (count > 0) {
+            this.visit(
+                    from.column().value(),
+                    from.row().value(),
+                    c -> {
+                        values.add(c);
+                        return values.size() < count;
+                    }
+            );
+        }
+        return values;
+    }
+
+    /**
+     * Returns all cells sorted by {@link SpreadsheetCellReference}.
+     */
+    private List<SpreadsheetCell> all() {
+        final List<SpreadsheetCell> all = Lists.array();
+        this.visit(0, 0, all::add);
+        return all;
+    }
+
+    /**
+     * Visits cells in {@link SpreadsheetCellReference} order, which is column then row, starting at the given column
+     * and row until the {@link Predicate} returns false.
+     */
+    private void visit(final int fromColumn,
+                       final int fromRow,
+                       final Predicate<SpreadsheetCell> cells) {
+        for (final int column : this.columnCounts.tailMap(fromColumn, true).keySet()) {
+            final int startRow = column == fromColumn ?
+                    fromRow :
+                    0;
+
+            for (final int tileRow : this.tileColumnToTileRows.get(column >> SHIFT).tailSet(startRow >> SHIFT, true)) {
+                final int tileFirstRow = tileRow << SHIFT;
+
+                if (false == this.tile(column >> SHIFT, tileRow)
+                        .columnWhile(
+                                column,
+                                Math.max(startRow, tileFirstRow),
+                                tileFirstRow | (TiledSpreadsheetCellStoreTile.SIZE - 1),
+                                cells
+                        )) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // shift............................................................................................................
+
+    @Override
+    public void shiftColumns(final SpreadsheetColumnReference from,
+                             final int delta) {
+        Objects.requireNonNull(from, "from");
+
+        this.shift(
+                this.columnCounts,
+                from.value(),
+                delta,
+                this::column,
+                SpreadsheetCellReference::addColumn
+        );
+    }
+
+    @Override
+    public void shiftRows(final SpreadsheetRowReference from,
+                          final int delta) {
+        Objects.requireNonNull(from, "from");
+
+        this.shift(
+                this.rowCounts,
+                from.value(),
+                delta,
+                this::row,
+                SpreadsheetCellReference::addRow
+        );
+    }
+
+    /**
+     * Removes all cells at or after from, deletes any cells in the way and then saves the shifted cells with their
+     * new reference, before firing a single shift notification with all shifted cells.
+     */
+    private void shift(final NavigableMap<Integer, Integer> counts,
+                       final int from,
+                       final int delta,
+                       final IntFunction<Set<SpreadsheetCell>> columnOrRow,
+                       final BiFunction<SpreadsheetCellReference, Integer, SpreadsheetCellReference> add) {
+        if (from + delta < 0) {
+            throw new IllegalArgumentException("Invalid delta " + delta + " shifting from " + from + " before first");
+        }
+
+        if (0 != delta) {
+            final List<SpreadsheetCell> shifted = cells(counts.tailMap(from, true), columnOrRow);
+            shifted.forEach(c -> this.remove(c.reference()));
+
+            if (delta < 0) {
+                cells(counts.subMap(from + delta, true, from, false), columnOrRow)
+                        .forEach(c -> this.delete(c.reference()));
+            }
+
+            final List<SpreadsheetCell> moved = Lists.array();
+            for (final SpreadsheetCell cell : shifted) {
+                final SpreadsheetCell move = cell.setReference(add.apply(cell.reference(), delta));
+                this.put(move);
+                this.index(move);
+                moved.add(move);
+            }
+
+            if (false == moved.isEmpty()) {
+                this.shiftWatchers.accept(moved);
+            }
+        }
+    }
+
+    /**
+     * Gathers the cells of all the columns or rows that are keys of the counts.
+     */
+    private static List<SpreadsheetCell> cells(final NavigableMap<Integer, Integer> counts,
+                                               final IntFunction<Set<SpreadsheetCell>> columnOrRow) {
+        final List<SpreadsheetCell> cells = Lists.array();
+        counts.keySet()
+                .forEach(i -> cells.addAll(columnOrRow.apply(i)));
+        return cells;
+    }
+
+    @Override
+    public Runnable addShiftWatcher(final Consumer<List<SpreadsheetCell>> shifted) {
+        return this.shiftWatchers.addWatcher(shifted);
+    }
+
+    private final Watchers<List<SpreadsheetCell>> shiftWatchers = Watchers.create();
+
+    @Override
+    public int rows() {
+        return max(this.rowCounts);
+    }
+
+    @Override
+    public int columns() {
+        return max(this.columnCounts);
+    }
+
+    private static int max(final NavigableMap<Integer, Integer> counts) {
+        return counts.isEmpty() ?
+                0 :
+                counts.lastKey();
+    }
+
+    @Override
+    public Set<SpreadsheetCell> row(final SpreadsheetRowReference row) {
+        Objects.requireNonNull(row, "row");
+
+        return this.row(row.value());
+    }
+
+    /**
+     * Gathers the cells of the row from each tile along the row.
+     */
+    private Set<SpreadsheetCell> row(final int row) {
+        final Set<SpreadsheetCell> cells = Sets.sorted();
+
+        final int tileRow = row >> SHIFT;
+        final NavigableSet<Integer> tileColumns = this.tileRowToTileColumns.get(tileRow);
+        if (null != tileColumns) {
+            for (final int tileColumn : tileColumns) {
+                final int tileFirstColumn = tileColumn << SHIFT;
+                this.tile(tileColumn, tileRow)
+                        .row(
+                                row,
+                                tileFirstColumn,
+                                tileFirstColumn | (TiledSpreadsheetCellStoreTile.SIZE - 1),
+                                cells::add
+                        );
+            }
+        }
+
+        return cells;
+    }
+
+    @Override
+    public Set<SpreadsheetCell> column(final SpreadsheetColumnReference column) {
+        Objects.requireNonNull(column, "column");
+
+        return this.column(column.value());
+    }
+
+    /**
+     * Gathers the cells of the column from each tile down the column.
+     */
+    private Set<SpreadsheetCell> column(final int column) {
+        final Set<SpreadsheetCell> cells = Sets.sorted();
+
+        final int tileColumn = column >> SHIFT;
+        final NavigableSet<Integer> tileRows = this.tileColumnToTileRows.get(tileColumn);
+        if (null != tileRows) {
+            for (final int tileRow : tileRows) {
+                final int tileFirstRow = tileRow << SHIFT;
+                this.tile(tileColumn, tileRow)
+                        .column(
+                                column,
+                                tileFirstRow,
+                                tileFirstRow | (TiledSpreadsheetCellStoreTile.SIZE - 1),
+                                cells::add
+                        );
+            }
+        }
+
+        return cells;
+    }
+
+    /**
+     * Only visits the tiles that exist within the range, reading the part of each column of each tile within the range.
+     */
+    @Override
+    public Set<SpreadsheetCell> loadRange(final SpreadsheetRange range) {
+        Objects.requireNonNull(range, "range");
+
+        final SpreadsheetCellReference begin = range.begin();
+        final SpreadsheetCellReference end = range.end();
+        final int beginColumn = begin.column().value();
+        final int endColumn = end.column().value();
+        final int beginRow = begin.row().value();
+        final int endRow = end.row().value();
+
+        final Set<SpreadsheetCell> cells = Sets.sorted();
+
+        for (final Map.Entry<Integer, NavigableSet<Integer>> tileColumnAndRows : this.tileColumnToTileRows.subMap(beginColumn >> SHIFT, true, endColumn >> SHIFT, true).entrySet()) {
+            final int tileColumn = tileColumnAndRows.getKey();
+            final int firstColumn = Math.max(beginColumn, tileColumn << SHIFT);
+            final int lastColumn = Math.min(endColumn, tileColumn << SHIFT | (TiledSpreadsheetCellStoreTile.SIZE - 1));
+
+            for (final int tileRow : tileColumnAndRows.getValue().subSet(beginRow >> SHIFT, true, endRow >> SHIFT, true)) {
+                final int firstRow = Math.max(beginRow, tileRow << SHIFT);
+                final int lastRow = Math.min(endRow, tileRow << SHIFT | (TiledSpreadsheetCellStoreTile.SIZE - 1));
+                final TiledSpreadsheetCellStoreTile tile = this.tile(tileColumn, tileRow);
+
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    tile.column(column, firstRow, lastRow, cells::add);
+                }
+            }
+        }
+
+        return cells;
+    }
+
+    @Override
+    public double maxColumnWidth(final SpreadsheetColumnReference column) {
+        Objects.requireNonNull(column, "column");
+
+        return this.columnWidths.max(column.value());
+    }
+
+    @Override
+    public double maxRowHeight(final SpreadsheetRowReference row) {
+        Objects.requireNonNull(row, "row");
+
+        return this.rowHeights.max(row.value());
+    }
+
+    @Override
+    public double columnsWidth(final SpreadsheetColumnReference column,
+                               final double defaultWidth) {
+        Objects.requireNonNull(column, "column");
+        checkDefault(defaultWidth, "width");
+
+        return this.columnWidths.sum(column.value(), defaultWidth);
+    }
+
+    @Override
+    public double rowsHeight(final SpreadsheetRowReference row,
+                             final double defaultHeight) {
+        Objects.requireNonNull(row, "row");
+        checkDefault(defaultHeight, "height");
+
+        return this.rowHeights.sum(row.value(), defaultHeight);
+    }
+
+    @Override
+    public SpreadsheetColumnReference columnAt(final double offset,
+                                               final double defaultWidth) {
+        checkDefault(defaultWidth, "width");
+
+        return SpreadsheetReferenceKind.RELATIVE.column(
+                Math.min(
+                        this.columnWidths.find(offset, defaultWidth),
+                        SpreadsheetReferenceKind.RELATIVE.lastColumn().value()
+                )
+        );
+    }
+
+    @Override
+    public SpreadsheetRowReference rowAt(final double offset,
+                                         final double defaultHeight) {
+        checkDefault(defaultHeight, "height");
+
+        return SpreadsheetReferenceKind.RELATIVE.row(
+                Math.min(
+                        this.rowHeights.find(offset, defaultHeight),
+                        SpreadsheetReferenceKind.RELATIVE.lastRow().value()
+                )
+        );
+    }
+
+    @Override
+    public SpreadsheetColumnReference columnEndingAt(final double offset,
+                                                     final double defaultWidth) {
+        checkDefault(defaultWidth, "width");
+
+        return SpreadsheetReferenceKind.RELATIVE.column(
+                Math.min(
+                        this.columnWidths.findEnding(offset, defaultWidth),
+                        SpreadsheetReferenceKind.RELATIVE.lastColumn().value()
+                )
+        );
+    }
+
+    @Override
+    public SpreadsheetRowReference rowEndingAt(final double offset,
+                                               final double defaultHeight) {
+        checkDefault(defaultHeight, "height");
+
+        return SpreadsheetReferenceKind.RELATIVE.row(
+                Math.min(
+                        this.rowHeights.findEnding(offset, defaultHeight),
+                        SpreadsheetReferenceKind.RELATIVE.lastRow().value()
+                )
+        );
+    }
+
+    private static void checkDefault(final double value,
+                                     final String label) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Invalid default " + label + " " + value + " <= 0");
+        }
+    }
+
+    // tiles............................................................................................................
+
+    private TiledSpreadsheetCellStoreTile tile(final int tileColumn,
+                                               final int tileRow) {
+        return this.tiles.get(key(tileColumn, tileRow));
+    }
+
+    /**
+     * Puts the cell in its tile, creating the tile if necessary and returns the replaced cell or null.
+     */
+    private SpreadsheetCell put(final SpreadsheetCell cell) {
+        final SpreadsheetCellReference reference = cell.reference();
+        final int column = reference.column().value();
+        final int row = reference.row().value();
+        final int tileColumn = column >> SHIFT;
+        final int tileRow = row >> SHIFT;
+
+        TiledSpreadsheetCellStoreTile tile = this.tile(tileColumn, tileRow);
+        if (null == tile) {
+            tile = TiledSpreadsheetCellStoreTile.create();
+            this.tiles.put(key(tileColumn, tileRow), tile);
+            this.tileColumnToTileRows.computeIfAbsent(tileColumn, k -> new TreeSet<>())
+                    .add(tileRow);
+            this.tileRowToTileColumns.computeIfAbsent(tileRow, k -> new TreeSet<>())
+                    .add(tileColumn);
+        }
+
+        final SpreadsheetCell previous = tile.put(cell);
+        if (null == previous) {
+            this.count++;
+            this.columnCounts.merge(column, 1, Integer::sum);
+            this.rowCounts.merge(row, 1, Integer::sum);
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the cell, removing its tile if it is now empty, returning the removed cell or null.
+     */
+    private SpreadsheetCell remove(final SpreadsheetCellReference reference) {
+        final int column = reference.column().value();
+        final int row = reference.row().value();
+        final int tileColumn = column >> SHIFT;
+        final int tileRow = row >> SHIFT;
+
+        SpreadsheetCell removed = null;
+
+        final TiledSpreadsheetCellStoreTile tile = this.tile(tileColumn, tileRow);
+        if (null != tile) {
+            removed = tile.remove(column, row);
+            if (null != removed) {
+                this.count--;
+                decrement(this.columnCounts, column);
+                decrement(this.rowCounts, row);
+                this.unindex(removed);
+
+                if (tile.isEmpty()) {
+                    this.tiles.remove(key(tileColumn, tileRow));
+                    removeTile(this.tileColumnToTileRows, tileColumn, tileRow);
+                    removeTile(this.tileRowToTileColumns, tileRow, tileColumn);
+                }
+            }
+        }
+
+        return removed;
+    }
+
+    private static void decrement(final NavigableMap<Integer, Integer> counts,
+                                  final int columnOrRow) {
+        final int count = counts.get(columnOrRow) - 1;
+        if (0 == count) {
+            counts.remove(columnOrRow);
+        } else {
+            counts.put(columnOrRow, count);
+        }
+    }
+
+    private static void removeTile(final NavigableMap<Integer, NavigableSet<Integer>> tiles,
+                                   final int key,
+                                   final int value) {
+        final NavigableSet<Integer> values = tiles.get(key);
+        values.remove(value);
+        if (values.isEmpty()) {
+            tiles.remove(key);
+        }
+    }
+
+    private static long key(final int tileColumn,
+                            final int tileRow) {
+        return ((long) tileColumn << 32) | tileRow;
+    }
+
+    /**
+     * Removes the width and height of the cell.
+     */
+    private void unindex(final SpreadsheetCell cell) {
+        final SpreadsheetCellReference reference = cell.reference();
+
+        this.columnWidths.remove(reference.column().value(), TreeMapSpreadsheetCellStoreDimension.pixels(cell, TextStylePropertyName.WIDTH));
+        this.rowHeights.remove(reference.row().value(), TreeMapSpreadsheetCellStoreDimension.pixels(cell, TextStylePropertyName.HEIGHT));
+    }
+
+    /**
+     * Adds the width and height of the cell.
+     */
+    private void index(final SpreadsheetCell cell) {
+        final SpreadsheetCellReference reference = cell.reference();
+
+        this.columnWidths.add(reference.column().value(), TreeMapSpreadsheetCellStoreDimension.pixels(cell, TextStylePropertyName.WIDTH));
+        this.rowHeights.add(reference.row().value(), TreeMapSpreadsheetCellStoreDimension.pixels(cell, TextStylePropertyName.HEIGHT));
+    }
+
+    /**
+     * All tiles keyed by their tile column and tile row.
+     */
+    private final Map<Long, TiledSpreadsheetCellStoreTile> tiles = Maps.hash();
+
+    /**
+     * The tile rows with a tile for each tile column.
+     */
+    private final NavigableMap<Integer, NavigableSet<Integer>> tileColumnToTileRows = new TreeMap<>();
+
+    /**
+     * The tile columns with a tile for each tile row.
+     */
+    private final NavigableMap<Integer, NavigableSet<Integer>> tileRowToTileColumns = new TreeMap<>();
+
+    /**
+     * The number of cells in each column, the last key is the max column.
+     */
+    private final NavigableMap<Integer, Integer> columnCounts = new TreeMap<>();
+
+    /**
+     * The number of cells in each row, the last key is the max row.
+     */
+    private final NavigableMap<Integer, Integer> rowCounts = new TreeMap<>();
+
+    /**
+     * The total number of cells.
+     */
+    private int count;
+
+    /**
+     * The max width of each column.
+     */
+    private final TreeMapSpreadsheetCellStoreDimension columnWidths = TreeMapSpreadsheetCellStoreDimension.create();
+
+    /**
+     * The max height of each row.
+     */
+    private final TreeMapSpreadsheetCellStoreDimension rowHeights = TreeMapSpreadsheetCellStoreDimension.create();
+
+    @Override
+    public String toString() {
+        return this.all().toString();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A fixed size square of cells held in a single dense array, with all the cells of each column next to each other.
+ * Columns and rows given to all methods are those of the sheet, only the low bits are used to locate the cell
+ * within the tile.
+ */
+final class TiledSpreadsheetCellStoreTile {
+
+    /**
+     * The number of bits of a column or row used to locate a cell within a tile.
+     */
+    final static int SHIFT = 6;
+
+    /**
+     * The number of columns and rows in a tile.
+     */
+    final static int SIZE = 1 << SHIFT;
+
+    private final static int MASK = SIZE - 1;
+
+    static TiledSpreadsheetCellStoreTile create() {
+        return new TiledSpreadsheetCellStoreTile();
+    }
+
+    private TiledSpreadsheetCellStoreTile() {
+        super();
+    }
+
+    SpreadsheetCell get(final int column,
+                        final int row) {
+        return this.cells[index(column, row)];
+    }
+
+    /**
+     * Puts the cell returning the cell it replaced or null.
+     */
+    SpreadsheetCell put(final SpreadsheetCell cell) {
+        final SpreadsheetCellReference reference = cell.reference();
+        final int index = index(reference.column().value(), reference.row().value());
+
+        final SpreadsheetCell previous = this.cells[index];
+        this.cells[index] = cell;
+        if (null == previous) {
+            this.count++;
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the cell returning it or null.
+     */
+    SpreadsheetCell remove(final int column,
+                           final int row) {
+        final int index = index(column, row);
+
+        final SpreadsheetCell removed = this.cells[index];
+        if (null != removed) {
+            this.cells[index] = null;
+            this.count--;
+        }
+        return removed;
+    }
+
+    /**
+     * Visits the cells of the column within the given rows inclusive in row order.
+     */
+    void column(final int column,
+                final int fromRow,
+                final int toRow,
+                final Consumer<SpreadsheetCell> cells) {
+        this.columnWhile(
+                column,
+                fromRow,
+                toRow,
+                c -> {
+                    cells.accept(c);
+                    return true;
+                }
+        );
+    }
+
+    /**
+     * Visits the cells of the column within the given rows inclusive in row order, returning false if the
+     * {@link Predicate} returned false to stop.
+     */
+    boolean columnWhile(final int column,
+                        final int fromRow,
+                        final int toRow,
+                        final Predicate<SpreadsheetCell> cells) {
+        final int base = (column & MASK) << SHIFT;
+        final int end = base + (toRow & MASK);
+
+        boolean more = true;
+        for (int i = base + (fromRow & MASK); more && i <= end; i++) {
+            final SpreadsheetCell cell = this.cells[i];
+            if (null != cell) {
+                more = cells.test(cell);
+            }
+        }
+        return more;
+    }
+
+    /**
+     * Visits the cells of the row within the given columns inclusive in column order.
+     */
+    void row(final int row,
+             final int fromColumn,
+             final int toColumn,
+             final Consumer<SpreadsheetCell> cells) {
+        final int rowIndex = row & MASK;
+
+        for (int column = fromColumn & MASK; column <= (toColumn & MASK); column++) {
+            final SpreadsheetCell cell = this.cells[column << SHIFT | rowIndex];
+            if (null != cell) {
+                cells.accept(cell);
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return 0 == this.count;
+    }
+
+    private static int index(final int column,
+                             final int row) {
+        return (column & MASK) << SHIFT | (row & MASK);
+    }
+
+    /**
+     * All cells, column by column.
+     */
+    private final SpreadsheetCell[] cells = new SpreadsheetCell[SIZE * SIZE];
+
+    /**
+     * The number of cells in this tile.
+     */
+    private int count;
+
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder();
+        b.append('[');
+        for (final SpreadsheetCell cell : this.cells) {
+            if (null != cell) {
+                if (b.length() > 1) {
+                    b.append(", ");
+                }
+                b.append(cell);
+            }
+        }
+
+        b.append(']');
+        return b.toString();
+    }
+}
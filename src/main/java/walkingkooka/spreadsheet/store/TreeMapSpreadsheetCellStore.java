@@ -17,30 +17,30 @@
 
 package walkingkooka.spreadsheet.store;
 
+import walkingkooka.collect.list.Lists;
 import walkingkooka.collect.set.Sets;
 import walkingkooka.spreadsheet.SpreadsheetCell;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetColumnReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+import walkingkooka.spreadsheet.reference.SpreadsheetReferenceKind;
 import walkingkooka.spreadsheet.reference.SpreadsheetRowReference;
 import walkingkooka.store.Store;
-import walkingkooka.store.Stores;
-import walkingkooka.tree.text.Length;
-import walkingkooka.tree.text.PixelLength;
+import walkingkooka.store.Watchers;
 import walkingkooka.tree.text.TextStylePropertyName;
 
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
-import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 /**
- * A {@link SpreadsheetCellStore} that uses a {@link Map}.
+ * A {@link SpreadsheetCellStore} that uses a {@link TreeMap}.
  */
 final class TreeMapSpreadsheetCellStore implements SpreadsheetCellStore {
 
@@ -56,149 +56,411 @@ final class TreeMapSpreadsheetCellStore implements SpreadsheetCellStore {
      */
     private TreeMapSpreadsheetCellStore() {
         super();
-        this.store = Stores.treeMap(Comparator.naturalOrder(), TreeMapSpreadsheetCellStore::idSetter);
-    }
-
-    private static SpreadsheetCell idSetter(final SpreadsheetCellReference id, final SpreadsheetCell spreadsheetCell) {
-        throw new UnsupportedOperationException();
     }
 
     @Override
     public Optional<SpreadsheetCell> load(final SpreadsheetCellReference id) {
-        return this.store.load(id);
+        Objects.requireNonNull(id, "id");
+
+        return Optional.ofNullable(this.cells.get(id));
     }
 
     @Override
-    public SpreadsheetCell save(final SpreadsheetCell spreadsheetCell) {
-        return this.store.save(spreadsheetCell);
+    public SpreadsheetCell save(final SpreadsheetCell cell) {
+        Objects.requireNonNull(cell, "cell");
+
+        final SpreadsheetCell previous = this.cells.put(cell.reference(), cell);
+        if (null != previous) {
+            this.unindex(previous);
+        }
+        this.index(cell);
+        this.saveWatchers.accept(cell);
+        return cell;
     }
 
     @Override
     public Runnable addSaveWatcher(final Consumer<SpreadsheetCell> saved) {
-        return this.store.addSaveWatcher(saved);
+        return this.saveWatchers.addWatcher(saved);
     }
 
+    private final Watchers<SpreadsheetCell> saveWatchers = Watchers.create();
+
     @Override
     public void delete(final SpreadsheetCellReference id) {
-        this.store.delete(id);
+        Objects.requireNonNull(id, "id");
+
+        if (null != this.remove(id)) {
+            this.deleteWatchers.accept(id);
+        }
     }
 
     @Override
     public Runnable addDeleteWatcher(final Consumer<SpreadsheetCellReference> deleted) {
-        return this.store.addDeleteWatcher(deleted);
+        return this.deleteWatchers.addWatcher(deleted);
     }
 
+    private final Watchers<SpreadsheetCellReference> deleteWatchers = Watchers.create();
+
     @Override
     public int count() {
-        return this.store.count();
+        return this.cells.size();
     }
 
     @Override
     public Set<SpreadsheetCellReference> ids(final int from,
                                              final int count) {
-        return this.store.ids(from, count);
+        Store.checkFromAndTo(from, count);
+
+        return this.cells.keySet()
+                .stream()
+                .skip(from)
+                .limit(count)
+                .collect(Collectors.toCollection(Sets::ordered));
     }
 
     @Override
     public List<SpreadsheetCell> values(final SpreadsheetCellReference from,
                                         final int count) {
-        return this.store.values(from, count);
+        Store.checkFromAndToIds(from, count);
+
+        return this.cells.tailMap(from, true)
+                .values()
+                .stream()
+                .limit(count)
+                .collect(Collectors.toCollection(Lists::array));
+    }
+
+    // shift............................................................................................................
+
+    @Override
+    public void shiftColumns(final SpreadsheetColumnReference from,
+                             final int delta) {
+        Objects.requireNonNull(from, "from");
+
+        this.shift(
+                this.columnToCells,
+                from.value(),
+                delta,
+                SpreadsheetCellReference::addColumn
+        );
+    }
+
+    @Override
+    public void shiftRows(final SpreadsheetRowReference from,
+                          final int delta) {
+        Objects.requireNonNull(from, "from");
+
+        this.shift(
+                this.rowToCells,
+                from.value(),
+                delta,
+                SpreadsheetCellReference::addRow
+        );
+    }
+
+    /**
+     * Removes all cells at or after from, deletes any cells in the way and then saves the shifted cells with their
+     * new reference, before firing a single shift notification with all shifted cells. The column or row index is
+     * used to find both the shifted cells and those in the way.
+     */
+    private void shift(final NavigableMap<Integer, Set<SpreadsheetCellReference>> index,
+                       final int from,
+                       final int delta,
+                       final BiFunction<SpreadsheetCellReference, Integer, SpreadsheetCellReference> add) {
+        if (from + delta < 0) {
+            throw new IllegalArgumentException("Invalid delta " + delta + " shifting from " + from + " before first");
+        }
+
+        if (0 != delta) {
+            final List<SpreadsheetCell> shifted = Lists.array();
+            index.tailMap(from, true)
+                    .values()
+                    .forEach(r -> r.forEach(c -> shifted.add(this.cells.get(c))));
+            shifted.forEach(c -> this.remove(c.reference()));
+
+            if (delta < 0) {
+                final List<SpreadsheetCellReference> inTheWay = Lists.array();
+                index.subMap(from + delta, true, from, false)
+                        .values()
+                        .forEach(inTheWay::addAll);
+                inTheWay.forEach(this::delete);
+            }
+
+            final List<SpreadsheetCell> moved = Lists.array();
+            for (final SpreadsheetCell cell : shifted) {
+                final SpreadsheetCell move = cell.setReference(add.apply(cell.reference(), delta));
+                this.cells.put(move.reference(), move);
+                this.index(move);
+                moved.add(move);
+            }
+
+            if (false == moved.isEmpty()) {
+                this.shiftWatchers.accept(moved);
+            }
+        }
     }
 
+    @Override
+    public Runnable addShiftWatcher(final Consumer<List<SpreadsheetCell>> shifted) {
+        return this.shiftWatchers.addWatcher(shifted);
+    }
+
+    private final Watchers<List<SpreadsheetCell>> shiftWatchers = Watchers.create();
+
     @Override
     public int rows() {
-        return this.max(c -> c.reference().row().value());
+        return max(this.rowToCells);
     }
 
     @Override
     public int columns() {
-        return this.max(c -> c.reference().column().value());
+        return max(this.columnToCells);
     }
 
-    private int max(final ToIntFunction<SpreadsheetCell> value) {
-        return this.all()
-                .stream()
-                .mapToInt(value)
-                .max()
-                .orElse(0);
+    private static int max(final NavigableMap<Integer, Set<SpreadsheetCellReference>> index) {
+        return index.isEmpty() ?
+                0 :
+                index.lastKey();
     }
 
     @Override
     public final Set<SpreadsheetCell> row(final SpreadsheetRowReference row) {
         Objects.requireNonNull(row, "row");
 
-        return this.filter(c -> row.compareTo(c.reference().row()) == 0);
+        return this.cells(this.rowToCells, row.value());
     }
 
     @Override
     public final Set<SpreadsheetCell> column(final SpreadsheetColumnReference column) {
         Objects.requireNonNull(column, "column");
 
-        return this.filter(c -> column.compareTo(c.reference().column()) == 0);
+        return this.cells(this.columnToCells, column.value());
     }
 
-    private Set<SpreadsheetCell> filter(final Predicate<SpreadsheetCell> filter) {
-        return this.all()
-                .stream()
-                .filter(filter)
-                .collect(Collectors.toCollection(Sets::sorted));
+    /**
+     * Only visits the columns within the range that have cells, and then only the cells between the rows of the range
+     * for each of those columns.
+     */
+    @Override
+    public Set<SpreadsheetCell> loadRange(final SpreadsheetRange range) {
+        Objects.requireNonNull(range, "range");
+
+        final SpreadsheetCellReference begin = range.begin();
+        final SpreadsheetCellReference end = range.end();
+        final SpreadsheetRowReference beginRow = begin.row();
+        final SpreadsheetRowReference endRow = end.row();
+
+        final Set<SpreadsheetCell> cells = Sets.sorted();
+
+        for (final Integer column : this.columnToCells.subMap(begin.column().value(), true, end.column().value(), true).keySet()) {
+            final SpreadsheetColumnReference columnReference = SpreadsheetReferenceKind.RELATIVE.column(column);
+
+            cells.addAll(
+                    this.cells.subMap(
+                            columnReference.setRow(beginRow),
+                            true,
+                            columnReference.setRow(endRow),
+                            true
+                    ).values()
+            );
+        }
+
+        return cells;
     }
 
     /**
-     * Filters all cells with the given column and finds the max value.
+     * Loads all the cells for the column or row using the given index.
      */
+    private Set<SpreadsheetCell> cells(final NavigableMap<Integer, Set<SpreadsheetCellReference>> index,
+                                       final int columnOrRow) {
+        final Set<SpreadsheetCell> cells = Sets.sorted();
+
+        final Set<SpreadsheetCellReference> references = index.get(columnOrRow);
+        if (null != references) {
+            references.forEach(r -> cells.add(this.cells.get(r)));
+        }
+
+        return cells;
+    }
+
     @Override
     public double maxColumnWidth(final SpreadsheetColumnReference column) {
         Objects.requireNonNull(column, "column");
 
-        return this.all().stream()
-                .filter(c -> c.reference().column().equalsIgnoreReferenceKind(column))
-                .mapToDouble(c -> {
-                    double pixels = 0;
+        return this.columnWidths.max(column.value());
+    }
 
-                    final Optional<Length<?>> length = c.style()
-                            .get(TextStylePropertyName.WIDTH);
-                    if (length.isPresent()) {
-                        final PixelLength pixelLength = (PixelLength) length.get();
-                        pixels = pixelLength.value();
-                    }
+    @Override
+    public double maxRowHeight(final SpreadsheetRowReference row) {
+        Objects.requireNonNull(row, "row");
 
-                    return pixels;
-                })
-                .max()
-                .orElse(0.0);
+        return this.rowHeights.max(row.value());
     }
 
-    /**
-     * Filters all cells with the given row and finds the max {@link TextStylePropertyName#HEIGHT} value.
-     */
     @Override
-    public double maxRowHeight(final SpreadsheetRowReference row) {
+    public double columnsWidth(final SpreadsheetColumnReference column,
+                               final double defaultWidth) {
+        Objects.requireNonNull(column, "column");
+        checkDefault(defaultWidth, "width");
+
+        return this.columnWidths.sum(column.value(), defaultWidth);
+    }
+
+    @Override
+    public double rowsHeight(final SpreadsheetRowReference row,
+                             final double defaultHeight) {
         Objects.requireNonNull(row, "row");
+        checkDefault(defaultHeight, "height");
 
-        return this.all().stream()
-                .filter(c -> c.reference().row().equalsIgnoreReferenceKind(row))
-                .mapToDouble(c -> {
-                    double pixels = 0;
+        return this.rowHeights.sum(row.value(), defaultHeight);
+    }
 
-                    final Optional<Length<?>> length = c.style()
-                            .get(TextStylePropertyName.HEIGHT);
-                    if (length.isPresent()) {
-                        final PixelLength pixelLength = (PixelLength) length.get();
-                        pixels = pixelLength.value();
-                    }
+    @Override
+    public SpreadsheetColumnReference columnAt(final double offset,
+                                               final double defaultWidth) {
+        checkDefault(defaultWidth, "width");
+
+        return SpreadsheetReferenceKind.RELATIVE.column(
+                Math.min(
+                        this.columnWidths.find(offset, defaultWidth),
+                        SpreadsheetReferenceKind.RELATIVE.lastColumn().value()
+                )
+        );
+    }
+
+    @Override
+    public SpreadsheetRowReference rowAt(final double offset,
+                                         final double defaultHeight) {
+        checkDefault(defaultHeight, "height");
+
+        return SpreadsheetReferenceKind.RELATIVE.row(
+                Math.min(
+                        this.rowHeights.find(offset, defaultHeight),
+                        SpreadsheetReferenceKind.RELATIVE.lastRow().value()
+                )
+        );
+    }
+
+    @Override
+    public SpreadsheetColumnReference columnEndingAt(final double offset,
+                                                     final double defaultWidth) {
+        checkDefault(defaultWidth, "width");
+
+        return SpreadsheetReferenceKind.RELATIVE.column(
+                Math.min(
+                        this.columnWidths.findEnding(offset, defaultWidth),
+                        SpreadsheetReferenceKind.RELATIVE.lastColumn().value()
+                )
+        );
+    }
+
+    @Override
+    public SpreadsheetRowReference rowEndingAt(final double offset,
+                                               final double defaultHeight) {
+        checkDefault(defaultHeight, "height");
+
+        return SpreadsheetReferenceKind.RELATIVE.row(
+                Math.min(
+                        this.rowHeights.findEnding(offset, defaultHeight),
+                        SpreadsheetReferenceKind.RELATIVE.lastRow().value()
+                )
+        );
+    }
+
+    private static void checkDefault(final double value,
+                                     final String label) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Invalid default " + label + " " + value + " <= 0");
+        }
+    }
+
+    // index............................................................................................................
+
+    /**
+     * Removes the cell and its column and row index entries, returning the removed cell or null.
+     */
+    private SpreadsheetCell remove(final SpreadsheetCellReference reference) {
+        final SpreadsheetCell removed = this.cells.remove(reference);
+        if (null != removed) {
+            this.unindex(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the cell from the column and row indexes and its width and height.
+     */
+    private void unindex(final SpreadsheetCell cell) {
+        final SpreadsheetCellReference reference = cell.reference();
+        final int column = reference.column().value();
+        final int row = reference.row().value();
+
+        unindex(this.columnToCells, column, reference);
+        unindex(this.rowToCells, row, reference);
+
+        this.columnWidths.remove(column, TreeMapSpreadsheetCellStoreDimension.pixels(cell, TextStylePropertyName.WIDTH));
+        this.rowHeights.remove(row, TreeMapSpreadsheetCellStoreDimension.pixels(cell, TextStylePropertyName.HEIGHT));
+    }
+
+    private static void unindex(final NavigableMap<Integer, Set<SpreadsheetCellReference>> index,
+                                final int columnOrRow,
+                                final SpreadsheetCellReference reference) {
+        final Set<SpreadsheetCellReference> references = index.get(columnOrRow);
+        references.remove(reference);
+        if (references.isEmpty()) {
+            index.remove(columnOrRow);
+        }
+    }
+
+    /**
+     * Adds a new cell to the column and row indexes along with its width and height.
+     */
+    private void index(final SpreadsheetCell cell) {
+        final SpreadsheetCellReference reference = cell.reference();
+        final int column = reference.column().value();
+        final int row = reference.row().value();
 
-                    return pixels;
-                })
-                .max()
-                .orElse(0.0);
+        index(this.columnToCells, column, reference);
+        index(this.rowToCells, row, reference);
+
+        this.columnWidths.add(column, TreeMapSpreadsheetCellStoreDimension.pixels(cell, TextStylePropertyName.WIDTH));
+        this.rowHeights.add(row, TreeMapSpreadsheetCellStoreDimension.pixels(cell, TextStylePropertyName.HEIGHT));
+    }
+
+    private static void index(final NavigableMap<Integer, Set<SpreadsheetCellReference>> index,
+                              final int columnOrRow,
+                              final SpreadsheetCellReference reference) {
+        index.computeIfAbsent(columnOrRow, k -> Sets.sorted())
+                .add(reference);
     }
 
-    // VisibleForTesting
-    private final Store<SpreadsheetCellReference, SpreadsheetCell> store;
+    /**
+     * All cells sorted by {@link SpreadsheetCellReference}, which sorts by column then row.
+     */
+    private final NavigableMap<SpreadsheetCellReference, SpreadsheetCell> cells = new TreeMap<>();
+
+    /**
+     * The references of all cells grouped by column value, the last key is the max column.
+     */
+    private final NavigableMap<Integer, Set<SpreadsheetCellReference>> columnToCells = new TreeMap<>();
+
+    /**
+     * The references of all cells grouped by row value, the last key is the max row.
+     */
+    private final NavigableMap<Integer, Set<SpreadsheetCellReference>> rowToCells = new TreeMap<>();
+
+    /**
+     * The max width of each column.
+     */
+    private final TreeMapSpreadsheetCellStoreDimension columnWidths = TreeMapSpreadsheetCellStoreDimension.create();
+
+    /**
+     * The max height of each row.
+     */
+    private final TreeMapSpreadsheetCellStoreDimension rowHeights = TreeMapSpreadsheetCellStoreDimension.create();
 
     @Override
     public String toString() {
-        return this.store.toString();
+        return this.cells.values().toString();
     }
 }
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.tree.text.Length;
+import walkingkooka.tree.text.PixelLength;
+import walkingkooka.tree.text.TextStylePropertyName;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Maintains the max cell width for each column or max cell height for each row of a {@link TreeMapSpreadsheetCellStore}.
+ * The sizes of all cells in a column or row are kept in a counted multiset so a removed size simply decrements its
+ * count. The max size of each column or row is also held by a Fenwick tree, along with a count of the columns or rows
+ * with a size, which allows the total size of all columns or rows before an index, with a default for those without a
+ * size, and the reverse finding the column or row at a pixel offset both in O(log n).
+ */
+final class TreeMapSpreadsheetCellStoreDimension {
+
+    /**
+     * The initial capacity of the Fenwick tree, which must be a power of two.
+     */
+    private final static int INITIAL_CAPACITY = 64;
+
+    /**
+     * Creates a new empty {@link TreeMapSpreadsheetCellStoreDimension}.
+     */
+    static TreeMapSpreadsheetCellStoreDimension create() {
+        return new TreeMapSpreadsheetCellStoreDimension();
+    }
+
+    private TreeMapSpreadsheetCellStoreDimension() {
+        super();
+    }
+
+    /**
+     * Records a cell size for the given column or row, sizes of zero or less are ignored.
+     */
+    void add(final int index,
+             final double size) {
+        if (size > 0) {
+            final double before = this.max(index);
+
+            this.sizes.computeIfAbsent(index, k -> new TreeMap<>())
+                    .merge(size, 1, Integer::sum);
+
+            this.maxChanged(index, before);
+        }
+    }
+
+    /**
+     * Removes a previously added cell size for the given column or row.
+     */
+    void remove(final int index,
+                final double size) {
+        if (size > 0) {
+            final NavigableMap<Double, Integer> sizes = this.sizes.get(index);
+            if (null != sizes) {
+                final double before = this.max(index);
+
+                final int count = sizes.getOrDefault(size, 0) - 1;
+                if (count > 0) {
+                    sizes.put(size, count);
+                } else {
+                    sizes.remove(size);
+                    if (sizes.isEmpty()) {
+                        this.sizes.remove(index);
+                    }
+                }
+
+                this.maxChanged(index, before);
+            }
+        }
+    }
+
+    /**
+     * Returns the max size for the given column or row or 0 if none.
+     */
+    double max(final int index) {
+        final NavigableMap<Double, Integer> sizes = this.sizes.get(index);
+        return null != sizes ?
+                sizes.lastKey() :
+                0;
+    }
+
+    /**
+     * Returns the sum of the sizes of all columns or rows before the given index, with those without a size using
+     * the default.
+     */
+    double sum(final int index,
+               final double defaultSize) {
+        final int capacity = this.capacity();
+        final int within = Math.min(index, capacity);
+
+        double sum = 0;
+        int count = 0;
+        for (int i = within; i > 0; i -= i & -i) {
+            sum += this.sizeTree[i];
+            count += this.countTree[i];
+        }
+
+        return sum + defaultSize * (index - count);
+    }
+
+    /**
+     * Returns the last column or row whose {@link #sum(int, double)} is less than or equal to the offset, which is the
+     * column or row that includes the offset.
+     */
+    int find(final double offset,
+             final double defaultSize) {
+        return this.find(offset, defaultSize, false);
+    }
+
+    /**
+     * Returns the last column or row whose {@link #sum(int, double)} is less than the offset, which is the column or
+     * row that ends at or after the offset. When the offset falls exactly on a boundary this is the column or row
+     * before that returned by {@link #find(double, double)}.
+     */
+    int findEnding(final double offset,
+                   final double defaultSize) {
+        return this.find(offset, defaultSize, true);
+    }
+
+    /**
+     * Walks down the Fenwick tree accumulating sums, the boundary test uses the same accumulated sums as the search
+     * rather than comparing with a separately computed {@link #sum(int, double)}.
+     */
+    private int find(final double offset,
+                     final double defaultSize,
+                     final boolean ending) {
+        int index = 0;
+
+        if (offset > 0) {
+            final int capacity = this.capacity();
+            final double[] sizeTree = this.sizeTree;
+            final int[] countTree = this.countTree;
+
+            double sum = 0;
+            for (int step = capacity; step > 0; step >>= 1) {
+                final int next = index + step;
+                if (next <= capacity) {
+                    final double nextSum = sum + sizeTree[next] + defaultSize * (step - countTree[next]);
+                    if (ending ? nextSum < offset : nextSum <= offset) {
+                        index = next;
+                        sum = nextSum;
+                    }
+                }
+            }
+
+            // beyond the tree all sizes are the default
+            if (index == capacity) {
+                final double defaults = (offset - sum) / defaultSize;
+                index = (int) Math.min(
+                        Integer.MAX_VALUE,
+                        index + (ending ? Math.ceil(defaults) - 1 : Math.floor(defaults))
+                );
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Updates the Fenwick trees if the max for the index changed.
+     */
+    private void maxChanged(final int index,
+                            final double before) {
+        final double after = this.max(index);
+        if (before != after) {
+            this.ensureCapacity(index);
+            this.update(
+                    index,
+                    after - before,
+                    (after > 0 ? 1 : 0) - (before > 0 ? 1 : 0)
+            );
+        }
+    }
+
+    private void update(final int index,
+                        final double size,
+                        final int count) {
+        final int capacity = this.capacity();
+        final double[] sizeTree = this.sizeTree;
+        final int[] countTree = this.countTree;
+
+        for (int i = index + 1; i <= capacity; i += i & -i) {
+            sizeTree[i] += size;
+            countTree[i] += count;
+        }
+    }
+
+    /**
+     * Grows the trees by doubling until the index fits and then rebuilds them from the max of all sizes.
+     */
+    private void ensureCapacity(final int index) {
+        int capacity = this.capacity();
+        if (index >= capacity) {
+            while (index >= capacity) {
+                capacity = capacity << 1;
+            }
+
+            this.sizeTree = new double[capacity + 1];
+            this.countTree = new int[capacity + 1];
+
+            for (final Map.Entry<Integer, NavigableMap<Double, Integer>> indexAndSizes : this.sizes.entrySet()) {
+                final int i = indexAndSizes.getKey();
+                if (i != index) {
+                    this.update(i, indexAndSizes.getValue().lastKey(), 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the pixels for the {@link TextStylePropertyName#WIDTH} or {@link TextStylePropertyName#HEIGHT} or 0.
+     * Lengths that are not pixels such as none or normal have no fixed size and are also returned as 0, which leaves
+     * the column or row using the default.
+     */
+    static double pixels(final SpreadsheetCell cell,
+                         final TextStylePropertyName<Length<?>> propertyName) {
+        double pixels = 0;
+
+        final Optional<Length<?>> length = cell.style()
+                .get(propertyName);
+        if (length.isPresent()) {
+            final Length<?> value = length.get();
+            if (value instanceof PixelLength) {
+                pixels = ((PixelLength) value).value();
+            }
+        }
+
+        return pixels;
+    }
+
+    private int capacity() {
+        return this.sizeTree.length - 1;
+    }
+
+    /**
+     * A counted multiset of the sizes of all cells for each column or row.
+     */
+    private final NavigableMap<Integer, NavigableMap<Double, Integer>> sizes = new TreeMap<>();
+
+    /**
+     * Fenwick tree holding the max size of each column or row.
+     */
+    private double[] sizeTree = new double[INITIAL_CAPACITY + 1];
+
+    /**
+     * Fenwick tree holding 1 for each column or row with a size.
+     */
+    private int[] countTree = new int[INITIAL_CAPACITY + 1];
+
+    @Override
+    public String toString() {
+        return this.sizes.toString();
+    }
+}
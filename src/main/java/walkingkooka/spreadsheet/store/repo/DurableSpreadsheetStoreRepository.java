@@ -0,0 +1,625 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store.repo;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.email.EmailAddress;
+import walkingkooka.text.CharSequences;
+import walkingkooka.spreadsheet.SpreadsheetBinaryReader;
+import walkingkooka.spreadsheet.SpreadsheetBinaryWriter;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.SpreadsheetDescription;
+import walkingkooka.spreadsheet.SpreadsheetFormula;
+import walkingkooka.spreadsheet.SpreadsheetId;
+import walkingkooka.spreadsheet.conditionalformat.SpreadsheetConditionalFormattingRule;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadata;
+import walkingkooka.spreadsheet.meta.store.SpreadsheetMetadataStore;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReferenceOrLabelName;
+import walkingkooka.spreadsheet.reference.SpreadsheetExpressionReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelMapping;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+import walkingkooka.spreadsheet.reference.SpreadsheetReferenceKind;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetExpressionReferenceStore;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetLabelStore;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetRangeStore;
+import walkingkooka.spreadsheet.reference.store.TargetAndSpreadsheetCellReference;
+import walkingkooka.spreadsheet.security.Group;
+import walkingkooka.spreadsheet.security.GroupId;
+import walkingkooka.spreadsheet.security.GroupName;
+import walkingkooka.spreadsheet.security.User;
+import walkingkooka.spreadsheet.security.UserId;
+import walkingkooka.spreadsheet.security.store.SpreadsheetGroupStore;
+import walkingkooka.spreadsheet.security.store.SpreadsheetUserStore;
+import walkingkooka.spreadsheet.store.SpreadsheetCellStore;
+import walkingkooka.store.Store;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
+import walkingkooka.tree.text.TextStyle;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A {@link SpreadsheetStoreRepository} that records every mutation of the wrapped repository in an append only log,
+ * captured using the save, delete and reference watchers of each store, and periodically replaces the log with a
+ * compacted snapshot of all stores. When created the latest snapshot and the log following it are replayed into the
+ * wrapped repository, which should be empty. Records are written by a {@link SpreadsheetBinaryWriter} and each is
+ * forced to the storage device before the mutation returns. {@link #close()} closes the log.
+ * <br>
+ * The {@link SpreadsheetCellStore} is decorated to record the column or row and delta of each shift, and the
+ * {@link SpreadsheetRangeStore range stores} as their values have no watchers. Cells are not recorded when the cell
+ * store is already durable.
+ * {@link SpreadsheetConditionalFormattingRule} hold a style {@link Function} which cannot be marshalled, these are
+ * recorded by the name they are registered with when the repository is created, and adding a rule with a style
+ * that is not registered fails.
+ */
+final class DurableSpreadsheetStoreRepository implements SpreadsheetStoreRepository, AutoCloseable {
+
+    // stores...........................................................................................................
+
+    final static byte CELLS = 1;
+    final static byte CELL_REFERENCES = 2;
+    final static byte GROUPS = 3;
+    final static byte LABELS = 4;
+    final static byte LABEL_REFERENCES = 5;
+    final static byte METADATAS = 6;
+    final static byte RANGE_TO_CELLS = 7;
+    final static byte USERS = 8;
+    final static byte RANGE_TO_CONDITIONAL_FORMATTING_RULES = 9;
+
+    // operations.......................................................................................................
+
+    final static byte SAVE = 1;
+    final static byte DELETE = 2;
+    final static byte ADD_REFERENCE = 3;
+    final static byte REMOVE_REFERENCE = 4;
+    final static byte ADD_VALUE = 5;
+    final static byte REPLACE_VALUE = 6;
+    final static byte REMOVE_VALUE = 7;
+    final static byte SHIFT_COLUMNS = 8;
+    final static byte SHIFT_ROWS = 9;
+
+    /**
+     * The default number of records appended to the log before it is replaced by a snapshot.
+     */
+    final static int SNAPSHOT_EVERY = 100_000;
+
+    static {
+        // force static initializers to run, preventing Json type name lookup failures when replaying.
+        SpreadsheetCell.NO_FORMATTED_CELL.isPresent();
+        SpreadsheetFormula.NO_TOKEN.isPresent();
+        SpreadsheetMetadata.EMPTY.id();
+        SpreadsheetId.with(0);
+        SpreadsheetLabelMapping.with(SpreadsheetExpressionReference.labelName("Label1"), SpreadsheetExpressionReference.parseRange("A1"));
+        Group.with(Optional.of(GroupId.with(0)), GroupName.with("Group1"));
+        User.with(Optional.of(UserId.with(0)), EmailAddress.parse("user@example.com"));
+    }
+
+    /**
+     * Creates a {@link DurableSpreadsheetStoreRepository} replaying any snapshot and log found in the directory.
+     */
+    static DurableSpreadsheetStoreRepository with(final Path directory,
+                                                  final SpreadsheetStoreRepository repository,
+                                                  final Map<String, Function<SpreadsheetCell, TextStyle>> styles,
+                                                  final JsonNodeMarshallContext marshallContext,
+                                                  final JsonNodeUnmarshallContext unmarshallContext) {
+        return with(directory,
+                repository,
+                styles,
+                SNAPSHOT_EVERY,
+                marshallContext,
+                unmarshallContext);
+    }
+
+    static DurableSpreadsheetStoreRepository with(final Path directory,
+                                                  final SpreadsheetStoreRepository repository,
+                                                  final Map<String, Function<SpreadsheetCell, TextStyle>> styles,
+                                                  final int snapshotEvery,
+                                                  final JsonNodeMarshallContext marshallContext,
+                                                  final JsonNodeUnmarshallContext unmarshallContext) {
+        return with0(directory,
+                repository,
+                styles,
+                snapshotEvery,
+                true,
+                marshallContext,
+                unmarshallContext);
+    }
+
+    /**
+     * Creates a {@link DurableSpreadsheetStoreRepository} that does not record its cells, as the
+     * {@link SpreadsheetCellStore} of the repository is already durable, such as a memory mapped store in the same
+     * directory.
+     */
+    static DurableSpreadsheetStoreRepository withDurableCells(final Path directory,
+                                                              final SpreadsheetStoreRepository repository,
+                                                              final Map<String, Function<SpreadsheetCell, TextStyle>> styles,
+                                                              final JsonNodeMarshallContext marshallContext,
+                                                              final JsonNodeUnmarshallContext unmarshallContext) {
+        return with0(directory,
+                repository,
+                styles,
+                SNAPSHOT_EVERY,
+                false,
+                marshallContext,
+                unmarshallContext);
+    }
+
+    private static DurableSpreadsheetStoreRepository with0(final Path directory,
+                                                           final SpreadsheetStoreRepository repository,
+                                                           final Map<String, Function<SpreadsheetCell, TextStyle>> styles,
+                                                           final int snapshotEvery,
+                                                           final boolean recordCells,
+                                                           final JsonNodeMarshallContext marshallContext,
+                                                           final JsonNodeUnmarshallContext unmarshallContext) {
+        Objects.requireNonNull(directory, "directory");
+        Objects.requireNonNull(repository, "repository");
+        Objects.requireNonNull(styles, "styles");
+        if (snapshotEvery <= 0) {
+            throw new IllegalArgumentException("Invalid snapshotEvery " + snapshotEvery + " <= 0");
+        }
+        Objects.requireNonNull(marshallContext, "marshallContext");
+        Objects.requireNonNull(unmarshallContext, "unmarshallContext");
+
+        return new DurableSpreadsheetStoreRepository(DurableSpreadsheetStoreRepositoryLog.with(directory),
+                repository,
+                styles,
+                snapshotEvery,
+                recordCells,
+                marshallContext,
+                unmarshallContext);
+    }
+
+    private DurableSpreadsheetStoreRepository(final DurableSpreadsheetStoreRepositoryLog log,
+                                              final SpreadsheetStoreRepository repository,
+                                              final Map<String, Function<SpreadsheetCell, TextStyle>> styles,
+                                              final int snapshotEvery,
+                                              final boolean recordCells,
+                                              final JsonNodeMarshallContext marshallContext,
+                                              final JsonNodeUnmarshallContext unmarshallContext) {
+        super();
+        this.log = log;
+        this.repository = repository;
+        this.snapshotEvery = snapshotEvery;
+        this.recordCells = recordCells;
+        this.marshallContext = marshallContext;
+        this.unmarshallContext = unmarshallContext;
+
+        final Map<String, Function<SpreadsheetCell, TextStyle>> nameToStyle = Maps.sorted();
+        final Map<Function<SpreadsheetCell, TextStyle>, String> styleToName = Maps.hash();
+        for (final Map.Entry<String, Function<SpreadsheetCell, TextStyle>> nameAndStyle : styles.entrySet()) {
+            nameToStyle.put(nameAndStyle.getKey(), nameAndStyle.getValue());
+            styleToName.put(nameAndStyle.getValue(), nameAndStyle.getKey());
+        }
+        this.styles = nameToStyle;
+        this.styleNames = styleToName;
+
+        log.replay(this::replay);
+
+        final SpreadsheetCellStore cells = repository.cells();
+        if (recordCells) {
+            this.watch(CELLS, cells, SpreadsheetBinaryWriter::writeCell, SpreadsheetBinaryWriter::writeCellReference);
+            this.cells = DurableSpreadsheetStoreRepositorySpreadsheetCellStore.with(cells, this);
+        } else {
+            this.cells = cells;
+        }
+
+        this.watchReferences(CELL_REFERENCES, repository.cellReferences(), SpreadsheetBinaryWriter::writeCellReference);
+        this.watch(GROUPS, repository.groups(), SpreadsheetBinaryWriter::writeJson, SpreadsheetBinaryWriter::writeJson);
+        this.watch(LABELS, repository.labels(), SpreadsheetBinaryWriter::writeJson, SpreadsheetBinaryWriter::writeLabelName);
+        this.watchReferences(LABEL_REFERENCES, repository.labelReferences(), SpreadsheetBinaryWriter::writeLabelName);
+        this.watch(METADATAS, repository.metadatas(), SpreadsheetBinaryWriter::writeJson, SpreadsheetBinaryWriter::writeJson);
+
+        final SpreadsheetRangeStore<SpreadsheetCellReference> rangeToCells = repository.rangeToCells();
+        rangeToCells.addDeleteWatcher(this.deleteWatcher(RANGE_TO_CELLS, SpreadsheetBinaryWriter::writeRange));
+        this.rangeToCells = DurableSpreadsheetStoreRepositorySpreadsheetRangeStore.with(rangeToCells,
+                RANGE_TO_CELLS,
+                SpreadsheetBinaryWriter::writeCellReference,
+                this);
+
+        final SpreadsheetRangeStore<SpreadsheetConditionalFormattingRule> rangeToConditionalFormattingRules = repository.rangeToConditionalFormattingRules();
+        rangeToConditionalFormattingRules.addDeleteWatcher(this.deleteWatcher(RANGE_TO_CONDITIONAL_FORMATTING_RULES, SpreadsheetBinaryWriter::writeRange));
+        this.rangeToConditionalFormattingRules = DurableSpreadsheetStoreRepositorySpreadsheetRangeStore.with(rangeToConditionalFormattingRules,
+                RANGE_TO_CONDITIONAL_FORMATTING_RULES,
+                this::writeRule,
+                this);
+
+        this.watch(USERS, repository.users(), SpreadsheetBinaryWriter::writeJson, SpreadsheetBinaryWriter::writeJson);
+    }
+
+    // watch............................................................................................................
+
+    private <K, V> void watch(final byte store,
+                              final Store<K, V> watched,
+                              final BiConsumer<SpreadsheetBinaryWriter, V> values,
+                              final BiConsumer<SpreadsheetBinaryWriter, K> ids) {
+        watched.addSaveWatcher((v) -> this.append(store, SAVE, this.payload(w -> values.accept(w, v))));
+        watched.addDeleteWatcher(this.deleteWatcher(store, ids));
+    }
+
+    private <K> Consumer<K> deleteWatcher(final byte store,
+                                          final BiConsumer<SpreadsheetBinaryWriter, K> ids) {
+        return (k) -> this.append(store, DELETE, this.payload(w -> ids.accept(w, k)));
+    }
+
+    private <T extends SpreadsheetCellReferenceOrLabelName> void watchReferences(final byte store,
+                                                                                 final SpreadsheetExpressionReferenceStore<T> watched,
+                                                                                 final BiConsumer<SpreadsheetBinaryWriter, T> targets) {
+        watched.addAddReferenceWatcher((r) -> this.append(store, ADD_REFERENCE, this.referencePayload(r, targets)));
+        watched.addRemoveReferenceWatcher((r) -> this.append(store, REMOVE_REFERENCE, this.referencePayload(r, targets)));
+    }
+
+    private <T extends SpreadsheetCellReferenceOrLabelName> byte[] referencePayload(final TargetAndSpreadsheetCellReference<T> targetAndReference,
+                                                                                    final BiConsumer<SpreadsheetBinaryWriter, T> targets) {
+        return this.payload(w -> {
+            targets.accept(w, targetAndReference.target());
+            w.writeCellReference(targetAndReference.reference());
+        });
+    }
+
+    /**
+     * Writes the description, priority, formula and the registered name of the style of the rule.
+     */
+    private void writeRule(final SpreadsheetBinaryWriter writer,
+                           final SpreadsheetConditionalFormattingRule rule) {
+        final String style = this.styleNames.get(rule.style());
+        if (null == style) {
+            throw new SpreadsheetStoreRepositoryException("Unknown style " + rule.style() + " in rule " + rule + " not in " + this.styles.keySet());
+        }
+
+        writer.writeString(rule.description().value());
+        writer.writeSignedVarint(rule.priority());
+        writer.writeJson(rule.formula());
+        writer.writeSharedString(style);
+    }
+
+    /**
+     * Returns the bytes written to a new {@link SpreadsheetBinaryWriter} by the {@link Consumer}.
+     */
+    byte[] payload(final Consumer<SpreadsheetBinaryWriter> payload) {
+        final SpreadsheetBinaryWriter writer = SpreadsheetBinaryWriter.with(this.marshallContext);
+        payload.accept(writer);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Appends a record, replacing the log with a snapshot if it holds enough records.
+     */
+    void append(final byte store,
+                final byte operation,
+                final byte[] payload) {
+        final DurableSpreadsheetStoreRepositoryLog log = this.log;
+        log.append(store, operation, payload);
+
+        if (log.count() >= this.snapshotEvery) {
+            this.snapshot();
+        }
+    }
+
+    // snapshot.........................................................................................................
+
+    /**
+     * Writes a snapshot of all the stores and starts an empty log.
+     */
+    void snapshot() {
+        this.log.snapshot(this::writeSnapshot);
+    }
+
+    private void writeSnapshot() {
+        final SpreadsheetStoreRepository repository = this.repository;
+
+        if (this.recordCells) {
+            this.writeValues(CELLS, repository.cells(), SpreadsheetBinaryWriter::writeCell);
+        }
+        this.writeReferences(CELL_REFERENCES, repository.cellReferences(), SpreadsheetBinaryWriter::writeCellReference);
+        this.writeValues(GROUPS, repository.groups(), SpreadsheetBinaryWriter::writeJson);
+        this.writeValues(LABELS, repository.labels(), SpreadsheetBinaryWriter::writeJson);
+        this.writeReferences(LABEL_REFERENCES, repository.labelReferences(), SpreadsheetBinaryWriter::writeLabelName);
+        this.writeValues(METADATAS, repository.metadatas(), SpreadsheetBinaryWriter::writeJson);
+        this.writeRanges(RANGE_TO_CELLS, repository.rangeToCells(), SpreadsheetBinaryWriter::writeCellReference);
+        this.writeValues(USERS, repository.users(), SpreadsheetBinaryWriter::writeJson);
+        this.writeRanges(RANGE_TO_CONDITIONAL_FORMATTING_RULES, repository.rangeToConditionalFormattingRules(), this::writeRule);
+    }
+
+    private <K, V> void writeValues(final byte store,
+                                    final Store<K, V> values,
+                                    final BiConsumer<SpreadsheetBinaryWriter, V> writer) {
+        final DurableSpreadsheetStoreRepositoryLog log = this.log;
+
+        for (final K id : ids(values)) {
+            values.load(id)
+                    .ifPresent(v -> log.append(store, SAVE, this.payload(w -> writer.accept(w, v))));
+        }
+    }
+
+    private <T extends SpreadsheetCellReferenceOrLabelName> void writeReferences(final byte store,
+                                                                                 final SpreadsheetExpressionReferenceStore<T> references,
+                                                                                 final BiConsumer<SpreadsheetBinaryWriter, T> targets) {
+        final DurableSpreadsheetStoreRepositoryLog log = this.log;
+
+        for (final T target : ids(references)) {
+            for (final SpreadsheetCellReference reference : references.load(target).orElse(Sets.empty())) {
+                log.append(store, ADD_REFERENCE, this.referencePayload(TargetAndSpreadsheetCellReference.with(target, reference), targets));
+            }
+        }
+    }
+
+    private <V> void writeRanges(final byte store,
+                                 final SpreadsheetRangeStore<V> ranges,
+                                 final BiConsumer<SpreadsheetBinaryWriter, V> writer) {
+        final DurableSpreadsheetStoreRepositoryLog log = this.log;
+
+        for (final SpreadsheetRange range : ids(ranges)) {
+            for (final V value : ranges.load(range).orElse(Lists.empty())) {
+                log.append(store, ADD_VALUE, this.payload(w -> {
+                    w.writeRange(range);
+                    writer.accept(w, value);
+                }));
+            }
+        }
+    }
+
+    private static <K> Set<K> ids(final Store<K, ?> store) {
+        final int count = store.count();
+        return count > 0 ?
+                store.ids(0, count) :
+                Sets.empty();
+    }
+
+    // replay...........................................................................................................
+
+    /**
+     * Replays a record, which begins with its store and operation followed by the payload.
+     */
+    private void replay(final ByteBuffer record) {
+        final SpreadsheetBinaryReader reader = SpreadsheetBinaryReader.with(record.array(), this.unmarshallContext);
+        final byte store = reader.readByte();
+        final byte operation = reader.readByte();
+        final SpreadsheetStoreRepository repository = this.repository;
+
+        switch (store) {
+            case CELLS:
+                this.replayCells(operation, repository.cells(), reader);
+                break;
+            case CELL_REFERENCES:
+                this.replayReference(operation, repository.cellReferences(), reader, SpreadsheetBinaryReader::readCellReference);
+                break;
+            case GROUPS:
+                this.replayValue(operation, repository.groups(), reader, SpreadsheetBinaryReader::readJson, SpreadsheetBinaryReader::readJson);
+                break;
+            case LABELS:
+                this.replayValue(operation, repository.labels(), reader, SpreadsheetBinaryReader::readJson, SpreadsheetBinaryReader::readLabelName);
+                break;
+            case LABEL_REFERENCES:
+                this.replayReference(operation, repository.labelReferences(), reader, SpreadsheetBinaryReader::readLabelName);
+                break;
+            case METADATAS:
+                this.replayValue(operation, repository.metadatas(), reader, SpreadsheetBinaryReader::readJson, SpreadsheetBinaryReader::readJson);
+                break;
+            case RANGE_TO_CELLS:
+                this.replayRange(operation, repository.rangeToCells(), reader, SpreadsheetBinaryReader::readCellReference);
+                break;
+            case USERS:
+                this.replayValue(operation, repository.users(), reader, SpreadsheetBinaryReader::readJson, SpreadsheetBinaryReader::readJson);
+                break;
+            case RANGE_TO_CONDITIONAL_FORMATTING_RULES:
+                this.replayRange(operation, repository.rangeToConditionalFormattingRules(), reader, this::readRule);
+                break;
+            default:
+                throw new SpreadsheetStoreRepositoryException("Unknown store " + store + " in log " + this.log);
+        }
+    }
+
+    private void replayCells(final byte operation,
+                             final SpreadsheetCellStore store,
+                             final SpreadsheetBinaryReader reader) {
+        switch (operation) {
+            case SHIFT_COLUMNS:
+                store.shiftColumns(SpreadsheetReferenceKind.RELATIVE.column(reader.readVarint()), reader.readSignedVarint());
+                break;
+            case SHIFT_ROWS:
+                store.shiftRows(SpreadsheetReferenceKind.RELATIVE.row(reader.readVarint()), reader.readSignedVarint());
+                break;
+            default:
+                this.replayValue(operation, store, reader, SpreadsheetBinaryReader::readCell, SpreadsheetBinaryReader::readCellReference);
+                break;
+        }
+    }
+
+    private <K, V> void replayValue(final byte operation,
+                                    final Store<K, V> store,
+                                    final SpreadsheetBinaryReader reader,
+                                    final Function<SpreadsheetBinaryReader, V> values,
+                                    final Function<SpreadsheetBinaryReader, K> ids) {
+        switch (operation) {
+            case SAVE:
+                store.save(values.apply(reader));
+                break;
+            case DELETE:
+                store.delete(ids.apply(reader));
+                break;
+            default:
+                throw this.unknownOperation(operation);
+        }
+    }
+
+    private <T extends SpreadsheetCellReferenceOrLabelName> void replayReference(final byte operation,
+                                                                                 final SpreadsheetExpressionReferenceStore<T> store,
+                                                                                 final SpreadsheetBinaryReader reader,
+                                                                                 final Function<SpreadsheetBinaryReader, T> targets) {
+        final T target = targets.apply(reader);
+        final TargetAndSpreadsheetCellReference<T> targetAndReference = TargetAndSpreadsheetCellReference.with(
+                target,
+                reader.readCellReference()
+        );
+
+        switch (operation) {
+            case ADD_REFERENCE:
+                store.addReference(targetAndReference);
+                break;
+            case REMOVE_REFERENCE:
+                store.removeReference(targetAndReference);
+                break;
+            default:
+                throw this.unknownOperation(operation);
+        }
+    }
+
+    private <V> void replayRange(final byte operation,
+                                 final SpreadsheetRangeStore<V> store,
+                                 final SpreadsheetBinaryReader reader,
+                                 final Function<SpreadsheetBinaryReader, V> values) {
+        final SpreadsheetRange range = reader.readRange();
+
+        switch (operation) {
+            case DELETE:
+                store.delete(range);
+                break;
+            case ADD_VALUE:
+                store.addValue(range, values.apply(reader));
+                break;
+            case REPLACE_VALUE:
+                final V newValue = values.apply(reader);
+                store.replaceValue(range, newValue, values.apply(reader));
+                break;
+            case REMOVE_VALUE:
+                store.removeValue(range, values.apply(reader));
+                break;
+            default:
+                throw this.unknownOperation(operation);
+        }
+    }
+
+    private SpreadsheetConditionalFormattingRule readRule(final SpreadsheetBinaryReader reader) {
+        final SpreadsheetDescription description = SpreadsheetDescription.with(reader.readString());
+        final int priority = reader.readSignedVarint();
+        final SpreadsheetFormula formula = reader.readJson();
+        final String name = reader.readSharedString();
+
+        final Function<SpreadsheetCell, TextStyle> style = this.styles.get(name);
+        if (null == style) {
+            throw new SpreadsheetStoreRepositoryException("Unknown style " + CharSequences.quoteAndEscape(name) + " in log " + this.log);
+        }
+        return SpreadsheetConditionalFormattingRule.with(description, priority, formula, style);
+    }
+
+    private SpreadsheetStoreRepositoryException unknownOperation(final byte operation) {
+        return new SpreadsheetStoreRepositoryException("Unknown operation " + operation + " in log " + this.log);
+    }
+
+    // AutoCloseable....................................................................................................
+
+    /**
+     * Closes the log, any following mutation will fail.
+     */
+    @Override
+    public void close() {
+        this.log.close();
+    }
+
+    // SpreadsheetStoreRepository.......................................................................................
+
+    @Override
+    public SpreadsheetCellStore cells() {
+        return this.cells;
+    }
+
+    private final SpreadsheetCellStore cells;
+
+    @Override
+    public SpreadsheetExpressionReferenceStore<SpreadsheetCellReference> cellReferences() {
+        return this.repository.cellReferences();
+    }
+
+    @Override
+    public SpreadsheetGroupStore groups() {
+        return this.repository.groups();
+    }
+
+    @Override
+    public SpreadsheetLabelStore labels() {
+        return this.repository.labels();
+    }
+
+    @Override
+    public SpreadsheetExpressionReferenceStore<SpreadsheetLabelName> labelReferences() {
+        return this.repository.labelReferences();
+    }
+
+    @Override
+    public SpreadsheetMetadataStore metadatas() {
+        return this.repository.metadatas();
+    }
+
+    @Override
+    public SpreadsheetRangeStore<SpreadsheetCellReference> rangeToCells() {
+        return this.rangeToCells;
+    }
+
+    private final SpreadsheetRangeStore<SpreadsheetCellReference> rangeToCells;
+
+    @Override
+    public SpreadsheetRangeStore<SpreadsheetConditionalFormattingRule> rangeToConditionalFormattingRules() {
+        return this.rangeToConditionalFormattingRules;
+    }
+
+    private final SpreadsheetRangeStore<SpreadsheetConditionalFormattingRule> rangeToConditionalFormattingRules;
+
+    @Override
+    public SpreadsheetUserStore users() {
+        return this.repository.users();
+    }
+
+    private final DurableSpreadsheetStoreRepositoryLog log;
+
+    private final SpreadsheetStoreRepository repository;
+
+    /**
+     * Conditional formatting rule styles by the name written to the log.
+     */
+    private final Map<String, Function<SpreadsheetCell, TextStyle>> styles;
+
+    private final Map<Function<SpreadsheetCell, TextStyle>, String> styleNames;
+
+    private final int snapshotEvery;
+
+    /**
+     * When false the cells of the repository are already durable and are not recorded.
+     */
+    private final boolean recordCells;
+
+    private final JsonNodeMarshallContext marshallContext;
+
+    private final JsonNodeUnmarshallContext unmarshallContext;
+
+    @Override
+    public String toString() {
+        return this.log + " " + this.repository;
+    }
+}
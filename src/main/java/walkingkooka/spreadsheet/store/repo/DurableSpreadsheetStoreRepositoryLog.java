@@ -0,0 +1,326 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.spreadsheet.store.repo;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * The files holding a write ahead log of store mutations and the compacted snapshot it follows. Both hold a sequence
+ * of records, each being
+ * <pre>
+ * int size            the number of bytes following the checksum
+ * int checksum        a CRC32 of the following bytes
+ * byte store          the store that was changed
+ * byte operation      the operation such as a save or delete
+ * byte[] payload      written by a {@link walkingkooka.spreadsheet.SpreadsheetBinaryWriter}
+ * </pre>
+ * The snapshot begins with its long generation and is only ever replaced atomically, after which a new empty log with
+ * the same generation is started and the previous log deleted. Log records and snapshots are forced to the storage
+ * device before an append or snapshot returns. A torn or corrupt record at the end of the log is truncated when replayed.
+ * {@link #replay(Consumer)} must be called once before any append, and {@link #close()} once all appends are done.
+ */
+final class DurableSpreadsheetStoreRepositoryLog {
+
+    private final static int HEADER = Integer.BYTES + Integer.BYTES;
+
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    private final static String SNAPSHOT = "snapshot";
+    private final static String SNAPSHOT_TEMP = "snapshot.tmp";
+    private final static String LOG_PREFIX = "log-";
+
+    static DurableSpreadsheetStoreRepositoryLog with(final Path directory) {
+        Objects.requireNonNull(directory, "directory");
+
+        return new DurableSpreadsheetStoreRepositoryLog(directory);
+    }
+
+    private DurableSpreadsheetStoreRepositoryLog(final Path directory) {
+        super();
+        this.directory = directory;
+    }
+
+    /**
+     * Passes each record of the snapshot followed by the log to the {@link Consumer}, positioned at the store byte,
+     * and then opens the log for appends.
+     */
+    void replay(final Consumer<ByteBuffer> records) {
+        final Path directory = this.directory;
+        try {
+            Files.createDirectories(directory);
+
+            long generation = 0;
+            final Path snapshot = directory.resolve(SNAPSHOT);
+            if (Files.exists(snapshot)) {
+                try (final DataInputStream input = open(snapshot)) {
+                    generation = input.readLong();
+                    read(input, Files.size(snapshot) - Long.BYTES, records);
+                }
+            }
+            this.generation = generation;
+
+            final Path log = this.log(generation);
+            long end = 0;
+            int count = 0;
+            if (Files.exists(log)) {
+                final int[] counter = new int[1];
+                try (final DataInputStream input = open(log)) {
+                    end = read(input, Files.size(log), r -> {
+                        counter[0]++;
+                        records.accept(r);
+                    });
+                }
+                count = counter[0];
+            }
+
+            final FileChannel channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.truncate(end);
+            channel.position(end);
+            this.log = channel;
+            this.channel = channel;
+            this.count = count;
+
+            this.deleteStale();
+        } catch (final IOException cause) {
+            throw new SpreadsheetStoreRepositoryException("Unable to replay log in " + directory + ": " + cause.getMessage(), cause);
+        }
+    }
+
+    private static DataInputStream open(final Path file) throws IOException {
+        final InputStream input = Files.newInputStream(file);
+        return new DataInputStream(new BufferedInputStream(input, BUFFER_SIZE));
+    }
+
+    /**
+     * Reads records until the end, stopping at a torn or corrupt record and returning the offset after the last good record.
+     */
+    private static long read(final DataInputStream input,
+                             final long length,
+                             final Consumer<ByteBuffer> records) throws IOException {
+        final CRC32 crc = new CRC32();
+        long offset = 0;
+
+        for (; ; ) {
+            final byte[] record;
+            try {
+                final int size = input.readInt();
+                final int checksum = input.readInt();
+                if (size < 2 || offset + HEADER + size > length) {
+                    break;
+                }
+                record = new byte[size];
+                input.readFully(record);
+
+                crc.reset();
+                crc.update(record, 0, size);
+                if (checksum != (int) crc.getValue()) {
+                    break;
+                }
+            } catch (final EOFException end) {
+                break;
+            }
+
+            records.accept(ByteBuffer.wrap(record));
+            offset += HEADER + record.length;
+        }
+
+        return offset;
+    }
+
+    /**
+     * Removes any left over temporary snapshot and logs from earlier generations.
+     */
+    private void deleteStale() throws IOException {
+        final Path directory = this.directory;
+        Files.deleteIfExists(directory.resolve(SNAPSHOT_TEMP));
+
+        for (long generation = this.generation - 1; generation >= 0; generation--) {
+            if (!Files.deleteIfExists(this.log(generation))) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Appends a record to the log or the snapshot being written.
+     */
+    void append(final byte store,
+                final byte operation,
+                final byte[] bytes) {
+        final CRC32 crc = this.crc;
+        crc.reset();
+        crc.update(store);
+        crc.update(operation);
+        crc.update(bytes, 0, bytes.length);
+
+        final int length = HEADER + 2 + bytes.length;
+        try {
+            ByteBuffer buffer = this.buffer;
+            if (buffer.remaining() < length) {
+                this.flush();
+                if (buffer.capacity() < length) {
+                    buffer = ByteBuffer.allocate(length);
+                }
+            }
+
+            buffer.putInt(2 + bytes.length)
+                    .putInt((int) crc.getValue())
+                    .put(store)
+                    .put(operation)
+                    .put(bytes);
+
+            if (buffer != this.buffer) {
+                buffer.flip();
+                this.write(buffer);
+            } else {
+                // log records are written and forced immediately, snapshot records when the buffer is full.
+                if (this.channel == this.log) {
+                    this.flush();
+                }
+            }
+            if (this.channel == this.log) {
+                this.log.force(false);
+            }
+        } catch (final IOException cause) {
+            throw new SpreadsheetStoreRepositoryException("Unable to append to log in " + this.directory + ": " + cause.getMessage(), cause);
+        }
+
+        if (this.channel == this.log) {
+            this.count++;
+        }
+    }
+
+    private void flush() throws IOException {
+        final ByteBuffer buffer = this.buffer;
+        buffer.flip();
+        this.write(buffer);
+        buffer.clear();
+    }
+
+    private void write(final ByteBuffer buffer) throws IOException {
+        final FileChannel channel = this.channel;
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * The number of records in the log since the last snapshot.
+     */
+    int count() {
+        return this.count;
+    }
+
+    /**
+     * Writes a new snapshot, with appends made by the {@link Runnable} going to the snapshot rather than the log,
+     * replaces the previous snapshot and starts an empty log.
+     */
+    void snapshot(final Runnable writer) {
+        final Path directory = this.directory;
+        final long generation = this.generation + 1;
+        final Path temp = directory.resolve(SNAPSHOT_TEMP);
+
+        try {
+            try (final FileChannel snapshot = FileChannel.open(temp,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                this.channel = snapshot;
+                this.buffer.putLong(generation);
+
+                writer.run();
+
+                this.flush();
+                snapshot.force(true);
+            } finally {
+                this.channel = this.log;
+                this.buffer.clear();
+            }
+
+            Files.move(temp, directory.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            final FileChannel log = FileChannel.open(this.log(generation),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.log.close();
+            this.log = log;
+            this.channel = log;
+            this.count = 0;
+
+            Files.deleteIfExists(this.log(this.generation));
+            this.generation = generation;
+        } catch (final IOException cause) {
+            throw new SpreadsheetStoreRepositoryException("Unable to snapshot in " + directory + ": " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Closes the log, any following append will fail.
+     */
+    void close() {
+        try {
+            this.log.close();
+        } catch (final IOException cause) {
+            throw new SpreadsheetStoreRepositoryException("Unable to close log in " + this.directory + ": " + cause.getMessage(), cause);
+        }
+    }
+
+    private Path log(final long generation) {
+        return this.directory.resolve(LOG_PREFIX + String.format("%08d", generation));
+    }
+
+    private final Path directory;
+
+    /**
+     * The generation of the current snapshot and log.
+     */
+    private long generation;
+
+    private FileChannel log;
+
+    /**
+     * The log or the snapshot while one is being written.
+     */
+    private FileChannel channel;
+
+    private int count;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private final CRC32 crc = new CRC32();
+
+    @Override
+    public String toString() {
+        return this.directory + " " + this.generation;
+    }
+}
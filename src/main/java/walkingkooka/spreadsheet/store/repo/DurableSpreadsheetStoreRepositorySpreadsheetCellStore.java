@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store.repo;
+
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetColumnReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+import walkingkooka.spreadsheet.reference.SpreadsheetRowReference;
+import walkingkooka.spreadsheet.store.SpreadsheetCellStore;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A {@link SpreadsheetCellStore} that appends each shift of columns or rows to the log of its
+ * {@link DurableSpreadsheetStoreRepository}, as the shift watcher receives the moved cells but not the column or row
+ * and delta, which are all that is needed to replay the shift.
+ */
+final class DurableSpreadsheetStoreRepositorySpreadsheetCellStore implements SpreadsheetCellStore {
+
+    static DurableSpreadsheetStoreRepositorySpreadsheetCellStore with(final SpreadsheetCellStore store,
+                                                                    final DurableSpreadsheetStoreRepository repository) {
+        return new DurableSpreadsheetStoreRepositorySpreadsheetCellStore(store, repository);
+    }
+
+    private DurableSpreadsheetStoreRepositorySpreadsheetCellStore(final SpreadsheetCellStore store,
+                                                                  final DurableSpreadsheetStoreRepository repository) {
+        this.store = store;
+        this.repository = repository;
+    }
+
+    @Override
+    public Optional<SpreadsheetCell> load(final SpreadsheetCellReference reference) {
+        return this.store.load(reference);
+    }
+
+    @Override
+    public SpreadsheetCell save(final SpreadsheetCell cell) {
+        return this.store.save(cell);
+    }
+
+    @Override
+    public Runnable addSaveWatcher(final Consumer<SpreadsheetCell> saved) {
+        return this.store.addSaveWatcher(saved);
+    }
+
+    @Override
+    public void delete(final SpreadsheetCellReference reference) {
+        this.store.delete(reference);
+    }
+
+    @Override
+    public Runnable addDeleteWatcher(final Consumer<SpreadsheetCellReference> deleted) {
+        return this.store.addDeleteWatcher(deleted);
+    }
+
+    @Override
+    public int count() {
+        return this.store.count();
+    }
+
+    @Override
+    public Set<SpreadsheetCellReference> ids(final int from,
+                                             final int count) {
+        return this.store.ids(from, count);
+    }
+
+    @Override
+    public List<SpreadsheetCell> values(final SpreadsheetCellReference from,
+                                        final int count) {
+        return this.store.values(from, count);
+    }
+
+    @Override
+    public int rows() {
+        return this.store.rows();
+    }
+
+    @Override
+    public int columns() {
+        return this.store.columns();
+    }
+
+    @Override
+    public Set<SpreadsheetCell> row(final SpreadsheetRowReference row) {
+        return this.store.row(row);
+    }
+
+    @Override
+    public Set<SpreadsheetCell> column(final SpreadsheetColumnReference column) {
+        return this.store.column(column);
+    }
+
+    @Override
+    public Set<SpreadsheetCell> loadRange(final SpreadsheetRange range) {
+        return this.store.loadRange(range);
+    }
+
+    @Override
+    public void shiftColumns(final SpreadsheetColumnReference from,
+                             final int delta) {
+        this.store.shiftColumns(from, delta);
+        this.append(DurableSpreadsheetStoreRepository.SHIFT_COLUMNS, from.value(), delta);
+    }
+
+    @Override
+    public void shiftRows(final SpreadsheetRowReference from,
+                          final int delta) {
+        this.store.shiftRows(from, delta);
+        this.append(DurableSpreadsheetStoreRepository.SHIFT_ROWS, from.value(), delta);
+    }
+
+    private void append(final byte operation,
+                        final int from,
+                        final int delta) {
+        final DurableSpreadsheetStoreRepository repository = this.repository;
+        repository.append(DurableSpreadsheetStoreRepository.CELLS,
+                operation,
+                repository.payload(w -> {
+                    w.writeVarint(from);
+                    w.writeSignedVarint(delta);
+                })
+        );
+    }
+
+    @Override
+    public Runnable addShiftWatcher(final Consumer<List<SpreadsheetCell>> shifted) {
+        return this.store.addShiftWatcher(shifted);
+    }
+
+    @Override
+    public double maxColumnWidth(final SpreadsheetColumnReference column) {
+        return this.store.maxColumnWidth(column);
+    }
+
+    @Override
+    public double maxRowHeight(final SpreadsheetRowReference row) {
+        return this.store.maxRowHeight(row);
+    }
+
+    @Override
+    public double columnsWidth(final SpreadsheetColumnReference column,
+                               final double defaultWidth) {
+        return this.store.columnsWidth(column, defaultWidth);
+    }
+
+    @Override
+    public double rowsHeight(final SpreadsheetRowReference row,
+                             final double defaultHeight) {
+        return this.store.rowsHeight(row, defaultHeight);
+    }
+
+    @Override
+    public SpreadsheetColumnReference columnAt(final double offset,
+                                               final double defaultWidth) {
+        return this.store.columnAt(offset, defaultWidth);
+    }
+
+    @Override
+    public SpreadsheetRowReference rowAt(final double offset,
+                                         final double defaultHeight) {
+        return this.store.rowAt(offset, defaultHeight);
+    }
+
+    @Override
+    public SpreadsheetColumnReference columnEndingAt(final double offset,
+                                                     final double defaultWidth) {
+        return this.store.columnEndingAt(offset, defaultWidth);
+    }
+
+    @Override
+    public SpreadsheetRowReference rowEndingAt(final double offset,
+                                               final double defaultHeight) {
+        return this.store.rowEndingAt(offset, defaultHeight);
+    }
+
+    private final SpreadsheetCellStore store;
+
+    private final DurableSpreadsheetStoreRepository repository;
+
+    @Override
+    public String toString() {
+        return this.store.toString();
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.spreadsheet.store.repo;
+
+import walkingkooka.spreadsheet.SpreadsheetBinaryWriter;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetRangeStore;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A {@link SpreadsheetRangeStore} that appends values added, replaced or removed to the log of its
+ * {@link DurableSpreadsheetStoreRepository}, as these have no watchers. The record is written before the wrapped store
+ * is changed, so a value that cannot be written leaves the store unchanged.
+ */
+final class DurableSpreadsheetStoreRepositorySpreadsheetRangeStore<V> implements SpreadsheetRangeStore<V> {
+
+    static <V> DurableSpreadsheetStoreRepositorySpreadsheetRangeStore<V> with(final SpreadsheetRangeStore<V> store,
+                                                                            final byte id,
+                                                                            final BiConsumer<SpreadsheetBinaryWriter, V> values,
+                                                                            final DurableSpreadsheetStoreRepository repository) {
+        return new DurableSpreadsheetStoreRepositorySpreadsheetRangeStore<>(store, id, values, repository);
+    }
+
+    private DurableSpreadsheetStoreRepositorySpreadsheetRangeStore(final SpreadsheetRangeStore<V> store,
+                                                                   final byte id,
+                                                                   final BiConsumer<SpreadsheetBinaryWriter, V> values,
+                                                                   final DurableSpreadsheetStoreRepository repository) {
+        this.store = store;
+        this.id = id;
+        this.values = values;
+        this.repository = repository;
+    }
+
+    @Override
+    public Optional<List<V>> load(final SpreadsheetRange range) {
+        return this.store.load(range);
+    }
+
+    @Override
+    public void delete(final SpreadsheetRange range) {
+        this.store.delete(range);
+    }
+
+    @Override
+    public Runnable addDeleteWatcher(final Consumer<SpreadsheetRange> deleted) {
+        return this.store.addDeleteWatcher(deleted);
+    }
+
+    @Override
+    public int count() {
+        return this.store.count();
+    }
+
+    @Override
+    public Set<SpreadsheetRange> ids(final int from,
+                                     final int count) {
+        return this.store.ids(from, count);
+    }
+
+    @Override
+    public List<List<V>> values(final SpreadsheetRange from,
+                                final int count) {
+        return this.store.values(from, count);
+    }
+
+    @Override
+    public Set<SpreadsheetRange> loadCellReferenceRanges(final SpreadsheetCellReference cell) {
+        return this.store.loadCellReferenceRanges(cell);
+    }
+
+    @Override
+    public Set<SpreadsheetRange> loadIntersectingRanges(final SpreadsheetRange range) {
+        return this.store.loadIntersectingRanges(range);
+    }
+
+    @Override
+    public Set<V> loadCellReferenceValues(final SpreadsheetCellReference cell) {
+        return this.store.loadCellReferenceValues(cell);
+    }
+
+    @Override
+    public void addValue(final SpreadsheetRange range,
+                         final V value) {
+        final byte[] payload = this.payload(range, value);
+        this.store.addValue(range, value);
+        this.append(DurableSpreadsheetStoreRepository.ADD_VALUE, payload);
+    }
+
+    @Override
+    public boolean replaceValue(final SpreadsheetRange range,
+                                final V newValue,
+                                final V oldValue) {
+        final byte[] payload = this.payload(range, newValue, oldValue);
+        final boolean replaced = this.store.replaceValue(range, newValue, oldValue);
+        if (replaced) {
+            this.append(DurableSpreadsheetStoreRepository.REPLACE_VALUE, payload);
+        }
+        return replaced;
+    }
+
+    @Override
+    public void removeValue(final SpreadsheetRange range,
+                            final V value) {
+        final byte[] payload = this.payload(range, value);
+        this.store.removeValue(range, value);
+        this.append(DurableSpreadsheetStoreRepository.REMOVE_VALUE, payload);
+    }
+
+    private byte[] payload(final SpreadsheetRange range,
+                           final V value) {
+        return this.repository.payload(w -> {
+            w.writeRange(range);
+            this.values.accept(w, value);
+        });
+    }
+
+    private byte[] payload(final SpreadsheetRange range,
+                           final V newValue,
+                           final V oldValue) {
+        return this.repository.payload(w -> {
+            w.writeRange(range);
+            this.values.accept(w, newValue);
+            this.values.accept(w, oldValue);
+        });
+    }
+
+    private void append(final byte operation,
+                        final byte[] payload) {
+        this.repository.append(this.id, operation, payload);
+    }
+
+    @Override
+    public Set<SpreadsheetRange> rangesWithValue(final V value) {
+        return this.store.rangesWithValue(value);
+    }
+
+    private final SpreadsheetRangeStore<V> store;
+
+    private final byte id;
+
+    private final BiConsumer<SpreadsheetBinaryWriter, V> values;
+
+    private final DurableSpreadsheetStoreRepository repository;
+
+    @Override
+    public String toString() {
+        return this.store.toString();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store.repo;
+
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.PublicStaticHelper;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
+import walkingkooka.tree.text.TextStyle;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * {@link SpreadsheetStoreRepository} that require files and are only available on the JVM.
+ */
+public final class JvmSpreadsheetStoreRepositories implements PublicStaticHelper {
+
+    /**
+     * {@see DurableSpreadsheetStoreRepository}, without any conditional formatting rule styles. The returned
+     * repository is also {@link AutoCloseable}.
+     */
+    public static SpreadsheetStoreRepository durable(final Path directory,
+                                                     final SpreadsheetStoreRepository repository,
+                                                     final JsonNodeMarshallContext marshallContext,
+                                                     final JsonNodeUnmarshallContext unmarshallContext) {
+        return durable(directory,
+                repository,
+                Maps.empty(),
+                marshallContext,
+                unmarshallContext);
+    }
+
+    /**
+     * {@see DurableSpreadsheetStoreRepository}, the returned repository is also {@link AutoCloseable}.
+     */
+    public static SpreadsheetStoreRepository durable(final Path directory,
+                                                     final SpreadsheetStoreRepository repository,
+                                                     final Map<String, Function<SpreadsheetCell, TextStyle>> styles,
+                                                     final JsonNodeMarshallContext marshallContext,
+                                                     final JsonNodeUnmarshallContext unmarshallContext) {
+        return DurableSpreadsheetStoreRepository.with(directory,
+                repository,
+                styles,
+                marshallContext,
+                unmarshallContext);
+    }
+
+    /**
+     * {@see MappedSpreadsheetCellStoreSpreadsheetStoreRepository}
+     */
+    public static SpreadsheetStoreRepository mappedSpreadsheetCellStore(final Path directory,
+                                                                       final SpreadsheetStoreRepository repository,
+                                                                       final JsonNodeMarshallContext marshallContext,
+                                                                       final JsonNodeUnmarshallContext unmarshallContext) {
+        return mappedSpreadsheetCellStore(directory,
+                repository,
+                Maps.empty(),
+                marshallContext,
+                unmarshallContext);
+    }
+
+    /**
+     * {@see MappedSpreadsheetCellStoreSpreadsheetStoreRepository}, the returned repository is also {@link AutoCloseable}.
+     */
+    public static SpreadsheetStoreRepository mappedSpreadsheetCellStore(final Path directory,
+                                                                       final SpreadsheetStoreRepository repository,
+                                                                       final Map<String, Function<SpreadsheetCell, TextStyle>> styles,
+                                                                       final JsonNodeMarshallContext marshallContext,
+                                                                       final JsonNodeUnmarshallContext unmarshallContext) {
+        return MappedSpreadsheetCellStoreSpreadsheetStoreRepository.with(directory,
+                repository,
+                styles,
+                marshallContext,
+                unmarshallContext);
+    }
+
+    /**
+     * Stop creation
+     */
+    private JvmSpreadsheetStoreRepositories() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.spreadsheet.store.repo;
+
+import walkingkooka.collect.map.Maps;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.conditionalformat.SpreadsheetConditionalFormattingRule;
+import walkingkooka.spreadsheet.meta.store.SpreadsheetMetadataStore;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetExpressionReferenceStore;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetLabelStore;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetRangeStore;
+import walkingkooka.spreadsheet.security.store.SpreadsheetGroupStore;
+import walkingkooka.spreadsheet.security.store.SpreadsheetUserStore;
+import walkingkooka.spreadsheet.store.JvmSpreadsheetCellStores;
+import walkingkooka.spreadsheet.store.SpreadsheetCellStore;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
+import walkingkooka.tree.text.TextStyle;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A {@link SpreadsheetStoreRepository} that replaces the {@link SpreadsheetCellStore} of the wrapped repository with a
+ * {@link JvmSpreadsheetCellStores#mapped memory mapped store} in the given directory. All other stores, including the
+ * cell, label and range references and label mappings, are recorded by a {@link DurableSpreadsheetStoreRepository} in
+ * the same directory, which does not record cells. When created only the snapshot and log of the other stores are
+ * replayed, cells are not read until they are loaded. {@link #close()} closes the log and the mapped store.
+ */
+final class MappedSpreadsheetCellStoreSpreadsheetStoreRepository implements SpreadsheetStoreRepository,
+        AutoCloseable {
+
+    static MappedSpreadsheetCellStoreSpreadsheetStoreRepository with(final Path directory,
+                                                                     final SpreadsheetStoreRepository repository,
+                                                                     final JsonNodeMarshallContext marshallContext,
+                                                                     final JsonNodeUnmarshallContext unmarshallContext) {
+        return with(directory,
+                repository,
+                Maps.empty(),
+                marshallContext,
+                unmarshallContext);
+    }
+
+    static MappedSpreadsheetCellStoreSpreadsheetStoreRepository with(final Path directory,
+                                                                     final SpreadsheetStoreRepository repository,
+                                                                     final Map<String, Function<SpreadsheetCell, TextStyle>> styles,
+                                                                     final JsonNodeMarshallContext marshallContext,
+                                                                     final JsonNodeUnmarshallContext unmarshallContext) {
+        Objects.requireNonNull(directory, "directory");
+        Objects.requireNonNull(repository, "repository");
+        Objects.requireNonNull(styles, "styles");
+
+        final SpreadsheetCellStore cells = JvmSpreadsheetCellStores.mapped(directory, marshallContext, unmarshallContext);
+        return new MappedSpreadsheetCellStoreSpreadsheetStoreRepository(directory,
+                cells,
+                DurableSpreadsheetStoreRepository.withDurableCells(directory,
+                        SpreadsheetStoreRepositories.basic(cells,
+                                repository.cellReferences(),
+                                repository.groups(),
+                                repository.labels(),
+                                repository.labelReferences(),
+                                repository.metadatas(),
+                                repository.rangeToCells(),
+                                repository.rangeToConditionalFormattingRules(),
+                                repository.users()),
+                        styles,
+                        marshallContext,
+                        unmarshallContext),
+                repository);
+    }
+
+    private MappedSpreadsheetCellStoreSpreadsheetStoreRepository(final Path directory,
+                                                                 final SpreadsheetCellStore cells,
+                                                                 final DurableSpreadsheetStoreRepository durable,
+                                                                 final SpreadsheetStoreRepository repository) {
+        super();
+        this.directory = directory;
+        this.cells = cells;
+        this.durable = durable;
+        this.repository = repository;
+    }
+
+    @Override
+    public SpreadsheetCellStore cells() {
+        return this.durable.cells();
+    }
+
+    @Override
+    public SpreadsheetExpressionReferenceStore<SpreadsheetCellReference> cellReferences() {
+        return this.durable.cellReferences();
+    }
+
+    @Override
+    public SpreadsheetGroupStore groups() {
+        return this.durable.groups();
+    }
+
+    @Override
+    public SpreadsheetLabelStore labels() {
+        return this.durable.labels();
+    }
+
+    @Override
+    public SpreadsheetExpressionReferenceStore<SpreadsheetLabelName> labelReferences() {
+        return this.durable.labelReferences();
+    }
+
+    @Override
+    public SpreadsheetMetadataStore metadatas() {
+        return this.durable.metadatas();
+    }
+
+    @Override
+    public SpreadsheetRangeStore<SpreadsheetCellReference> rangeToCells() {
+        return this.durable.rangeToCells();
+    }
+
+    @Override
+    public SpreadsheetRangeStore<SpreadsheetConditionalFormattingRule> rangeToConditionalFormattingRules() {
+        return this.durable.rangeToConditionalFormattingRules();
+    }
+
+    @Override
+    public SpreadsheetUserStore users() {
+        return this.durable.users();
+    }
+
+    /**
+     * Closes the log of the other stores and then the mapped cell store.
+     */
+    @Override
+    public void close() {
+        this.durable.close();
+        try {
+            ((AutoCloseable) this.cells).close();
+        } catch (final Exception cause) {
+            throw new SpreadsheetStoreRepositoryException("Unable to close cells in " + this.directory + ": " + cause.getMessage(), cause);
+        }
+    }
+
+    private final Path directory;
+
+    /**
+     * The {@link JvmSpreadsheetCellStores#mapped memory mapped store}.
+     */
+    private final SpreadsheetCellStore cells;
+
+    private final DurableSpreadsheetStoreRepository durable;
+
+    private final SpreadsheetStoreRepository repository;
+
+    @Override
+    public String toString() {
+        return this.directory + " " + this.repository;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.spreadsheet;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.tree.expression.ExpressionNumberContexts;
+import walkingkooka.tree.expression.ExpressionNumberKind;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContexts;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContexts;
+
+import java.math.MathContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetBinaryReaderTest implements ClassTesting2<SpreadsheetBinaryReader>,
+        ToStringTesting<SpreadsheetBinaryReader> {
+
+    @Test
+    public void testWithNullBytesFails() {
+        assertThrows(NullPointerException.class, () -> SpreadsheetBinaryReader.with(null, this.context()));
+    }
+
+    @Test
+    public void testWithNullContextFails() {
+        assertThrows(NullPointerException.class, () -> SpreadsheetBinaryReader.with(new byte[0], null));
+    }
+
+    @Test
+    public void testReadByteEmptyFails() {
+        assertThrows(IllegalArgumentException.class, () -> this.createReader().readByte());
+    }
+
+    @Test
+    public void testReadStringTruncatedFails() {
+        assertThrows(IllegalArgumentException.class, () -> this.createReader(3, 'a', 'b').readString());
+    }
+
+    @Test
+    public void testReadVarintTooLargeFails() {
+        assertThrows(IllegalArgumentException.class, () -> this.createReader(0xFF, 0xFF, 0xFF, 0xFF, 0x0F).readVarint());
+    }
+
+    @Test
+    public void testReadValueUnknownTagFails() {
+        assertThrows(IllegalArgumentException.class, () -> this.createReader(99).readValue());
+    }
+
+    @Test
+    public void testReadSharedStringInvalidIndexFails() {
+        assertThrows(IllegalArgumentException.class, () -> this.createReader(1, 1, 'a').readSharedString());
+    }
+
+    @Test
+    public void testReadSharedString() {
+        final SpreadsheetBinaryReader reader = this.createReader(0, 1, 'a', 0);
+        assertEquals("a", reader.readSharedString());
+        assertEquals("a", reader.readSharedString());
+        assertEquals(true, reader.isEmpty());
+    }
+
+    @Test
+    public void testReadDouble() {
+        final SpreadsheetBinaryWriter writer = SpreadsheetBinaryWriter.with(JsonNodeMarshallContexts.basic());
+        writer.writeDouble(1.25);
+
+        assertEquals(1.25, SpreadsheetBinaryReader.with(writer.toByteArray(), this.context()).readDouble());
+    }
+
+    @Test
+    public void testToString() {
+        final SpreadsheetBinaryReader reader = this.createReader(0, 1, 'a', 0);
+        reader.readSharedString();
+
+        this.toStringAndCheck(reader, "3/4 bytes 1 shared");
+    }
+
+    private SpreadsheetBinaryReader createReader(final int... values) {
+        final byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return SpreadsheetBinaryReader.with(bytes, this.context());
+    }
+
+    private JsonNodeUnmarshallContext context() {
+        return JsonNodeUnmarshallContexts.basic(ExpressionNumberContexts.basic(ExpressionNumberKind.DEFAULT, MathContext.DECIMAL32));
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<SpreadsheetBinaryReader> type() {
+        return SpreadsheetBinaryReader.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.spreadsheet;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContexts;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public final class SpreadsheetBinaryWriterSpreadsheetValueVisitorTest implements SpreadsheetValueVisitorTesting<SpreadsheetBinaryWriterSpreadsheetValueVisitor> {
+
+    @Test
+    public void testBoolean() {
+        this.acceptAndCheck(true, SpreadsheetBinaryWriter.BOOLEAN_TRUE);
+    }
+
+    @Test
+    public void testInteger() {
+        this.acceptAndCheck(-2, SpreadsheetBinaryWriter.INTEGER, 3);
+    }
+
+    @Test
+    public void testString() {
+        this.acceptAndCheck("a", SpreadsheetBinaryWriter.STRING, 1, 'a');
+    }
+
+    private void acceptAndCheck(final Object value,
+                                final int... expected) {
+        final SpreadsheetBinaryWriter writer = SpreadsheetBinaryWriter.with(JsonNodeMarshallContexts.basic());
+        new SpreadsheetBinaryWriterSpreadsheetValueVisitor(writer).accept(value);
+
+        final byte[] bytes = new byte[expected.length];
+        for (int i = 0; i < expected.length; i++) {
+            bytes[i] = (byte) expected[i];
+        }
+        assertArrayEquals(bytes, writer.toByteArray());
+    }
+
+    @Test
+    public void testToString() {
+        final SpreadsheetBinaryWriter writer = SpreadsheetBinaryWriter.with(JsonNodeMarshallContexts.basic());
+        this.toStringAndCheck(new SpreadsheetBinaryWriterSpreadsheetValueVisitor(writer), writer.toString());
+    }
+
+    @Override
+    public SpreadsheetBinaryWriterSpreadsheetValueVisitor createVisitor() {
+        return new SpreadsheetBinaryWriterSpreadsheetValueVisitor(SpreadsheetBinaryWriter.with(JsonNodeMarshallContexts.basic()));
+    }
+
+    @Override
+    public String typeNamePrefix() {
+        return SpreadsheetBinaryWriter.class.getSimpleName();
+    }
+
+    @Override
+    public Class<SpreadsheetBinaryWriterSpreadsheetValueVisitor> type() {
+        return SpreadsheetBinaryWriterSpreadsheetValueVisitor.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,461 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.spreadsheet;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetExpressionReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetSelection;
+import walkingkooka.tree.expression.ExpressionNumberContexts;
+import walkingkooka.tree.expression.ExpressionNumberKind;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContexts;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContexts;
+import walkingkooka.tree.text.Length;
+import walkingkooka.tree.text.TextNode;
+import walkingkooka.tree.text.TextStyle;
+import walkingkooka.tree.text.TextStylePropertyName;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SpreadsheetBinaryWriterTest implements ClassTesting2<SpreadsheetBinaryWriter>,
+        ToStringTesting<SpreadsheetBinaryWriter> {
+
+    @Test
+    public void testWithNullContextFails() {
+        assertThrows(NullPointerException.class, () -> SpreadsheetBinaryWriter.with(null));
+    }
+
+    @Test
+    public void testWriteCellNullFails() {
+        assertThrows(NullPointerException.class, () -> this.createWriter().writeCell(null));
+    }
+
+    @Test
+    public void testWriteValueNullFails() {
+        assertThrows(NullPointerException.class, () -> this.createWriter().writeValue(null));
+    }
+
+    // cell.............................................................................................................
+
+    @Test
+    public void testWriteCellFormulaText() {
+        this.writeCellAndCheck(this.cell("B3", "1+2"));
+    }
+
+    @Test
+    public void testWriteCellValue() {
+        final SpreadsheetCell cell = this.cell("C4", "=1+2");
+        this.writeCellAndCheck(cell.setFormula(cell.formula().setValue(Optional.of(3L))));
+    }
+
+    @Test
+    public void testWriteCellError() {
+        final SpreadsheetCell cell = this.cell("C4", "=1/0");
+        this.writeCellAndCheck(cell.setFormula(cell.formula().setError(Optional.of(SpreadsheetError.with("Division by zero")))));
+    }
+
+    @Test
+    public void testWriteCellStyleFormatFormatted() {
+        this.writeCellAndCheck(this.cell("Z99", "abc")
+                .setStyle(this.style())
+                .setFormat(Optional.of(SpreadsheetCellFormat.with("@")))
+                .setFormatted(Optional.of(TextNode.text("abc"))));
+    }
+
+    @Test
+    public void testWriteCellStyledFormatted() {
+        this.writeCellAndCheck(this.cell("Z99", "abc")
+                .setFormatted(Optional.of(this.style().replace(TextNode.text("abc")).root())));
+    }
+
+    @Test
+    public void testWriteCellAbsoluteReference() {
+        this.writeCellReferenceKindAndCheck("$A$1");
+    }
+
+    @Test
+    public void testWriteCellAbsoluteColumnReference() {
+        this.writeCellReferenceKindAndCheck("$B3");
+    }
+
+    @Test
+    public void testWriteCellAbsoluteRowReference() {
+        this.writeCellReferenceKindAndCheck("C$4");
+    }
+
+    private void writeCellReferenceKindAndCheck(final String reference) {
+        final SpreadsheetCell cell = this.cell(reference, "1");
+
+        final SpreadsheetBinaryWriter writer = this.createWriter();
+        writer.writeCell(cell);
+
+        final SpreadsheetBinaryReader reader = this.reader(writer);
+        final SpreadsheetCell read = reader.readCell();
+        assertEquals(cell, read);
+        assertEquals(reference, read.reference().toString(), "reference");
+        this.checkEmpty(reader);
+    }
+
+    @Test
+    public void testWriteCellStyleShared() {
+        final SpreadsheetCell a1 = this.cell("A1", "1").setStyle(this.style());
+        final SpreadsheetCell b2 = this.cell("B2", "1").setStyle(this.style());
+
+        final SpreadsheetBinaryWriter writer = this.createWriter();
+        writer.writeCell(a1);
+        final int first = writer.size();
+        writer.writeCell(b2);
+
+        assertTrue(writer.size() - first < first, () -> "second cell should reference the style written by the first " + writer);
+
+        final SpreadsheetBinaryReader reader = this.reader(writer);
+        assertEquals(a1, reader.readCell(), "a1");
+        assertEquals(b2, reader.readCell(), "b2");
+        this.checkEmpty(reader);
+    }
+
+    @Test
+    public void testWriteCellSmallerThanJson() {
+        final SpreadsheetCell cell = this.cell("B3", "=1+2")
+                .setStyle(this.style())
+                .setFormatted(Optional.of(TextNode.text("3")));
+
+        final SpreadsheetBinaryWriter writer = this.createWriter();
+        writer.writeCell(cell);
+
+        assertTrue(writer.size() < JsonNodeMarshallContexts.basic().marshall(cell).toString().length(),
+                () -> "binary " + writer.size() + " should be smaller than json");
+    }
+
+    private void writeCellAndCheck(final SpreadsheetCell cell) {
+        final SpreadsheetBinaryWriter writer = this.createWriter();
+        writer.writeCell(cell);
+
+        final SpreadsheetBinaryReader reader = this.reader(writer);
+        final SpreadsheetCell read = reader.readCell();
+        assertEquals(cell, read, "binary");
+        this.checkEmpty(reader);
+
+        assertEquals(JsonNodeUnmarshallContexts.basic(ExpressionNumberContexts.basic(ExpressionNumberKind.DEFAULT, MathContext.DECIMAL32))
+                        .unmarshall(JsonNodeMarshallContexts.basic().marshall(cell), SpreadsheetCell.class),
+                read,
+                "json");
+    }
+
+    // references.......................................................................................................
+
+    @Test
+    public void testWriteCellReferenceRelative() {
+        this.writeCellReferenceAndCheck("B3");
+    }
+
+    @Test
+    public void testWriteCellReferenceAbsolute() {
+        this.writeCellReferenceAndCheck("$B$3");
+    }
+
+    @Test
+    public void testWriteCellReferenceMixed() {
+        this.writeCellReferenceAndCheck("$B3");
+    }
+
+    private void writeCellReferenceAndCheck(final String reference) {
+        final SpreadsheetCellReference cell = SpreadsheetExpressionReference.parseCellReference(reference);
+
+        final SpreadsheetBinaryWriter writer = this.createWriter();
+        writer.writeCellReference(cell);
+
+        final SpreadsheetBinaryReader reader = this.reader(writer);
+        assertEquals(cell, reader.readCellReference());
+        this.checkEmpty(reader);
+    }
+
+    @Test
+    public void testWriteRange() {
+        final SpreadsheetBinaryWriter writer = this.createWriter();
+        writer.writeRange(SpreadsheetExpressionReference.parseRange("B3:$D$5"));
+
+        final SpreadsheetBinaryReader reader = this.reader(writer);
+        assertEquals(SpreadsheetExpressionReference.parseRange("B3:$D$5"), reader.readRange());
+        this.checkEmpty(reader);
+    }
+
+    @Test
+    public void testWriteLabelNameShared() {
+        final SpreadsheetBinaryWriter writer = this.createWriter();
+        writer.writeLabelName(SpreadsheetSelection.labelName("Label123"));
+        final int first = writer.size();
+        writer.writeLabelName(SpreadsheetSelection.labelName("Label123"));
+
+        assertEquals(first + 1, writer.size(), "second label should only write its index");
+
+        final SpreadsheetBinaryReader reader = this.reader(writer);
+        assertEquals(SpreadsheetSelection.labelName("Label123"), reader.readLabelName());
+        assertEquals(SpreadsheetSelection.labelName("Label123"), reader.readLabelName());
+        this.checkEmpty(reader);
+    }
+
+    // values...........................................................................................................
+
+    @Test
+    public void testWriteValueBigDecimal() {
+        this.writeValueAndCheck(new BigDecimal("-123.456"));
+    }
+
+    @Test
+    public void testWriteValueBigInteger() {
+        this.writeValueAndCheck(new BigInteger("123456789012345678901234567890"));
+    }
+
+    @Test
+    public void testWriteValueBooleanFalse() {
+        this.writeValueAndCheck(false);
+    }
+
+    @Test
+    public void testWriteValueBooleanTrue() {
+        this.writeValueAndCheck(true);
+    }
+
+    @Test
+    public void testWriteValueByte() {
+        this.writeValueAndCheck((byte) -12);
+    }
+
+    @Test
+    public void testWriteValueDouble() {
+        this.writeValueAndCheck(-1.25);
+    }
+
+    @Test
+    public void testWriteValueExpressionNumber() {
+        this.writeValueAndCheck(ExpressionNumberKind.DEFAULT.create(1.5));
+    }
+
+    @Test
+    public void testWriteValueExpressionNumberBigDecimal() {
+        this.writeValueAndCheck(ExpressionNumberKind.BIG_DECIMAL.create(new BigDecimal("12.345")));
+    }
+
+    @Test
+    public void testWriteValueExpressionNumberDouble() {
+        this.writeValueAndCheck(ExpressionNumberKind.DOUBLE.create(-2.5));
+    }
+
+    @Test
+    public void testWriteValueExpressionNumberSmallerThanJson() {
+        final SpreadsheetBinaryWriter json = this.createWriter();
+        json.writeJson(ExpressionNumberKind.DOUBLE.create(-2.5));
+
+        final SpreadsheetBinaryWriter writer = this.createWriter();
+        writer.writeValue(ExpressionNumberKind.DOUBLE.create(-2.5));
+
+        assertTrue(writer.size() < json.size(), () -> "binary " + writer.size() + " should be smaller than json " + json.size());
+    }
+
+    @Test
+    public void testWriteValueFloat() {
+        this.writeValueAndCheck(1.5f);
+    }
+
+    @Test
+    public void testWriteValueInteger() {
+        this.writeValueAndCheck(Integer.MIN_VALUE);
+    }
+
+    @Test
+    public void testWriteValueLocalDate() {
+        this.writeValueAndCheck(LocalDate.of(1899, 12, 31));
+    }
+
+    @Test
+    public void testWriteValueLocalDateTime() {
+        this.writeValueAndCheck(LocalDateTime.of(2000, 12, 31, 12, 58, 59, 123));
+    }
+
+    @Test
+    public void testWriteValueLocalTime() {
+        this.writeValueAndCheck(LocalTime.of(12, 58, 59));
+    }
+
+    @Test
+    public void testWriteValueLong() {
+        this.writeValueAndCheck(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testWriteValueShort() {
+        this.writeValueAndCheck((short) -1234);
+    }
+
+    @Test
+    public void testWriteValueString() {
+        this.writeValueAndCheck("abcé€");
+    }
+
+    @Test
+    public void testWriteValueJson() {
+        this.writeValueAndCheck(SpreadsheetError.with("message"));
+    }
+
+    private void writeValueAndCheck(final Object value) {
+        final SpreadsheetBinaryWriter writer = this.createWriter();
+        writer.writeValue(value);
+
+        final SpreadsheetBinaryReader reader = this.reader(writer);
+        assertEquals(value, reader.readValue());
+        this.checkEmpty(reader);
+    }
+
+    // text.............................................................................................................
+
+    @Test
+    public void testWriteTextNodeText() {
+        this.writeTextNodeAndCheck(TextNode.text("abc"));
+    }
+
+    @Test
+    public void testWriteTextNodeStyled() {
+        this.writeTextNodeAndCheck(this.style().replace(TextNode.text("abc")).root());
+    }
+
+    private void writeTextNodeAndCheck(final TextNode node) {
+        final SpreadsheetBinaryWriter writer = this.createWriter();
+        writer.writeTextNode(node);
+
+        final SpreadsheetBinaryReader reader = this.reader(writer);
+        assertEquals(node, reader.readTextNode());
+        this.checkEmpty(reader);
+    }
+
+    // varint...........................................................................................................
+
+    @Test
+    public void testWriteVarintSmall() {
+        final SpreadsheetBinaryWriter writer = this.createWriter();
+        writer.writeVarint(127);
+
+        assertArrayEquals(new byte[]{127}, writer.toByteArray());
+    }
+
+    @Test
+    public void testWriteVarintTwoBytes() {
+        final SpreadsheetBinaryWriter writer = this.createWriter();
+        writer.writeVarint(128);
+
+        assertArrayEquals(new byte[]{(byte) 0x80, 1}, writer.toByteArray());
+    }
+
+    @Test
+    public void testWriteSignedVarintSmallNegative() {
+        final SpreadsheetBinaryWriter writer = this.createWriter();
+        writer.writeSignedVarint(-1);
+
+        assertArrayEquals(new byte[]{1}, writer.toByteArray());
+    }
+
+    @Test
+    public void testWriteVarintRoundtrip() {
+        final SpreadsheetBinaryWriter writer = this.createWriter();
+        writer.writeVarint(0);
+        writer.writeVarint(Integer.MAX_VALUE);
+        writer.writeSignedVarint(Integer.MIN_VALUE);
+        writer.writeSignedVarlong(Long.MIN_VALUE);
+
+        final SpreadsheetBinaryReader reader = this.reader(writer);
+        assertEquals(0, reader.readVarint());
+        assertEquals(Integer.MAX_VALUE, reader.readVarint());
+        assertEquals(Integer.MIN_VALUE, reader.readSignedVarint());
+        assertEquals(Long.MIN_VALUE, reader.readSignedVarlong());
+        this.checkEmpty(reader);
+    }
+
+    @Test
+    public void testWriteGrows() {
+        final SpreadsheetBinaryWriter writer = this.createWriter();
+        final byte[] bytes = new byte[1000];
+        bytes[999] = 1;
+        writer.writeBytes(bytes);
+
+        assertArrayEquals(bytes, this.reader(writer).readBytes());
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final SpreadsheetBinaryWriter writer = this.createWriter();
+        writer.writeLabelName(SpreadsheetSelection.labelName("Label123"));
+
+        this.toStringAndCheck(writer, "10 bytes 1 shared");
+    }
+
+    // helpers..........................................................................................................
+
+    private SpreadsheetBinaryWriter createWriter() {
+        return SpreadsheetBinaryWriter.with(JsonNodeMarshallContexts.basic());
+    }
+
+    private SpreadsheetBinaryReader reader(final SpreadsheetBinaryWriter writer) {
+        return SpreadsheetBinaryReader.with(
+                writer.toByteArray(),
+                JsonNodeUnmarshallContexts.basic(ExpressionNumberContexts.basic(ExpressionNumberKind.DEFAULT, MathContext.DECIMAL32))
+        );
+    }
+
+    private void checkEmpty(final SpreadsheetBinaryReader reader) {
+        assertEquals(true, reader.isEmpty(), () -> "all bytes read " + reader);
+    }
+
+    private SpreadsheetCell cell(final String reference,
+                                 final String formula) {
+        return SpreadsheetCell.with(SpreadsheetExpressionReference.parseCellReference(reference), SpreadsheetFormula.with(formula));
+    }
+
+    private TextStyle style() {
+        return TextStyle.EMPTY
+                .set(TextStylePropertyName.WIDTH, Length.pixel(50.0));
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<SpreadsheetBinaryWriter> type() {
+        return SpreadsheetBinaryWriter.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
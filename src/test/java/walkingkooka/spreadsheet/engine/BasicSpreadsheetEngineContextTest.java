@@ -61,6 +61,8 @@ import java.util.Optional;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public final class BasicSpreadsheetEngineContextTest implements SpreadsheetEngineContextTesting<BasicSpreadsheetEngineContext> {
@@ -412,6 +414,26 @@ public final class BasicSpreadsheetEngineContextTest implements SpreadsheetEngin
         );
     }
 
+    // readOnlyCopy.....................................................................................................
+
+    @Test
+    public void testReadOnlyCopy() {
+        final BasicSpreadsheetEngineContext context = this.createContext();
+        final BasicSpreadsheetEngineContext copy = context.readOnlyCopy();
+
+        assertNotSame(context, copy);
+        assertSame(context.metadata(), copy.metadata(), "metadata");
+        assertSame(context.storeRepository(), copy.storeRepository(), "storeRepository");
+        this.formatAndCheck(
+                copy,
+                BigDecimal.valueOf(-123.45),
+                copy.parsePattern("#.#\"Abc123\""),
+                Optional.of(
+                        SpreadsheetText.with(SpreadsheetText.WITHOUT_COLOR, MINUS + "123" + DECIMAL + "5Abc123")
+                )
+        );
+    }
+
     // toString.........................................................................................................
 
     @Test
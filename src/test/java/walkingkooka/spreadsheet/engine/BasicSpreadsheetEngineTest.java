@@ -34,6 +34,7 @@ import walkingkooka.spreadsheet.SpreadsheetError;
 import walkingkooka.spreadsheet.SpreadsheetFormula;
 import walkingkooka.spreadsheet.SpreadsheetViewport;
 import walkingkooka.spreadsheet.conditionalformat.SpreadsheetConditionalFormattingRule;
+import walkingkooka.spreadsheet.engine.jvm.JvmSpreadsheetEngineExecutors;
 import walkingkooka.spreadsheet.format.FakeSpreadsheetFormatterContext;
 import walkingkooka.spreadsheet.format.SpreadsheetFormatException;
 import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
@@ -76,6 +77,7 @@ import walkingkooka.tree.expression.Expression;
 import walkingkooka.tree.expression.ExpressionEvaluationContexts;
 import walkingkooka.tree.expression.ExpressionEvaluationException;
 import walkingkooka.tree.expression.ExpressionNumber;
+import walkingkooka.tree.expression.ExpressionNumberContexts;
 import walkingkooka.tree.expression.ExpressionNumberKind;
 import walkingkooka.tree.expression.FakeExpressionEvaluationContext;
 import walkingkooka.tree.expression.FunctionExpressionName;
@@ -83,6 +85,8 @@ import walkingkooka.tree.expression.function.ExpressionFunction;
 import walkingkooka.tree.expression.function.ExpressionFunctionContext;
 import walkingkooka.tree.expression.function.FakeExpressionFunction;
 import walkingkooka.tree.expression.function.UnknownExpressionFunctionException;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContexts;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContexts;
 import walkingkooka.tree.text.FontStyle;
 import walkingkooka.tree.text.FontWeight;
 import walkingkooka.tree.text.Length;
@@ -98,12 +102,19 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -194,6 +205,11 @@ public final class BasicSpreadsheetEngineTest extends BasicSpreadsheetEngineTest
         assertThrows(NullPointerException.class, () -> BasicSpreadsheetEngine.with(null));
     }
 
+    @Test
+    public void testWithNullPoolFails() {
+        assertThrows(NullPointerException.class, () -> BasicSpreadsheetEngine.with(this.metadata(), null));
+    }
+
     // loadCell.........................................................................................................
 
     @Test 
@@ -513,13 +529,68 @@ public final class BasicSpreadsheetEngineTest extends BasicSpreadsheetEngineTest
 
         this.loadCellAndCheck(engine,
                 a,
-                SpreadsheetEngineEvaluation.COMPUTE_IF_NECESSARY,
+                SpreadsheetEngineEvaluation.FORCE_RECOMPUTE,
                 context,
                 formattedCellWithValue(a, "=1+2+BasicSpreadsheetEngineTestCounter()", number(100 + 3)),
                 formattedCellWithValue(b, "=3+4+" + a, number(3 + 4 + 103)),
                 formattedCellWithValue(c, "=5+6+" + a, number(5 + 6 + 103)));
     }
 
+    @Test
+    public void testLoadCellComputeIfNecessaryTrustsComputedCell() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        final SpreadsheetCellReference a = this.cellReference(1, 1);
+        final SpreadsheetCellReference b = this.cellReference(2, 1);
+
+        this.counter = BigDecimal.ZERO;
+
+        engine.saveCell(this.cell(a, "=1+2+BasicSpreadsheetEngineTestCounter()"), context);
+        engine.saveCell(this.cell(b, "=3+4+" + a), context);
+
+        // the counter is not an input known to the engine, the computed values of $A and $B are trusted and not refreshed
+        this.counter = number(100);
+
+        this.loadCellAndCheck(engine,
+                a,
+                SpreadsheetEngineEvaluation.COMPUTE_IF_NECESSARY,
+                context,
+                formattedCellWithValue(a, "=1+2+BasicSpreadsheetEngineTestCounter()", number(3)));
+    }
+
+    @Test
+    public void testLoadCellComputeIfNecessaryTrustsPersistedCell() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        final SpreadsheetCellReference a = this.cellReference(1, 1);
+        final String formula = "=1+2+BasicSpreadsheetEngineTestCounter()";
+
+        this.counter = BigDecimal.ZERO;
+        engine.saveCell(this.cell(a, formula), context);
+
+        final SpreadsheetCell computed = context.storeRepository()
+                .cells()
+                .loadOrFail(a);
+        final SpreadsheetCell persisted = JsonNodeUnmarshallContexts.basic(ExpressionNumberContexts.basic(this.expressionNumberKind(), MathContext.DECIMAL32))
+                .unmarshall(JsonNodeMarshallContexts.basic().marshall(computed), SpreadsheetCell.class);
+
+        final SpreadsheetEngineContext reloaded = this.createContext(engine);
+        reloaded.storeRepository()
+                .cells()
+                .save(persisted);
+
+        this.counter = number(100);
+
+        this.loadCellAndCheckFormulaAndValue(engine,
+                a,
+                SpreadsheetEngineEvaluation.COMPUTE_IF_NECESSARY,
+                reloaded,
+                formula,
+                number(3));
+    }
+
     @Test 
     public void testLoadCellValueCellReferenceInvalidFails() {
         final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
@@ -682,6 +753,113 @@ public final class BasicSpreadsheetEngineTest extends BasicSpreadsheetEngineTest
                 (c) -> style);
     }
 
+    // resolveCell......................................................................................................
+
+    @Test
+    public void testResolveCellUnknown() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        assertEquals(
+                Optional.empty(),
+                engine.resolveCell(
+                        this.cellReference("A1"),
+                        SpreadsheetEngineEvaluation.COMPUTE_IF_NECESSARY,
+                        context
+                )
+        );
+    }
+
+    @Test
+    public void testResolveCellWithCrossReferences() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        final SpreadsheetCellStore cellStore = context.storeRepository()
+                .cells();
+
+        final SpreadsheetCellReference a = this.cellReference("A1");
+        final SpreadsheetCellReference b = this.cellReference("B1");
+
+        cellStore.save(this.cell(a, "=1+2+B1"));
+        cellStore.save(this.cell(b, "=3+4"));
+
+        assertEquals(
+                Optional.of(
+                        this.formattedCellWithValue(a, "=1+2+B1", number(1 + 2 + 3 + 4))
+                ),
+                engine.resolveCell(
+                        a,
+                        SpreadsheetEngineEvaluation.COMPUTE_IF_NECESSARY,
+                        context
+                )
+        );
+
+        this.loadCellStoreAndCheck(
+                cellStore,
+                this.formattedCellWithValue(a, "=1+2+B1", number(1 + 2 + 3 + 4)),
+                this.formattedCellWithValue(b, "=3+4", number(3 + 4))
+        );
+    }
+
+    @Test
+    public void testResolveCellDeepReferenceChain() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        final SpreadsheetCellStore cellStore = context.storeRepository()
+                .cells();
+
+        final int count = 5000;
+        cellStore.save(this.cell(this.cellReference("A1"), "=1"));
+        for (int i = 2; i <= count; i++) {
+            cellStore.save(this.cell(this.cellReference("A" + i), "=A" + (i - 1) + "+1"));
+        }
+
+        assertEquals(
+                Optional.of(number(count)),
+                engine.resolveCell(
+                        this.cellReference("A" + count),
+                        SpreadsheetEngineEvaluation.COMPUTE_IF_NECESSARY,
+                        context
+                ).flatMap(c -> c.formula().value())
+        );
+    }
+
+    @Test
+    public void testResolveCellCircularReference() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        final SpreadsheetCellStore cellStore = context.storeRepository()
+                .cells();
+
+        final SpreadsheetCellReference a = this.cellReference("A1");
+        final SpreadsheetCellReference b = this.cellReference("B1");
+        final SpreadsheetCellReference c = this.cellReference("C1");
+
+        cellStore.save(this.cell(a, "=1+B1"));
+        cellStore.save(this.cell(b, "=2+C1"));
+        cellStore.save(this.cell(c, "=3+A1"));
+
+        assertEquals(
+                Optional.of(BasicSpreadsheetEngineEvaluatePrecedents.CIRCULAR_REFERENCE),
+                engine.resolveCell(
+                        a,
+                        SpreadsheetEngineEvaluation.COMPUTE_IF_NECESSARY,
+                        context
+                ).flatMap(cell -> cell.formula().error())
+        );
+
+        for (final SpreadsheetCellReference reference : Lists.of(b, c)) {
+            assertEquals(
+                    Optional.of(BasicSpreadsheetEngineEvaluatePrecedents.CIRCULAR_REFERENCE),
+                    cellStore.loadOrFail(reference).formula().error(),
+                    () -> "error " + reference
+            );
+        }
+    }
+
     // saveCell....................................................................................................
 
     @Test 
@@ -989,6 +1167,210 @@ public final class BasicSpreadsheetEngineTest extends BasicSpreadsheetEngineTest
         this.loadReferrersAndCheck(cellReferenceStore, b2.reference(), a1.reference());
     }
 
+    @Test
+    public void testSaveCellDeepReferenceChain() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        final int count = 5000;
+        engine.saveCell(this.cell("$A$1", "=1"), context);
+        for (int i = 2; i <= count; i++) {
+            engine.saveCell(this.cell("$A$" + i, "=A" + (i - 1) + "+1"), context);
+        }
+
+        engine.saveCell(this.cell("$A$1", "=2"), context);
+
+        assertEquals(
+                Optional.of(number(count + 1)),
+                context.storeRepository()
+                        .cells()
+                        .loadOrFail(this.cellReference("$A$" + count))
+                        .formula()
+                        .value()
+        );
+    }
+
+    @Test
+    public void testSaveCellCircularReference() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        engine.saveCell(this.cell("$B$1", "=1"), context);
+        engine.saveCell(this.cell("$A$1", "=B1+1"), context);
+
+        this.saveCellAndCheck(engine,
+                this.cell("$B$1", "=A1+1"),
+                context,
+                this.formattedCellWithError("$A$1", "=B1+1", "Circular reference"),
+                this.formattedCellWithError("$B$1", "=A1+1", "Circular reference"));
+    }
+
+    @Test
+    public void testSaveCellSelfReference() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        this.saveCellAndCheck(engine,
+                this.cell("$A$1", "=A1+1"),
+                context,
+                this.formattedCellWithError("$A$1", "=A1+1", "Circular reference"));
+    }
+
+    @Test
+    public void testSaveCellCircularReferenceBroken() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        engine.saveCell(this.cell("$B$1", "=1"), context);
+        engine.saveCell(this.cell("$A$1", "=B1+1"), context);
+        engine.saveCell(this.cell("$B$1", "=A1+1"), context);
+
+        final SpreadsheetCell b1 = this.cell("$B$1", "=10");
+        this.saveCellAndCheck(engine,
+                b1,
+                context,
+                this.formattedCellWithValue("$A$1", "=B1+1", number(10 + 1)),
+                this.formattedCellWithValue(b1, number(10)));
+    }
+
+    @Test
+    public void testSaveCellReferrersCycleCircularReference() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        engine.saveCell(this.cell("$A$1", "=1"), context);
+        engine.saveCell(this.cell("$B$1", "=A1+C1"), context);
+        engine.saveCell(this.cell("$C$1", "=B1+1"), context);
+        engine.saveCell(this.cell("$D$1", "=C1+1"), context);
+
+        final SpreadsheetCell a1 = this.cell("$A$1", "=2");
+        this.saveCellAndCheck(engine,
+                a1,
+                context,
+                this.formattedCellWithValue(a1, number(2)),
+                this.formattedCellWithError("$B$1", "=A1+C1", "Circular reference"),
+                this.formattedCellWithError("$C$1", "=B1+1", "Circular reference"),
+                this.formattedCellWithError("$D$1", "=C1+1", "Circular reference"));
+    }
+
+    @Test
+    public void testSaveCellReferencesUpdatedParallel() {
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            final List<Integer> executed = Lists.array();
+            final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine(pool, executed);
+            final SpreadsheetEngineContext context = this.createParallelContext(engine);
+
+            final SpreadsheetCellReference a1 = this.cellReference("$A$1");
+            engine.saveCell(this.cell(a1, "=B2+5"), context);
+
+            final SpreadsheetCellReference c1 = this.cellReference("$C$1");
+            engine.saveCell(this.cell(c1, "=B2+10"), context);
+
+            final SpreadsheetCellReference d1 = this.cellReference("$D$1");
+            engine.saveCell(this.cell(d1, "=A1+C1"), context);
+
+            final SpreadsheetCellReference b2 = this.cellReference("$B$2");
+            engine.saveCell(this.cell(b2, "=1+2"), context);
+
+            assertEquals(Lists.of(2), executed, "tasks executed, A1 and C1 in parallel");
+
+            final SpreadsheetCellStore cellStore = context.storeRepository()
+                    .cells();
+            this.valueAndCheck(cellStore, a1, number(1 + 2 + 5));
+            this.valueAndCheck(cellStore, b2, number(1 + 2));
+            this.valueAndCheck(cellStore, c1, number(1 + 2 + 10));
+            this.valueAndCheck(cellStore, d1, number(1 + 2 + 5 + 1 + 2 + 10));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSaveCellReferencesUpdatedParallelStoresOnlyWrittenByCallingThread() {
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            final List<Integer> executed = Lists.array();
+            final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine(pool, executed);
+            final SpreadsheetEngineContext context = this.createParallelContext(engine);
+
+            engine.saveCell(this.cell("$A$1", "=B2+5"), context);
+            engine.saveCell(this.cell("$C$1", "=B2+10"), context);
+            engine.saveCell(this.cell("$D$1", "=A1+C1"), context);
+            engine.saveCell(this.cell("$E$1", "=A1+1"), context);
+            engine.saveCell(this.cell("$F$1", "=D1+E1"), context);
+            engine.saveCell(this.cell("$G$1", "=D1+1"), context);
+            executed.clear();
+
+            final SpreadsheetStoreRepository repository = context.storeRepository();
+            final Queue<Thread> writers = new ConcurrentLinkedQueue<>();
+            repository.cells().addSaveWatcher(c -> writers.add(Thread.currentThread()));
+            repository.cells().addDeleteWatcher(r -> writers.add(Thread.currentThread()));
+            repository.cellReferences().addAddReferenceWatcher(r -> writers.add(Thread.currentThread()));
+            repository.cellReferences().addRemoveReferenceWatcher(r -> writers.add(Thread.currentThread()));
+
+            engine.saveCell(this.cell("$B$2", "=1+2"), context);
+
+            assertEquals(Lists.of(2, 2, 2), executed, "tasks executed, A1 and C1 then D1 and E1 then F1 and G1 in parallel");
+            assertNotEquals(0, writers.size(), "stores written");
+            assertEquals(
+                    Lists.of(Thread.currentThread()),
+                    writers.stream()
+                            .distinct()
+                            .collect(Collectors.toList()),
+                    "threads writing to stores"
+            );
+
+            final SpreadsheetCellStore cellStore = repository.cells();
+            this.valueAndCheck(cellStore, this.cellReference("$D$1"), number(1 + 2 + 5 + 1 + 2 + 10));
+            this.valueAndCheck(cellStore, this.cellReference("$E$1"), number(1 + 2 + 5 + 1));
+            this.valueAndCheck(cellStore, this.cellReference("$F$1"), number(1 + 2 + 5 + 1 + 2 + 10 + 1 + 2 + 5 + 1));
+            this.valueAndCheck(cellStore, this.cellReference("$G$1"), number(1 + 2 + 5 + 1 + 2 + 10 + 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private BasicSpreadsheetEngine createSpreadsheetEngine(final ForkJoinPool pool,
+                                                           final List<Integer> executed) {
+        final SpreadsheetEngineExecutor forkJoinPool = JvmSpreadsheetEngineExecutors.forkJoinPool(pool);
+        return BasicSpreadsheetEngine.with(
+                this.metadata(),
+                (tasks) -> {
+                    executed.add(tasks.size());
+                    forkJoinPool.execute(tasks);
+                }
+        );
+    }
+
+    private SpreadsheetEngineContext createParallelContext(final BasicSpreadsheetEngine engine) {
+        return SpreadsheetEngineContexts.basic(
+                this.metadata()
+                        .set(SpreadsheetMetadataPropertyName.CELL_CHARACTER_WIDTH, 1)
+                        .set(SpreadsheetMetadataPropertyName.VALUE_SEPARATOR, VALUE_SEPARATOR),
+                (n) -> {
+                    throw new UnknownExpressionFunctionException(n);
+                },
+                engine,
+                (n) -> {
+                    throw new UnsupportedOperationException();
+                },
+                this.createStoreRepository()
+        );
+    }
+
+    private void valueAndCheck(final SpreadsheetCellStore store,
+                               final SpreadsheetCellReference reference,
+                               final Object value) {
+        assertEquals(
+                Optional.of(value),
+                store.loadOrFail(reference)
+                        .formula()
+                        .value(),
+                () -> "value " + reference
+        );
+    }
+
     @Test 
     public void testSaveCellLabelReference() {
         final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
@@ -1271,6 +1653,189 @@ public final class BasicSpreadsheetEngineTest extends BasicSpreadsheetEngineTest
         this.loadReferrersAndCheck(cellReferenceStore, b2.reference(), a1.reference());
     }
 
+    // saveCells........................................................................................................
+
+    @Test
+    public void testSaveCellsEmpty() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        this.saveCellsAndCheck(engine,
+                Lists.empty(),
+                context);
+    }
+
+    @Test
+    public void testSaveCellsWithReferences() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        final SpreadsheetCell c1 = this.cell("$C$1", "=B1+10");
+        engine.saveCell(c1, context);
+
+        final SpreadsheetCell a1 = this.cell("$A$1", "=1+2");
+        final SpreadsheetCell b1 = this.cell("$B$1", "=A1+3");
+
+        this.saveCellsAndCheck(engine,
+                Lists.of(b1, a1),
+                context,
+                this.formattedCellWithValue(a1, number(1 + 2)),
+                this.formattedCellWithValue(b1, number(1 + 2 + 3)),
+                this.formattedCellWithValue(c1, number(1 + 2 + 3 + 10)));
+
+        final SpreadsheetExpressionReferenceStore<SpreadsheetCellReference> cellReferenceStore = context.storeRepository()
+                .cellReferences();
+
+        this.loadReferencesAndCheck(cellReferenceStore, b1.reference(), a1.reference().toRelative());
+        this.loadReferrersAndCheck(cellReferenceStore, b1.reference(), c1.reference().toRelative());
+    }
+
+    @Test
+    public void testSaveCellsFanInEvaluatesDependentsOnce() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        final int count = 50;
+        final List<SpreadsheetCell> inputs = Lists.array();
+        final StringBuilder total = new StringBuilder();
+        for (int i = 1; i <= count; i++) {
+            engine.saveCell(this.cell("$A$" + i, "=1"), context);
+            inputs.add(this.cell("$A$" + i, "=2"));
+
+            total.append(1 == i ? "=" : "+")
+                    .append("A")
+                    .append(i);
+        }
+
+        final SpreadsheetCell b1 = this.cell("$B$1", total.toString());
+        engine.saveCell(b1, context);
+
+        final SpreadsheetCell c1 = this.cell("$C$1", "=B1+1");
+        engine.saveCell(c1, context);
+
+        final Map<SpreadsheetCellReference, Integer> saves = Maps.sorted();
+        context.storeRepository()
+                .cells()
+                .addSaveWatcher(c -> saves.merge(c.reference().toRelative(), 1, Integer::sum));
+
+        engine.saveCells(inputs, context);
+
+        assertEquals(Integer.valueOf(1), saves.get(b1.reference().toRelative()), () -> "saves " + b1.reference());
+        assertEquals(Integer.valueOf(1), saves.get(c1.reference().toRelative()), () -> "saves " + c1.reference());
+
+        this.loadCellAndCheckValue(engine,
+                c1.reference(),
+                SpreadsheetEngineEvaluation.COMPUTE_IF_NECESSARY,
+                context,
+                number(2 * count + 1));
+    }
+
+    @Test
+    public void testSaveCellReferrersCycleNotIncludingSavedCell() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        final SpreadsheetCell a1 = this.cell("$A$1", "=1");
+        engine.saveCell(a1, context);
+
+        final SpreadsheetCell b1 = this.cell("$B$1", "=A1+C1");
+        engine.saveCell(b1, context);
+
+        final SpreadsheetCell c1 = this.cell("$C$1", "=B1+1");
+        engine.saveCell(c1, context);
+
+        final Set<SpreadsheetCellReference> updated = Sets.sorted();
+        engine.saveCell(this.cell("$A$1", "=2"), context)
+                .cells()
+                .forEach(c -> updated.add(c.reference().toRelative()));
+
+        assertEquals(
+                Sets.of(a1.reference().toRelative(), b1.reference().toRelative(), c1.reference().toRelative()),
+                updated,
+                "updated cells"
+        );
+    }
+
+    // deleteCells......................................................................................................
+
+    @Test
+    public void testDeleteCellsWithCellReferrers() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+        final SpreadsheetCellReference b2Reference = SpreadsheetCellReference.parseCellReference("$B$2");
+
+        final SpreadsheetCell a1 = this.cell("$A$1", "=1+" + b2Reference);
+        engine.saveCell(a1, context);
+
+        final SpreadsheetCell b2 = this.cell("$B$2", "=20");
+        engine.saveCell(b2, context);
+
+        final SpreadsheetCell c3 = this.cell("$C$3", "=30");
+        engine.saveCell(c3, context);
+
+        this.deleteCellsAndCheck(engine,
+                Lists.of(b2.reference(), c3.reference()),
+                context,
+                this.formattedCellWithError(a1, "Unknown cell reference " + b2Reference));
+
+        this.countAndCheck(context.storeRepository().cells(), 1);
+    }
+
+    @Test
+    public void testDeleteCellsRemovesReferencesAndRecalculatesReferrersOnce() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        final SpreadsheetStoreRepository repository = context.storeRepository();
+        final SpreadsheetExpressionReferenceStore<SpreadsheetCellReference> cellReferenceStore = repository.cellReferences();
+        final SpreadsheetExpressionReferenceStore<SpreadsheetLabelName> labelReferencesStore = repository.labelReferences();
+        final SpreadsheetRangeStore<SpreadsheetCellReference> rangeToCellStore = repository.rangeToCells();
+
+        final SpreadsheetLabelName labelC3 = SpreadsheetExpressionReference.labelName("LABELC3");
+        final SpreadsheetRange range = SpreadsheetExpressionReference.parseRange("D4:E5");
+
+        final SpreadsheetCell c3 = this.cell("$C$3", "=30");
+        engine.saveCell(c3, context);
+        repository.labels().save(SpreadsheetLabelMapping.with(labelC3, c3.reference()));
+
+        final SpreadsheetCell d4 = this.cell("$D$4", "=40");
+        engine.saveCell(d4, context);
+
+        final SpreadsheetCell b2 = this.cell("$B$2", "=20");
+        engine.saveCell(b2, context);
+
+        final SpreadsheetCell a1 = this.cell("$A$1", "=B2+" + labelC3 + "+" + range);
+        engine.saveCell(a1, context);
+
+        final SpreadsheetCell f6 = this.cell("$F$6", "=A1+B2");
+        engine.saveCell(f6, context);
+
+        final SpreadsheetCell g7 = this.cell("$G$7", "=F6+1");
+        engine.saveCell(g7, context);
+
+        this.loadReferencesAndCheck(labelReferencesStore, labelC3, a1.reference());
+        assertEquals(Optional.of(Lists.of(a1.reference())), rangeToCellStore.load(range), "rangeToCells " + range);
+
+        final Map<SpreadsheetCellReference, Integer> saves = Maps.sorted();
+        repository.cells()
+                .addSaveWatcher(c -> saves.merge(c.reference().toRelative(), 1, Integer::sum));
+
+        engine.deleteCells(Lists.of(a1.reference(), b2.reference()), context);
+
+        this.loadReferencesAndCheck(cellReferenceStore, a1.reference());
+        this.loadReferrersAndCheck(cellReferenceStore, c3.reference());
+        this.loadReferencesAndCheck(labelReferencesStore, labelC3);
+        assertEquals(Optional.empty(), rangeToCellStore.load(range), "rangeToCells " + range);
+
+        this.loadReferencesAndCheck(cellReferenceStore, f6.reference(), a1.reference().toRelative(), b2.reference().toRelative());
+
+        assertEquals(
+                Maps.of(f6.reference().toRelative(), 1, g7.reference().toRelative(), 1),
+                saves,
+                "saves"
+        );
+    }
+
     @Test 
     public void testDeleteCellWithLabelReferences() {
         final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
@@ -1745,6 +2310,85 @@ public final class BasicSpreadsheetEngineTest extends BasicSpreadsheetEngineTest
         this.countAndCheck(context.storeRepository().cells(), 1);
     }
 
+    @Test
+    public void testDeleteColumnsWithRangeReferencesFixed() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        engine.saveCell(this.cell("$A$1", "=BasicSpreadsheetEngineTestSum($C$1:$F$1)"), context);
+        engine.saveCell(this.cell("$A$2", "=BasicSpreadsheetEngineTestSum($A$3:$B$3)"), context); // unchanged
+        engine.saveCell(this.cell("$G$2", "=1+$B$1"), context); // moved but unchanged
+
+        engine.deleteColumns(this.cellReference("$D$1").column(), 1, context);
+
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$A$1"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=BasicSpreadsheetEngineTestSum($C$1:$E$1)");
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$A$2"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=BasicSpreadsheetEngineTestSum($A$3:$B$3)");
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$F$2"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=1+$B$1");
+    }
+
+    @Test
+    public void testDeleteRowsWithCellReferencesToDeletedEmptyCell() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        final SpreadsheetCellReference deleted = this.cellReference("$B$3"); // never saved
+        engine.saveCell(this.cell("$A$1", "=1+" + deleted), context);
+        engine.saveCell(this.cell("$A$2", "=2+$B$1"), context); // unchanged
+
+        engine.deleteRows(deleted.row(), 1, context);
+
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$A$1"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=1+InvalidCellReference(\"" + deleted + "\")");
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$A$2"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=2+$B$1");
+    }
+
+    @Test
+    public void testDeleteRowsWithRangeReferencesFixed() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        engine.saveCell(this.cell("$A$1", "=BasicSpreadsheetEngineTestSum($B$2:$B$9)"), context);
+        engine.saveCell(this.cell("$A$9", "=BasicSpreadsheetEngineTestSum($C$20:$C$29)"), context); // moved
+        engine.saveCell(this.cell("$B$1", "=BasicSpreadsheetEngineTestSum($C$1:$C$2)"), context); // unchanged
+
+        engine.deleteRows(this.cellReference("$A$5").row(), 2, context);
+
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$A$1"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=BasicSpreadsheetEngineTestSum($B$2:$B$7)");
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$A$7"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=BasicSpreadsheetEngineTestSum($C$18:$C$27)");
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$B$1"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=BasicSpreadsheetEngineTestSum($C$1:$C$2)");
+    }
+
     @Test 
     public void testDeleteColumnSeveral() {
         final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
@@ -3632,6 +4276,141 @@ public final class BasicSpreadsheetEngineTest extends BasicSpreadsheetEngineTest
 
     // insertRow....................................................................................................
 
+    @Test
+    public void testInsertColumnsWithCellReferencesToEmptyCellFixed() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        engine.saveCell(this.cell("$A$1", "=1+$C$1"), context); // C1 never saved
+        engine.saveCell(this.cell("$A$2", "=2+$A$3"), context); // unchanged
+        engine.saveCell(this.cell("$E$1", "=3+$A$1"), context); // moved but unchanged
+
+        engine.insertColumns(this.cellReference("$B$1").column(), 2, context);
+
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$A$1"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=1+$E$1");
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$A$2"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=2+$A$3");
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$G$1"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=3+$A$1");
+    }
+
+    @Test
+    public void testInsertColumnsWithRangeReferencesFixed() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        engine.saveCell(this.cell("$A$1", "=BasicSpreadsheetEngineTestSum($B$2:$D$2)"), context);
+        engine.saveCell(this.cell("$A$2", "=BasicSpreadsheetEngineTestSum($E$3:$F$4)"), context);
+        engine.saveCell(this.cell("$A$3", "=BasicSpreadsheetEngineTestSum($A$9:$B$9)"), context); // unchanged
+
+        engine.insertColumns(this.cellReference("$C$1").column(), 1, context);
+
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$A$1"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=BasicSpreadsheetEngineTestSum($B$2:$E$2)");
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$A$2"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=BasicSpreadsheetEngineTestSum($F$3:$G$4)");
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$A$3"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=BasicSpreadsheetEngineTestSum($A$9:$B$9)");
+    }
+
+    @Test
+    public void testInsertRowsWithRangeReferencesFixed() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        engine.saveCell(this.cell("$A$1", "=BasicSpreadsheetEngineTestSum($B$3:$B$5)"), context);
+        engine.saveCell(this.cell("$B$4", "=1"), context);
+        engine.saveCell(this.cell("$C$1", "=BasicSpreadsheetEngineTestSum($D$1:$D$2)"), context); // unchanged
+        engine.saveCell(this.cell("$C$6", "=2+$D$1"), context); // moved but unchanged
+
+        engine.insertRows(this.cellReference("$A$3").row(), 2, context);
+
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$A$1"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=BasicSpreadsheetEngineTestSum($B$5:$B$7)");
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$C$1"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=BasicSpreadsheetEngineTestSum($D$1:$D$2)");
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$C$8"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=2+$D$1");
+    }
+
+    @Test
+    public void testInsertRowsWithCellReferencesToEmptyCellFixed() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        engine.saveCell(this.cell("$A$1", "=1+$B$10"), context); // B10 never saved
+        engine.saveCell(this.cell("$A$2", "=2+$B$1"), context); // unchanged
+
+        engine.insertRows(this.cellReference("$A$5").row(), 1, context);
+
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$A$1"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=1+$B$11");
+        this.loadCellAndCheckFormula(engine,
+                this.cellReference("$A$2"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                "=2+$B$1");
+    }
+
+    @Test
+    public void testCellsShiftedImmediateRefreshesShiftedCellsAndReferrers() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+
+        engine.saveCell(this.cell("$A$1", "=1+$B$3"), context); // B3 empty until B2 is shifted
+        engine.saveCell(this.cell("$B$2", "=2"), context);
+        engine.saveCell(this.cell("$C$1", "=3"), context); // not shifted or refreshed
+
+        try (final BasicSpreadsheetEngineUpdatedCells updated = BasicSpreadsheetEngineUpdatedCellsMode.IMMEDIATE.createUpdatedCells(engine, context)) {
+            context.storeRepository()
+                    .cells()
+                    .shiftRows(this.cellReference("$B$2").row(), 1);
+            updated.refreshUpdated();
+
+            final Set<SpreadsheetCellReference> refreshed = Sets.sorted();
+            updated.cells(c -> refreshed.add(c.reference().toRelative()));
+
+            assertEquals(Sets.of(this.cellReference("A1"), this.cellReference("B3")), refreshed);
+        }
+
+        this.loadCellAndCheckValue(engine,
+                this.cellReference("$A$1"),
+                SpreadsheetEngineEvaluation.SKIP_EVALUATE,
+                context,
+                number(1 + 2));
+    }
+
     @Test 
     public void testInsertRowsZero() {
         final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
@@ -4280,6 +5059,132 @@ public final class BasicSpreadsheetEngineTest extends BasicSpreadsheetEngineTest
         );
     }
 
+    // cells consumer...................................................................................................
+
+    @Test
+    public void testLoadCellsConsumerNullFails() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        assertThrows(NullPointerException.class, () -> engine.loadCells(SpreadsheetRange.parseRange("A1:B2"),
+                SpreadsheetEngineEvaluation.COMPUTE_IF_NECESSARY,
+                null,
+                this.createContext(engine)));
+    }
+
+    @Test
+    public void testFillCellsConsumerNullFails() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetRange range = SpreadsheetRange.parseRange("A1:B2");
+        assertThrows(NullPointerException.class, () -> engine.fillCells(Lists.empty(),
+                range,
+                range,
+                null,
+                this.createContext(engine)));
+    }
+
+    @Test
+    public void testInsertColumnsConsumerNullFails() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        assertThrows(NullPointerException.class, () -> engine.insertColumns(SpreadsheetColumnReference.parseColumn("A"),
+                1,
+                null,
+                this.createContext(engine)));
+    }
+
+    @Test
+    public void testInsertRowsConsumerNullFails() {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        assertThrows(NullPointerException.class, () -> engine.insertRows(SpreadsheetRowReference.parseRow("1"),
+                1,
+                null,
+                this.createContext(engine)));
+    }
+
+    @Test
+    public void testLoadCellsConsumer() {
+        final SpreadsheetRange range = SpreadsheetRange.parseRange("B2:C3");
+
+        this.cellsConsumerAndCheck(
+                (e, c) -> e.loadCells(range, SpreadsheetEngineEvaluation.COMPUTE_IF_NECESSARY, c),
+                (e, u, c) -> e.loadCells(range, SpreadsheetEngineEvaluation.COMPUTE_IF_NECESSARY, u, c)
+        );
+    }
+
+    @Test
+    public void testFillCellsConsumer() {
+        final SpreadsheetRange from = SpreadsheetRange.parseRange("A1");
+        final SpreadsheetRange to = SpreadsheetRange.parseRange("E1:E2");
+        final List<SpreadsheetCell> cells = Lists.of(this.cell("A1", "=B3+1"));
+
+        this.cellsConsumerAndCheck(
+                (e, c) -> e.fillCells(cells, from, to, c),
+                (e, u, c) -> e.fillCells(cells, from, to, u, c)
+        );
+    }
+
+    @Test
+    public void testInsertColumnsConsumer() {
+        final SpreadsheetColumnReference column = SpreadsheetColumnReference.parseColumn("B");
+
+        this.cellsConsumerAndCheck(
+                (e, c) -> e.insertColumns(column, 2, c),
+                (e, u, c) -> e.insertColumns(column, 2, u, c)
+        );
+    }
+
+    @Test
+    public void testInsertRowsConsumer() {
+        final SpreadsheetRowReference row = SpreadsheetRowReference.parseRow("2");
+
+        this.cellsConsumerAndCheck(
+                (e, c) -> e.insertRows(row, 2, c),
+                (e, u, c) -> e.insertRows(row, 2, u, c)
+        );
+    }
+
+    /**
+     * Performs the same operation on two identical spreadsheets, checking the cells passed to the {@link Consumer} are
+     * those of the {@link SpreadsheetDelta}, each passed once.
+     */
+    private void cellsConsumerAndCheck(final BiFunction<BasicSpreadsheetEngine, SpreadsheetEngineContext, SpreadsheetDelta> delta,
+                                       final CellsConsumerOperation consumer) {
+        final BasicSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext(engine);
+        this.saveCellsConsumerCells(engine, context);
+
+        final Comparator<SpreadsheetCell> rowThenColumn = Comparator.<SpreadsheetCell>comparingInt(c -> c.reference().row().value())
+                .thenComparingInt(c -> c.reference().column().value());
+
+        final List<SpreadsheetCell> expected = Lists.array();
+        expected.addAll(delta.apply(engine, context).cells());
+        expected.sort(rowThenColumn);
+
+        final BasicSpreadsheetEngine engine2 = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context2 = this.createContext(engine2);
+        this.saveCellsConsumerCells(engine2, context2);
+
+        final List<SpreadsheetCell> consumed = Lists.array();
+        consumer.apply(engine2, consumed::add, context2);
+        consumed.sort(rowThenColumn);
+
+        assertNotEquals(Lists.empty(), expected, "expected some cells");
+        assertEquals(expected, consumed);
+    }
+
+    private void saveCellsConsumerCells(final BasicSpreadsheetEngine engine,
+                                        final SpreadsheetEngineContext context) {
+        engine.saveCell(this.cell("C2", "=10"), context);
+        engine.saveCell(this.cell("B3", "=C2+1"), context);
+        engine.saveCell(this.cell("D4", "=B3+1"), context);
+        engine.saveCell(this.cell("A5", "=C2+B3"), context);
+    }
+
+    @FunctionalInterface
+    private interface CellsConsumerOperation {
+        void apply(final BasicSpreadsheetEngine engine,
+                   final Consumer<SpreadsheetCell> updated,
+                   final SpreadsheetEngineContext context);
+    }
+
     // fillCells........................................................................................................
 
     // fill deletes.....................................................................................................
@@ -6569,17 +7474,21 @@ public final class BasicSpreadsheetEngineTest extends BasicSpreadsheetEngineTest
         return this.createContext(
                 defaultYear,
                 engine,
-                SpreadsheetStoreRepositories.basic(
-                        SpreadsheetCellStores.treeMap(),
-                        SpreadsheetExpressionReferenceStores.treeMap(),
-                        SpreadsheetGroupStores.fake(),
-                        SpreadsheetLabelStores.treeMap(),
-                        SpreadsheetExpressionReferenceStores.treeMap(),
-                        SpreadsheetMetadataStores.fake(),
-                        SpreadsheetRangeStores.treeMap(),
-                        SpreadsheetRangeStores.treeMap(),
-                        SpreadsheetUserStores.fake()
-                )
+                this.createStoreRepository()
+        );
+    }
+
+    private SpreadsheetStoreRepository createStoreRepository() {
+        return SpreadsheetStoreRepositories.basic(
+                SpreadsheetCellStores.treeMap(),
+                SpreadsheetExpressionReferenceStores.treeMap(),
+                SpreadsheetGroupStores.fake(),
+                SpreadsheetLabelStores.treeMap(),
+                SpreadsheetExpressionReferenceStores.treeMap(),
+                SpreadsheetMetadataStores.fake(),
+                SpreadsheetRangeStores.treeMap(),
+                SpreadsheetRangeStores.treeMap(),
+                SpreadsheetUserStores.fake()
         );
     }
 
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.engine;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.spreadsheet.meta.store.SpreadsheetMetadataStores;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelMapping;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetExpressionReferenceStores;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetLabelStores;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetRangeStores;
+import walkingkooka.spreadsheet.reference.store.TargetAndSpreadsheetCellReference;
+import walkingkooka.spreadsheet.security.store.SpreadsheetGroupStores;
+import walkingkooka.spreadsheet.security.store.SpreadsheetUserStores;
+import walkingkooka.spreadsheet.store.SpreadsheetCellStores;
+import walkingkooka.spreadsheet.store.repo.SpreadsheetStoreRepositories;
+import walkingkooka.spreadsheet.store.repo.SpreadsheetStoreRepository;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class BasicSpreadsheetEngineUpdatedCellsDependencyGraphTest extends BasicSpreadsheetEngineTestCase<BasicSpreadsheetEngineUpdatedCellsDependencyGraph>
+        implements ToStringTesting<BasicSpreadsheetEngineUpdatedCellsDependencyGraph> {
+
+    @Test
+    public void testTopologicalOrderWithoutReferences() {
+        this.topologicalOrderAndCheck(
+                this.repository(),
+                "A1", "B2", "C3"
+        );
+    }
+
+    @Test
+    public void testTopologicalOrderCellReferences() {
+        final SpreadsheetStoreRepository repository = this.repository();
+        this.addCellReference(repository, "A1", "B1"); // A1=B1
+        this.addCellReference(repository, "B1", "C1"); // B1=C1
+
+        this.topologicalOrderAndCheck(
+                repository,
+                "C1", "B1", "A1"
+        );
+    }
+
+    @Test
+    public void testTopologicalOrderFanIn() {
+        final SpreadsheetStoreRepository repository = this.repository();
+        this.addCellReference(repository, "A1", "B1"); // A1=B1+C1
+        this.addCellReference(repository, "A1", "C1");
+        this.addCellReference(repository, "B1", "C1"); // B1=C1
+
+        this.topologicalOrderAndCheck(
+                repository,
+                "C1", "B1", "A1"
+        );
+    }
+
+    @Test
+    public void testTopologicalOrderIgnoresCleanCells() {
+        final SpreadsheetStoreRepository repository = this.repository();
+        this.addCellReference(repository, "A1", "B1"); // A1=B1
+        this.addCellReference(repository, "B1", "C1"); // B1=C1
+
+        this.topologicalOrderAndCheck(
+                repository,
+                Lists.of("A1", "C1"),
+                "A1", "C1"
+        );
+    }
+
+    @Test
+    public void testTopologicalOrderLabelReference() {
+        final SpreadsheetStoreRepository repository = this.repository();
+
+        final SpreadsheetLabelName label = SpreadsheetLabelName.labelName("Label123");
+        repository.labels()
+                .save(SpreadsheetLabelMapping.with(label, this.cell("C1")));
+        repository.labelReferences()
+                .addReference(TargetAndSpreadsheetCellReference.with(label, this.cell("A1"))); // A1=Label123
+
+        this.topologicalOrderAndCheck(
+                repository,
+                "C1", "A1"
+        );
+    }
+
+    @Test
+    public void testTopologicalOrderRangeReference() {
+        final SpreadsheetStoreRepository repository = this.repository();
+        repository.rangeToCells()
+                .addValue(SpreadsheetRange.parseRange("B2:C3"), this.cell("A1")); // A1=sum(B2:C3)
+
+        this.topologicalOrderAndCheck(
+                repository,
+                "C3", "A1"
+        );
+    }
+
+    @Test
+    public void testTopologicalOrderCycle() {
+        final SpreadsheetStoreRepository repository = this.repository();
+        this.addCellReference(repository, "A1", "B1"); // A1=B1
+        this.addCellReference(repository, "B1", "A1"); // B1=A1
+        this.addCellReference(repository, "B1", "C1"); // B1=A1+C1
+
+        this.topologicalOrderAndCheck(
+                repository,
+                Lists.of("A1", "B1", "C1"),
+                "C1"
+        );
+    }
+
+    @Test
+    public void testLevels() {
+        final SpreadsheetStoreRepository repository = this.repository();
+        this.addCellReference(repository, "A1", "B1"); // A1=B1+C1
+        this.addCellReference(repository, "A1", "C1");
+        this.addCellReference(repository, "D1", "A1"); // D1=A1
+
+        assertEquals(
+                Lists.of(
+                        Lists.of(this.cell("B1"), this.cell("C1")),
+                        Lists.of(this.cell("A1")),
+                        Lists.of(this.cell("D1"))
+                ),
+                BasicSpreadsheetEngineUpdatedCellsDependencyGraph.with(
+                        Lists.of(this.cell("A1"), this.cell("B1"), this.cell("C1"), this.cell("D1")),
+                        repository
+                ).levels()
+        );
+    }
+
+    @Test
+    public void testLevelsCycle() {
+        final SpreadsheetStoreRepository repository = this.repository();
+        this.addCellReference(repository, "A1", "B1"); // A1=B1
+        this.addCellReference(repository, "B1", "A1"); // B1=A1
+
+        assertEquals(
+                Lists.of(
+                        Lists.of(this.cell("C1"))
+                ),
+                BasicSpreadsheetEngineUpdatedCellsDependencyGraph.with(
+                        Lists.of(this.cell("A1"), this.cell("B1"), this.cell("C1")),
+                        repository
+                ).levels()
+        );
+    }
+
+    @Test
+    public void testLevelsAfterCycle() {
+        final SpreadsheetStoreRepository repository = this.repository();
+        this.addCellReference(repository, "A1", "B1"); // A1=B1
+        this.addCellReference(repository, "B1", "A1"); // B1=A1
+        this.addCellReference(repository, "D1", "A1"); // D1=A1
+        this.addCellReference(repository, "E1", "D1"); // E1=D1
+
+        assertEquals(
+                Lists.of(
+                        Lists.of(this.cell("C1")),
+                        Lists.of(this.cell("D1")),
+                        Lists.of(this.cell("E1"))
+                ),
+                BasicSpreadsheetEngineUpdatedCellsDependencyGraph.with(
+                        Lists.of(this.cell("A1"), this.cell("B1"), this.cell("C1"), this.cell("D1"), this.cell("E1")),
+                        repository
+                ).levels()
+        );
+    }
+
+    @Test
+    public void testCircularWithoutCycle() {
+        final SpreadsheetStoreRepository repository = this.repository();
+        this.addCellReference(repository, "A1", "B1"); // A1=B1
+
+        this.circularAndCheck(
+                repository,
+                Lists.of("A1", "B1")
+        );
+    }
+
+    @Test
+    public void testCircular() {
+        final SpreadsheetStoreRepository repository = this.repository();
+        this.addCellReference(repository, "A1", "B1"); // A1=B1
+        this.addCellReference(repository, "B1", "C1"); // B1=C1
+        this.addCellReference(repository, "C1", "A1"); // C1=A1
+        this.addCellReference(repository, "D1", "A1"); // D1=A1
+
+        this.circularAndCheck(
+                repository,
+                Lists.of("A1", "B1", "C1", "D1"),
+                "A1", "B1", "C1"
+        );
+    }
+
+    @Test
+    public void testCircularSelfReference() {
+        final SpreadsheetStoreRepository repository = this.repository();
+        this.addCellReference(repository, "A1", "A1"); // A1=A1
+        this.addCellReference(repository, "B1", "A1"); // B1=A1
+
+        this.circularAndCheck(
+                repository,
+                Lists.of("A1", "B1"),
+                "A1"
+        );
+    }
+
+    @Test
+    public void testCircularTwoCycles() {
+        final SpreadsheetStoreRepository repository = this.repository();
+        this.addCellReference(repository, "A1", "B1"); // A1=B1
+        this.addCellReference(repository, "B1", "A1"); // B1=A1
+        this.addCellReference(repository, "C1", "B1"); // C1=B1+D1
+        this.addCellReference(repository, "C1", "D1");
+        this.addCellReference(repository, "D1", "C1"); // D1=C1
+
+        this.circularAndCheck(
+                repository,
+                Lists.of("A1", "B1", "C1", "D1"),
+                "A1", "B1", "C1", "D1"
+        );
+    }
+
+    private void circularAndCheck(final SpreadsheetStoreRepository repository,
+                                  final List<String> dirty,
+                                  final String... expected) {
+        final List<SpreadsheetCellReference> dirtyCells = Lists.array();
+        dirty.forEach(d -> dirtyCells.add(this.cell(d)));
+
+        final Set<SpreadsheetCellReference> expectedCells = Sets.sorted();
+        for (final String e : expected) {
+            expectedCells.add(this.cell(e));
+        }
+
+        assertEquals(
+                expectedCells,
+                BasicSpreadsheetEngineUpdatedCellsDependencyGraph.with(dirtyCells, repository)
+                        .circular(),
+                () -> "circular " + dirty
+        );
+    }
+
+    @Test
+    public void testToString() {
+        final SpreadsheetStoreRepository repository = this.repository();
+        this.addCellReference(repository, "A1", "B1");
+
+        this.toStringAndCheck(
+                BasicSpreadsheetEngineUpdatedCellsDependencyGraph.with(
+                        Sets.of(this.cell("A1"), this.cell("B1")),
+                        repository
+                ),
+                "{A1=[], B1=[A1]}"
+        );
+    }
+
+    private void topologicalOrderAndCheck(final SpreadsheetStoreRepository repository,
+                                          final String... expected) {
+        this.topologicalOrderAndCheck(
+                repository,
+                Lists.of(expected),
+                expected
+        );
+    }
+
+    private void topologicalOrderAndCheck(final SpreadsheetStoreRepository repository,
+                                          final List<String> dirty,
+                                          final String... expected) {
+        final List<SpreadsheetCellReference> dirtyCells = Lists.array();
+        dirty.forEach(d -> dirtyCells.add(this.cell(d)));
+
+        final List<SpreadsheetCellReference> expectedCells = Lists.array();
+        for (final String e : expected) {
+            expectedCells.add(this.cell(e));
+        }
+
+        assertEquals(
+                expectedCells,
+                BasicSpreadsheetEngineUpdatedCellsDependencyGraph.with(dirtyCells, repository)
+                        .topologicalOrder(),
+                () -> "topologicalOrder " + dirty
+        );
+    }
+
+    private void addCellReference(final SpreadsheetStoreRepository repository,
+                                  final String cell,
+                                  final String reference) {
+        repository.cellReferences()
+                .addReference(TargetAndSpreadsheetCellReference.with(this.cell(cell), this.cell(reference)));
+    }
+
+    private SpreadsheetCellReference cell(final String reference) {
+        return SpreadsheetCellReference.parseCellReference(reference);
+    }
+
+    private SpreadsheetStoreRepository repository() {
+        return SpreadsheetStoreRepositories.basic(
+                SpreadsheetCellStores.treeMap(),
+                SpreadsheetExpressionReferenceStores.treeMap(),
+                SpreadsheetGroupStores.fake(),
+                SpreadsheetLabelStores.treeMap(),
+                SpreadsheetExpressionReferenceStores.treeMap(),
+                SpreadsheetMetadataStores.fake(),
+                SpreadsheetRangeStores.treeMap(),
+                SpreadsheetRangeStores.treeMap(),
+                SpreadsheetUserStores.fake()
+        );
+    }
+
+    @Override
+    public Class<BasicSpreadsheetEngineUpdatedCellsDependencyGraph> type() {
+        return BasicSpreadsheetEngineUpdatedCellsDependencyGraph.class;
+    }
+
+    @Override
+    public String typeNameSuffix() {
+        return "UpdatedCellsDependencyGraph";
+    }
+}
@@ -19,6 +19,7 @@ package walkingkooka.spreadsheet.engine;
 
 import org.junit.jupiter.api.Test;
 import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
 import walkingkooka.spreadsheet.SpreadsheetCell;
 import walkingkooka.spreadsheet.SpreadsheetFormula;
 import walkingkooka.spreadsheet.meta.SpreadsheetMetadata;
@@ -36,14 +37,70 @@ import walkingkooka.spreadsheet.store.SpreadsheetCellStores;
 import walkingkooka.spreadsheet.store.repo.FakeSpreadsheetStoreRepository;
 import walkingkooka.spreadsheet.store.repo.SpreadsheetStoreRepository;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 public final class BasicSpreadsheetEngineUpdatedCellsTest extends BasicSpreadsheetEngineTestCase<BasicSpreadsheetEngineUpdatedCells>
         implements ToStringTesting<BasicSpreadsheetEngineUpdatedCells> {
 
+    @Test
+    public void testRefreshUpdatedConsumerRowMajor() {
+        final BasicSpreadsheetEngineUpdatedCells cells = this.createUpdatedCells();
+
+        final SpreadsheetCell b1 = this.cell("B1", "1+2");
+        final SpreadsheetCell a2 = this.cell("A2", "3+4");
+        final SpreadsheetCell c2 = this.cell("C2", "5+6");
+        cells.onLoad(c2);
+        cells.onLoad(a2);
+        cells.onLoad(b1);
+
+        final List<SpreadsheetCell> consumed = Lists.array();
+        cells.refreshUpdated(consumed::add);
+
+        assertEquals(Lists.of(b1, a2, c2), consumed);
+    }
+
+    @Test
+    public void testRefreshUpdatedConsumerDropsPassedCells() {
+        final BasicSpreadsheetEngineUpdatedCells cells = this.createUpdatedCells();
+
+        final SpreadsheetCell a1 = this.cell("A1", "1+2");
+        cells.onLoad(a1);
+
+        final List<SpreadsheetCell> consumed = Lists.array();
+        cells.refreshUpdated(consumed::add);
+
+        assertEquals(Lists.of(a1), consumed, "consumed");
+        assertEquals(true, cells.isLoaded(a1.reference()), "passed cell still loaded");
+        this.toStringAndCheck(cells, "{}");
+    }
+
+    @Test
+    public void testEmitWithoutConsumerKeepsCell() {
+        final BasicSpreadsheetEngineUpdatedCells cells = this.createUpdatedCells();
+
+        final SpreadsheetCell a1 = this.cell("A1", "1+2");
+        cells.onLoad(a1);
+        cells.emit(a1.reference());
+
+        this.toStringAndCheck(cells, "{A1=A1=1+2}");
+    }
+
     @Test
     public void testToString() {
+        final BasicSpreadsheetEngineUpdatedCells cells = this.createUpdatedCells();
+
+        cells.onCellSavedImmediate(this.cell("A1", "1+2"));
+        cells.onCellSavedImmediate(this.cell("B2", "3+4"));
+
+        this.toStringAndCheck(cells, "{A1=A1=1+2, B2=B2=3+4}");
+    }
+
+    private BasicSpreadsheetEngineUpdatedCells createUpdatedCells() {
         final BasicSpreadsheetEngine engine = BasicSpreadsheetEngine.with(SpreadsheetMetadata.EMPTY);
 
-        final BasicSpreadsheetEngineUpdatedCells cells = BasicSpreadsheetEngineUpdatedCells.with(
+        return BasicSpreadsheetEngineUpdatedCells.with(
                 engine,
                 new FakeSpreadsheetEngineContext() {
                     @Override
@@ -78,11 +135,11 @@ public final class BasicSpreadsheetEngineUpdatedCellsTest extends BasicSpreadshe
                 },
                 BasicSpreadsheetEngineUpdatedCellsMode.IMMEDIATE
         );
+    }
 
-        cells.onCellSavedImmediate(SpreadsheetCell.with(SpreadsheetExpressionReference.parseCellReference("A1"), SpreadsheetFormula.with("1+2")));
-        cells.onCellSavedImmediate(SpreadsheetCell.with(SpreadsheetExpressionReference.parseCellReference("B2"), SpreadsheetFormula.with("3+4")));
-
-        this.toStringAndCheck(cells, "{A1=A1=1+2, B2=B2=3+4}");
+    private SpreadsheetCell cell(final String reference,
+                                 final String formula) {
+        return SpreadsheetCell.with(SpreadsheetExpressionReference.parseCellReference(reference), SpreadsheetFormula.with(formula));
     }
 
     @Override
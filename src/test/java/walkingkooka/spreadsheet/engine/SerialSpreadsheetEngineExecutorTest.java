@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.engine;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class SerialSpreadsheetEngineExecutorTest implements ClassTesting2<SerialSpreadsheetEngineExecutor>,
+        ToStringTesting<SerialSpreadsheetEngineExecutor> {
+
+    @Test
+    public void testExecuteInOrder() {
+        final List<Integer> ran = Lists.array();
+
+        SerialSpreadsheetEngineExecutor.INSTANCE.execute(
+                Lists.of(
+                        () -> ran.add(1),
+                        () -> ran.add(2),
+                        () -> ran.add(3)
+                )
+        );
+
+        assertEquals(Lists.of(1, 2, 3), ran);
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(SerialSpreadsheetEngineExecutor.INSTANCE, "serial");
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<SerialSpreadsheetEngineExecutor> type() {
+        return SerialSpreadsheetEngineExecutor.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
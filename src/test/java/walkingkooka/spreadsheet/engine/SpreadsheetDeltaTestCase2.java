@@ -25,6 +25,8 @@ import walkingkooka.collect.list.Lists;
 import walkingkooka.collect.map.Maps;
 import walkingkooka.collect.set.Sets;
 import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.SpreadsheetBinaryReader;
+import walkingkooka.spreadsheet.SpreadsheetBinaryWriter;
 import walkingkooka.spreadsheet.SpreadsheetCell;
 import walkingkooka.spreadsheet.SpreadsheetFormula;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
@@ -40,10 +42,17 @@ import walkingkooka.tree.json.JsonPropertyName;
 import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
 import walkingkooka.tree.json.marshall.JsonNodeMarshallingTesting;
 import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
+import walkingkooka.tree.text.Length;
+import walkingkooka.tree.text.TextNode;
+import walkingkooka.tree.text.TextStyle;
+import walkingkooka.tree.text.TextStylePropertyName;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -52,6 +61,7 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public abstract class SpreadsheetDeltaTestCase2<D extends SpreadsheetDelta> extends SpreadsheetDeltaTestCase<D>
         implements HashCodeEqualsDefinedTesting2<D>,
@@ -285,6 +295,107 @@ public abstract class SpreadsheetDeltaTestCase2<D extends SpreadsheetDelta> exte
         this.checkWindow(delta);
     }
 
+    // binary...........................................................................................................
+
+    @Test
+    public final void testWriteBinaryNullWriterFails() {
+        assertThrows(NullPointerException.class, () -> this.createSpreadsheetDelta().writeBinary(null));
+    }
+
+    @Test
+    public final void testReadBinaryNullReaderFails() {
+        assertThrows(NullPointerException.class, () -> SpreadsheetDelta.readBinary(null));
+    }
+
+    @Test
+    public final void testBinaryRoundtrip() {
+        this.binaryRoundtripAndCheck(this.createSpreadsheetDelta());
+    }
+
+    @Test
+    public final void testBinaryRoundtripCellToLabelsMaxColumnWidthsMaxRowHeights() {
+        this.binaryRoundtripAndCheck(this.createSpreadsheetDelta()
+                .setCellToLabels(this.cellToLabels())
+                .setMaxColumnWidths(this.maxColumnWidths())
+                .setMaxRowHeights(this.maxRowHeights()));
+    }
+
+    @Test
+    public final void testBinaryRoundtripEvaluatedStyledCells() {
+        final TextStyle style = TextStyle.EMPTY
+                .set(TextStylePropertyName.WIDTH, Length.pixel(50.0));
+
+        this.binaryRoundtripAndCheck(this.createSpreadsheetDelta(Sets.of(
+                this.evaluated(this.a1(), "text", style),
+                this.evaluated(this.b2(), LocalDate.of(2000, 12, 31), style),
+                this.evaluated(this.c3(), 123L, TextStyle.EMPTY)
+        )));
+    }
+
+    private SpreadsheetCell evaluated(final SpreadsheetCell cell,
+                                      final Object value,
+                                      final TextStyle style) {
+        return cell.setFormula(cell.formula().setValue(Optional.of(value)))
+                .setStyle(style)
+                .setFormatted(Optional.of(TextNode.text(value.toString())));
+    }
+
+    private void binaryRoundtripAndCheck(final SpreadsheetDelta delta) {
+        final SpreadsheetBinaryWriter writer = SpreadsheetBinaryWriter.with(this.marshallContext());
+        delta.writeBinary(writer);
+
+        final SpreadsheetBinaryReader reader = SpreadsheetBinaryReader.with(writer.toByteArray(), this.unmarshallContext());
+        final SpreadsheetDelta read = SpreadsheetDelta.readBinary(reader);
+
+        assertEquals(delta, read, "binary");
+        assertEquals(delta.cellToLabels(), read.cellToLabels(), "cellToLabels");
+        assertEquals(true, reader.isEmpty(), () -> "all bytes read " + reader);
+
+        final JsonNodeMarshallContext context = this.marshallContext();
+        assertEquals(this.unmarshall(context.marshall(delta), this.unmarshallContext()), read, "json");
+        assertTrue(writer.size() < context.marshall(delta).toString().length(), () -> "binary " + writer.size() + " should be smaller than json");
+    }
+
+    // marshall streaming...............................................................................................
+
+    @Test
+    public final void testMarshallAppendableNullAppendableFails() {
+        assertThrows(NullPointerException.class, () -> this.createSpreadsheetDelta().marshall((Appendable) null, this.marshallContext()));
+    }
+
+    @Test
+    public final void testMarshallAppendableNullContextFails() {
+        assertThrows(NullPointerException.class, () -> this.createSpreadsheetDelta().marshall(new StringBuilder(), null));
+    }
+
+    @Test
+    public final void testMarshallAppendableEmpty() throws IOException {
+        this.marshallAppendableAndCheck(this.createSpreadsheetDelta(Sets.empty())
+                .setCellToLabels(SpreadsheetDelta.NO_CELL_TO_LABELS));
+    }
+
+    @Test
+    public final void testMarshallAppendable() throws IOException {
+        this.marshallAppendableAndCheck(this.createSpreadsheetDelta());
+    }
+
+    @Test
+    public final void testMarshallAppendableCellToLabelsMaxColumnWidthsMaxRowHeights() throws IOException {
+        this.marshallAppendableAndCheck(this.createSpreadsheetDelta()
+                .setCellToLabels(this.cellToLabels())
+                .setMaxColumnWidths(this.maxColumnWidths())
+                .setMaxRowHeights(this.maxRowHeights()));
+    }
+
+    private void marshallAppendableAndCheck(final SpreadsheetDelta delta) throws IOException {
+        final StringBuilder output = new StringBuilder();
+        delta.marshall(output, this.marshallContext());
+
+        final JsonNode json = this.marshallContext().marshall(delta);
+        assertEquals(json, JsonNode.parse(output.toString()), () -> output.toString());
+        assertEquals(delta, this.unmarshall(JsonNode.parse(output.toString()), this.unmarshallContext()), "unmarshall");
+    }
+
     // equals...........................................................................................................
 
     @Test
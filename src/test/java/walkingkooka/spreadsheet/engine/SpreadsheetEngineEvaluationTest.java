@@ -21,9 +21,16 @@ import org.junit.jupiter.api.Test;
 import walkingkooka.net.header.LinkRelation;
 import walkingkooka.reflect.ClassTesting2;
 import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.SpreadsheetError;
+import walkingkooka.spreadsheet.SpreadsheetFormula;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
 import walkingkooka.tree.json.JsonNode;
 import walkingkooka.tree.json.marshall.JsonNodeMarshallingTesting;
 import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
+import walkingkooka.tree.text.TextNode;
+
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -71,6 +78,49 @@ public final class SpreadsheetEngineEvaluationTest implements ClassTesting2<Spre
                 () -> evaluation + ".toLinkRelation");
     }
 
+    // isComputed.......................................................................................................
+
+    @Test
+    public void testIsComputedWithoutValue() {
+        this.isComputedAndCheck(this.cell(), false);
+    }
+
+    @Test
+    public void testIsComputedValueWithoutFormatted() {
+        this.isComputedAndCheck(this.cell().setFormula(SpreadsheetFormula.with("1").setValue(Optional.of(1))), false);
+    }
+
+    @Test
+    public void testIsComputedValueAndFormatted() {
+        this.isComputedAndCheck(
+                this.cell()
+                        .setFormula(SpreadsheetFormula.with("1").setValue(Optional.of(1)))
+                        .setFormatted(Optional.of(TextNode.text("1"))),
+                true
+        );
+    }
+
+    @Test
+    public void testIsComputedErrorAndFormatted() {
+        this.isComputedAndCheck(
+                this.cell()
+                        .setFormula(SpreadsheetFormula.with("1+").setError(Optional.of(SpreadsheetError.with("Invalid"))))
+                        .setFormatted(Optional.of(TextNode.text("Invalid"))),
+                true
+        );
+    }
+
+    private SpreadsheetCell cell() {
+        return SpreadsheetCell.with(SpreadsheetCellReference.parseCellReference("A1"), SpreadsheetFormula.with("1"));
+    }
+
+    private void isComputedAndCheck(final SpreadsheetCell cell,
+                                    final boolean expected) {
+        assertEquals(expected,
+                SpreadsheetEngineEvaluation.isComputed(cell),
+                () -> "isComputed " + cell);
+    }
+
     // ClassTesting.....................................................................................................
 
     @Override
@@ -18,14 +18,23 @@
 package walkingkooka.spreadsheet.engine;
 
 import org.junit.jupiter.api.Test;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.SpreadsheetFormula;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
 import walkingkooka.spreadsheet.reference.store.SpreadsheetLabelStore;
 import walkingkooka.spreadsheet.reference.store.SpreadsheetLabelStores;
+import walkingkooka.spreadsheet.store.SpreadsheetCellStore;
+import walkingkooka.spreadsheet.store.SpreadsheetCellStores;
+import walkingkooka.spreadsheet.store.repo.FakeSpreadsheetStoreRepository;
+import walkingkooka.spreadsheet.store.repo.SpreadsheetStoreRepository;
 import walkingkooka.tree.expression.Expression;
+import walkingkooka.tree.expression.ExpressionEvaluationException;
 import walkingkooka.tree.expression.ExpressionReference;
 import walkingkooka.util.FunctionTesting;
 
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public final class SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunctionTest
@@ -52,6 +61,105 @@ public final class SpreadsheetEngineExpressionEvaluationContextExpressionReferen
                 null));
     }
 
+    @Test
+    public void testApplyCellWithValue() {
+        final SpreadsheetCellReference reference = SpreadsheetCellReference.parseCellReference("A1");
+        final Object value = "cached value";
+
+        final SpreadsheetCellStore store = SpreadsheetCellStores.treeMap();
+        store.save(
+                SpreadsheetCell.with(
+                        reference,
+                        SpreadsheetFormula.with("=1+2")
+                                .setValue(Optional.of(value))
+                )
+        );
+
+        assertEquals(
+                Optional.of(Expression.valueOrFail(value)),
+                SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction.with(
+                        this.engine(),
+                        this.labelStore(),
+                        new FakeSpreadsheetEngineContext() {
+                            @Override
+                            public SpreadsheetStoreRepository storeRepository() {
+                                return new FakeSpreadsheetStoreRepository() {
+                                    @Override
+                                    public SpreadsheetCellStore cells() {
+                                        return store;
+                                    }
+                                };
+                            }
+                        }
+                ).apply(reference)
+        );
+    }
+
+    @Test
+    public void testReadOnlyApplyCellWithValue() {
+        final SpreadsheetCellReference reference = SpreadsheetCellReference.parseCellReference("A1");
+        final Object value = "cached value";
+
+        final SpreadsheetCellStore store = SpreadsheetCellStores.treeMap();
+        store.save(
+                SpreadsheetCell.with(
+                        reference,
+                        SpreadsheetFormula.with("=1+2")
+                                .setValue(Optional.of(value))
+                )
+        );
+
+        assertEquals(
+                Optional.of(Expression.valueOrFail(value)),
+                this.readOnly(store).apply(reference)
+        );
+    }
+
+    @Test
+    public void testReadOnlyApplyCellWithoutValueFails() {
+        final SpreadsheetCellReference reference = SpreadsheetCellReference.parseCellReference("A1");
+
+        final SpreadsheetCellStore store = SpreadsheetCellStores.treeMap();
+        store.save(
+                SpreadsheetCell.with(
+                        reference,
+                        SpreadsheetFormula.with("=1+2")
+                )
+        );
+
+        final BasicSpreadsheetEngineException thrown = assertThrows(
+                BasicSpreadsheetEngineException.class,
+                () -> this.readOnly(store).apply(reference)
+        );
+        assertEquals("Unresolved precedent A1 must be evaluated before it is read", thrown.getMessage(), "message");
+    }
+
+    @Test
+    public void testReadOnlyApplyUnknownCellFails() {
+        assertThrows(
+                ExpressionEvaluationException.class,
+                () -> this.readOnly(SpreadsheetCellStores.treeMap()).apply(SpreadsheetCellReference.parseCellReference("A1"))
+        );
+    }
+
+    private SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction readOnly(final SpreadsheetCellStore store) {
+        return SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction.readOnly(
+                this.engine(),
+                this.labelStore(),
+                new FakeSpreadsheetEngineContext() {
+                    @Override
+                    public SpreadsheetStoreRepository storeRepository() {
+                        return new FakeSpreadsheetStoreRepository() {
+                            @Override
+                            public SpreadsheetCellStore cells() {
+                                return store;
+                            }
+                        };
+                    }
+                }
+        );
+    }
+
     @Override
     public SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction createFunction() {
         return SpreadsheetEngineExpressionEvaluationContextExpressionReferenceExpressionFunction.with(this.engine(),
@@ -38,6 +38,7 @@ import walkingkooka.spreadsheet.parser.SpreadsheetParserToken;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetColumnOrRowReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
 import walkingkooka.spreadsheet.reference.SpreadsheetSelection;
 import walkingkooka.spreadsheet.reference.store.SpreadsheetExpressionReferenceStore;
 import walkingkooka.spreadsheet.reference.store.SpreadsheetExpressionReferenceStores;
@@ -53,6 +54,7 @@ import walkingkooka.tree.expression.Expression;
 import walkingkooka.tree.text.TextNode;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
@@ -141,6 +143,44 @@ public final class SpreadsheetMetadataStampingSpreadsheetEngineTest implements S
         this.checkMetadataUpdated(context);
     }
 
+    @Test
+    public void testSaveCellsStamped() {
+        final SpreadsheetMetadataStampingSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext();
+
+        final SpreadsheetDelta saved = engine.saveCells(Lists.of(this.cell()), context);
+        assertNotNull(saved);
+
+        this.checkMetadataUpdated(context);
+    }
+
+    @Test
+    public void testFillCellsConsumerStamped() {
+        final SpreadsheetMetadataStampingSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext();
+
+        final SpreadsheetCell cell = this.cell();
+        final SpreadsheetRange range = cell.reference().spreadsheetRange(cell.reference());
+
+        final List<SpreadsheetCell> updated = Lists.array();
+        engine.fillCells(Lists.of(cell), range, range, updated::add, context);
+
+        assertEquals(1, updated.size(), () -> "updated " + updated);
+        this.checkMetadataUpdated(context);
+    }
+
+    @Test
+    public void testInsertRowConsumerNoop() {
+        final SpreadsheetMetadataStampingSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext();
+
+        final List<SpreadsheetCell> updated = Lists.array();
+        engine.insertRows(SpreadsheetColumnOrRowReference.parseRow("99"), 1, updated::add, context);
+
+        assertEquals(Lists.empty(), updated);
+        this.checkMetadataNotUpdated(context);
+    }
+
     @Test
     public void testDeleteCellNoop() {
         final SpreadsheetMetadataStampingSpreadsheetEngine engine = this.createSpreadsheetEngine();
@@ -167,6 +207,22 @@ public final class SpreadsheetMetadataStampingSpreadsheetEngineTest implements S
         this.checkMetadataUpdated(context);
     }
 
+    @Test
+    public void testDeleteCellsStamped() {
+        final SpreadsheetMetadataStampingSpreadsheetEngine engine = this.createSpreadsheetEngine();
+        final SpreadsheetEngineContext context = this.createContext();
+
+        final SpreadsheetCell cell = this.cell();
+        final SpreadsheetDelta saved = engine.saveCell(cell, context);
+        assertNotNull(saved);
+
+        context.storeRepository().metadatas().save(BEFORE);
+
+        engine.deleteCells(Lists.of(cell.reference()), context);
+
+        this.checkMetadataUpdated(context);
+    }
+
     @Test
     public void testDeleteColumnNoop() {
         final SpreadsheetMetadataStampingSpreadsheetEngine engine = this.createSpreadsheetEngine();
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.engine.jvm;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ForkJoinPoolSpreadsheetEngineExecutorTest implements ClassTesting2<ForkJoinPoolSpreadsheetEngineExecutor> {
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    public void shutdownPool() {
+        this.pool.shutdown();
+    }
+
+    @Test
+    public void testWithNullPoolFails() {
+        assertThrows(NullPointerException.class, () -> ForkJoinPoolSpreadsheetEngineExecutor.with(null));
+    }
+
+    @Test
+    public void testExecuteWaitsForAllTasks() {
+        final AtomicInteger counter = new AtomicInteger();
+        final List<Runnable> tasks = Lists.array();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(counter::incrementAndGet);
+        }
+
+        ForkJoinPoolSpreadsheetEngineExecutor.with(this.pool)
+                .execute(tasks);
+
+        assertEquals(100, counter.get());
+    }
+
+    @Test
+    public void testExecuteTaskFails() {
+        assertThrows(
+                IllegalStateException.class,
+                () -> ForkJoinPoolSpreadsheetEngineExecutor.with(this.pool)
+                        .execute(
+                                Lists.of(
+                                        () -> {
+                                            throw new IllegalStateException();
+                                        }
+                                )
+                        )
+        );
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<ForkJoinPoolSpreadsheetEngineExecutor> type() {
+        return ForkJoinPoolSpreadsheetEngineExecutor.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.engine.jvm;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.reflect.PublicStaticHelperTesting;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.SpreadsheetFormula;
+import walkingkooka.spreadsheet.engine.SpreadsheetDelta;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetColumnReference;
+import walkingkooka.tree.json.JsonNode;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContexts;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class JvmSpreadsheetDeltasTest implements ClassTesting2<JvmSpreadsheetDeltas>,
+        PublicStaticHelperTesting<JvmSpreadsheetDeltas> {
+
+    @Test
+    public void testMarshallNullDeltaFails() {
+        assertThrows(NullPointerException.class, () -> JvmSpreadsheetDeltas.marshall(null, new ByteArrayOutputStream(), this.marshallContext()));
+    }
+
+    @Test
+    public void testMarshallNullOutputStreamFails() {
+        assertThrows(NullPointerException.class, () -> JvmSpreadsheetDeltas.marshall(this.delta(), null, this.marshallContext()));
+    }
+
+    @Test
+    public void testMarshallNullContextFails() {
+        assertThrows(NullPointerException.class, () -> JvmSpreadsheetDeltas.marshall(this.delta(), new ByteArrayOutputStream(), null));
+    }
+
+    @Test
+    public void testMarshall() throws IOException {
+        final SpreadsheetDelta delta = this.delta();
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JvmSpreadsheetDeltas.marshall(delta, output, this.marshallContext());
+
+        assertEquals(this.marshallContext().marshall(delta),
+                JsonNode.parse(new String(output.toByteArray(), StandardCharsets.UTF_8)));
+    }
+
+    private SpreadsheetDelta delta() {
+        return SpreadsheetDelta.with(
+                Sets.of(
+                        SpreadsheetCell.with(SpreadsheetCellReference.parseCellReference("A1"), SpreadsheetFormula.with("1+2")),
+                        SpreadsheetCell.with(SpreadsheetCellReference.parseCellReference("B2"), SpreadsheetFormula.with("é"))
+                )
+        ).setMaxColumnWidths(Maps.of(SpreadsheetColumnReference.parseColumn("A"), 50.0));
+    }
+
+    private JsonNodeMarshallContext marshallContext() {
+        return JsonNodeMarshallContexts.basic();
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<JvmSpreadsheetDeltas> type() {
+        return JvmSpreadsheetDeltas.class;
+    }
+
+    @Override
+    public boolean canHavePublicTypes(final Method method) {
+        return false;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
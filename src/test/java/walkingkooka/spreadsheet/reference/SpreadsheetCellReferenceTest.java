@@ -58,6 +58,19 @@ public final class SpreadsheetCellReferenceTest extends SpreadsheetCellReference
 
     // setColumn..................................................................................................
 
+    @Test
+    public void testWithCached() {
+        final SpreadsheetColumnReference column = this.column();
+        final SpreadsheetRowReference row = this.row();
+
+        assertSame(SpreadsheetCellReference.with(column, row), SpreadsheetCellReference.with(column, row));
+    }
+
+    @Test
+    public void testParseCellReferenceCached() {
+        assertSame(SpreadsheetCellReference.parseCellReference("$B$99"), SpreadsheetCellReference.parseCellReference("$B$99"));
+    }
+
     @Test
     public void testSetColumnNullFails() {
         assertThrows(NullPointerException.class, () -> this.createSelection().setColumn(null));
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.reference;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public final class SpreadsheetColumnOrRowReferenceCacheTest implements ClassTesting2<SpreadsheetColumnOrRowReferenceCache<?>>,
+        ToStringTesting<SpreadsheetColumnOrRowReferenceCache<?>> {
+
+    @Test
+    public void testGet() {
+        final SpreadsheetColumnOrRowReferenceCache<SpreadsheetRowReference> cache = this.createCache();
+        final SpreadsheetRowReference row = cache.get(5000);
+
+        assertEquals(SpreadsheetReferenceKind.RELATIVE.row(5000), row);
+        assertSame(row, cache.get(5000));
+    }
+
+    @Test
+    public void testGetLast() {
+        final SpreadsheetColumnOrRowReferenceCache<SpreadsheetRowReference> cache = this.createCache();
+
+        assertEquals(SpreadsheetReferenceKind.RELATIVE.lastRow(), cache.get(SpreadsheetRowReference.MAX_VALUE));
+    }
+
+    @Test
+    public void testToString() {
+        final SpreadsheetColumnOrRowReferenceCache<SpreadsheetRowReference> cache = this.createCache();
+        cache.get(1);
+        cache.get(2);
+        cache.get(5000);
+
+        this.toStringAndCheck(cache, "3 cached");
+    }
+
+    private SpreadsheetColumnOrRowReferenceCache<SpreadsheetRowReference> createCache() {
+        return SpreadsheetColumnOrRowReferenceCache.with(SpreadsheetRowReference.MAX_VALUE, SpreadsheetReferenceKind.RELATIVE::row);
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<SpreadsheetColumnOrRowReferenceCache<?>> type() {
+        return Cast.to(SpreadsheetColumnOrRowReferenceCache.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -61,7 +61,7 @@ public abstract class SpreadsheetColumnOrRowReferenceTestCase<R extends Spreadsh
 
     @Test
     public final void testWithAbsolute2() {
-        this.withAndCacheCheck(SpreadsheetColumnOrRowReference.CACHE_SIZE - 1, SpreadsheetReferenceKind.RELATIVE);
+        this.withAndCacheCheck(1000, SpreadsheetReferenceKind.RELATIVE);
     }
 
     @Test
@@ -71,7 +71,7 @@ public abstract class SpreadsheetColumnOrRowReferenceTestCase<R extends Spreadsh
 
     @Test
     public final void testWithRelative2() {
-        this.withAndCacheCheck(SpreadsheetColumnOrRowReference.CACHE_SIZE - 1, SpreadsheetReferenceKind.RELATIVE);
+        this.withAndCacheCheck(1000, SpreadsheetReferenceKind.RELATIVE);
     }
 
     private void withAndCacheCheck(final int value, final SpreadsheetReferenceKind kind) {
@@ -83,13 +83,10 @@ public abstract class SpreadsheetColumnOrRowReferenceTestCase<R extends Spreadsh
     }
 
     @Test
-    public final void testWithNotCached() {
-        final int value = SpreadsheetColumnOrRowReference.CACHE_SIZE;
-        final R reference = this.createReference(value);
-        this.checkValue(reference, value);
-        this.checkKind(reference, REFERENCE_KIND);
+    public final void testSetReferenceKindCached() {
+        final R reference = this.createReference(1000, SpreadsheetReferenceKind.ABSOLUTE);
 
-        assertNotSame(value, this.createReference(value));
+        assertSame(this.createReference(1000, SpreadsheetReferenceKind.RELATIVE), reference.setReferenceKind(SpreadsheetReferenceKind.RELATIVE));
     }
 
     // isFirst..........................................................................................................
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.reference;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public final class SpreadsheetRangeCursorTest implements ClassTesting2<SpreadsheetRangeCursor>,
+        ToStringTesting<SpreadsheetRangeCursor> {
+
+    @Test
+    public void testRowMajor() {
+        this.cursorAndCheck(SpreadsheetRange.parseRange("B1:C2").cursor(),
+                "B1", "C1", "B2", "C2");
+    }
+
+    @Test
+    public void testColumnMajor() {
+        this.cursorAndCheck(SpreadsheetRange.parseRange("B1:C2").columnMajorCursor(),
+                "B1", "B2", "C1", "C2");
+    }
+
+    @Test
+    public void testSingleCell() {
+        this.cursorAndCheck(SpreadsheetRange.parseRange("B2").cursor(),
+                "B2");
+    }
+
+    @Test
+    public void testSingleRowColumnMajor() {
+        this.cursorAndCheck(SpreadsheetRange.parseRange("B2:D2").columnMajorCursor(),
+                "B2", "C2", "D2");
+    }
+
+    @Test
+    public void testNextAfterLast() {
+        final SpreadsheetRangeCursor cursor = SpreadsheetRange.parseRange("B2").cursor();
+        cursor.next();
+
+        assertFalse(cursor.next());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void testColumnAndRow() {
+        final SpreadsheetRangeCursor cursor = SpreadsheetRange.parseRange("C4:D5").cursor();
+        cursor.next();
+
+        assertEquals(2, cursor.column(), "column");
+        assertEquals(3, cursor.row(), "row");
+    }
+
+    private void cursorAndCheck(final SpreadsheetRangeCursor cursor,
+                                final String... cells) {
+        final List<SpreadsheetCellReference> expected = Lists.array();
+        for (final String cell : cells) {
+            expected.add(SpreadsheetExpressionReference.parseCellReference(cell));
+        }
+
+        final List<SpreadsheetCellReference> actual = Lists.array();
+        while (cursor.next()) {
+            actual.add(cursor.cell());
+        }
+
+        assertEquals(expected, actual, cursor::toString);
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(SpreadsheetRange.parseRange("B1:C2").cursor(), "B1:C2");
+    }
+
+    @Test
+    public void testToStringAfterNext() {
+        final SpreadsheetRangeCursor cursor = SpreadsheetRange.parseRange("B1:C2").cursor();
+        cursor.next();
+        cursor.next();
+
+        this.toStringAndCheck(cursor, "B1:C2 C1");
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<SpreadsheetRangeCursor> type() {
+        return SpreadsheetRangeCursor.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
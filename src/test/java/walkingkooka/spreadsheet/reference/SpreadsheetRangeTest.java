@@ -425,6 +425,59 @@ public final class SpreadsheetRangeTest extends SpreadsheetExpressionReferenceTe
         assertEquals(Lists.of(expected), actual, range::toString);
     }
 
+    // forEachCell......................................................................................................
+
+    @Test
+    public void testForEachCellNullFails() {
+        assertThrows(NullPointerException.class, () -> this.createSelection().forEachCell(null));
+    }
+
+    @Test
+    public void testForEachCell() {
+        final List<String> cells = Lists.array();
+        SpreadsheetRange.parseRange("B1:C2")
+                .forEachCell((c, r) -> cells.add(c + "," + r));
+
+        assertEquals(Lists.of("1,0", "2,0", "1,1", "2,1"), cells);
+    }
+
+    @Test
+    public void testForEachCellSameAsCellStream() {
+        final SpreadsheetRange range = this.range(3, 7, 5, 10);
+
+        final List<SpreadsheetCellReference> cells = Lists.array();
+        range.forEachCell((c, r) -> cells.add(this.cellReference(c, r)));
+
+        assertEquals(range.cellStream().collect(Collectors.toList()), cells);
+    }
+
+    @Test
+    public void testForEachCellColumnMajorNullFails() {
+        assertThrows(NullPointerException.class, () -> this.createSelection().forEachCellColumnMajor(null));
+    }
+
+    @Test
+    public void testForEachCellColumnMajor() {
+        final List<String> cells = Lists.array();
+        SpreadsheetRange.parseRange("B1:C2")
+                .forEachCellColumnMajor((c, r) -> cells.add(c + "," + r));
+
+        assertEquals(Lists.of("1,0", "1,1", "2,0", "2,1"), cells);
+    }
+
+    @Test
+    public void testCursorSameAsCellStream() {
+        final SpreadsheetRange range = this.range(3, 7, 5, 10);
+
+        final List<SpreadsheetCellReference> cells = Lists.array();
+        final SpreadsheetRangeCursor cursor = range.cursor();
+        while (cursor.next()) {
+            cells.add(cursor.cell());
+        }
+
+        assertEquals(range.cellStream().collect(Collectors.toList()), cells);
+    }
+
     // cells............................................................................................................
 
     @Test
@@ -534,6 +587,23 @@ public final class SpreadsheetRangeTest extends SpreadsheetExpressionReferenceTe
                 "consumed");
     }
 
+    @Test
+    public void testCellsIgnoresCellsOutsideRange() {
+        final SpreadsheetRange range = SpreadsheetRange.parseRange("B1:C3"); // B1, B2, B3, C1, C2, C3
+
+        final SpreadsheetCell b2 = this.b2();
+        final SpreadsheetCell c3 = this.c3();
+
+        final List<SpreadsheetCell> present = Lists.array();
+
+        range.cells(Lists.of(c3, this.cell("A2", "3"), b2, this.cell("D2", "4")),
+                present::add,
+                r -> {
+                });
+
+        assertEquals(Lists.of(b2, c3), present, "present");
+    }
+
     @Test
     public void testCellsMixed3() {
         final SpreadsheetRange range = SpreadsheetRange.parseRange("B1:C3"); // B1, B2, B3, C1, C2, C3
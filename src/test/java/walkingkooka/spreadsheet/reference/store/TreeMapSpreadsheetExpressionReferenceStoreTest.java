@@ -200,6 +200,53 @@ public class TreeMapSpreadsheetExpressionReferenceStoreTest extends SpreadsheetE
         this.loadReferredAndCheck(store, c1, a1, b1);
     }
 
+    // loadReferredWithin...............................................................................................
+
+    @Test
+    public void testLoadReferredWithinEmpty() {
+        this.loadReferredWithinAndCheck(this.createStore(), SpreadsheetExpressionReference.parseRange("A1:C3"));
+    }
+
+    @Test
+    public void testLoadReferredWithin() {
+        final TreeMapSpreadsheetExpressionReferenceStore<SpreadsheetCellReference> store = this.createStore();
+
+        final SpreadsheetCellReference a1 = this.a1();
+        final SpreadsheetCellReference b1 = this.b1();
+        final SpreadsheetCellReference c1 = this.c1();
+        final SpreadsheetCellReference d1 = SpreadsheetExpressionReference.parseCellReference("D1");
+
+        store.saveReferences(a1, Sets.of(SpreadsheetExpressionReference.parseCellReference("B2")));
+        store.saveReferences(b1, Sets.of(SpreadsheetExpressionReference.parseCellReference("C3")));
+        store.saveReferences(c1, Sets.of(SpreadsheetExpressionReference.parseCellReference("B4")));
+        store.saveReferences(d1, Sets.of(SpreadsheetExpressionReference.parseCellReference("D2")));
+
+        this.loadReferredWithinAndCheck(store, SpreadsheetExpressionReference.parseRange("B2:C3"), a1, b1);
+    }
+
+    @Test
+    public void testLoadReferredWithinRowsOutsideRangeIgnored() {
+        final TreeMapSpreadsheetExpressionReferenceStore<SpreadsheetCellReference> store = this.createStore();
+
+        final SpreadsheetCellReference a1 = this.a1();
+        final SpreadsheetCellReference b1 = this.b1();
+
+        store.saveReferences(a1, Sets.of(SpreadsheetExpressionReference.parseCellReference("C1")));
+        store.saveReferences(b1, Sets.of(SpreadsheetExpressionReference.parseCellReference("C9")));
+
+        this.loadReferredWithinAndCheck(store, SpreadsheetExpressionReference.parseRange("A5:Z99"), b1);
+    }
+
+    @Test
+    public void testLoadReferredWithinAbsoluteRange() {
+        final TreeMapSpreadsheetExpressionReferenceStore<SpreadsheetCellReference> store = this.createStore();
+
+        final SpreadsheetCellReference a1 = this.a1();
+        store.saveReferences(a1, Sets.of(this.c1()));
+
+        this.loadReferredWithinAndCheck(store, SpreadsheetExpressionReference.parseRange("$B$1:$D$1"), a1);
+    }
+
     // delete.........................................................................................
 
     @Test
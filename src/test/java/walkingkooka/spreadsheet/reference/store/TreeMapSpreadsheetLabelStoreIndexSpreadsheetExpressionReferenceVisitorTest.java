@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.reference.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetExpressionReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetExpressionReferenceVisitorTesting;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitorTest implements SpreadsheetExpressionReferenceVisitorTesting<TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor> {
+
+    private final static SpreadsheetCellReference A1 = SpreadsheetExpressionReference.parseCellReference("A1");
+    private final static SpreadsheetCellReference B2 = SpreadsheetExpressionReference.parseCellReference("B2");
+
+    private final static SpreadsheetLabelName LABEL1 = SpreadsheetExpressionReference.labelName("ABCDEF123");
+    private final static SpreadsheetLabelName LABEL2 = SpreadsheetExpressionReference.labelName("DEFGHI456");
+    private final static SpreadsheetLabelName LABEL3 = SpreadsheetExpressionReference.labelName("GHIJKL789");
+
+    @Test
+    public void testLabelsCell() {
+        final TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor index = this.createVisitor();
+        index.add(LABEL1.mapping(A1));
+        index.add(LABEL2.mapping(B2));
+
+        this.labelsAndCheck(index, A1, LABEL1);
+        this.labelsAndCheck(index, B2, LABEL2);
+    }
+
+    @Test
+    public void testLabelsRange() {
+        final TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor index = this.createVisitor();
+        index.add(LABEL1.mapping(SpreadsheetExpressionReference.parseRange("A1:B2")));
+        index.add(LABEL2.mapping(SpreadsheetExpressionReference.parseRange("B2:C3")));
+
+        this.labelsAndCheck(index, A1, LABEL1);
+        this.labelsAndCheck(index, B2, LABEL1, LABEL2);
+        this.labelsAndCheck(index, SpreadsheetExpressionReference.parseCellReference("C3"), LABEL2);
+        this.labelsAndCheck(index, SpreadsheetExpressionReference.parseCellReference("D4"));
+    }
+
+    @Test
+    public void testLabelsLabel() {
+        final TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor index = this.createVisitor();
+        index.add(LABEL1.mapping(A1));
+        index.add(LABEL2.mapping(LABEL1));
+        index.add(LABEL3.mapping(LABEL2));
+
+        this.labelsAndCheck(index, A1, LABEL1, LABEL2, LABEL3);
+    }
+
+    @Test
+    public void testRemove() {
+        final TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor index = this.createVisitor();
+        index.add(LABEL1.mapping(A1));
+        index.add(LABEL2.mapping(SpreadsheetExpressionReference.parseRange("A1:B2")));
+        index.add(LABEL3.mapping(LABEL2));
+
+        index.remove(LABEL2.mapping(SpreadsheetExpressionReference.parseRange("A1:B2")));
+
+        this.labelsAndCheck(index, A1, LABEL1);
+        this.labelsAndCheck(index, B2);
+    }
+
+    private void labelsAndCheck(final TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor index,
+                                final SpreadsheetCellReference cell,
+                                final SpreadsheetLabelName... labels) {
+        assertEquals(Sets.of(labels), index.labels(cell), () -> "labels " + cell + " " + index);
+    }
+
+    @Test
+    public void testToString() {
+        final TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor index = this.createVisitor();
+        index.add(LABEL1.mapping(A1));
+        index.add(LABEL2.mapping(SpreadsheetExpressionReference.parseRange("A1:B2")));
+        index.add(LABEL3.mapping(LABEL2));
+
+        this.toStringAndCheck(index, "{A1=[ABCDEF123]} [0-1=[0-1=[DEFGHI456]]] {DEFGHI456=[GHIJKL789]}");
+    }
+
+    @Override
+    public TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor createVisitor() {
+        return TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor.create();
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+
+    @Override
+    public String typeNamePrefix() {
+        return TreeMapSpreadsheetLabelStore.class.getSimpleName();
+    }
+
+    @Override
+    public Class<TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor> type() {
+        return TreeMapSpreadsheetLabelStoreIndexSpreadsheetExpressionReferenceVisitor.class;
+    }
+}
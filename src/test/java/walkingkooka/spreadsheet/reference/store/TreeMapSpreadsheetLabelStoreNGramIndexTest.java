@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.reference.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class TreeMapSpreadsheetLabelStoreNGramIndexTest implements ClassTesting2<TreeMapSpreadsheetLabelStoreNGramIndex>,
+        ToStringTesting<TreeMapSpreadsheetLabelStoreNGramIndex> {
+
+    private final static SpreadsheetLabelName LABEL1 = SpreadsheetLabelName.labelName("Apple");
+    private final static SpreadsheetLabelName LABEL2 = SpreadsheetLabelName.labelName("Banana");
+    private final static SpreadsheetLabelName LABEL3 = SpreadsheetLabelName.labelName("Pineapple");
+
+    @Test
+    public void testCandidatesEmpty() {
+        this.candidatesAndCheck(TreeMapSpreadsheetLabelStoreNGramIndex.create(), "App");
+    }
+
+    @Test
+    public void testCandidatesSingleCharacter() {
+        this.candidatesAndCheck(this.createIndex(), "a", LABEL1, LABEL2, LABEL3);
+    }
+
+    @Test
+    public void testCandidatesTwoCharacters() {
+        this.candidatesAndCheck(this.createIndex(), "na", LABEL2);
+    }
+
+    @Test
+    public void testCandidatesCaseInsensitive() {
+        this.candidatesAndCheck(this.createIndex(), "APP", LABEL1, LABEL3);
+    }
+
+    @Test
+    public void testCandidatesLonger() {
+        this.candidatesAndCheck(this.createIndex(), "eapple", LABEL3);
+    }
+
+    @Test
+    public void testCandidatesUnknown() {
+        this.candidatesAndCheck(this.createIndex(), "xyz");
+    }
+
+    @Test
+    public void testCandidatesUnknownLonger() {
+        this.candidatesAndCheck(this.createIndex(), "applexyz");
+    }
+
+    @Test
+    public void testCandidatesAfterRemove() {
+        final TreeMapSpreadsheetLabelStoreNGramIndex index = this.createIndex();
+        index.remove(LABEL1);
+
+        this.candidatesAndCheck(index, "app", LABEL3);
+        this.candidatesAndCheck(index, "ban", LABEL2);
+    }
+
+    private TreeMapSpreadsheetLabelStoreNGramIndex createIndex() {
+        final TreeMapSpreadsheetLabelStoreNGramIndex index = TreeMapSpreadsheetLabelStoreNGramIndex.create();
+        index.add(LABEL3);
+        index.add(LABEL2);
+        index.add(LABEL1);
+        return index;
+    }
+
+    private void candidatesAndCheck(final TreeMapSpreadsheetLabelStoreNGramIndex index,
+                                    final String text,
+                                    final SpreadsheetLabelName... labels) {
+        assertEquals(Lists.of(labels),
+                new ArrayList<>(index.candidates(text)),
+                () -> "candidates " + text + " " + index);
+    }
+
+    @Test
+    public void testToString() {
+        final TreeMapSpreadsheetLabelStoreNGramIndex index = TreeMapSpreadsheetLabelStoreNGramIndex.create();
+        index.add(SpreadsheetLabelName.labelName("Abc"));
+
+        this.toStringAndCheck(index, "{a=[Abc], ab=[Abc], abc=[Abc], b=[Abc], bc=[Abc], c=[Abc]}");
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<TreeMapSpreadsheetLabelStoreNGramIndex> type() {
+        return TreeMapSpreadsheetLabelStoreNGramIndex.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
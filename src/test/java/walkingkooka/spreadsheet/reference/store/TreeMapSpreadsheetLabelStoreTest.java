@@ -158,6 +158,48 @@ public final class TreeMapSpreadsheetLabelStoreTest extends SpreadsheetLabelStor
         );
     }
 
+    @Test
+    public void testFindSimilarCaseInsensitive() {
+        final TreeMapSpreadsheetLabelStore store = this.createStore();
+
+        final SpreadsheetCellReference cell = this.a1();
+
+        final SpreadsheetLabelMapping mapping1 = SpreadsheetLabelName.labelName("Label123").mapping(cell);
+        store.save(mapping1);
+
+        final SpreadsheetLabelMapping mapping2 = SpreadsheetLabelName.labelName("Total123").mapping(cell);
+        store.save(mapping2);
+
+        this.findSimilarAndCheck(
+                store,
+                "BEL1",
+                2,
+                mapping1
+        );
+    }
+
+    @Test
+    public void testFindSimilarAfterDelete() {
+        final TreeMapSpreadsheetLabelStore store = this.createStore();
+
+        final SpreadsheetCellReference cell = this.a1();
+
+        final SpreadsheetLabelName label1 = SpreadsheetLabelName.labelName("Label123");
+        store.save(label1.mapping(cell));
+
+        final SpreadsheetLabelMapping mapping2 = SpreadsheetLabelName.labelName("Label1234").mapping(cell);
+        store.save(mapping2);
+
+        store.delete(label1);
+
+        this.findSimilarAndCheck(
+                store,
+                "123",
+                2,
+                mapping2
+        );
+    }
+
     // loadCellReferencesOrRanges.......................................................................................
 
     @Test
@@ -226,6 +268,71 @@ public final class TreeMapSpreadsheetLabelStoreTest extends SpreadsheetLabelStor
                 Sets.of(this.range1()));
     }
 
+    // labels...........................................................................................................
+
+    @Test
+    public void testLabelsRange() {
+        final TreeMapSpreadsheetLabelStore store = this.createStore();
+        store.save(SpreadsheetLabelMapping.with(this.label1(), this.range1()));
+        store.save(SpreadsheetLabelMapping.with(this.label2(), this.a2()));
+
+        this.labelsAndCheck(store, this.a1(), this.label1());
+        this.labelsAndCheck(store, this.a2(), this.label1(), this.label2());
+        this.labelsAndCheck(store, SpreadsheetExpressionReference.parseCellReference("A4"));
+        this.labelsAndCheck(store, SpreadsheetExpressionReference.parseCellReference("B1"));
+    }
+
+    @Test
+    public void testLabelsLabelToLabelToRange() {
+        final TreeMapSpreadsheetLabelStore store = this.createStore();
+        store.save(SpreadsheetLabelMapping.with(this.label1(), this.range1()));
+        store.save(SpreadsheetLabelMapping.with(this.label2(), this.label1()));
+        store.save(SpreadsheetLabelMapping.with(this.label3(), this.label2()));
+
+        this.labelsAndCheck(store, this.a2(), this.label1(), this.label2(), this.label3());
+    }
+
+    @Test
+    public void testLabelsAbsoluteCell() {
+        final TreeMapSpreadsheetLabelStore store = this.createStore();
+        store.save(SpreadsheetLabelMapping.with(this.label1(), SpreadsheetExpressionReference.parseCellReference("$A$1")));
+
+        this.labelsAndCheck(store, this.a1(), this.label1());
+    }
+
+    @Test
+    public void testLabelsCycle() {
+        final TreeMapSpreadsheetLabelStore store = this.createStore();
+        store.save(SpreadsheetLabelMapping.with(this.label1(), this.label2()));
+        store.save(SpreadsheetLabelMapping.with(this.label2(), this.label1()));
+        store.save(SpreadsheetLabelMapping.with(this.label3(), this.a1()));
+
+        this.labelsAndCheck(store, this.a1(), this.label3());
+    }
+
+    @Test
+    public void testLabelsAfterSaveReplaced() {
+        final TreeMapSpreadsheetLabelStore store = this.createStore();
+        store.save(SpreadsheetLabelMapping.with(this.label1(), this.range1()));
+        store.save(SpreadsheetLabelMapping.with(this.label1(), this.a2()));
+
+        this.labelsAndCheck(store, this.a1());
+        this.labelsAndCheck(store, this.a2(), this.label1());
+    }
+
+    @Test
+    public void testLabelsAfterDelete() {
+        final TreeMapSpreadsheetLabelStore store = this.createStore();
+        store.save(SpreadsheetLabelMapping.with(this.label1(), this.range1()));
+        store.save(SpreadsheetLabelMapping.with(this.label2(), this.label1()));
+        store.save(SpreadsheetLabelMapping.with(this.label3(), this.a2()));
+
+        store.delete(this.label1());
+
+        this.labelsAndCheck(store, this.a1());
+        this.labelsAndCheck(store, this.a2(), this.label3());
+    }
+
     @Test
     public void testToString() {
         final TreeMapSpreadsheetLabelStore store = this.createStore();
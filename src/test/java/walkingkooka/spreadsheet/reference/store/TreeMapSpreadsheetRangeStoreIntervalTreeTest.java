@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.reference.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public final class TreeMapSpreadsheetRangeStoreIntervalTreeTest implements ClassTesting2<TreeMapSpreadsheetRangeStoreIntervalTree<?>>,
+        ToStringTesting<TreeMapSpreadsheetRangeStoreIntervalTree<?>> {
+
+    @Test
+    public void testGetUnknown() {
+        assertNull(TreeMapSpreadsheetRangeStoreIntervalTree.create().get(1, 2));
+    }
+
+    @Test
+    public void testGetOrCreate() {
+        final TreeMapSpreadsheetRangeStoreIntervalTree<String> tree = TreeMapSpreadsheetRangeStoreIntervalTree.create();
+        assertEquals("a", tree.getOrCreate(1, 2, () -> "a"));
+        assertEquals("a", tree.getOrCreate(1, 2, () -> "b"));
+        assertEquals("a", tree.get(1, 2));
+        assertEquals(1, tree.size(), "size");
+    }
+
+    @Test
+    public void testRemove() {
+        final TreeMapSpreadsheetRangeStoreIntervalTree<String> tree = TreeMapSpreadsheetRangeStoreIntervalTree.create();
+        tree.getOrCreate(1, 2, () -> "a");
+        tree.getOrCreate(3, 4, () -> "b");
+        tree.remove(1, 2);
+
+        assertNull(tree.get(1, 2));
+        assertEquals("b", tree.get(3, 4));
+        assertEquals(1, tree.size(), "size");
+    }
+
+    @Test
+    public void testRemoveUnknown() {
+        final TreeMapSpreadsheetRangeStoreIntervalTree<String> tree = TreeMapSpreadsheetRangeStoreIntervalTree.create();
+        tree.getOrCreate(1, 2, () -> "a");
+        tree.remove(1, 3);
+
+        assertEquals(1, tree.size(), "size");
+    }
+
+    @Test
+    public void testStab() {
+        final TreeMapSpreadsheetRangeStoreIntervalTree<String> tree = TreeMapSpreadsheetRangeStoreIntervalTree.create();
+        tree.getOrCreate(1, 5, () -> "1-5");
+        tree.getOrCreate(3, 3, () -> "3-3");
+        tree.getOrCreate(4, 9, () -> "4-9");
+        tree.getOrCreate(10, 20, () -> "10-20");
+
+        this.stabAndCheck(tree, 0);
+        this.stabAndCheck(tree, 1, "1-5");
+        this.stabAndCheck(tree, 3, "1-5", "3-3");
+        this.stabAndCheck(tree, 4, "1-5", "4-9");
+        this.stabAndCheck(tree, 9, "4-9");
+        this.stabAndCheck(tree, 10, "10-20");
+        this.stabAndCheck(tree, 21);
+    }
+
+    @Test
+    public void testStabAfterRemove() {
+        final TreeMapSpreadsheetRangeStoreIntervalTree<String> tree = TreeMapSpreadsheetRangeStoreIntervalTree.create();
+        tree.getOrCreate(1, 5, () -> "1-5");
+        tree.getOrCreate(1, 9, () -> "1-9");
+        tree.remove(1, 9);
+
+        this.stabAndCheck(tree, 7);
+        this.stabAndCheck(tree, 5, "1-5");
+    }
+
+    @Test
+    public void testStabMany() {
+        final TreeMapSpreadsheetRangeStoreIntervalTree<String> tree = TreeMapSpreadsheetRangeStoreIntervalTree.create();
+        for (int i = 0; i < 1000; i++) {
+            final int begin = i;
+            tree.getOrCreate(begin, begin + 10, () -> begin + "-" + (begin + 10));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            tree.remove(i, i + 10);
+        }
+
+        this.stabAndCheck(tree, 500, "491-501", "493-503", "495-505", "497-507", "499-509");
+    }
+
+    private void stabAndCheck(final TreeMapSpreadsheetRangeStoreIntervalTree<String> tree,
+                              final int value,
+                              final String... expected) {
+        final Set<String> values = Sets.sorted();
+        tree.stab(value, values::add);
+
+        assertEquals(Sets.of(expected), values, () -> "stab " + value + " " + tree);
+    }
+
+    @Test
+    public void testOverlap() {
+        final TreeMapSpreadsheetRangeStoreIntervalTree<String> tree = TreeMapSpreadsheetRangeStoreIntervalTree.create();
+        tree.getOrCreate(1, 5, () -> "1-5");
+        tree.getOrCreate(3, 3, () -> "3-3");
+        tree.getOrCreate(4, 9, () -> "4-9");
+        tree.getOrCreate(10, 20, () -> "10-20");
+
+        this.overlapAndCheck(tree, 0, 0);
+        this.overlapAndCheck(tree, 0, 1, "1-5");
+        this.overlapAndCheck(tree, 2, 3, "1-5", "3-3");
+        this.overlapAndCheck(tree, 6, 10, "4-9", "10-20");
+        this.overlapAndCheck(tree, 0, 99, "1-5", "3-3", "4-9", "10-20");
+        this.overlapAndCheck(tree, 21, 99);
+    }
+
+    private void overlapAndCheck(final TreeMapSpreadsheetRangeStoreIntervalTree<String> tree,
+                                 final int begin,
+                                 final int end,
+                                 final String... expected) {
+        final Set<String> values = Sets.sorted();
+        tree.overlap(begin, end, values::add);
+
+        assertEquals(Sets.of(expected), values, () -> "overlap " + begin + "-" + end + " " + tree);
+    }
+
+    @Test
+    public void testToString() {
+        final TreeMapSpreadsheetRangeStoreIntervalTree<String> tree = TreeMapSpreadsheetRangeStoreIntervalTree.create();
+        tree.getOrCreate(3, 4, () -> "b");
+        tree.getOrCreate(1, 2, () -> "a");
+
+        this.toStringAndCheck(tree, "[1-2=a, 3-4=b]");
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<TreeMapSpreadsheetRangeStoreIntervalTree<?>> type() {
+        return Cast.to(TreeMapSpreadsheetRangeStoreIntervalTree.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
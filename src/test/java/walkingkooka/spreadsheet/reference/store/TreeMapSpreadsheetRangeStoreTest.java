@@ -346,6 +346,40 @@ public final class TreeMapSpreadsheetRangeStoreTest extends TreeMapSpreadsheetRa
         this.valuesAndCheck(store, RANGE1B, 2, Lists.of(VALUE2, VALUE2B), Lists.of(VALUE4));
     }
 
+    @Test
+    public void testLoadCellReferenceRangesOverlapping() {
+        final TreeMapSpreadsheetRangeStore<String> store = this.createStore();
+
+        store.addValue(RANGE1A, VALUE1);
+        store.addValue(RANGE1B, VALUE2);
+        store.addValue(RANGE2B, VALUE3);
+        store.addValue(RANGE3, VALUE4);
+
+        this.loadCellReferenceRangesAndCheck(store, CENTER1, RANGE1A, RANGE1B, RANGE2B);
+    }
+
+    @Test
+    public void testLoadCellReferenceRangesAfterRemoveValue() {
+        final TreeMapSpreadsheetRangeStore<String> store = this.createStore();
+
+        store.addValue(RANGE1A, VALUE1);
+        store.addValue(RANGE1C, VALUE2);
+        store.removeValue(RANGE1C, VALUE2);
+
+        this.loadCellReferenceRangesAndCheck(store, CENTER1, RANGE1A);
+    }
+
+    @Test
+    public void testLoadCellReferenceRangesAfterDelete() {
+        final TreeMapSpreadsheetRangeStore<String> store = this.createStore();
+
+        store.addValue(RANGE1A, VALUE1);
+        store.addValue(RANGE1C, VALUE2);
+        store.delete(RANGE1C);
+
+        this.loadCellReferenceRangesAndCheck(store, CENTER1, RANGE1A);
+    }
+
     // load cell reference ranges....................................................................................
 
     @Test
@@ -558,6 +592,45 @@ public final class TreeMapSpreadsheetRangeStoreTest extends TreeMapSpreadsheetRa
         this.loadCellReferenceRangesAndCheck(store, mid, RANGE1A);
     }
 
+    // load intersecting ranges......................................................................................
+
+    @Test
+    public void testLoadIntersectingRangesEmpty() {
+        this.loadIntersectingRangesAndCheck(this.createStore(), RANGE1A);
+    }
+
+    @Test
+    public void testLoadIntersectingRanges() {
+        final TreeMapSpreadsheetRangeStore<String> store = this.createStore();
+
+        final SpreadsheetRange b2c3 = SpreadsheetExpressionReference.parseRange("B2:C3");
+        final SpreadsheetRange c3e5 = SpreadsheetExpressionReference.parseRange("C3:E5");
+        final SpreadsheetRange a9z9 = SpreadsheetExpressionReference.parseRange("A9:Z9");
+        final SpreadsheetRange f1f9 = SpreadsheetExpressionReference.parseRange("F1:F9");
+
+        store.addValue(b2c3, VALUE1);
+        store.addValue(c3e5, VALUE2);
+        store.addValue(a9z9, VALUE3);
+        store.addValue(f1f9, VALUE1);
+
+        this.loadIntersectingRangesAndCheck(store, SpreadsheetExpressionReference.parseRange("A1:A1"));
+        this.loadIntersectingRangesAndCheck(store, SpreadsheetExpressionReference.parseRange("C3:C3"), b2c3, c3e5);
+        this.loadIntersectingRangesAndCheck(store, SpreadsheetExpressionReference.parseRange("E1:F4"), c3e5, f1f9);
+        this.loadIntersectingRangesAndCheck(store, SpreadsheetExpressionReference.parseRange("A6:Z99"), a9z9, f1f9);
+        this.loadIntersectingRangesAndCheck(store, SpreadsheetExpressionReference.parseRange("G1:Z8"));
+    }
+
+    @Test
+    public void testLoadIntersectingRangesAfterRemove() {
+        final TreeMapSpreadsheetRangeStore<String> store = this.createStore();
+
+        store.addValue(RANGE1A, VALUE1);
+        store.addValue(RANGE1B, VALUE2);
+        store.removeValue(RANGE1A, VALUE1);
+
+        this.loadIntersectingRangesAndCheck(store, RANGE1A, RANGE1B);
+    }
+
     // load cell reference ranges....................................................................................
 
     @Test
@@ -1251,6 +1324,70 @@ public final class TreeMapSpreadsheetRangeStoreTest extends TreeMapSpreadsheetRa
         this.rangesWithValuesAndCheck(store, value3, range1);
     }
 
+    @Test
+    public void testRangesWithValueRemoveValueKeepsOtherRanges() {
+        final TreeMapSpreadsheetRangeStore<String> store = this.createStore();
+
+        final SpreadsheetRange range1 = SpreadsheetExpressionReference.parseRange("A1:A1");
+        final SpreadsheetRange range2 = SpreadsheetExpressionReference.parseRange("A2:A2");
+        final String value1 = "value1";
+        store.addValue(range1, value1);
+        store.addValue(range2, value1);
+
+        store.removeValue(range1, value1);
+
+        this.rangesWithValuesAndCheck(store, value1, range2);
+        this.loadRangeAndCheck(store, range2, value1);
+    }
+
+    @Test
+    public void testRangesWithValueReplaceValueKeepsOtherRanges() {
+        final TreeMapSpreadsheetRangeStore<String> store = this.createStore();
+
+        final SpreadsheetRange range1 = SpreadsheetExpressionReference.parseRange("A1:A1");
+        final SpreadsheetRange range2 = SpreadsheetExpressionReference.parseRange("A2:A2");
+        final String value1 = "value1";
+        store.addValue(range1, value1);
+        store.addValue(range2, value1);
+
+        final String value2 = "value2";
+        store.replaceValue(range1, value2, value1);
+
+        this.rangesWithValuesAndCheck(store, value1, range2);
+        this.rangesWithValuesAndCheck(store, value2, range1);
+    }
+
+    @Test
+    public void testRangesWithValueDeleteKeepsOtherRanges() {
+        final TreeMapSpreadsheetRangeStore<String> store = this.createStore();
+
+        final SpreadsheetRange range1 = SpreadsheetExpressionReference.parseRange("A1:A1");
+        final SpreadsheetRange range2 = SpreadsheetExpressionReference.parseRange("A2:A2");
+        final String value1 = "value1";
+        final String value2 = "value2";
+        store.addValue(range1, value1);
+        store.addValue(range1, value2);
+        store.addValue(range2, value1);
+
+        store.delete(range1);
+
+        this.rangesWithValuesAndCheck(store, value1, range2);
+        this.rangesWithValuesAndCheck(store, value2);
+    }
+
+    @Test
+    public void testRangesWithValueDeleteAbsoluteRange() {
+        final TreeMapSpreadsheetRangeStore<String> store = this.createStore();
+
+        final String value1 = "value1";
+        store.addValue(RANGE1AABSOLUTE, value1);
+        store.addValue(RANGE2A, value1);
+
+        store.delete(RANGE1A);
+
+        this.rangesWithValuesAndCheck(store, value1, RANGE2A);
+    }
+
     // ToStringTesting ...................................................................................................
 
     @Test
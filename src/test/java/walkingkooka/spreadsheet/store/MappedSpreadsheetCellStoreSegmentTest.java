@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class MappedSpreadsheetCellStoreSegmentTest implements ClassTesting2<MappedSpreadsheetCellStoreSegment>,
+        ToStringTesting<MappedSpreadsheetCellStoreSegment> {
+
+    private final static int NUMBER = 1;
+    private final static int SIZE = 64;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testMap() throws IOException {
+        final Path file = this.file();
+        final MappedSpreadsheetCellStoreSegment segment = MappedSpreadsheetCellStoreSegment.map(file, NUMBER, SIZE);
+
+        assertEquals(file, segment.file(), "file");
+        assertEquals(NUMBER, segment.number(), "number");
+        assertEquals(SIZE, segment.capacity(), "capacity");
+        assertEquals(0, segment.live(), "live");
+        assertEquals(SIZE, Files.size(file), "file size");
+    }
+
+    @Test
+    public void testMapExisting() throws IOException {
+        final Path file = this.file();
+        final MappedSpreadsheetCellStoreSegment segment = MappedSpreadsheetCellStoreSegment.map(file, NUMBER, SIZE);
+        segment.buffer().putInt(0, 123);
+        segment.force();
+
+        assertEquals(123, MappedSpreadsheetCellStoreSegment.map(file, NUMBER, SIZE).buffer().getInt(0));
+    }
+
+    @Test
+    public void testRetainRelease() throws IOException {
+        final MappedSpreadsheetCellStoreSegment segment = MappedSpreadsheetCellStoreSegment.map(this.file(), NUMBER, SIZE);
+        segment.retain(10);
+        segment.retain(20);
+        segment.release(10);
+
+        assertEquals(20, segment.live());
+    }
+
+    @Test
+    public void testToString() throws IOException {
+        final Path file = this.file();
+        final MappedSpreadsheetCellStoreSegment segment = MappedSpreadsheetCellStoreSegment.map(file, NUMBER, SIZE);
+        segment.retain(10);
+
+        this.toStringAndCheck(segment, file + " 10/64");
+    }
+
+    private Path file() {
+        return this.directory.resolve("cells-00000001.segment");
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<MappedSpreadsheetCellStoreSegment> type() {
+        return MappedSpreadsheetCellStoreSegment.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class MappedSpreadsheetCellStoreSegmentsTest implements ClassTesting2<MappedSpreadsheetCellStoreSegments>,
+        ToStringTesting<MappedSpreadsheetCellStoreSegments> {
+
+    private final static int SEGMENT_SIZE = 128;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testWithNullDirectoryFails() {
+        assertThrows(NullPointerException.class, () -> MappedSpreadsheetCellStoreSegments.with(null, SEGMENT_SIZE));
+    }
+
+    @Test
+    public void testWithInvalidSegmentSizeFails() {
+        assertThrows(IllegalArgumentException.class, () -> MappedSpreadsheetCellStoreSegments.with(this.directory, 8));
+    }
+
+    @Test
+    public void testAppendRead() {
+        final MappedSpreadsheetCellStoreSegments segments = this.createSegments();
+        final long location = segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 1, 2, 3.5, 4.5, bytes("abc"));
+
+        assertEquals(MappedSpreadsheetCellStoreSegments.SAVE, segments.kind(location), "kind");
+        assertEquals(1, segments.column(location), "column");
+        assertEquals(2, segments.row(location), "row");
+        assertEquals(3.5, segments.width(location), "width");
+        assertEquals(4.5, segments.height(location), "height");
+        assertArrayEquals(bytes("abc"), segments.payload(location), "payload");
+    }
+
+    @Test
+    public void testReplay() {
+        final MappedSpreadsheetCellStoreSegments segments = this.createSegments();
+        final long first = segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 1, 2, 0, 0, bytes("first"));
+        final long second = segments.append(MappedSpreadsheetCellStoreSegments.DELETE, 1, 2, 0, 0, new byte[0]);
+
+        final List<Long> locations = Lists.array();
+        this.createSegments().replay(locations::add);
+
+        assertEquals(Lists.of(first, second), locations);
+    }
+
+    @Test
+    public void testAppendAfterReplayAndNewSegments() {
+        final MappedSpreadsheetCellStoreSegments segments = this.createSegments();
+        for (int i = 0; i < 10; i++) {
+            segments.append(MappedSpreadsheetCellStoreSegments.SAVE, i, i, 0, 0, bytes("payload-" + i));
+        }
+
+        final MappedSpreadsheetCellStoreSegments reopened = this.createSegments();
+        final List<Long> locations = Lists.array();
+        reopened.replay(locations::add);
+        assertEquals(10, locations.size(), "replayed");
+
+        final long location = reopened.append(MappedSpreadsheetCellStoreSegments.SAVE, 99, 99, 0, 0, bytes("last"));
+        assertArrayEquals(bytes("last"), reopened.payload(location));
+
+        final List<Long> locations2 = Lists.array();
+        this.createSegments().replay(locations2::add);
+        assertEquals(11, locations2.size(), "replayed after append");
+    }
+
+    @Test
+    public void testPayloadLargerThanSegment() {
+        final MappedSpreadsheetCellStoreSegments segments = this.createSegments();
+        final byte[] payload = new byte[SEGMENT_SIZE * 2];
+        payload[payload.length - 1] = 1;
+
+        final long location = segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 1, 1, 0, 0, payload);
+        assertArrayEquals(payload, segments.payload(location));
+    }
+
+    @Test
+    public void testCopy() {
+        final MappedSpreadsheetCellStoreSegments segments = this.createSegments();
+        final long location = segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 1, 2, 3.5, 4.5, bytes("abc"));
+        final long copy = segments.copy(location);
+
+        assertNotEquals(location, copy, "location");
+        assertEquals(1, segments.column(copy), "column");
+        assertEquals(2, segments.row(copy), "row");
+        assertEquals(3.5, segments.width(copy), "width");
+        assertEquals(4.5, segments.height(copy), "height");
+        assertArrayEquals(bytes("abc"), segments.payload(copy), "payload");
+    }
+
+    @Test
+    public void testSparseOnlyLastSegment() {
+        final MappedSpreadsheetCellStoreSegments segments = this.createSegments();
+        segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 1, 1, 0, 0, bytes("a"));
+
+        assertEquals(MappedSpreadsheetCellStoreSegments.NONE, segments.sparse());
+    }
+
+    @Test
+    public void testSparseEmpty() {
+        assertEquals(MappedSpreadsheetCellStoreSegments.NONE, this.createSegments().sparse());
+    }
+
+    @Test
+    public void testSparseRetained() {
+        final MappedSpreadsheetCellStoreSegments segments = this.createSegments();
+        for (int i = 0; i < 3; i++) {
+            segments.retain(segments.append(MappedSpreadsheetCellStoreSegments.SAVE, i, i, 0, 0, this.largePayload()));
+        }
+
+        assertEquals(MappedSpreadsheetCellStoreSegments.NONE, segments.sparse());
+    }
+
+    @Test
+    public void testSparseReleased() {
+        final MappedSpreadsheetCellStoreSegments segments = this.createSegments();
+        final long first = segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 1, 1, 0, 0, this.largePayload());
+        segments.retain(first);
+        segments.retain(segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 2, 2, 0, 0, this.largePayload()));
+        segments.retain(segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 3, 3, 0, 0, this.largePayload()));
+
+        segments.release(first);
+        assertEquals(0, segments.sparse());
+    }
+
+    @Test
+    public void testSparseSeveralSegments() {
+        final MappedSpreadsheetCellStoreSegments segments = this.createSegments();
+        segments.retain(segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 1, 1, 0, 0, this.largePayload()));
+        segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 2, 2, 0, 0, this.largePayload());
+        segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 3, 3, 0, 0, this.largePayload());
+
+        assertEquals(1, segments.sparse());
+    }
+
+    @Test
+    public void testReplayLast() {
+        final MappedSpreadsheetCellStoreSegments segments = this.createSegments();
+        final long first = segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 1, 1, 0, 0, this.largePayload());
+        final long second = segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 2, 2, 0, 0, this.largePayload());
+        segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 3, 3, 0, 0, this.largePayload());
+
+        final List<Long> locations = Lists.array();
+        segments.replay(1, locations::add);
+
+        assertEquals(Lists.of(first, second), locations);
+    }
+
+    @Test
+    public void testDelete() {
+        final MappedSpreadsheetCellStoreSegments segments = this.createSegments();
+        segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 1, 1, 0, 0, this.largePayload());
+        segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 2, 2, 0, 0, this.largePayload());
+        final long last = segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 3, 3, 0, 0, this.largePayload());
+
+        segments.delete(1);
+
+        assertEquals(Lists.of(this.file(2)), this.files());
+
+        final List<Long> locations = Lists.array();
+        this.createSegments().replay(locations::add);
+        assertEquals(Lists.of(last), locations);
+    }
+
+    @Test
+    public void testAppendAfterDelete() {
+        final MappedSpreadsheetCellStoreSegments segments = this.createSegments();
+        segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 1, 1, 0, 0, this.largePayload());
+        segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 2, 2, 0, 0, this.largePayload());
+
+        segments.delete(0);
+        segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 3, 3, 0, 0, this.largePayload());
+
+        assertEquals(Lists.of(this.file(1), this.file(2)), this.files());
+    }
+
+    @Test
+    public void testCloseThenAppendFails() {
+        final MappedSpreadsheetCellStoreSegments segments = this.createSegments();
+        segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 1, 1, 0, 0, bytes("a"));
+        segments.close();
+
+        assertThrows(SpreadsheetCellStoreException.class, () -> segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 2, 2, 0, 0, bytes("b")));
+    }
+
+    @Test
+    public void testCloseThenReadFails() {
+        final MappedSpreadsheetCellStoreSegments segments = this.createSegments();
+        final long location = segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 1, 1, 0, 0, bytes("a"));
+        segments.close();
+
+        assertThrows(SpreadsheetCellStoreException.class, () -> segments.payload(location));
+    }
+
+    @Test
+    public void testToString() {
+        final MappedSpreadsheetCellStoreSegments segments = this.createSegments();
+        segments.append(MappedSpreadsheetCellStoreSegments.SAVE, 1, 1, 0, 0, bytes("a"));
+
+        this.toStringAndCheck(segments, this.directory + " 1 segment(s)");
+    }
+
+    private MappedSpreadsheetCellStoreSegments createSegments() {
+        return MappedSpreadsheetCellStoreSegments.with(this.directory, SEGMENT_SIZE);
+    }
+
+    /**
+     * A payload large enough that each record fills most of a segment.
+     */
+    private byte[] largePayload() {
+        return new byte[SEGMENT_SIZE / 2];
+    }
+
+    private Path file(final int number) {
+        return this.directory.resolve(String.format("cells-%08d.segment", number));
+    }
+
+    private List<Path> files() {
+        try (final Stream<Path> files = Files.list(this.directory)) {
+            return files.sorted()
+                    .collect(Collectors.toList());
+        } catch (final IOException cause) {
+            throw new UncheckedIOException(cause);
+        }
+    }
+
+    private static byte[] bytes(final String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<MappedSpreadsheetCellStoreSegments> type() {
+        return MappedSpreadsheetCellStoreSegments.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.SpreadsheetFormula;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetColumnReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetRowReference;
+import walkingkooka.tree.expression.ExpressionNumberContexts;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContexts;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContexts;
+import walkingkooka.tree.text.Length;
+import walkingkooka.tree.text.TextStyle;
+import walkingkooka.tree.text.TextStylePropertyName;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.MathContext;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class MappedSpreadsheetCellStoreTest extends SpreadsheetCellStoreTestCase<MappedSpreadsheetCellStore> {
+
+    private final static int SEGMENT_SIZE = 512;
+
+    @TempDir
+    Path temp;
+
+    @Test
+    public void testWithNullDirectoryFails() {
+        assertThrows(NullPointerException.class, () -> MappedSpreadsheetCellStore.with(null, JsonNodeMarshallContexts.basic(), this.unmarshallContext()));
+    }
+
+    @Test
+    public void testWithNullMarshallContextFails() {
+        assertThrows(NullPointerException.class, () -> MappedSpreadsheetCellStore.with(this.temp, null, this.unmarshallContext()));
+    }
+
+    @Test
+    public void testWithNullUnmarshallContextFails() {
+        assertThrows(NullPointerException.class, () -> MappedSpreadsheetCellStore.with(this.temp, JsonNodeMarshallContexts.basic(), null));
+    }
+
+    @Test
+    public void testReopen() {
+        final Path directory = this.directory();
+
+        final MappedSpreadsheetCellStore store = this.createStore(directory);
+        store.save(this.cell("A1"));
+        store.save(this.cell("B2"));
+        store.save(this.cell("C3"));
+        store.delete(SpreadsheetCellReference.parseCellReference("B2"));
+        store.save(this.cell("A1").setFormula(SpreadsheetFormula.with("4+5")));
+
+        final MappedSpreadsheetCellStore reopened = this.createStore(directory);
+        this.countAndCheck(reopened, 2);
+        assertEquals(Optional.of(this.cell("A1").setFormula(SpreadsheetFormula.with("4+5"))), reopened.load(SpreadsheetCellReference.parseCellReference("A1")));
+        this.loadFailCheck(reopened, SpreadsheetCellReference.parseCellReference("B2"));
+        this.valuesAndCheck(reopened, this.cell("A1").setFormula(SpreadsheetFormula.with("4+5")), this.cell("C3"));
+    }
+
+    @Test
+    public void testReopenRestoresDimensions() {
+        final Path directory = this.directory();
+
+        final MappedSpreadsheetCellStore store = this.createStore(directory);
+        store.save(this.cellWithWidth("C3", 50.0));
+        store.save(this.cellWithWidth("C4", 70.0));
+        store.delete(SpreadsheetCellReference.parseCellReference("C4"));
+
+        final MappedSpreadsheetCellStore reopened = this.createStore(directory);
+        assertEquals(50.0, reopened.maxColumnWidth(SpreadsheetColumnReference.parseColumn("C")));
+        this.rowsAndCheck(reopened, 2);
+        this.columnsAndCheck(reopened, 2);
+    }
+
+    @Test
+    public void testManySegments() {
+        final Path directory = this.directory();
+
+        final MappedSpreadsheetCellStore store = this.createStore(directory);
+        final List<SpreadsheetCell> cells = Lists.array();
+        for (int i = 1; i <= 20; i++) {
+            final SpreadsheetCell cell = this.cell("A" + i);
+            store.save(cell);
+            cells.add(cell);
+        }
+        cells.sort(SpreadsheetCell::compareTo);
+
+        this.valuesAndCheck(this.createStore(directory), cells.toArray(new SpreadsheetCell[0]));
+    }
+
+    @Test
+    public void testShiftRowsThenReopen() {
+        final Path directory = this.directory();
+
+        final MappedSpreadsheetCellStore store = this.createStore(directory);
+        store.save(this.cell("A1"));
+        store.save(this.cell("B2"));
+        store.shiftRows(SpreadsheetRowReference.parseRow("2"), 2);
+
+        this.valuesAndCheck(this.createStore(directory), this.cell("A1"), this.cell("B4"));
+    }
+
+    @Test
+    public void testOverwriteCompactsSegments() {
+        final Path directory = this.directory();
+
+        final MappedSpreadsheetCellStore store = this.createStore(directory);
+        store.save(this.cell("B2"));
+        for (int i = 0; i < 200; i++) {
+            store.save(this.cell("A1").setFormula(SpreadsheetFormula.with("1+" + i)));
+        }
+
+        final long segments = this.segments(directory);
+        assertTrue(segments <= 3, () -> "segments " + segments);
+
+        this.valuesAndCheck(this.createStore(directory),
+                this.cell("A1").setFormula(SpreadsheetFormula.with("1+199")),
+                this.cell("B2"));
+    }
+
+    @Test
+    public void testDeleteThenCompactThenReopen() {
+        final Path directory = this.directory();
+
+        final MappedSpreadsheetCellStore store = this.createStore(directory);
+        store.save(this.cell("B2"));
+        store.save(this.cell("C3"));
+        store.delete(SpreadsheetCellReference.parseCellReference("B2"));
+        for (int i = 0; i < 200; i++) {
+            store.save(this.cell("A1").setFormula(SpreadsheetFormula.with("1+" + i)));
+        }
+
+        final MappedSpreadsheetCellStore reopened = this.createStore(directory);
+        this.loadFailCheck(reopened, SpreadsheetCellReference.parseCellReference("B2"));
+        this.valuesAndCheck(reopened,
+                this.cell("A1").setFormula(SpreadsheetFormula.with("1+199")),
+                this.cell("C3"));
+    }
+
+    @Test
+    public void testCloseThenLoadFails() {
+        final MappedSpreadsheetCellStore store = this.createStore();
+        store.save(this.cell("A1"));
+        store.close();
+
+        assertThrows(SpreadsheetCellStoreException.class, () -> store.load(SpreadsheetCellReference.parseCellReference("A1")));
+    }
+
+    @Test
+    public void testCloseThenSaveFails() {
+        final MappedSpreadsheetCellStore store = this.createStore();
+        store.close();
+
+        assertThrows(SpreadsheetCellStoreException.class, () -> store.save(this.cell("A1")));
+    }
+
+    /**
+     * Counts the segment files in the directory.
+     */
+    private long segments(final Path directory) {
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".segment"))
+                    .count();
+        } catch (final IOException cause) {
+            throw new UncheckedIOException(cause);
+        }
+    }
+
+    private SpreadsheetCell cell(final String reference) {
+        return SpreadsheetCell.with(SpreadsheetCellReference.parseCellReference(reference), SpreadsheetFormula.with("1+2"));
+    }
+
+    private SpreadsheetCell cellWithWidth(final String cellReference,
+                                          final double pixels) {
+        return this.cell(cellReference)
+                .setStyle(TextStyle.EMPTY
+                        .set(TextStylePropertyName.WIDTH, Length.pixel(pixels)));
+    }
+
+    private void valuesAndCheck(final MappedSpreadsheetCellStore store,
+                                final SpreadsheetCell... cells) {
+        assertEquals(Lists.of(cells),
+                store.values(SpreadsheetCellReference.parseCellReference("A1"), Integer.MAX_VALUE),
+                () -> "values " + store);
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final MappedSpreadsheetCellStore store = this.createStore();
+        store.save(this.cell("B2"));
+        store.save(this.cell("A1"));
+
+        this.toStringAndCheck(store, "[A1=1+2, B2=1+2]");
+    }
+
+    @Override
+    public MappedSpreadsheetCellStore createStore() {
+        return this.createStore(this.directory());
+    }
+
+    private MappedSpreadsheetCellStore createStore(final Path directory) {
+        return MappedSpreadsheetCellStore.with(
+                directory,
+                SEGMENT_SIZE,
+                JsonNodeMarshallContexts.basic(),
+                this.unmarshallContext()
+        );
+    }
+
+    /**
+     * Each store gets its own directory, as some tests create several stores.
+     */
+    private Path directory() {
+        try {
+            return Files.createTempDirectory(this.temp, "cells");
+        } catch (final IOException cause) {
+            throw new UncheckedIOException(cause);
+        }
+    }
+
+    private JsonNodeUnmarshallContext unmarshallContext() {
+        return JsonNodeUnmarshallContexts.basic(ExpressionNumberContexts.basic(EXPRESSION_NUMBER_KIND, MathContext.DECIMAL32));
+    }
+
+    @Override
+    public Class<MappedSpreadsheetCellStore> type() {
+        return MappedSpreadsheetCellStore.class;
+    }
+
+    // TypeNameTesting..................................................................
+
+    @Override
+    public String typeNamePrefix() {
+        return "Mapped";
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class PackedSpreadsheetCellStoreCountsTest implements ClassTesting2<PackedSpreadsheetCellStoreCounts>,
+        ToStringTesting<PackedSpreadsheetCellStoreCounts> {
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, PackedSpreadsheetCellStoreCounts.create().max());
+    }
+
+    @Test
+    public void testIncrementGrows() {
+        final PackedSpreadsheetCellStoreCounts counts = PackedSpreadsheetCellStoreCounts.create();
+        counts.increment(3);
+        counts.increment(1000);
+
+        assertEquals(1000, counts.max());
+    }
+
+    @Test
+    public void testDecrementMax() {
+        final PackedSpreadsheetCellStoreCounts counts = PackedSpreadsheetCellStoreCounts.create();
+        counts.increment(3);
+        counts.increment(5);
+        counts.increment(5);
+
+        counts.decrement(5);
+        assertEquals(5, counts.max());
+
+        counts.decrement(5);
+        assertEquals(3, counts.max());
+
+        counts.decrement(3);
+        assertEquals(0, counts.max());
+    }
+
+    @Test
+    public void testToString() {
+        final PackedSpreadsheetCellStoreCounts counts = PackedSpreadsheetCellStoreCounts.create();
+        counts.increment(3);
+        counts.increment(5);
+        counts.increment(5);
+
+        this.toStringAndCheck(counts, "{3=1, 5=2}");
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<PackedSpreadsheetCellStoreCounts> type() {
+        return PackedSpreadsheetCellStoreCounts.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class PackedSpreadsheetCellStoreIndexTest implements ClassTesting2<PackedSpreadsheetCellStoreIndex>,
+        ToStringTesting<PackedSpreadsheetCellStoreIndex> {
+
+    @Test
+    public void testAddSorts() {
+        final Set<Long> present = Sets.hash();
+        final PackedSpreadsheetCellStoreIndex index = this.index(present, 30L, 10L, 20L);
+
+        assertEquals(3, index.size());
+        assertEquals(10L, index.get(0));
+        assertEquals(20L, index.get(1));
+        assertEquals(30L, index.get(2));
+    }
+
+    @Test
+    public void testAddAfterMerge() {
+        final Set<Long> present = Sets.hash();
+        final PackedSpreadsheetCellStoreIndex index = this.index(present, 30L, 10L);
+        index.size();
+
+        present.add(20L);
+        index.add(20L);
+
+        this.toStringAndCheck(index, "[10, 20, 30]");
+    }
+
+    @Test
+    public void testRemoved() {
+        final Set<Long> present = Sets.hash();
+        final PackedSpreadsheetCellStoreIndex index = this.index(present, 30L, 10L, 20L);
+        index.size();
+
+        present.remove(20L);
+        index.removed();
+
+        this.toStringAndCheck(index, "[10, 30]");
+    }
+
+    @Test
+    public void testRemovedThenAddedAgain() {
+        final Set<Long> present = Sets.hash();
+        final PackedSpreadsheetCellStoreIndex index = this.index(present, 30L, 10L, 20L);
+        index.size();
+
+        index.removed();
+        index.add(20L);
+
+        this.toStringAndCheck(index, "[10, 20, 30]");
+    }
+
+    @Test
+    public void testCeiling() {
+        final PackedSpreadsheetCellStoreIndex index = this.index(Sets.hash(), 10L, 20L, 30L);
+
+        assertEquals(0, index.ceiling(5L));
+        assertEquals(1, index.ceiling(20L));
+        assertEquals(2, index.ceiling(25L));
+        assertEquals(3, index.ceiling(35L));
+    }
+
+    @Test
+    public void testAddAndRemoveAcrossSeveralMerges() {
+        final Set<Long> present = Sets.hash();
+        final PackedSpreadsheetCellStoreIndex index = PackedSpreadsheetCellStoreIndex.with(present::contains);
+
+        for (long key = 99; key >= 0; key--) {
+            present.add(key);
+            index.add(key);
+            if (0 == key % 7) {
+                index.size();
+            }
+        }
+
+        for (long key = 0; key < 100; key += 2) {
+            present.remove(key);
+            index.removed();
+            if (0 == key % 10) {
+                index.size();
+            }
+        }
+
+        assertEquals(50, index.size(), "size");
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i * 2 + 1, index.get(i), "key " + i);
+        }
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        final Set<Long> present = Sets.hash();
+        final long[] keys = new long[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = keys.length - i;
+        }
+        final PackedSpreadsheetCellStoreIndex index = this.index(present, keys);
+
+        final List<Thread> threads = Lists.array();
+        final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                try {
+                    assertEquals(1000, index.size(), "size");
+                    for (int i = 0; i < 1000; i++) {
+                        assertEquals(i + 1, index.get(i), "key " + i);
+                    }
+                } catch (final Throwable cause) {
+                    failures.add(cause);
+                }
+            }));
+        }
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(Lists.empty(), Lists.of(failures.toArray()), "failures");
+    }
+
+    private PackedSpreadsheetCellStoreIndex index(final Set<Long> present,
+                                                  final long... keys) {
+        final PackedSpreadsheetCellStoreIndex index = PackedSpreadsheetCellStoreIndex.with(present::contains);
+        for (final long key : keys) {
+            present.add(key);
+            index.add(key);
+        }
+        return index;
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<PackedSpreadsheetCellStoreIndex> type() {
+        return PackedSpreadsheetCellStoreIndex.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.SpreadsheetFormula;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetReferenceKind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public final class PackedSpreadsheetCellStoreMapTest implements ClassTesting2<PackedSpreadsheetCellStoreMap>,
+        ToStringTesting<PackedSpreadsheetCellStoreMap> {
+
+    @Test
+    public void testPutGet() {
+        final PackedSpreadsheetCellStoreMap map = PackedSpreadsheetCellStoreMap.create();
+        final SpreadsheetCell cell = this.cell(1, 2);
+
+        assertNull(map.put(key(1, 2), cell));
+        assertSame(cell, map.get(key(1, 2)));
+        assertNull(map.get(key(2, 1)));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testPutReplace() {
+        final PackedSpreadsheetCellStoreMap map = PackedSpreadsheetCellStoreMap.create();
+        final SpreadsheetCell cell = this.cell(1, 2);
+        map.put(key(1, 2), cell);
+
+        assertSame(cell, map.put(key(1, 2), this.cell(1, 2)));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testRemove() {
+        final PackedSpreadsheetCellStoreMap map = PackedSpreadsheetCellStoreMap.create();
+        final SpreadsheetCell cell = this.cell(1, 2);
+        map.put(key(1, 2), cell);
+
+        assertSame(cell, map.remove(key(1, 2)));
+        assertNull(map.remove(key(1, 2)));
+        assertNull(map.get(key(1, 2)));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void testGrowAndRemoveKeepsOthers() {
+        final PackedSpreadsheetCellStoreMap map = PackedSpreadsheetCellStoreMap.create();
+        final int count = 100;
+
+        for (int i = 0; i < count; i++) {
+            map.put(key(i, i * 3), this.cell(i, i * 3));
+        }
+        assertEquals(count, map.size());
+
+        for (int i = 0; i < count; i += 2) {
+            map.remove(key(i, i * 3));
+        }
+        assertEquals(count / 2, map.size());
+
+        for (int i = 0; i < count; i++) {
+            if (0 == i % 2) {
+                assertNull(map.get(key(i, i * 3)), "removed " + i);
+            } else {
+                assertEquals(this.cell(i, i * 3), map.get(key(i, i * 3)), "kept " + i);
+            }
+        }
+    }
+
+    @Test
+    public void testToString() {
+        final PackedSpreadsheetCellStoreMap map = PackedSpreadsheetCellStoreMap.create();
+        map.put(key(0, 1), this.cell(0, 1));
+
+        this.toStringAndCheck(map, "{1=A2=1+2}");
+    }
+
+    private static long key(final int column,
+                            final int row) {
+        return ((long) column << 32) | row;
+    }
+
+    private SpreadsheetCell cell(final int column,
+                                 final int row) {
+        final SpreadsheetCellReference reference = SpreadsheetReferenceKind.RELATIVE.column(column)
+                .setRow(SpreadsheetReferenceKind.RELATIVE.row(row));
+        return SpreadsheetCell.with(reference, SpreadsheetFormula.with("1+2"));
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<PackedSpreadsheetCellStoreMap> type() {
+        return PackedSpreadsheetCellStoreMap.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
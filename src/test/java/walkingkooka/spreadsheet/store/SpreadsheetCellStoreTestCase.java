@@ -28,12 +28,15 @@ import walkingkooka.spreadsheet.SpreadsheetFormula;
 import walkingkooka.spreadsheet.parser.SpreadsheetParserToken;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetColumnOrRowReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetColumnReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetExpressionReference;
 import walkingkooka.spreadsheet.reference.SpreadsheetReferenceKind;
+import walkingkooka.spreadsheet.reference.SpreadsheetRowReference;
 import walkingkooka.store.StoreTesting;
 import walkingkooka.tree.expression.Expression;
 import walkingkooka.tree.expression.ExpressionNumberKind;
 import walkingkooka.tree.text.FontWeight;
+import walkingkooka.tree.text.Length;
 import walkingkooka.tree.text.TextNode;
 import walkingkooka.tree.text.TextStyle;
 import walkingkooka.tree.text.TextStylePropertyName;
@@ -231,6 +234,49 @@ public abstract class SpreadsheetCellStoreTestCase<S extends SpreadsheetCellStor
                 a);
     }
 
+    @Test
+    public final void testLoadRangeNullFails() {
+        assertThrows(NullPointerException.class, () -> this.createStore().loadRange(null));
+    }
+
+    @Test
+    public final void testLoadRange() {
+        final S store = this.createStore();
+
+        final SpreadsheetCell a = this.cell("b2");
+        final SpreadsheetCell b = this.cell("c3");
+        final SpreadsheetCell c = this.cell("b4");
+
+        store.save(this.cell("a1"));
+        store.save(a);
+        store.save(this.cell("b5"));
+        store.save(b);
+        store.save(this.cell("d2"));
+        store.save(c);
+        store.save(this.cell("c1"));
+
+        checkEquals("B2:C4", store.loadRange(SpreadsheetExpressionReference.parseRange("B2:C4")), a, c, b);
+    }
+
+    @Test
+    public final void testLoadRangeAbsolute() {
+        final S store = this.createStore();
+
+        final SpreadsheetCell a = this.cell("b2");
+        store.save(a);
+
+        checkEquals("$B$2:$C$3", store.loadRange(SpreadsheetExpressionReference.parseRange("$B$2:$C$3")), a);
+    }
+
+    @Test
+    public final void testLoadRangeEmpty() {
+        final S store = this.createStore();
+
+        store.save(this.cell("a1"));
+
+        checkEquals("B2:C4", store.loadRange(SpreadsheetExpressionReference.parseRange("B2:C4")));
+    }
+
     @Test
     public final void testIds() {
         final S store = this.createStore();
@@ -307,6 +353,229 @@ public abstract class SpreadsheetCellStoreTestCase<S extends SpreadsheetCellStor
                 b, c);
     }
 
+    @Test
+    public final void testLoadAfterSaves() {
+        final S store = this.createStore();
+        store.save(this.cell("A1"));
+        store.save(this.cell("BL64"));
+        store.save(this.cell("BM65"));
+
+        assertEquals(Optional.of(this.cell("BM65")), store.load(SpreadsheetCellReference.parseCellReference("BM65")));
+        this.loadFailCheck(store, SpreadsheetCellReference.parseCellReference("BM64"));
+        this.countAndCheck(store, 3);
+    }
+
+    @Test
+    public final void testValuesSorted() {
+        final S store = this.createStore();
+        store.save(this.cell("BM65"));
+        store.save(this.cell("A65"));
+        store.save(this.cell("A1"));
+        store.save(this.cell("BL64"));
+
+        this.allValuesAndCheck(store, "A1", "A65", "BL64", "BM65");
+    }
+
+    @Test
+    public final void testValuesFromWithinColumn() {
+        final S store = this.createStore();
+        store.save(this.cell("A1"));
+        store.save(this.cell("A65"));
+        store.save(this.cell("A99"));
+        store.save(this.cell("B1"));
+
+        assertEquals(Lists.of(this.cell("A65"), this.cell("A99")),
+                store.values(SpreadsheetCellReference.parseCellReference("A2"), 2));
+    }
+
+    @Test
+    public final void testRowSkipsOtherRows() {
+        final S store = this.createStore();
+        store.save(this.cell("A1"));
+        store.save(this.cell("BM1"));
+        store.save(this.cell("BM2"));
+
+        checkEquals("row 1", store.row(SpreadsheetRowReference.parseRow("1")), this.cell("A1"), this.cell("BM1"));
+    }
+
+    @Test
+    public final void testColumnSkipsOtherColumns() {
+        final S store = this.createStore();
+        store.save(this.cell("A1"));
+        store.save(this.cell("A65"));
+        store.save(this.cell("B65"));
+
+        checkEquals("column A", store.column(SpreadsheetColumnReference.parseColumn("A")), this.cell("A1"), this.cell("A65"));
+    }
+
+    @Test
+    public final void testLoadRangeSkipsRowsOutside() {
+        final S store = this.createStore();
+        store.save(this.cell("A1"));
+        store.save(this.cell("BK63"));
+        store.save(this.cell("BL64"));
+        store.save(this.cell("BM63"));
+        store.save(this.cell("BM65"));
+        store.save(this.cell("BN66"));
+
+        checkEquals("BL64:BM65",
+                store.loadRange(SpreadsheetExpressionReference.parseRange("BL64:BM65")),
+                this.cell("BL64"), this.cell("BM65"));
+    }
+
+    @Test
+    public final void testDeleteLastCell() {
+        final S store = this.createStore();
+        store.save(this.cell("A1"));
+        store.save(this.cell("BM65"));
+        store.delete(SpreadsheetCellReference.parseCellReference("BM65"));
+
+        this.allValuesAndCheck(store, "A1");
+        this.rowsAndCheck(store, 0);
+        this.columnsAndCheck(store, 0);
+        checkEquals("B2:ZZ999", store.loadRange(SpreadsheetExpressionReference.parseRange("B2:ZZ999")));
+    }
+
+    @Test
+    public final void testSaveDeleteSaveAgain() {
+        final S store = this.createStore();
+        store.save(this.cell("A1"));
+        store.save(this.cell("B2"));
+        store.values(SpreadsheetCellReference.parseCellReference("A1"), 1);
+
+        store.delete(SpreadsheetCellReference.parseCellReference("B2"));
+        store.save(this.cell("B2"));
+        store.save(this.cell("A2"));
+
+        this.allValuesAndCheck(store, "A1", "A2", "B2");
+    }
+
+    @Test
+    public final void testRowsColumnsAfterDelete() {
+        final S store = this.createStore();
+        store.save(this.cell("A1"));
+        store.save(this.cell("C5"));
+        store.delete(SpreadsheetCellReference.parseCellReference("C5"));
+
+        this.rowsAndCheck(store, 0);
+        this.columnsAndCheck(store, 0);
+    }
+
+    // shift............................................................................................................
+
+    @Test
+    public final void testShiftColumnsBeforeFirstFails() {
+        assertThrows(IllegalArgumentException.class, () -> this.createStore().shiftColumns(SpreadsheetColumnReference.parseColumn("B"), -2));
+    }
+
+    @Test
+    public final void testShiftColumns() {
+        final S store = this.createStore();
+        store.save(this.cell("A1"));
+        store.save(this.cell("B2"));
+        store.save(this.cell("BL3"));
+
+        final List<List<SpreadsheetCell>> shifted = this.shiftWatcher(store);
+        store.shiftColumns(SpreadsheetColumnReference.parseColumn("B"), 2);
+
+        this.allValuesAndCheck(store, "A1", "D2", "BN3");
+        assertEquals(Lists.of(Lists.of(this.cell("D2"), this.cell("BN3"))), shifted, "shifted");
+    }
+
+    @Test
+    public final void testShiftColumnsNegativeDeletesCellsInTheWay() {
+        final S store = this.createStore();
+        store.save(this.cell("A1"));
+        store.save(this.cell("B2"));
+        store.save(this.cell("C3"));
+        store.save(this.cell("D4"));
+
+        final List<List<SpreadsheetCell>> shifted = this.shiftWatcher(store);
+        store.shiftColumns(SpreadsheetColumnReference.parseColumn("D"), -2);
+
+        this.allValuesAndCheck(store, "A1", "B4");
+        assertEquals(Lists.of(Lists.of(this.cell("B4"))), shifted, "shifted");
+    }
+
+    @Test
+    public final void testShiftRowsBeforeFirstFails() {
+        assertThrows(IllegalArgumentException.class, () -> this.createStore().shiftRows(SpreadsheetRowReference.parseRow("2"), -2));
+    }
+
+    @Test
+    public final void testShiftRows() {
+        final S store = this.createStore();
+        store.save(this.cell("A1"));
+        store.save(this.cell("B63"));
+        store.save(this.cell("C64"));
+
+        final List<List<SpreadsheetCell>> shifted = this.shiftWatcher(store);
+        store.shiftRows(SpreadsheetRowReference.parseRow("63"), 2);
+
+        this.allValuesAndCheck(store, "A1", "B65", "C66");
+        assertEquals(Lists.of(Lists.of(this.cell("B65"), this.cell("C66"))), shifted, "shifted");
+    }
+
+    @Test
+    public final void testShiftRowsNegativeDeletesCellsInTheWay() {
+        final S store = this.createStore();
+        store.save(this.cell("A1"));
+        store.save(this.cell("B2"));
+        store.save(this.cell("C3"));
+        store.save(this.cell("D4"));
+
+        final List<List<SpreadsheetCell>> shifted = this.shiftWatcher(store);
+        store.shiftRows(SpreadsheetRowReference.parseRow("4"), -2);
+
+        this.allValuesAndCheck(store, "A1", "D2");
+        assertEquals(Lists.of(Lists.of(this.cell("D2"))), shifted, "shifted");
+    }
+
+    private List<List<SpreadsheetCell>> shiftWatcher(final S store) {
+        final List<List<SpreadsheetCell>> shifted = Lists.array();
+        store.addShiftWatcher(shifted::add);
+        return shifted;
+    }
+
+    // dimensions.......................................................................................................
+
+    @Test
+    public final void testMaxColumnWidthAfterDelete() {
+        final S store = this.createStore();
+        store.save(this.cellWithWidth("C3", 50.0));
+        store.save(this.cellWithWidth("C4", 70.0));
+        store.delete(SpreadsheetCellReference.parseCellReference("C4"));
+
+        assertEquals(50.0, store.maxColumnWidth(SpreadsheetColumnReference.parseColumn("C")));
+    }
+
+    @Test
+    public final void testColumnsWidthAndColumnAt() {
+        final S store = this.createStore();
+        store.save(this.cellWithWidth("B3", 50.0));
+
+        assertEquals(10 + 50, store.columnsWidth(SpreadsheetColumnReference.parseColumn("C"), 10));
+        assertEquals(SpreadsheetColumnReference.parseColumn("C"), store.columnAt(60, 10));
+    }
+
+    private SpreadsheetCell cellWithWidth(final String reference,
+                                          final double pixels) {
+        return this.cell(reference)
+                .setStyle(TextStyle.EMPTY
+                        .set(TextStylePropertyName.WIDTH, Length.pixel(pixels)));
+    }
+
+    private void allValuesAndCheck(final S store,
+                                   final String... cells) {
+        final List<SpreadsheetCell> expected = Lists.array();
+        for (final String cell : cells) {
+            expected.add(this.cell(cell));
+        }
+        assertEquals(expected,
+                store.values(SpreadsheetCellReference.parseCellReference("A1"), Integer.MAX_VALUE),
+                () -> "values " + store);
+    }
+
     @Override
     public final SpreadsheetCellReference id() {
         return SpreadsheetExpressionReference.parseCellReference("A1");
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.SpreadsheetFormula;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+
+final class TiledSpreadsheetCellStoreTest extends SpreadsheetCellStoreTestCase<TiledSpreadsheetCellStore> {
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final TiledSpreadsheetCellStore store = this.createStore();
+        store.save(this.cell("BM65"));
+        store.save(this.cell("A1"));
+
+        this.toStringAndCheck(store, "[A1=1+2, BM65=1+2]");
+    }
+
+    private SpreadsheetCell cell(final String reference) {
+        return SpreadsheetCell.with(SpreadsheetCellReference.parseCellReference(reference), SpreadsheetFormula.with("1+2"));
+    }
+
+    @Override
+    public TiledSpreadsheetCellStore createStore() {
+        return TiledSpreadsheetCellStore.create();
+    }
+
+    @Override
+    public Class<TiledSpreadsheetCellStore> type() {
+        return TiledSpreadsheetCellStore.class;
+    }
+
+    // TypeNameTesting..................................................................
+
+    @Override
+    public String typeNamePrefix() {
+        return "Tiled";
+    }
+}
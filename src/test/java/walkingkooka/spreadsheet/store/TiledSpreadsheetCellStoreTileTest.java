@@ -0,0 +1,147 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.SpreadsheetFormula;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class TiledSpreadsheetCellStoreTileTest implements ClassTesting2<TiledSpreadsheetCellStoreTile>,
+        ToStringTesting<TiledSpreadsheetCellStoreTile> {
+
+    @Test
+    public void testPutGet() {
+        final TiledSpreadsheetCellStoreTile tile = TiledSpreadsheetCellStoreTile.create();
+        final SpreadsheetCell cell = this.cell("B3");
+
+        assertNull(tile.put(cell));
+        assertSame(cell, tile.get(1, 2));
+        assertNull(tile.get(2, 1));
+        assertFalse(tile.isEmpty());
+    }
+
+    @Test
+    public void testPutReplace() {
+        final TiledSpreadsheetCellStoreTile tile = TiledSpreadsheetCellStoreTile.create();
+        final SpreadsheetCell cell = this.cell("B3");
+        tile.put(cell);
+
+        assertSame(cell, tile.put(this.cell("B3")));
+    }
+
+    @Test
+    public void testGetOtherTileUsesLowBits() {
+        final TiledSpreadsheetCellStoreTile tile = TiledSpreadsheetCellStoreTile.create();
+        final SpreadsheetCell cell = this.cell("BN66");
+        tile.put(cell);
+
+        assertSame(cell, tile.get(1, 1));
+    }
+
+    @Test
+    public void testRemove() {
+        final TiledSpreadsheetCellStoreTile tile = TiledSpreadsheetCellStoreTile.create();
+        final SpreadsheetCell cell = this.cell("B3");
+        tile.put(cell);
+
+        assertSame(cell, tile.remove(1, 2));
+        assertNull(tile.remove(1, 2));
+        assertTrue(tile.isEmpty());
+    }
+
+    @Test
+    public void testColumn() {
+        final TiledSpreadsheetCellStoreTile tile = TiledSpreadsheetCellStoreTile.create();
+        tile.put(this.cell("B1"));
+        tile.put(this.cell("B3"));
+        tile.put(this.cell("B5"));
+        tile.put(this.cell("C2"));
+
+        final List<SpreadsheetCell> cells = Lists.array();
+        tile.column(1, 1, 4, cells::add);
+
+        assertEquals(Lists.of(this.cell("B3"), this.cell("B5")), cells);
+    }
+
+    @Test
+    public void testColumnWhileStops() {
+        final TiledSpreadsheetCellStoreTile tile = TiledSpreadsheetCellStoreTile.create();
+        tile.put(this.cell("B1"));
+        tile.put(this.cell("B3"));
+
+        final List<SpreadsheetCell> cells = Lists.array();
+        assertFalse(tile.columnWhile(1, 0, 63, c -> {
+            cells.add(c);
+            return false;
+        }));
+
+        assertEquals(Lists.of(this.cell("B1")), cells);
+    }
+
+    @Test
+    public void testRow() {
+        final TiledSpreadsheetCellStoreTile tile = TiledSpreadsheetCellStoreTile.create();
+        tile.put(this.cell("A2"));
+        tile.put(this.cell("C2"));
+        tile.put(this.cell("E2"));
+        tile.put(this.cell("B3"));
+
+        final List<SpreadsheetCell> cells = Lists.array();
+        tile.row(1, 0, 3, cells::add);
+
+        assertEquals(Lists.of(this.cell("A2"), this.cell("C2")), cells);
+    }
+
+    @Test
+    public void testToString() {
+        final TiledSpreadsheetCellStoreTile tile = TiledSpreadsheetCellStoreTile.create();
+        tile.put(this.cell("B1"));
+        tile.put(this.cell("A2"));
+
+        this.toStringAndCheck(tile, "[A2=1+2, B1=1+2]");
+    }
+
+    private SpreadsheetCell cell(final String reference) {
+        return SpreadsheetCell.with(SpreadsheetCellReference.parseCellReference(reference), SpreadsheetFormula.with("1+2"));
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<TiledSpreadsheetCellStoreTile> type() {
+        return TiledSpreadsheetCellStoreTile.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.SpreadsheetFormula;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.tree.text.Length;
+import walkingkooka.tree.text.TextStyle;
+import walkingkooka.tree.text.TextStylePropertyName;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class TreeMapSpreadsheetCellStoreDimensionTest implements ClassTesting2<TreeMapSpreadsheetCellStoreDimension>,
+        ToStringTesting<TreeMapSpreadsheetCellStoreDimension> {
+
+    private final static double DEFAULT = 10;
+
+    // max..............................................................................................................
+
+    @Test
+    public void testMaxEmpty() {
+        this.maxAndCheck(TreeMapSpreadsheetCellStoreDimension.create(), 1, 0);
+    }
+
+    @Test
+    public void testMaxSeveral() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+        dimension.add(1, 20);
+        dimension.add(1, 50);
+        dimension.add(1, 30);
+        dimension.add(2, 99);
+
+        this.maxAndCheck(dimension, 1, 50);
+    }
+
+    @Test
+    public void testMaxZeroIgnored() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+        dimension.add(1, 0);
+
+        this.maxAndCheck(dimension, 1, 0);
+    }
+
+    @Test
+    public void testMaxAfterRemoveMax() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+        dimension.add(1, 20);
+        dimension.add(1, 50);
+        dimension.remove(1, 50);
+
+        this.maxAndCheck(dimension, 1, 20);
+    }
+
+    @Test
+    public void testMaxAfterRemoveDuplicate() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+        dimension.add(1, 50);
+        dimension.add(1, 50);
+        dimension.remove(1, 50);
+
+        this.maxAndCheck(dimension, 1, 50);
+    }
+
+    @Test
+    public void testMaxAfterRemoveAll() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+        dimension.add(1, 50);
+        dimension.remove(1, 50);
+
+        this.maxAndCheck(dimension, 1, 0);
+    }
+
+    private void maxAndCheck(final TreeMapSpreadsheetCellStoreDimension dimension,
+                             final int index,
+                             final double expected) {
+        assertEquals(expected, dimension.max(index), () -> "max " + index + " " + dimension);
+    }
+
+    // sum..............................................................................................................
+
+    @Test
+    public void testSumEmpty() {
+        this.sumAndCheck(TreeMapSpreadsheetCellStoreDimension.create(), 5, 5 * DEFAULT);
+    }
+
+    @Test
+    public void testSumZero() {
+        this.sumAndCheck(TreeMapSpreadsheetCellStoreDimension.create(), 0, 0);
+    }
+
+    @Test
+    public void testSumWithSizes() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+        dimension.add(1, 50);
+        dimension.add(3, 20);
+        dimension.add(3, 25);
+        dimension.add(7, 99);
+
+        this.sumAndCheck(dimension, 1, DEFAULT);
+        this.sumAndCheck(dimension, 2, DEFAULT + 50);
+        this.sumAndCheck(dimension, 5, 3 * DEFAULT + 50 + 25);
+        this.sumAndCheck(dimension, 8, 5 * DEFAULT + 50 + 25 + 99);
+    }
+
+    @Test
+    public void testSumBeyondCapacity() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+        dimension.add(1, 50);
+
+        this.sumAndCheck(dimension, 1000, 999 * DEFAULT + 50);
+    }
+
+    @Test
+    public void testSumAfterGrowing() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+        dimension.add(1, 50);
+        dimension.add(1000, 70);
+
+        this.sumAndCheck(dimension, 1000, 999 * DEFAULT + 50);
+        this.sumAndCheck(dimension, 1001, 999 * DEFAULT + 50 + 70);
+    }
+
+    @Test
+    public void testSumAfterRemove() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+        dimension.add(1, 50);
+        dimension.add(2, 70);
+        dimension.remove(1, 50);
+
+        this.sumAndCheck(dimension, 3, 2 * DEFAULT + 70);
+    }
+
+    private void sumAndCheck(final TreeMapSpreadsheetCellStoreDimension dimension,
+                             final int index,
+                             final double expected) {
+        assertEquals(expected, dimension.sum(index, DEFAULT), () -> "sum " + index + " " + dimension);
+    }
+
+    // find.............................................................................................................
+
+    @Test
+    public void testFindEmpty() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+
+        this.findAndCheck(dimension, 0, 0);
+        this.findAndCheck(dimension, DEFAULT - 1, 0);
+        this.findAndCheck(dimension, DEFAULT, 1);
+        this.findAndCheck(dimension, 5 * DEFAULT + 1, 5);
+    }
+
+    @Test
+    public void testFindNegative() {
+        this.findAndCheck(TreeMapSpreadsheetCellStoreDimension.create(), -1, 0);
+    }
+
+    @Test
+    public void testFindWithSizes() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+        dimension.add(1, 50);
+        dimension.add(3, 20);
+
+        this.findAndCheck(dimension, DEFAULT, 1);
+        this.findAndCheck(dimension, DEFAULT + 49, 1);
+        this.findAndCheck(dimension, DEFAULT + 50, 2);
+        this.findAndCheck(dimension, 2 * DEFAULT + 50, 3);
+        this.findAndCheck(dimension, 2 * DEFAULT + 50 + 20, 4);
+    }
+
+    @Test
+    public void testFindBeyondCapacity() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+        dimension.add(1, 50);
+
+        this.findAndCheck(dimension, 999 * DEFAULT + 50, 1000);
+        this.findAndCheck(dimension, 999 * DEFAULT + 51, 1000);
+    }
+
+    @Test
+    public void testFindSumRoundTrip() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+        for (int i = 0; i < 300; i += 7) {
+            dimension.add(i, i + 1);
+        }
+
+        for (int i = 0; i < 400; i++) {
+            this.findAndCheck(dimension, dimension.sum(i, DEFAULT), i);
+        }
+    }
+
+    private void findAndCheck(final TreeMapSpreadsheetCellStoreDimension dimension,
+                              final double offset,
+                              final int expected) {
+        assertEquals(expected, dimension.find(offset, DEFAULT), () -> "find " + offset + " " + dimension);
+    }
+
+    // findEnding.......................................................................................................
+
+    @Test
+    public void testFindEndingEmpty() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+
+        this.findEndingAndCheck(dimension, 0, 0);
+        this.findEndingAndCheck(dimension, DEFAULT - 1, 0);
+        this.findEndingAndCheck(dimension, DEFAULT, 0);
+        this.findEndingAndCheck(dimension, DEFAULT + 1, 1);
+        this.findEndingAndCheck(dimension, 5 * DEFAULT, 4);
+    }
+
+    @Test
+    public void testFindEndingNegative() {
+        this.findEndingAndCheck(TreeMapSpreadsheetCellStoreDimension.create(), -1, 0);
+    }
+
+    @Test
+    public void testFindEndingWithSizes() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+        dimension.add(1, 50);
+        dimension.add(3, 20);
+
+        this.findEndingAndCheck(dimension, DEFAULT, 0);
+        this.findEndingAndCheck(dimension, DEFAULT + 1, 1);
+        this.findEndingAndCheck(dimension, DEFAULT + 50, 1);
+        this.findEndingAndCheck(dimension, DEFAULT + 51, 2);
+        this.findEndingAndCheck(dimension, 2 * DEFAULT + 50 + 20, 3);
+    }
+
+    @Test
+    public void testFindEndingBeyondCapacity() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+        dimension.add(1, 50);
+
+        this.findEndingAndCheck(dimension, 999 * DEFAULT + 50, 999);
+        this.findEndingAndCheck(dimension, 999 * DEFAULT + 51, 1000);
+    }
+
+    @Test
+    public void testFindEndingFractionalSizes() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+        for (int i = 0; i < 100; i++) {
+            dimension.add(i, 0.1);
+        }
+
+        // each boundary accumulated by the search is the end of the previous column or row
+        for (int i = 1; i < 100; i++) {
+            final int index = dimension.find(dimension.sum(i, DEFAULT), DEFAULT);
+            this.findEndingAndCheck(dimension, dimension.sum(index, DEFAULT), index - 1);
+        }
+    }
+
+    private void findEndingAndCheck(final TreeMapSpreadsheetCellStoreDimension dimension,
+                                    final double offset,
+                                    final int expected) {
+        assertEquals(expected, dimension.findEnding(offset, DEFAULT), () -> "findEnding " + offset + " " + dimension);
+    }
+
+    // pixels...........................................................................................................
+
+    @Test
+    public void testPixels() {
+        this.pixelsAndCheck(
+                TextStyle.EMPTY.set(TextStylePropertyName.WIDTH, Length.pixel(50.0)),
+                50
+        );
+    }
+
+    @Test
+    public void testPixelsMissing() {
+        this.pixelsAndCheck(TextStyle.EMPTY, 0);
+    }
+
+    @Test
+    public void testPixelsNone() {
+        this.pixelsAndCheck(
+                TextStyle.EMPTY.set(TextStylePropertyName.WIDTH, Length.none()),
+                0
+        );
+    }
+
+    private void pixelsAndCheck(final TextStyle style,
+                                final double expected) {
+        final SpreadsheetCell cell = SpreadsheetCell.with(SpreadsheetCellReference.parseCellReference("A1"), SpreadsheetFormula.with("1"))
+                .setStyle(style);
+        assertEquals(expected, TreeMapSpreadsheetCellStoreDimension.pixels(cell, TextStylePropertyName.WIDTH), () -> "pixels " + style);
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final TreeMapSpreadsheetCellStoreDimension dimension = TreeMapSpreadsheetCellStoreDimension.create();
+        dimension.add(1, 50);
+        dimension.add(1, 50);
+        dimension.add(2, 20);
+
+        this.toStringAndCheck(dimension, "{1={50.0=2}, 2={20.0=1}}");
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<TreeMapSpreadsheetCellStoreDimension> type() {
+        return TreeMapSpreadsheetCellStoreDimension.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
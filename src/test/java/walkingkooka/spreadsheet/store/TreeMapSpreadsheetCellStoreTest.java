@@ -18,6 +18,8 @@
 package walkingkooka.spreadsheet.store;
 
 import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
 import walkingkooka.spreadsheet.SpreadsheetCell;
 import walkingkooka.spreadsheet.SpreadsheetFormula;
 import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
@@ -28,6 +30,7 @@ import walkingkooka.tree.text.Length;
 import walkingkooka.tree.text.TextStyle;
 import walkingkooka.tree.text.TextStylePropertyName;
 
+import java.util.List;
 import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -77,6 +80,26 @@ final class TreeMapSpreadsheetCellStoreTest extends SpreadsheetCellStoreTestCase
         this.maxColumnWidthAndCheck(store, SpreadsheetColumnReference.parseColumn("C"), 99.0);
     }
 
+    @Test
+    public void testMaxColumnWidthAfterSaveReplace() {
+        final TreeMapSpreadsheetCellStore store = this.createStore();
+        store.save(cellWithWidth("C3", 50.0));
+        store.save(cellWithWidth("C4", 99.0));
+        store.save(cellWithWidth("C4", 0));
+
+        this.maxColumnWidthAndCheck(store, SpreadsheetColumnReference.parseColumn("C"), 50.0);
+    }
+
+    @Test
+    public void testMaxColumnWidthAfterShift() {
+        final TreeMapSpreadsheetCellStore store = this.createStore();
+        store.save(cellWithWidth("C3", 50.0));
+        store.shiftColumns(SpreadsheetColumnReference.parseColumn("B"), 2);
+
+        this.maxColumnWidthAndCheck(store, SpreadsheetColumnReference.parseColumn("C"), 0);
+        this.maxColumnWidthAndCheck(store, SpreadsheetColumnReference.parseColumn("E"), 50.0);
+    }
+
     private SpreadsheetCell cellWithWidth(final String cellReference,
                                           final double pixels) {
         SpreadsheetCell cell = SpreadsheetCell.with(SpreadsheetCellReference.parseCellReference(cellReference), SpreadsheetFormula.with("1+2"));
@@ -155,6 +178,225 @@ final class TreeMapSpreadsheetCellStoreTest extends SpreadsheetCellStoreTestCase
                 () -> "maxRowHeight of " + row + " store=" + store);
     }
 
+    // index............................................................................................................
+
+    @Test
+    public void testRowsColumnsAfterDeleteAll() {
+        final TreeMapSpreadsheetCellStore store = this.createStore();
+        store.save(this.cell("B2"));
+        store.delete(SpreadsheetCellReference.parseCellReference("B2"));
+
+        this.rowsAndCheck(store, 0);
+        this.columnsAndCheck(store, 0);
+        assertEquals(Sets.empty(), store.row(SpreadsheetRowReference.parseRow("2")), "row");
+        assertEquals(Sets.empty(), store.column(SpreadsheetColumnReference.parseColumn("B")), "column");
+    }
+
+    @Test
+    public void testRowAndColumnAfterSaveReplace() {
+        final TreeMapSpreadsheetCellStore store = this.createStore();
+        store.save(this.cell("B2"));
+        store.save(this.cell("B3"));
+
+        final SpreadsheetCell replaced = this.cell("B2").setFormula(SpreadsheetFormula.with("3+4"));
+        store.save(replaced);
+
+        assertEquals(Sets.of(replaced, this.cell("B3")), store.column(SpreadsheetColumnReference.parseColumn("B")), "column");
+        assertEquals(Sets.of(replaced), store.row(SpreadsheetRowReference.parseRow("2")), "row");
+    }
+
+    @Test
+    public void testRowsColumnsAfterShift() {
+        final TreeMapSpreadsheetCellStore store = this.createStore();
+        store.save(this.cell("A1"));
+        store.save(this.cell("C3"));
+
+        store.shiftColumns(SpreadsheetColumnReference.parseColumn("B"), 3);
+        store.shiftRows(SpreadsheetRowReference.parseRow("2"), 4);
+
+        this.rowsAndCheck(store, 6);
+        this.columnsAndCheck(store, 5);
+        assertEquals(Sets.of(this.cell("F7")), store.row(SpreadsheetRowReference.parseRow("7")), "row");
+        assertEquals(Sets.empty(), store.column(SpreadsheetColumnReference.parseColumn("C")), "column");
+    }
+
+    // shiftColumns....................................................................................................
+
+    @Test
+    public void testShiftColumnsWithNullFromFails() {
+        assertThrows(NullPointerException.class, () -> this.createStore().shiftColumns(null, 1));
+    }
+
+    @Test
+    public void testShiftColumnsNothingShifted() {
+        final TreeMapSpreadsheetCellStore store = this.createStore();
+        store.save(this.cell("A1"));
+
+        final List<List<SpreadsheetCell>> shifted = this.shiftWatcher(store);
+        store.shiftColumns(SpreadsheetColumnReference.parseColumn("B"), 1);
+
+        this.valuesAndCheck(store, "A1");
+        assertEquals(Lists.empty(), shifted, "shifted");
+    }
+
+    // shiftRows........................................................................................................
+
+    @Test
+    public void testShiftRowsWithNullFromFails() {
+        assertThrows(NullPointerException.class, () -> this.createStore().shiftRows(null, 1));
+    }
+
+    private SpreadsheetCell cell(final String reference) {
+        return SpreadsheetCell.with(SpreadsheetCellReference.parseCellReference(reference), SpreadsheetFormula.with("1+2"));
+    }
+
+    private List<List<SpreadsheetCell>> shiftWatcher(final TreeMapSpreadsheetCellStore store) {
+        final List<List<SpreadsheetCell>> shifted = Lists.array();
+        store.addShiftWatcher(shifted::add);
+        return shifted;
+    }
+
+    private void valuesAndCheck(final TreeMapSpreadsheetCellStore store,
+                                final String... cells) {
+        final List<SpreadsheetCell> expected = Lists.array();
+        for (final String cell : cells) {
+            expected.add(this.cell(cell));
+        }
+        assertEquals(expected,
+                store.values(SpreadsheetCellReference.parseCellReference("A1"), Integer.MAX_VALUE),
+                () -> "values " + store);
+    }
+
+    // columnsWidth.....................................................................................................
+
+    @Test
+    public void testColumnsWidthWithNullFails() {
+        assertThrows(NullPointerException.class, () -> this.createStore().columnsWidth(null, 10));
+    }
+
+    @Test
+    public void testColumnsWidthInvalidDefaultFails() {
+        assertThrows(IllegalArgumentException.class, () -> this.createStore().columnsWidth(SpreadsheetColumnReference.parseColumn("A"), 0));
+    }
+
+    @Test
+    public void testColumnsWidth() {
+        final TreeMapSpreadsheetCellStore store = this.createStore();
+        store.save(cellWithWidth("B3", 50.0));
+        store.save(cellWithWidth("B4", 70.0));
+        store.save(cellWithWidth("D1", 20.0));
+
+        this.columnsWidthAndCheck(store, "A", 0);
+        this.columnsWidthAndCheck(store, "B", 10);
+        this.columnsWidthAndCheck(store, "C", 10 + 70);
+        this.columnsWidthAndCheck(store, "F", 10 + 70 + 10 + 20 + 10);
+    }
+
+    private void columnsWidthAndCheck(final TreeMapSpreadsheetCellStore store,
+                                      final String column,
+                                      final double expected) {
+        assertEquals(expected,
+                store.columnsWidth(SpreadsheetColumnReference.parseColumn(column), 10),
+                () -> "columnsWidth of " + column + " store=" + store);
+    }
+
+    // rowsHeight.......................................................................................................
+
+    @Test
+    public void testRowsHeight() {
+        final TreeMapSpreadsheetCellStore store = this.createStore();
+        store.save(cellWithHeight("C2", 50.0));
+
+        assertEquals(10 + 50 + 10, store.rowsHeight(SpreadsheetRowReference.parseRow("4"), 10));
+    }
+
+    // columnAt.........................................................................................................
+
+    @Test
+    public void testColumnAt() {
+        final TreeMapSpreadsheetCellStore store = this.createStore();
+        store.save(cellWithWidth("B3", 50.0));
+
+        this.columnAtAndCheck(store, 0, "A");
+        this.columnAtAndCheck(store, 9, "A");
+        this.columnAtAndCheck(store, 10, "B");
+        this.columnAtAndCheck(store, 59, "B");
+        this.columnAtAndCheck(store, 60, "C");
+    }
+
+    @Test
+    public void testColumnAtAfterLast() {
+        this.columnAtAndCheck(this.createStore(), 10 * 20000, "XFD");
+    }
+
+    private void columnAtAndCheck(final TreeMapSpreadsheetCellStore store,
+                                  final double offset,
+                                  final String column) {
+        assertEquals(SpreadsheetColumnReference.parseColumn(column),
+                store.columnAt(offset, 10),
+                () -> "columnAt " + offset + " store=" + store);
+    }
+
+    // columnEndingAt...................................................................................................
+
+    @Test
+    public void testColumnEndingAt() {
+        final TreeMapSpreadsheetCellStore store = this.createStore();
+        store.save(cellWithWidth("B3", 50.0));
+
+        this.columnEndingAtAndCheck(store, 0, "A");
+        this.columnEndingAtAndCheck(store, 10, "A");
+        this.columnEndingAtAndCheck(store, 11, "B");
+        this.columnEndingAtAndCheck(store, 60, "B");
+        this.columnEndingAtAndCheck(store, 61, "C");
+    }
+
+    @Test
+    public void testColumnEndingAtAfterLast() {
+        this.columnEndingAtAndCheck(this.createStore(), 10 * 20000, "XFD");
+    }
+
+    private void columnEndingAtAndCheck(final TreeMapSpreadsheetCellStore store,
+                                        final double offset,
+                                        final String column) {
+        assertEquals(SpreadsheetColumnReference.parseColumn(column),
+                store.columnEndingAt(offset, 10),
+                () -> "columnEndingAt " + offset + " store=" + store);
+    }
+
+    // rowAt............................................................................................................
+
+    @Test
+    public void testRowAt() {
+        final TreeMapSpreadsheetCellStore store = this.createStore();
+        store.save(cellWithHeight("C2", 50.0));
+
+        assertEquals(SpreadsheetRowReference.parseRow("3"), store.rowAt(60, 10));
+    }
+
+    // rowEndingAt......................................................................................................
+
+    @Test
+    public void testRowEndingAt() {
+        final TreeMapSpreadsheetCellStore store = this.createStore();
+        store.save(cellWithHeight("C2", 50.0));
+
+        assertEquals(SpreadsheetRowReference.parseRow("2"), store.rowEndingAt(60, 10));
+    }
+
+    // non pixel lengths................................................................................................
+
+    @Test
+    public void testSaveNonPixelWidthIgnored() {
+        final TreeMapSpreadsheetCellStore store = this.createStore();
+        store.save(cellWithWidth("C3", 50.0));
+        store.save(SpreadsheetCell.with(SpreadsheetCellReference.parseCellReference("C4"), SpreadsheetFormula.with("1+2"))
+                .setStyle(TextStyle.EMPTY.set(TextStylePropertyName.WIDTH, Length.none())));
+
+        this.maxColumnWidthAndCheck(store, SpreadsheetColumnReference.parseColumn("C"), 50.0);
+        this.columnsWidthAndCheck(store, "D", 10 + 10 + 50);
+    }
+
     // toString.........................................................................................................
 
     @Test
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.spreadsheet.store.repo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class DurableSpreadsheetStoreRepositoryLogTest implements ClassTesting2<DurableSpreadsheetStoreRepositoryLog>,
+        ToStringTesting<DurableSpreadsheetStoreRepositoryLog> {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    public void testWithNullDirectoryFails() {
+        assertThrows(NullPointerException.class, () -> DurableSpreadsheetStoreRepositoryLog.with(null));
+    }
+
+    @Test
+    public void testReplayEmpty() {
+        this.replayAndCheck(this.log());
+        assertTrue(Files.exists(this.temp.resolve("log-00000000")), "log");
+    }
+
+    @Test
+    public void testAppendReplay() {
+        final DurableSpreadsheetStoreRepositoryLog log = this.log();
+        this.replayAndCheck(log);
+
+        log.append((byte) 1, (byte) 2, bytes("\"a\""));
+        log.append((byte) 3, (byte) 4, bytes("\"bc\""));
+        assertEquals(2, log.count(), "count");
+
+        this.replayAndCheck(this.log(), "1 2 \"a\"", "3 4 \"bc\"");
+    }
+
+    @Test
+    public void testAppendLargerThanBuffer() {
+        final DurableSpreadsheetStoreRepositoryLog log = this.log();
+        this.replayAndCheck(log);
+
+        final String large = "\"" + "x".repeat(100 * 1024) + "\"";
+        log.append((byte) 1, (byte) 1, bytes(large));
+
+        this.replayAndCheck(this.log(), "1 1 " + large);
+    }
+
+    @Test
+    public void testSnapshot() {
+        final DurableSpreadsheetStoreRepositoryLog log = this.log();
+        this.replayAndCheck(log);
+
+        log.append((byte) 1, (byte) 1, bytes("\"before\""));
+        log.snapshot(() -> log.append((byte) 1, (byte) 1, bytes("\"snapshot\"")));
+        assertEquals(0, log.count(), "count");
+
+        log.append((byte) 1, (byte) 2, bytes("\"after\""));
+
+        assertFalse(Files.exists(this.temp.resolve("log-00000000")), "previous log");
+        this.replayAndCheck(this.log(), "1 1 \"snapshot\"", "1 2 \"after\"");
+        this.toStringAndCheck(log, this.temp + " 1");
+    }
+
+    @Test
+    public void testReplayTruncatesTornRecord() throws IOException {
+        final DurableSpreadsheetStoreRepositoryLog log = this.log();
+        this.replayAndCheck(log);
+        log.append((byte) 1, (byte) 1, bytes("\"a\""));
+
+        final Path file = this.temp.resolve("log-00000000");
+        final long size = Files.size(file);
+        Files.write(file, new byte[]{0, 0, 0, 9, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        this.replayAndCheck(this.log(), "1 1 \"a\"");
+        assertEquals(size, Files.size(file), "truncated");
+    }
+
+    @Test
+    public void testReplayStopsAtCorruptRecord() throws IOException {
+        final DurableSpreadsheetStoreRepositoryLog log = this.log();
+        this.replayAndCheck(log);
+        log.append((byte) 1, (byte) 1, bytes("\"a\""));
+        log.append((byte) 1, (byte) 1, bytes("\"b\""));
+
+        final Path file = this.temp.resolve("log-00000000");
+        final byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 2]++;
+        Files.write(file, bytes);
+
+        this.replayAndCheck(this.log(), "1 1 \"a\"");
+    }
+
+    @Test
+    public void testCloseThenAppendFails() {
+        final DurableSpreadsheetStoreRepositoryLog log = this.log();
+        this.replayAndCheck(log);
+        log.append((byte) 1, (byte) 1, bytes("\"a\""));
+        log.close();
+
+        assertThrows(SpreadsheetStoreRepositoryException.class, () -> log.append((byte) 1, (byte) 1, bytes("\"b\"")));
+        this.replayAndCheck(this.log(), "1 1 \"a\"");
+    }
+
+    private static byte[] bytes(final String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private DurableSpreadsheetStoreRepositoryLog log() {
+        return DurableSpreadsheetStoreRepositoryLog.with(this.temp);
+    }
+
+    private void replayAndCheck(final DurableSpreadsheetStoreRepositoryLog log,
+                                final String... records) {
+        final List<String> replayed = Lists.array();
+        log.replay(r -> replayed.add(record(r)));
+        assertEquals(Lists.of(records), replayed, "replayed");
+    }
+
+    private static String record(final ByteBuffer record) {
+        final byte store = record.get();
+        final byte operation = record.get();
+        return store + " " + operation + " " + new String(record.array(), record.position(), record.remaining(), StandardCharsets.UTF_8);
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final DurableSpreadsheetStoreRepositoryLog log = this.log();
+        log.replay(r -> {
+        });
+        this.toStringAndCheck(log, this.temp + " 0");
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<DurableSpreadsheetStoreRepositoryLog> type() {
+        return DurableSpreadsheetStoreRepositoryLog.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
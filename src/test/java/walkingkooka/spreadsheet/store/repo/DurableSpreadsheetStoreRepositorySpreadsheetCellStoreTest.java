@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store.repo;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.SpreadsheetFormula;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.store.SpreadsheetCellStore;
+import walkingkooka.spreadsheet.store.SpreadsheetCellStores;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class DurableSpreadsheetStoreRepositorySpreadsheetCellStoreTest implements ClassTesting2<DurableSpreadsheetStoreRepositorySpreadsheetCellStore>,
+        ToStringTesting<DurableSpreadsheetStoreRepositorySpreadsheetCellStore> {
+
+    @Test
+    public void testLoad() {
+        final SpreadsheetCellStore store = SpreadsheetCellStores.treeMap();
+        final SpreadsheetCell cell = SpreadsheetCell.with(SpreadsheetCellReference.parseCellReference("B2"), SpreadsheetFormula.with("1+2"));
+        store.save(cell);
+
+        assertEquals(Optional.of(cell),
+                DurableSpreadsheetStoreRepositorySpreadsheetCellStore.with(store, null)
+                        .load(cell.reference()));
+    }
+
+    @Test
+    public void testToString() {
+        final SpreadsheetCellStore store = SpreadsheetCellStores.treeMap();
+        store.save(SpreadsheetCell.with(SpreadsheetCellReference.parseCellReference("B2"), SpreadsheetFormula.with("1+2")));
+
+        this.toStringAndCheck(DurableSpreadsheetStoreRepositorySpreadsheetCellStore.with(store, null),
+                store.toString());
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<DurableSpreadsheetStoreRepositorySpreadsheetCellStore> type() {
+        return DurableSpreadsheetStoreRepositorySpreadsheetCellStore.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
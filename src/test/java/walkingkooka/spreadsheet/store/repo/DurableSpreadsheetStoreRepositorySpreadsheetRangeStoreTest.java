@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.spreadsheet.store.repo;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.SpreadsheetBinaryWriter;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetExpressionReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetRangeStore;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetRangeStores;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class DurableSpreadsheetStoreRepositorySpreadsheetRangeStoreTest implements ClassTesting2<DurableSpreadsheetStoreRepositorySpreadsheetRangeStore<SpreadsheetCellReference>>,
+        ToStringTesting<DurableSpreadsheetStoreRepositorySpreadsheetRangeStore<SpreadsheetCellReference>> {
+
+    @Test
+    public void testLoadCellReferenceValues() {
+        final SpreadsheetRangeStore<SpreadsheetCellReference> store = SpreadsheetRangeStores.treeMap();
+        final SpreadsheetRange range = SpreadsheetExpressionReference.parseRange("A1:B2");
+        final SpreadsheetCellReference c3 = SpreadsheetCellReference.parseCellReference("C3");
+        store.addValue(range, c3);
+
+        assertEquals(Sets.of(c3),
+                DurableSpreadsheetStoreRepositorySpreadsheetRangeStore.with(store, DurableSpreadsheetStoreRepository.RANGE_TO_CELLS, SpreadsheetBinaryWriter::writeCellReference, null)
+                        .loadCellReferenceValues(SpreadsheetCellReference.parseCellReference("B2")));
+    }
+
+    @Test
+    public void testToString() {
+        final SpreadsheetRangeStore<SpreadsheetCellReference> store = SpreadsheetRangeStores.treeMap();
+        store.addValue(SpreadsheetExpressionReference.parseRange("A1:B2"), SpreadsheetCellReference.parseCellReference("C3"));
+
+        this.toStringAndCheck(DurableSpreadsheetStoreRepositorySpreadsheetRangeStore.with(store, DurableSpreadsheetStoreRepository.RANGE_TO_CELLS, SpreadsheetBinaryWriter::writeCellReference, null),
+                store.toString());
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<DurableSpreadsheetStoreRepositorySpreadsheetRangeStore<SpreadsheetCellReference>> type() {
+        return Cast.to(DurableSpreadsheetStoreRepositorySpreadsheetRangeStore.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
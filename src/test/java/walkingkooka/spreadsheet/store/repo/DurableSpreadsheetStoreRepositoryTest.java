@@ -0,0 +1,458 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.spreadsheet.store.repo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.email.EmailAddress;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.SpreadsheetDescription;
+import walkingkooka.spreadsheet.SpreadsheetFormula;
+import walkingkooka.spreadsheet.conditionalformat.SpreadsheetConditionalFormattingRule;
+import walkingkooka.spreadsheet.meta.store.SpreadsheetMetadataStores;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetColumnReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetExpressionReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelMapping;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+import walkingkooka.spreadsheet.reference.SpreadsheetRowReference;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetExpressionReferenceStores;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetLabelStores;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetRangeStores;
+import walkingkooka.spreadsheet.reference.store.TargetAndSpreadsheetCellReference;
+import walkingkooka.spreadsheet.security.User;
+import walkingkooka.spreadsheet.security.UserId;
+import walkingkooka.spreadsheet.security.store.SpreadsheetGroupStores;
+import walkingkooka.spreadsheet.security.store.SpreadsheetUserStores;
+import walkingkooka.spreadsheet.store.SpreadsheetCellStores;
+import walkingkooka.tree.expression.Expression;
+import walkingkooka.tree.expression.ExpressionNumberContexts;
+import walkingkooka.tree.expression.ExpressionNumberKind;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContexts;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContexts;
+import walkingkooka.tree.text.FontWeight;
+import walkingkooka.tree.text.TextStyle;
+import walkingkooka.tree.text.TextStylePropertyName;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.MathContext;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class DurableSpreadsheetStoreRepositoryTest implements SpreadsheetStoreRepositoryTesting<DurableSpreadsheetStoreRepository> {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    public void testWithNullDirectoryFails() {
+        assertThrows(NullPointerException.class, () -> DurableSpreadsheetStoreRepository.with(null, this.repository(), this.styles(), this.marshallContext(), this.unmarshallContext()));
+    }
+
+    @Test
+    public void testWithNullRepositoryFails() {
+        assertThrows(NullPointerException.class, () -> DurableSpreadsheetStoreRepository.with(this.temp, null, this.styles(), this.marshallContext(), this.unmarshallContext()));
+    }
+
+    @Test
+    public void testWithNullStylesFails() {
+        assertThrows(NullPointerException.class, () -> DurableSpreadsheetStoreRepository.with(this.temp, this.repository(), null, this.marshallContext(), this.unmarshallContext()));
+    }
+
+    @Test
+    public void testWithInvalidSnapshotEveryFails() {
+        assertThrows(IllegalArgumentException.class, () -> DurableSpreadsheetStoreRepository.with(this.temp, this.repository(), this.styles(), 0, this.marshallContext(), this.unmarshallContext()));
+    }
+
+    @Test
+    public void testWithNullMarshallContextFails() {
+        assertThrows(NullPointerException.class, () -> DurableSpreadsheetStoreRepository.with(this.temp, this.repository(), this.styles(), null, this.unmarshallContext()));
+    }
+
+    @Test
+    public void testWithNullUnmarshallContextFails() {
+        assertThrows(NullPointerException.class, () -> DurableSpreadsheetStoreRepository.with(this.temp, this.repository(), this.styles(), this.marshallContext(), null));
+    }
+
+    @Test
+    public void testReopenCells() {
+        final Path directory = this.directory();
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.cells().save(this.cell("A1"));
+        repository.cells().save(this.cell("B2"));
+        repository.cells().save(this.cell("C3"));
+        repository.cells().delete(SpreadsheetCellReference.parseCellReference("B2"));
+        repository.cells().save(this.cell("A1").setFormula(SpreadsheetFormula.with("4+5")));
+
+        this.cellsAndCheck(this.createStoreRepository(directory),
+                this.cell("A1").setFormula(SpreadsheetFormula.with("4+5")),
+                this.cell("C3"));
+    }
+
+    @Test
+    public void testReopenLabels() {
+        final Path directory = this.directory();
+        final SpreadsheetLabelMapping mapping = this.mapping("Label1");
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.labels().save(mapping);
+        repository.labels().save(this.mapping("Label2"));
+        repository.labels().delete(SpreadsheetExpressionReference.labelName("Label2"));
+
+        final DurableSpreadsheetStoreRepository reopened = this.createStoreRepository(directory);
+        assertEquals(Optional.of(mapping), reopened.labels().load(mapping.label()));
+        assertEquals(1, reopened.labels().count(), "count");
+    }
+
+    @Test
+    public void testReopenCellReferences() {
+        final Path directory = this.directory();
+        final SpreadsheetCellReference a1 = SpreadsheetCellReference.parseCellReference("A1");
+        final SpreadsheetCellReference b2 = SpreadsheetCellReference.parseCellReference("B2");
+        final SpreadsheetCellReference c3 = SpreadsheetCellReference.parseCellReference("C3");
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.cellReferences().saveReferences(a1, Sets.of(b2, c3));
+        repository.cellReferences().removeReference(TargetAndSpreadsheetCellReference.with(a1, c3));
+
+        assertEquals(Optional.of(Sets.of(b2)), this.createStoreRepository(directory).cellReferences().load(a1));
+    }
+
+    @Test
+    public void testReopenLabelReferences() {
+        final Path directory = this.directory();
+        final SpreadsheetLabelName label = SpreadsheetExpressionReference.labelName("Label1");
+        final SpreadsheetCellReference b2 = SpreadsheetCellReference.parseCellReference("B2");
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.labelReferences().addReference(TargetAndSpreadsheetCellReference.with(label, b2));
+
+        assertEquals(Optional.of(Sets.of(b2)), this.createStoreRepository(directory).labelReferences().load(label));
+    }
+
+    @Test
+    public void testReopenRangeToCells() {
+        final Path directory = this.directory();
+        final SpreadsheetRange range = SpreadsheetExpressionReference.parseRange("A1:B2");
+        final SpreadsheetCellReference c3 = SpreadsheetCellReference.parseCellReference("C3");
+        final SpreadsheetCellReference d4 = SpreadsheetCellReference.parseCellReference("D4");
+        final SpreadsheetCellReference e5 = SpreadsheetCellReference.parseCellReference("E5");
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.rangeToCells().addValue(range, c3);
+        repository.rangeToCells().addValue(range, d4);
+        repository.rangeToCells().replaceValue(range, e5, d4);
+
+        assertEquals(Optional.of(Lists.of(c3, e5)), this.createStoreRepository(directory).rangeToCells().load(range));
+    }
+
+    @Test
+    public void testReopenRangeToCellsDeleted() {
+        final Path directory = this.directory();
+        final SpreadsheetRange range = SpreadsheetExpressionReference.parseRange("A1:B2");
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.rangeToCells().addValue(range, SpreadsheetCellReference.parseCellReference("C3"));
+        repository.rangeToCells().delete(range);
+
+        assertEquals(0, this.createStoreRepository(directory).rangeToCells().count());
+    }
+
+    @Test
+    public void testReopenUsers() {
+        final Path directory = this.directory();
+        final User user = User.with(Optional.of(UserId.with(1)), EmailAddress.parse("user@example.com"));
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.users().save(user);
+
+        assertEquals(Optional.of(user), this.createStoreRepository(directory).users().load(UserId.with(1)));
+    }
+
+    @Test
+    public void testReopenAfterSnapshot() {
+        final Path directory = this.directory();
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.cells().save(this.cell("A1"));
+        repository.cells().save(this.cell("B2"));
+        repository.labels().save(this.mapping("Label1"));
+        repository.snapshot();
+
+        repository.cells().save(this.cell("C3"));
+        repository.cells().delete(SpreadsheetCellReference.parseCellReference("A1"));
+
+        final DurableSpreadsheetStoreRepository reopened = this.createStoreRepository(directory);
+        this.cellsAndCheck(reopened, this.cell("B2"), this.cell("C3"));
+        assertEquals(1, reopened.labels().count(), "labels");
+    }
+
+    @Test
+    public void testSnapshotEvery() {
+        final Path directory = this.directory();
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository(directory, 2);
+        repository.cells().save(this.cell("A1"));
+        repository.cells().save(this.cell("B2"));
+        repository.cells().save(this.cell("C3"));
+
+        assertTrue(Files.exists(directory.resolve("snapshot")), "snapshot");
+        this.cellsAndCheck(this.createStoreRepository(directory, 2), this.cell("A1"), this.cell("B2"), this.cell("C3"));
+    }
+
+    @Test
+    public void testReopenAfterShift() {
+        final Path directory = this.directory();
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.cells().save(this.cell("A1"));
+        repository.cells().save(this.cell("B1"));
+        repository.cells().shiftColumns(SpreadsheetColumnReference.parseColumn("B"), 2);
+
+        assertFalse(Files.exists(directory.resolve("snapshot")), "snapshot");
+        this.cellsAndCheck(this.createStoreRepository(directory), this.cell("A1"), this.cell("D1"));
+    }
+
+    @Test
+    public void testReopenAfterShiftRowsNegative() {
+        final Path directory = this.directory();
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.cells().save(this.cell("A1"));
+        repository.cells().save(this.cell("A2"));
+        repository.cells().save(this.cell("A4"));
+        repository.cells().shiftRows(SpreadsheetRowReference.parseRow("3"), -1);
+        repository.cells().save(this.cell("B1"));
+
+        assertFalse(Files.exists(directory.resolve("snapshot")), "snapshot");
+        this.cellsAndCheck(this.createStoreRepository(directory), this.cell("A1"), this.cell("A3"), this.cell("B1"));
+    }
+
+    @Test
+    public void testReopenAfterShiftAndSnapshot() {
+        final Path directory = this.directory();
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.cells().save(this.cell("A1"));
+        repository.cells().save(this.cell("B1"));
+        repository.snapshot();
+        repository.cells().shiftColumns(SpreadsheetColumnReference.parseColumn("A"), 1);
+
+        this.cellsAndCheck(this.createStoreRepository(directory), this.cell("B1"), this.cell("C1"));
+    }
+
+    @Test
+    public void testReopenConditionalFormattingRules() {
+        final Path directory = this.directory();
+        final SpreadsheetRange range = SpreadsheetExpressionReference.parseRange("A1:B2");
+        final SpreadsheetConditionalFormattingRule rule1 = this.rule("Rule1", 1);
+        final SpreadsheetConditionalFormattingRule rule2 = this.rule("Rule2", 2);
+        final SpreadsheetConditionalFormattingRule rule3 = this.rule("Rule3", -3);
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.rangeToConditionalFormattingRules().addValue(range, rule1);
+        repository.rangeToConditionalFormattingRules().addValue(range, rule2);
+        repository.rangeToConditionalFormattingRules().replaceValue(range, rule3, rule2);
+
+        assertEquals(Optional.of(Lists.of(rule1, rule3)),
+                this.createStoreRepository(directory).rangeToConditionalFormattingRules().load(range));
+    }
+
+    @Test
+    public void testReopenConditionalFormattingRulesAfterSnapshot() {
+        final Path directory = this.directory();
+        final SpreadsheetRange range = SpreadsheetExpressionReference.parseRange("A1:B2");
+        final SpreadsheetConditionalFormattingRule rule = this.rule("Rule1", 1);
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.rangeToConditionalFormattingRules().addValue(range, rule);
+        repository.rangeToConditionalFormattingRules().addValue(SpreadsheetExpressionReference.parseRange("C3:D4"), rule);
+        repository.rangeToConditionalFormattingRules().delete(SpreadsheetExpressionReference.parseRange("C3:D4"));
+        repository.snapshot();
+
+        final DurableSpreadsheetStoreRepository reopened = this.createStoreRepository(directory);
+        assertEquals(Optional.of(Lists.of(rule)), reopened.rangeToConditionalFormattingRules().load(range));
+        assertEquals(1, reopened.rangeToConditionalFormattingRules().count(), "count");
+    }
+
+    @Test
+    public void testAddConditionalFormattingRuleUnknownStyleFails() {
+        final SpreadsheetRange range = SpreadsheetExpressionReference.parseRange("A1:B2");
+        final SpreadsheetConditionalFormattingRule rule = this.rule("Rule1", 1)
+                .setStyle((c) -> TextStyle.EMPTY);
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository();
+        assertThrows(SpreadsheetStoreRepositoryException.class, () -> repository.rangeToConditionalFormattingRules().addValue(range, rule));
+        assertEquals(0, repository.rangeToConditionalFormattingRules().count(), "count");
+    }
+
+    @Test
+    public void testWithDurableCellsDoesNotRecordCells() {
+        final Path directory = this.directory();
+
+        final DurableSpreadsheetStoreRepository repository = DurableSpreadsheetStoreRepository.withDurableCells(directory, this.repository(), this.styles(), this.marshallContext(), this.unmarshallContext());
+        repository.cells().save(this.cell("A1"));
+        repository.labels().save(this.mapping("Label1"));
+
+        final DurableSpreadsheetStoreRepository reopened = this.createStoreRepository(directory);
+        assertEquals(0, reopened.cells().count(), "cells");
+        assertEquals(1, reopened.labels().count(), "labels");
+    }
+
+    @Test
+    public void testCloseThenSaveFails() {
+        final Path directory = this.directory();
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.cells().save(this.cell("A1"));
+        repository.close();
+
+        assertThrows(SpreadsheetStoreRepositoryException.class, () -> repository.cells().save(this.cell("B2")));
+        this.cellsAndCheck(this.createStoreRepository(directory), this.cell("A1"));
+    }
+
+    @Test
+    public void testReopenTornLog() throws IOException {
+        final Path directory = this.directory();
+
+        final DurableSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.cells().save(this.cell("A1"));
+
+        Files.write(directory.resolve("log-00000000"), new byte[]{0, 0, 0, 99, 1, 2}, StandardOpenOption.APPEND);
+
+        final DurableSpreadsheetStoreRepository reopened = this.createStoreRepository(directory);
+        reopened.cells().save(this.cell("B2"));
+
+        this.cellsAndCheck(this.createStoreRepository(directory), this.cell("A1"), this.cell("B2"));
+    }
+
+    private void cellsAndCheck(final DurableSpreadsheetStoreRepository repository,
+                               final SpreadsheetCell... cells) {
+        assertEquals(Lists.of(cells),
+                repository.cells().values(SpreadsheetCellReference.parseCellReference("A1"), Integer.MAX_VALUE),
+                () -> "cells " + repository);
+    }
+
+    private SpreadsheetCell cell(final String reference) {
+        return SpreadsheetCell.with(SpreadsheetCellReference.parseCellReference(reference), SpreadsheetFormula.with("1+2"));
+    }
+
+    private SpreadsheetConditionalFormattingRule rule(final String description,
+                                                      final int priority) {
+        return SpreadsheetConditionalFormattingRule.with(SpreadsheetDescription.with(description),
+                priority,
+                SpreadsheetFormula.with("true")
+                        .setExpression(Optional.of(Expression.booleanExpression(true))),
+                STYLE);
+    }
+
+    private final static Function<SpreadsheetCell, TextStyle> STYLE = (c) -> TextStyle.with(Maps.of(TextStylePropertyName.FONT_WEIGHT, FontWeight.BOLD));
+
+    private Map<String, Function<SpreadsheetCell, TextStyle>> styles() {
+        return Maps.of("bold", STYLE);
+    }
+
+    private SpreadsheetLabelMapping mapping(final String label) {
+        return SpreadsheetLabelMapping.with(SpreadsheetExpressionReference.labelName(label), SpreadsheetCellReference.parseCellReference("A1"));
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final Path directory = this.directory();
+        final SpreadsheetStoreRepository repository = this.repository();
+
+        this.toStringAndCheck(DurableSpreadsheetStoreRepository.with(directory, repository, this.styles(), this.marshallContext(), this.unmarshallContext()),
+                directory + " 0 " + repository);
+    }
+
+    @Override
+    public DurableSpreadsheetStoreRepository createStoreRepository() {
+        return this.createStoreRepository(this.directory());
+    }
+
+    private DurableSpreadsheetStoreRepository createStoreRepository(final Path directory) {
+        return DurableSpreadsheetStoreRepository.with(directory, this.repository(), this.styles(), this.marshallContext(), this.unmarshallContext());
+    }
+
+    private DurableSpreadsheetStoreRepository createStoreRepository(final Path directory,
+                                                                    final int snapshotEvery) {
+        return DurableSpreadsheetStoreRepository.with(directory, this.repository(), this.styles(), snapshotEvery, this.marshallContext(), this.unmarshallContext());
+    }
+
+    private SpreadsheetStoreRepository repository() {
+        return SpreadsheetStoreRepositories.basic(SpreadsheetCellStores.treeMap(),
+                SpreadsheetExpressionReferenceStores.treeMap(),
+                SpreadsheetGroupStores.treeMap(),
+                SpreadsheetLabelStores.treeMap(),
+                SpreadsheetExpressionReferenceStores.treeMap(),
+                SpreadsheetMetadataStores.treeMap(),
+                SpreadsheetRangeStores.treeMap(),
+                SpreadsheetRangeStores.treeMap(),
+                SpreadsheetUserStores.treeMap());
+    }
+
+    private Path directory() {
+        try {
+            return Files.createTempDirectory(this.temp, "repository");
+        } catch (final IOException cause) {
+            throw new UncheckedIOException(cause);
+        }
+    }
+
+    private JsonNodeMarshallContext marshallContext() {
+        return JsonNodeMarshallContexts.basic();
+    }
+
+    private JsonNodeUnmarshallContext unmarshallContext() {
+        return JsonNodeUnmarshallContexts.basic(ExpressionNumberContexts.basic(ExpressionNumberKind.DEFAULT, MathContext.DECIMAL32));
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<DurableSpreadsheetStoreRepository> type() {
+        return DurableSpreadsheetStoreRepository.class;
+    }
+
+    // TypeNameTesting..................................................................................................
+
+    @Override
+    public String typeNamePrefix() {
+        return "Durable";
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.store.repo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.spreadsheet.SpreadsheetCell;
+import walkingkooka.spreadsheet.SpreadsheetFormula;
+import walkingkooka.spreadsheet.meta.store.SpreadsheetMetadataStores;
+import walkingkooka.spreadsheet.reference.SpreadsheetCellReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetExpressionReference;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelMapping;
+import walkingkooka.spreadsheet.reference.SpreadsheetLabelName;
+import walkingkooka.spreadsheet.reference.SpreadsheetRange;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetExpressionReferenceStores;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetLabelStores;
+import walkingkooka.spreadsheet.reference.store.SpreadsheetRangeStores;
+import walkingkooka.spreadsheet.reference.store.TargetAndSpreadsheetCellReference;
+import walkingkooka.spreadsheet.security.store.SpreadsheetGroupStores;
+import walkingkooka.spreadsheet.security.store.SpreadsheetUserStores;
+import walkingkooka.spreadsheet.store.SpreadsheetCellStoreException;
+import walkingkooka.spreadsheet.store.SpreadsheetCellStores;
+import walkingkooka.tree.expression.Expression;
+import walkingkooka.tree.expression.ExpressionNumberContexts;
+import walkingkooka.tree.expression.ExpressionNumberKind;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContexts;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContext;
+import walkingkooka.tree.json.marshall.JsonNodeUnmarshallContexts;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.MathContext;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class MappedSpreadsheetCellStoreSpreadsheetStoreRepositoryTest implements SpreadsheetStoreRepositoryTesting<MappedSpreadsheetCellStoreSpreadsheetStoreRepository> {
+
+    private final static SpreadsheetCellReference A1 = SpreadsheetCellReference.parseCellReference("A1");
+    private final static SpreadsheetCellReference B2 = SpreadsheetCellReference.parseCellReference("B2");
+    private final static SpreadsheetLabelName LABEL = SpreadsheetExpressionReference.labelName("Label1");
+    private final static SpreadsheetRange RANGE = SpreadsheetExpressionReference.parseRange("C3:D4");
+
+    @TempDir
+    Path temp;
+
+    @Test
+    public void testWithNullDirectoryFails() {
+        assertThrows(NullPointerException.class, () -> MappedSpreadsheetCellStoreSpreadsheetStoreRepository.with(null, this.repository(), this.marshallContext(), this.unmarshallContext()));
+    }
+
+    @Test
+    public void testWithNullRepositoryFails() {
+        assertThrows(NullPointerException.class, () -> MappedSpreadsheetCellStoreSpreadsheetStoreRepository.with(this.temp, null, this.marshallContext(), this.unmarshallContext()));
+    }
+
+    @Test
+    public void testWithNullMarshallContextFails() {
+        assertThrows(NullPointerException.class, () -> MappedSpreadsheetCellStoreSpreadsheetStoreRepository.with(this.temp, this.repository(), null, this.unmarshallContext()));
+    }
+
+    @Test
+    public void testWithNullUnmarshallContextFails() {
+        assertThrows(NullPointerException.class, () -> MappedSpreadsheetCellStoreSpreadsheetStoreRepository.with(this.temp, this.repository(), this.marshallContext(), null));
+    }
+
+    @Test
+    public void testReopenCells() {
+        final Path directory = this.directory();
+        final SpreadsheetCell cell = this.cell();
+
+        this.createStoreRepository(directory).cells().save(cell);
+
+        assertEquals(Optional.of(cell), this.createStoreRepository(directory).cells().load(A1));
+    }
+
+    @Test
+    public void testReopenCellReferences() {
+        final Path directory = this.directory();
+
+        this.createStoreRepository(directory).cellReferences().saveReferences(A1, Sets.of(B2));
+
+        assertEquals(Optional.of(Sets.of(B2)), this.createStoreRepository(directory).cellReferences().load(A1));
+    }
+
+    @Test
+    public void testReopenLabelReferences() {
+        final Path directory = this.directory();
+
+        this.createStoreRepository(directory).labelReferences().addReference(TargetAndSpreadsheetCellReference.with(LABEL, A1));
+
+        assertEquals(Optional.of(Sets.of(A1)), this.createStoreRepository(directory).labelReferences().load(LABEL));
+    }
+
+    @Test
+    public void testReopenLabels() {
+        final Path directory = this.directory();
+        final SpreadsheetLabelMapping mapping = SpreadsheetLabelMapping.with(LABEL, A1);
+
+        this.createStoreRepository(directory).labels().save(mapping);
+
+        assertEquals(Optional.of(mapping), this.createStoreRepository(directory).labels().load(LABEL));
+    }
+
+    @Test
+    public void testReopenRangeToCells() {
+        final Path directory = this.directory();
+
+        this.createStoreRepository(directory).rangeToCells().addValue(RANGE, A1);
+
+        assertEquals(Optional.of(Lists.of(A1)), this.createStoreRepository(directory).rangeToCells().load(RANGE));
+    }
+
+    @Test
+    public void testReopenDeletedCell() {
+        final Path directory = this.directory();
+
+        final MappedSpreadsheetCellStoreSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.cells().save(this.cell());
+        repository.cellReferences().saveReferences(A1, Sets.of(B2));
+        repository.cells().delete(A1);
+        repository.cellReferences().delete(A1);
+
+        final MappedSpreadsheetCellStoreSpreadsheetStoreRepository reopened = this.createStoreRepository(directory);
+        assertEquals(0, reopened.cells().count(), "cells");
+        assertEquals(0, reopened.cellReferences().count(), "cellReferences");
+    }
+
+    @Test
+    public void testCellsNotLogged() {
+        final Path directory = this.directory();
+
+        this.createStoreRepository(directory).cells().save(this.cell());
+
+        assertEquals(0,
+                DurableSpreadsheetStoreRepository.with(directory, this.repository(), Maps.empty(), this.marshallContext(), this.unmarshallContext())
+                        .cells()
+                        .count(),
+                "cells replayed from log");
+    }
+
+    @Test
+    public void testCloseThenSaveFails() {
+        final Path directory = this.directory();
+
+        final MappedSpreadsheetCellStoreSpreadsheetStoreRepository repository = this.createStoreRepository(directory);
+        repository.cells().save(this.cell());
+        repository.labels().save(SpreadsheetLabelMapping.with(LABEL, A1));
+        repository.close();
+
+        assertThrows(SpreadsheetStoreRepositoryException.class, () -> repository.labels().save(SpreadsheetLabelMapping.with(LABEL, B2)));
+        assertThrows(SpreadsheetCellStoreException.class, () -> repository.cells().save(this.cell()));
+
+        final MappedSpreadsheetCellStoreSpreadsheetStoreRepository reopened = this.createStoreRepository(directory);
+        assertEquals(Optional.of(this.cell()), reopened.cells().load(A1), "cells");
+        assertEquals(Optional.of(SpreadsheetLabelMapping.with(LABEL, A1)), reopened.labels().load(LABEL), "labels");
+    }
+
+    /**
+     * A1 with a formula referencing B2, a label and a range.
+     */
+    private SpreadsheetCell cell() {
+        return SpreadsheetCell.with(
+                A1,
+                SpreadsheetFormula.with("=B2+Label1+C3:D4")
+                        .setExpression(
+                                Optional.of(
+                                        Expression.add(
+                                                Expression.add(
+                                                        Expression.reference(B2),
+                                                        Expression.reference(LABEL)
+                                                ),
+                                                Expression.reference(RANGE)
+                                        )
+                                )
+                        )
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final Path directory = this.directory();
+        final SpreadsheetStoreRepository repository = this.repository();
+
+        this.toStringAndCheck(MappedSpreadsheetCellStoreSpreadsheetStoreRepository.with(directory, repository, this.marshallContext(), this.unmarshallContext()),
+                directory + " " + repository);
+    }
+
+    @Override
+    public MappedSpreadsheetCellStoreSpreadsheetStoreRepository createStoreRepository() {
+        return this.createStoreRepository(this.directory());
+    }
+
+    private MappedSpreadsheetCellStoreSpreadsheetStoreRepository createStoreRepository(final Path directory) {
+        return MappedSpreadsheetCellStoreSpreadsheetStoreRepository.with(directory, this.repository(), this.marshallContext(), this.unmarshallContext());
+    }
+
+    private SpreadsheetStoreRepository repository() {
+        return SpreadsheetStoreRepositories.basic(SpreadsheetCellStores.treeMap(),
+                SpreadsheetExpressionReferenceStores.treeMap(),
+                SpreadsheetGroupStores.treeMap(),
+                SpreadsheetLabelStores.treeMap(),
+                SpreadsheetExpressionReferenceStores.treeMap(),
+                SpreadsheetMetadataStores.treeMap(),
+                SpreadsheetRangeStores.treeMap(),
+                SpreadsheetRangeStores.treeMap(),
+                SpreadsheetUserStores.treeMap());
+    }
+
+    /**
+     * Each repository gets its own directory, as some tests reopen a directory.
+     */
+    private Path directory() {
+        try {
+            return Files.createTempDirectory(this.temp, "cells");
+        } catch (final IOException cause) {
+            throw new UncheckedIOException(cause);
+        }
+    }
+
+    private JsonNodeMarshallContext marshallContext() {
+        return JsonNodeMarshallContexts.basic();
+    }
+
+    private JsonNodeUnmarshallContext unmarshallContext() {
+        return JsonNodeUnmarshallContexts.basic(ExpressionNumberContexts.basic(ExpressionNumberKind.DEFAULT, MathContext.DECIMAL32));
+    }
+
+    // ClassTesting.....................................................................................................
+
+    @Override
+    public Class<MappedSpreadsheetCellStoreSpreadsheetStoreRepository> type() {
+        return MappedSpreadsheetCellStoreSpreadsheetStoreRepository.class;
+    }
+
+    // TypeNameTesting..................................................................................................
+
+    @Override
+    public String typeNamePrefix() {
+        return "MappedSpreadsheetCellStore";
+    }
+}